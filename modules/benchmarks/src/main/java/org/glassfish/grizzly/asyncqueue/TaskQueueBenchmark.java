@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.asyncqueue;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.glassfish.grizzly.utils.MpscArrayQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link ConcurrentLinkedQueue}, which was used by
+ * {@link TaskQueue} before, with the {@link MpscArrayQueue}, which is used
+ * now, for the write queue access pattern: several threads offer small
+ * records, while one thread drains them in batches (like
+ * <tt>TCPNIOAsyncQueueWriter.aggregate(...)</tt> does).
+ *
+ * The <tt>batch</tt> benchmark measures a single thread offering a batch
+ * of records and draining them, so the per-record allocation and CAS costs
+ * are visible without contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskQueueBenchmark {
+
+    private static final int PRODUCERS = 3;
+
+    // the max number of queued records, so producers don't outrun the consumer
+    private static final long MAX_QUEUED = 4096;
+
+    private static final Object RECORD = new Object();
+
+    @State(Scope.Group)
+    public static class SharedQueue {
+
+        @Param({"concurrent-linked", "mpsc-array"})
+        public String queueType;
+
+        Queue<Object> queue;
+        volatile long consumed;
+
+        final ArrayDeque<Object> batch = new ArrayDeque<Object>(64);
+        final Consumer<Object> batchConsumer = batch::add;
+
+        @Setup
+        public void setup() {
+            queue = createQueue(queueType);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        long produced;
+    }
+
+    @State(Scope.Thread)
+    public static class LocalQueue {
+
+        @Param({"concurrent-linked", "mpsc-array"})
+        public String queueType;
+
+        @Param({"1", "16"})
+        public int batchSize;
+
+        Queue<Object> queue;
+
+        final ArrayDeque<Object> batch = new ArrayDeque<Object>(64);
+        final Consumer<Object> batchConsumer = batch::add;
+
+        @Setup
+        public void setup() {
+            queue = createQueue(queueType);
+        }
+    }
+
+    private static final Predicate<Object> ANY = r -> true;
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(PRODUCERS)
+    public boolean offer(final SharedQueue state, final Producer producer) {
+        // the producers run at the same pace, so estimate the total
+        if (producer.produced * PRODUCERS - state.consumed > MAX_QUEUED) {
+            Thread.yield();
+            return false;
+        }
+
+        producer.produced++;
+        return state.queue.offer(RECORD);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public int drain(final SharedQueue state) {
+        final int count = drain(state.queue, state.batch, state.batchConsumer);
+        state.consumed += count;
+        state.batch.clear();
+        return count;
+    }
+
+    @Benchmark
+    public int batch(final LocalQueue state) {
+        final Queue<Object> queue = state.queue;
+        for (int i = 0; i < state.batchSize; i++) {
+            queue.offer(RECORD);
+        }
+
+        final int count = drain(queue, state.batch, state.batchConsumer);
+        state.batch.clear();
+        return count;
+    }
+
+    private static int drain(final Queue<Object> queue,
+            final ArrayDeque<Object> batch, final Consumer<Object> batchConsumer) {
+        if (queue instanceof MpscArrayQueue) {
+            return ((MpscArrayQueue<Object>) queue).drain(ANY, batchConsumer,
+                    Integer.MAX_VALUE);
+        }
+
+        // the way records were collected before: one poll per record
+        int count = 0;
+        Object record;
+        while ((record = queue.poll()) != null) {
+            batch.add(record);
+            count++;
+        }
+
+        return count;
+    }
+
+    private static Queue<Object> createQueue(final String queueType) {
+        return "mpsc-array".equals(queueType)
+                ? new MpscArrayQueue<Object>(16)
+                : new ConcurrentLinkedQueue<Object>();
+    }
+}
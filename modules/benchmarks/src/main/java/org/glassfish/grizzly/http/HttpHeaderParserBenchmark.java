@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.http;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.glassfish.grizzly.http.util.HttpCodecUtils.checkEOL;
+
+/**
+ * Measures {@link HttpCodecFilter#decodeHttpPacketFromBytes} with the
+ * single pass header line parser (<tt>parser=line</tt>) against the same
+ * filter restricted to the byte by byte header state machine
+ * (<tt>parser=state-machine</tt>).
+ *
+ * The requests are the ones used by {@link HttpCodecFilterBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpHeaderParserBenchmark {
+
+    private static final Charset ASCII = Charset.forName("ASCII");
+
+    @Param({"small", "browser", "post"})
+    public String request;
+
+    @Param({"line", "state-machine"})
+    public String parser;
+
+    private HttpServerFilter filter;
+    private FilterChainContext ctx;
+    private Buffer requestBuffer;
+    private HttpRequestPacket parsedRequest;
+
+    @Setup
+    public void setup() throws IOException {
+        filter = "line".equals(parser)
+                ? new HttpServerFilter()
+                : new StateMachineHttpServerFilter();
+        ctx = FilterChainContext.create(
+                new HttpCodecFilterBenchmark.BenchmarkConnection());
+
+        final String requestText;
+        if ("small".equals(request)) {
+            requestText = HttpCodecFilterBenchmark.SMALL_REQUEST;
+        } else if ("browser".equals(request)) {
+            requestText = HttpCodecFilterBenchmark.BROWSER_REQUEST;
+        } else {
+            requestText = HttpCodecFilterBenchmark.POST_REQUEST;
+        }
+
+        final byte[] requestBytes = requestText.getBytes(ASCII);
+        requestBuffer = Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER,
+                requestBytes);
+
+        // run the request through the filter once to obtain the filter's own
+        // HttpRequestPacket implementation, which is then reused
+        ctx.setMessage(Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER,
+                requestBytes.clone()));
+        filter.handleRead(ctx);
+        parsedRequest = (HttpRequestPacket)
+                ((HttpPacket) ctx.getMessage()).getHttpHeader();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.completeAndRecycle();
+    }
+
+    @Benchmark
+    public HttpRequestPacket decodeHttpPacketFromBytes() {
+        parsedRequest.reset();
+        final HttpPacketParsing parsingState = (HttpPacketParsing) parsedRequest;
+        parsingState.getHeaderParsingState().initialize(filter, 0, 8192);
+        requestBuffer.position(0);
+
+        if (!filter.decodeHttpPacketFromBytes(ctx, parsingState, requestBuffer)) {
+            throw new IllegalStateException("Incomplete request");
+        }
+
+        return parsedRequest;
+    }
+
+    /**
+     * {@link HttpServerFilter}, which parses every header using
+     * {@link HttpCodecFilter#parseHeaderFromBytes} only.
+     */
+    static final class StateMachineHttpServerFilter extends HttpServerFilter {
+
+        @Override
+        protected boolean parseHeadersFromBytes(final HttpHeader httpHeader,
+                final MimeHeaders mimeHeaders,
+                final HeaderParsingState parsingState,
+                final byte[] input, final int end) {
+            do {
+                if (parsingState.subState == 0) {
+                    final int eol = checkEOL(parsingState, input, end);
+                    if (eol == 0) { // EOL
+                        return true;
+                    } else if (eol == -2) { // not enough data
+                        return false;
+                    }
+                }
+
+                if (!parseHeaderFromBytes(httpHeader, mimeHeaders,
+                        parsingState, input, end)) {
+                    return false;
+                }
+            } while (true);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.http.server.util;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.grizzly.http.util.DataChunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Mapper#map(DataChunk, DataChunk, MappingData)} for exact,
+ * prefix, extension and default servlet style mappings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final Charset ASCII = Charset.forName("ASCII");
+
+    private static final String HOST = "localhost";
+
+    @Param({"/app/status", "/app/api/v1/items/42", "/app/pages/index.jsp",
+            "/app/static/css/main.css", "/other/unmapped"})
+    public String uri;
+
+    private Mapper mapper;
+    private byte[] hostBytes;
+    private byte[] uriBytes;
+
+    private final DataChunk hostDC = DataChunk.newInstance();
+    private final DataChunk uriDC = DataChunk.newInstance();
+    private final MappingData mappingData = new MappingData();
+
+    @Setup
+    public void setup() {
+        mapper = new Mapper();
+        mapper.setDefaultHostName(HOST);
+        mapper.addHost(HOST, new String[0], "host");
+
+        mapper.addContext(HOST, "", "root-context", new String[0], null);
+        mapper.addContext(HOST, "/app", "app-context", new String[0], null);
+        mapper.addContext(HOST, "/app/admin", "admin-context", new String[0], null);
+
+        mapper.addWrapper(HOST, "/app", "/status", "exact-wrapper");
+        mapper.addWrapper(HOST, "/app", "/api/*", "prefix-wrapper");
+        mapper.addWrapper(HOST, "/app", "/api/v2/*", "prefix-wrapper-v2");
+        mapper.addWrapper(HOST, "/app", "*.jsp", "extension-wrapper");
+        mapper.addWrapper(HOST, "/app", "/", "default-wrapper");
+        mapper.addWrapper(HOST, "", "/", "root-default-wrapper");
+
+        hostBytes = HOST.getBytes(ASCII);
+        uriBytes = uri.getBytes(ASCII);
+    }
+
+    @Benchmark
+    public Object map() throws Exception {
+        mappingData.recycle();
+        hostDC.setBytes(hostBytes);
+        uriDC.setBytes(uriBytes);
+
+        mapper.map(hostDC, uriDC, mappingData);
+
+        return mappingData.wrapper;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.http.util;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link ByteChunk#toString()} over the header names and values
+ * of a typical browser request with the {@link StringCache} enabled
+ * (<tt>cache=true</tt>) and disabled (<tt>cache=false</tt>).
+ *
+ * Every invocation also converts one value, which is different each time,
+ * so the cost of the misses is part of the result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringCacheBenchmark {
+
+    private static final Charset ASCII = Charset.forName("ASCII");
+
+    static final String[] VOCABULARY = {
+        "GET", "/index.html", "HTTP/1.1",
+        "host", "www.example.com",
+        "user-agent", "Mozilla/5.0 (X11; Linux x86_64; rv:60.0) Gecko/20100101 Firefox/60.0",
+        "accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+        "accept-language", "en-US,en;q=0.5",
+        "accept-encoding", "gzip, deflate",
+        "connection", "keep-alive",
+        "upgrade-insecure-requests", "1",
+        "cache-control", "max-age=0",
+        "if-none-match", "W/\"1234-1530000000000\""
+    };
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private boolean byteEnabled;
+    private ByteChunk[] chunks;
+    private ByteChunk uniqueChunk;
+    private byte[] unique;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        byteEnabled = StringCache.getByteEnabled();
+        StringCache.setByteEnabled(cache);
+        StringCache.reset();
+
+        chunks = new ByteChunk[VOCABULARY.length];
+        for (int i = 0; i < VOCABULARY.length; i++) {
+            final byte[] bytes = VOCABULARY[i].getBytes(ASCII);
+            chunks[i] = new ByteChunk();
+            chunks[i].setBytes(bytes, 0, bytes.length);
+        }
+
+        unique = "0123456789abcdef".getBytes(ASCII);
+        uniqueChunk = new ByteChunk();
+    }
+
+    @TearDown
+    public void tearDown() {
+        StringCache.setByteEnabled(byteEnabled);
+        StringCache.reset();
+    }
+
+    @Benchmark
+    public void toStringVocabulary(final Blackhole blackhole) {
+        for (final ByteChunk chunk : chunks) {
+            // setBytes() drops the String cached by the chunk itself
+            chunk.setBytes(chunk.getBuffer(), chunk.getStart(), chunk.getLength());
+            blackhole.consume(chunk.toString());
+        }
+
+        int c = counter++;
+        for (int i = 0; i < 8; i++) {
+            unique[i] = (byte) ('a' + (c & 0xF));
+            c >>>= 4;
+        }
+        uniqueChunk.setBytes(unique, 0, unique.length);
+        blackhole.consume(uniqueChunk.toString());
+    }
+}
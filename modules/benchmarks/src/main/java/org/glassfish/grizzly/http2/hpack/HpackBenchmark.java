@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.http2.hpack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures HPACK {@link Encoder} and {@link Decoder} throughput for a typical
+ * set of request headers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HpackBenchmark {
+
+    private static final int TABLE_SIZE = 4096;
+
+    static final String[][] HEADERS = {
+        {":method", "GET"},
+        {":scheme", "https"},
+        {":authority", "www.example.com"},
+        {":path", "/static/css/main.css?v=1.4.2"},
+        {"user-agent", "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/66.0.3359.139 Safari/537.36"},
+        {"accept", "text/css,*/*;q=0.1"},
+        {"referer", "https://www.example.com/index.html"},
+        {"accept-encoding", "gzip, deflate, br"},
+        {"accept-language", "en-US,en;q=0.9,de;q=0.8"},
+        {"cookie", "JSESSIONID=0A1B2C3D4E5F60718293A4B5C6D7E8F9"}
+    };
+
+    private Encoder encoder;
+    private Buffer encodeBuffer;
+    private Buffer encodedHeaders;
+
+    @Setup
+    public void setup() {
+        encoder = new Encoder(TABLE_SIZE);
+        encodeBuffer = MemoryManager.DEFAULT_MEMORY_MANAGER.allocate(8192);
+
+        // the encoded header block, used by the decoder benchmark
+        encodedHeaders = MemoryManager.DEFAULT_MEMORY_MANAGER.allocate(8192);
+        encode(new Encoder(TABLE_SIZE), encodedHeaders);
+        encodedHeaders.flip();
+    }
+
+    @Benchmark
+    public int encode() {
+        encodeBuffer.clear();
+        encode(encoder, encodeBuffer);
+        return encodeBuffer.position();
+    }
+
+    @Benchmark
+    public void decode(final Blackhole bh) {
+        final Decoder decoder = new Decoder(TABLE_SIZE);
+        encodedHeaders.position(0);
+        decoder.decode(encodedHeaders, true, new DecodingCallback() {
+            @Override
+            public void onDecoded(final CharSequence name,
+                    final CharSequence value) {
+                bh.consume(name);
+                bh.consume(value);
+            }
+        });
+    }
+
+    private static void encode(final Encoder encoder, final Buffer buffer) {
+        for (String[] header : HEADERS) {
+            encoder.header(header[0], header[1]);
+            if (!encoder.encode(buffer)) {
+                throw new IllegalStateException("Header buffer overflow");
+            }
+        }
+    }
+}
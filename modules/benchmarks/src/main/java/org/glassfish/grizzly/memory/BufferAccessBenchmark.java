@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.memory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.grizzly.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures multi-byte primitive access and {@link Buffer#indexOf(byte)} /
+ * {@link Buffer#indexOf(byte[])} scanning on heap and direct {@link Buffer}s.
+ *
+ * Run with <tt>-Dorg.glassfish.grizzly.memory.Bits.unsafe-access=false</tt>
+ * to compare with the portable byte by byte implementation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferAccessBenchmark {
+
+    private static final byte[] CRLFCRLF = {'\r', '\n', '\r', '\n'};
+
+    @Param({"heap", "direct"})
+    public String memoryManager;
+
+    @Param({"64", "1024"})
+    public int size;
+
+    private Buffer buffer;
+
+    @Setup
+    public void setup() {
+        final MemoryManager mm = "direct".equals(memoryManager)
+                ? new ByteBufferManager(true)
+                : new HeapMemoryManager();
+
+        final byte[] content = new byte[size];
+        Arrays.fill(content, (byte) 'a');
+        System.arraycopy(CRLFCRLF, 0, content, size - CRLFCRLF.length,
+                CRLFCRLF.length);
+
+        buffer = mm.allocate(size);
+        buffer.put(content);
+        buffer.flip();
+    }
+
+    @Benchmark
+    public long getLong() {
+        long sum = 0;
+        for (int i = 0; i <= size - 8; i += 8) {
+            sum += buffer.getLong(i);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public Buffer putLong() {
+        for (int i = 0; i <= size - 8; i += 8) {
+            buffer.putLong(i, i);
+        }
+
+        return buffer;
+    }
+
+    @Benchmark
+    public int indexOfByte() {
+        return buffer.indexOf((byte) '\r');
+    }
+
+    @Benchmark
+    public int indexOfPattern() {
+        return buffer.indexOf(CRLFCRLF);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memory;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.grizzly.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link PooledMemoryManager} allocate/release cycle for
+ * different buffer sizes, both for heap and direct buffers.
+ *
+ * The multi-threaded variant stresses the
+ * {@link PooledMemoryManager.PoolSlice} poll/offer CAS loops.
+ *
+ * The <tt>magazines</tt> mode uses 4 size classes per power-of-two range and
+ * per-thread buffer caches in front of the pool slices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PooledMemoryManagerBenchmark {
+
+    /**
+     * Requested sizes: exact pool size, odd sizes just above the pool size
+     * and a size exceeding the largest pool (composite allocation).
+     */
+    @Param({"512", "4096", "9216", "65536", "131072"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    @Param({"default", "magazines"})
+    public String mode;
+
+    private PooledMemoryManager mm;
+
+    @Setup
+    public void setup() {
+        mm = "magazines".equals(mode)
+                ? new PooledMemoryManager(
+                        PooledMemoryManager.DEFAULT_BASE_BUFFER_SIZE,
+                        PooledMemoryManager.DEFAULT_NUMBER_OF_POOLS,
+                        PooledMemoryManager.DEFAULT_GROWTH_FACTOR,
+                        Runtime.getRuntime().availableProcessors(),
+                        PooledMemoryManager.DEFAULT_HEAP_USAGE_PERCENTAGE,
+                        PooledMemoryManager.DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE,
+                        direct, 4, 16)
+                : new PooledMemoryManager(direct);
+    }
+
+    @Benchmark
+    public Buffer allocateRelease() {
+        final Buffer buffer = mm.allocate(size);
+        mm.release(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Buffer allocateReleaseContended() {
+        final Buffer buffer = mm.allocate(size);
+        mm.release(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Buffer allocateReallocateRelease() {
+        Buffer buffer = mm.allocate(size / 2);
+        buffer = mm.reallocate(buffer, size);
+        mm.release(buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.io.IOException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one {@link SelectorRunner} style select loop iteration
+ * (<tt>selectNow()</tt>, selected keys iteration and clean up) over a set of
+ * always-writable channels, with the default JDK selected-key set and with
+ * {@link SelectedSelectionKeySet}.
+ *
+ * Run with <tt>-prof gc</tt> to compare the allocation rate per loop.
+ * On JDK 9+ the optimized variant requires
+ * <tt>-jvmArgsAppend --add-opens=java.base/sun.nio.ch=ALL-UNNAMED</tt>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectedKeysBenchmark {
+
+    @Param({"16", "256"})
+    public int channels;
+
+    @Param({"false", "true"})
+    public boolean optimized;
+
+    private Selector selector;
+    private Pipe[] pipes;
+
+    @Setup
+    public void setup() throws IOException {
+        selector = Selectors.newSelector(SelectorProvider.provider());
+        if (optimized && !SelectedSelectionKeySet.install(selector)) {
+            throw new IllegalStateException("SelectedSelectionKeySet can't be installed,"
+                    + " on JDK 9+ add --add-opens=java.base/sun.nio.ch=ALL-UNNAMED");
+        }
+
+        pipes = new Pipe[channels];
+        for (int i = 0; i < channels; i++) {
+            pipes[i] = Pipe.open();
+            pipes[i].sink().configureBlocking(false);
+            pipes[i].sink().register(selector, SelectionKey.OP_WRITE);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (Pipe pipe : pipes) {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+        selector.close();
+    }
+
+    @Benchmark
+    public int selectLoop() throws IOException {
+        selector.selectNow();
+        final Set<SelectionKey> selectedKeys = selector.selectedKeys();
+
+        int readyOps = 0;
+        if (selectedKeys instanceof SelectedSelectionKeySet) {
+            final SelectedSelectionKeySet keySet =
+                    (SelectedSelectionKeySet) selectedKeys;
+            final int size = keySet.size();
+            for (int i = 0; i < size; i++) {
+                readyOps += keySet.get(i).readyOps();
+            }
+        } else {
+            final Iterator<SelectionKey> it = selectedKeys.iterator();
+            while (it.hasNext()) {
+                readyOps += it.next().readyOps();
+            }
+        }
+
+        selectedKeys.clear();
+        return readyOps;
+    }
+}
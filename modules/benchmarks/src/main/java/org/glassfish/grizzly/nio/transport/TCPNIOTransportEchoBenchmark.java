@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio.transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.grizzly.IOStrategy;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.memory.HeapMemoryManager;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.memory.PooledMemoryManager;
+import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
+import org.glassfish.grizzly.utils.EchoFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the loopback round trip of a message through a
+ * {@link TCPNIOTransport} running a {@link TransportFilter} +
+ * {@link EchoFilter} chain.
+ *
+ * The client side uses plain blocking sockets, so the measured cost is
+ * dominated by the server-side selector, read, filter chain and async write
+ * paths.
+ *
+ * Run with <tt>-prof gc</tt> to check the server-side allocations per round
+ * trip: with the same-thread strategy and the optimized selected keys the
+ * echo path is expected not to allocate at all. The optimized selected keys
+ * need <tt>--add-opens=java.base/sun.nio.ch=ALL-UNNAMED</tt> on JDK 9+,
+ * otherwise the transport silently falls back to the default key set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TCPNIOTransportEchoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"same-thread", "worker-thread"})
+        public String ioStrategy;
+
+        @Param({"heap", "pooled"})
+        public String memoryManager;
+
+        @Param({"false", "true"})
+        public boolean optimizedSelectedKeys;
+
+        TCPNIOTransport transport;
+        InetSocketAddress address;
+
+        @Setup
+        public void setup() throws IOException {
+            final IOStrategy strategy = "same-thread".equals(ioStrategy)
+                    ? SameThreadIOStrategy.getInstance()
+                    : WorkerThreadIOStrategy.getInstance();
+            final MemoryManager mm = "pooled".equals(memoryManager)
+                    ? new PooledMemoryManager()
+                    : new HeapMemoryManager();
+
+            transport = TCPNIOTransportBuilder.newInstance()
+                    .setIOStrategy(strategy)
+                    .setMemoryManager(mm)
+                    .setTcpNoDelay(true)
+                    .setOptimizedSelectedKeys(optimizedSelectedKeys)
+                    .build();
+            transport.setProcessor(FilterChainBuilder.stateless()
+                    .add(new TransportFilter())
+                    .add(new EchoFilter())
+                    .build());
+
+            final TCPNIOServerConnection serverConnection =
+                    transport.bind("127.0.0.1", 0);
+            address = (InetSocketAddress) serverConnection.getLocalAddress();
+            transport.start();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            transport.shutdownNow();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        @Param({"64", "1024", "16384"})
+        public int messageSize;
+
+        Socket socket;
+        OutputStream out;
+        InputStream in;
+        byte[] message;
+        byte[] response;
+
+        @Setup(Level.Trial)
+        public void setup(final Server server) throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(server.address);
+            out = socket.getOutputStream();
+            in = socket.getInputStream();
+
+            message = new byte[messageSize];
+            Arrays.fill(message, (byte) 'a');
+            response = new byte[messageSize];
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Benchmark
+    public int roundTrip(final Client client) throws IOException {
+        return echo(client);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int roundTripConcurrentClients(final Client client) throws IOException {
+        return echo(client);
+    }
+
+    private static int echo(final Client client) throws IOException {
+        client.out.write(client.message);
+        client.out.flush();
+
+        final byte[] response = client.response;
+        int read = 0;
+        while (read < response.length) {
+            final int n = client.in.read(response, read, response.length - read);
+            if (n < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+            read += n;
+        }
+
+        return read;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.utils;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of a single {@link DelayedExecutor} check (tick) for the
+ * default scanning implementation and the {@link TimingWheelDelayedExecutor}.
+ *
+ * The queue is populated with elements, whose timeouts are evenly distributed
+ * over the idle timeout period, similar to keep-alive connections tracked
+ * by {@link IdleTimeoutFilter}. Each element is considered active, so once
+ * its timeout is reached - the timeout is postponed by the idle timeout period
+ * (like {@link IdleTimeoutFilter} does on each request), and the number of
+ * tracked elements stays constant.
+ * The executor thread is not started, each benchmark invocation simulates
+ * the next tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelayedExecutorBenchmark {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final long IDLE_TIMEOUT_MILLIS = 30 * TICK_MILLIS;
+
+    @Param({"scan", "timing-wheel"})
+    public String executorType;
+
+    @Param({"10000", "200000"})
+    public int elements;
+
+    private ExecutorService threadPool;
+    private DelayedExecutor executor;
+    private long currentTimeMillis;
+
+    @Setup
+    public void setup() {
+        threadPool = Executors.newSingleThreadExecutor();
+        executor = "scan".equals(executorType)
+                ? new DelayedExecutor(threadPool, TICK_MILLIS, TimeUnit.MILLISECONDS)
+                : new TimingWheelDelayedExecutor(threadPool, TICK_MILLIS, TimeUnit.MILLISECONDS);
+
+        currentTimeMillis = System.currentTimeMillis();
+        
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(new ElementWorker(), new ElementResolver());
+
+        final Random random = new Random(0);
+        for (int i = 0; i < elements; i++) {
+            queue.add(new Element(), random.nextInt((int) IDLE_TIMEOUT_MILLIS),
+                    TimeUnit.MILLISECONDS);
+        }
+
+        // place the elements
+        executor.processQueues(currentTimeMillis);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.destroy();
+        threadPool.shutdownNow();
+    }
+
+    @Benchmark
+    public long tick() {
+        currentTimeMillis += TICK_MILLIS;
+        executor.processQueues(currentTimeMillis);
+        return currentTimeMillis;
+    }
+
+    private static final class Element {
+        private long timeoutMillis = DelayedExecutor.UNSET_TIMEOUT;
+    }
+
+    private final class ElementWorker implements DelayedExecutor.Worker<Element> {
+
+        @Override
+        public boolean doWork(final Element element) {
+            throw new IllegalStateException("Active element has been expired");
+        }
+    }
+
+    private final class ElementResolver
+            implements DelayedExecutor.Resolver<Element> {
+
+        @Override
+        public boolean removeTimeout(final Element element) {
+            element.timeoutMillis = DelayedExecutor.UNSET_TIMEOUT;
+            return true;
+        }
+
+        @Override
+        public long getTimeoutMillis(final Element element) {
+            // simulate the activity, which happened since the timeout was set
+            while (element.timeoutMillis - currentTimeMillis <= 0) {
+                element.timeoutMillis += IDLE_TIMEOUT_MILLIS;
+            }
+            return element.timeoutMillis;
+        }
+
+        @Override
+        public void setTimeoutMillis(final Element element,
+                final long timeoutMillis) {
+            element.timeoutMillis = timeoutMillis;
+        }
+    }
+}
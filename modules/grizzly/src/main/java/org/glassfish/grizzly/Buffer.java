@@ -423,6 +423,37 @@ public interface Buffer extends Comparable<Buffer>, WritableMessage {
      */
     Buffer put(int index, byte b);
 
+    /**
+     * Finds the first occurrence of the given byte between this buffer's
+     * position (inclusive) and limit (exclusive).
+     * Neither the position nor the limit of this buffer is modified.
+     *
+     * @param  b
+     *         The byte value to search for
+     *
+     * @return  The absolute index of the first occurrence of the byte,
+     *          or <tt>-1</tt> if the byte was not found
+     *
+     * @since 2.4.5
+     */
+    int indexOf(byte b);
+
+    /**
+     * Finds the first occurrence of the given byte sequence between this
+     * buffer's position (inclusive) and limit (exclusive).
+     * Neither the position nor the limit of this buffer is modified.
+     *
+     * @param  pattern
+     *         The byte sequence to search for
+     *
+     * @return  The absolute index of the first byte of the first occurrence
+     *          of the sequence, or <tt>-1</tt> if the sequence was not found.
+     *          If the sequence is empty - the buffer's position is returned
+     *
+     * @since 2.4.5
+     */
+    int indexOf(byte[] pattern);
+
     // -- Bulk get operations --
 
     /**
@@ -108,6 +108,33 @@ public interface ConnectionProbe {
      */
     void onIOEventDisableEvent(Connection connection, IOEvent ioEvent);
 
+    /**
+     * Method will be called, when the {@link Connection} has read data into
+     * a buffer, which size has been predicted based on the previous reads
+     * (see {@link org.glassfish.grizzly.nio.transport.TCPNIOTransport#setAdaptiveReadBufferSize(boolean)}).
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param predictedSize the number of bytes the read operation could read.
+     * @param readSize the number of bytes actually read.
+     *
+     * @since 2.4.5
+     */
+    void onReadSizePredictionEvent(Connection connection, int predictedSize,
+            int readSize);
+
+    /**
+     * Method will be called, when the async write queue of the
+     * {@link Connection} has reached the high watermark, so the
+     * <tt>Connection</tt> has become unwritable
+     * (see {@link org.glassfish.grizzly.nio.NIOConnection#setWriteWatermarks(int, int)}).
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param queueSize the number of bytes queued for writing.
+     *
+     * @since 2.4.5
+     */
+    void onWriteStallEvent(Connection connection, int queueSize);
+
 
     // ---------------------------------------------------------- Nested Classes
 
@@ -183,6 +210,19 @@ public interface ConnectionProbe {
         @Override
         public void onIOEventDisableEvent(Connection connection, IOEvent ioEvent) {}
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onReadSizePredictionEvent(Connection connection,
+                int predictedSize, int readSize) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onWriteStallEvent(Connection connection, int queueSize) {}
+
     } // END Adapter
 
 }
@@ -19,12 +19,17 @@ package org.glassfish.grizzly;
 
 import org.glassfish.grizzly.asyncqueue.WritableMessage;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.WritableByteChannel;
+import org.glassfish.grizzly.memory.ByteBufferArray;
+import org.glassfish.grizzly.nio.DirectByteBufferRecord;
 
 /**
  * A simple class that abstracts {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
@@ -33,10 +38,18 @@ import java.nio.channels.WritableByteChannel;
  * @since 2.2
  */
 public class FileTransfer implements WritableMessage {
+
+    /**
+     * The max size of the file region, which is read and written together
+     * with the {@link #getHeader() header} using a single gathering write.
+     */
+    private static final int MAX_GATHERED_FILE_SIZE = Integer.getInteger(
+            FileTransfer.class.getName() + ".max-gathered-file-size", 16384);
     
     private FileChannel fileChannel;
     private long len;
     private long pos;
+    private Buffer header;
     
     
     // ------------------------------------------------------------ Constructors
@@ -123,11 +136,159 @@ public class FileTransfer implements WritableMessage {
      * @see java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel) 
      */
     public long writeTo(final WritableByteChannel c) throws IOException {
+        final Buffer h = header;
+        if (h != null && h.hasRemaining()) {
+            return writeHeaderAndFileTo(c, h);
+        }
+        
         final long written = fileChannel.transferTo(pos, len, c);
         pos += written;
         len -= written;
         return written;
     }
+
+    /**
+     * Reads the next portion of the {@link #getHeader() header} and the
+     * file content into the passed {@link Buffer}. The method is used, when
+     * the content can't be transferred to a channel directly, for example
+     * if it has to be encrypted first.
+     *
+     * @param dst the {@link Buffer} to read the content to
+     * @return the number of bytes read
+     * @throws IOException if an error occurs while reading the file
+     *
+     * @since 2.4.5
+     */
+    public int readTo(final Buffer dst) throws IOException {
+        int read = 0;
+
+        final Buffer h = header;
+        if (h != null && h.hasRemaining()) {
+            final int headerSize = Math.min(h.remaining(), dst.remaining());
+            final int oldLim = h.limit();
+            h.limit(h.position() + headerSize);
+            dst.put(h);
+            h.limit(oldLim);
+            read += headerSize;
+        }
+
+        if (len == 0 || !dst.hasRemaining()) {
+            return read;
+        }
+
+        final int oldLim = dst.limit();
+        if (dst.remaining() > len) {
+            dst.limit(dst.position() + (int) len);
+        }
+
+        final ByteBufferArray array = dst.toByteBufferArray();
+        int fileRead = 0;
+        try {
+            final ByteBuffer[] byteBuffers = array.getArray();
+            for (int i = 0, size = array.size(); i < size; i++) {
+                final ByteBuffer byteBuffer = byteBuffers[i];
+                while (byteBuffer.hasRemaining()) {
+                    final int n = fileChannel.read(byteBuffer, pos + fileRead);
+                    if (n < 0) {
+                        throw new EOFException("Unexpected end of file");
+                    }
+                    fileRead += n;
+                }
+            }
+        } finally {
+            array.restore();
+            array.recycle();
+            dst.limit(oldLim);
+        }
+
+        dst.position(dst.position() + fileRead);
+        pos += fileRead;
+        len -= fileRead;
+        
+        return read + fileRead;
+    }
+
+    /**
+     * @return the {@link Buffer} to be written before the file content, or
+     *          <tt>null</tt> if there is no header.
+     *
+     * @since 2.4.5
+     */
+    public Buffer getHeader() {
+        return header;
+    }
+
+    /**
+     * Sets the {@link Buffer} to be written before the file content, for
+     * example an encoded HTTP response header. If the file region is small,
+     * the header and the file content are written using a single gathering
+     * write, otherwise the header is written right before the file transfer.
+     * The header is disposed, when this <code>FileTransfer</code> gets released.
+     *
+     * @param header the {@link Buffer} to be written before the file content.
+     *
+     * @since 2.4.5
+     */
+    public void setHeader(final Buffer header) {
+        this.header = header;
+    }
+
+
+    // --------------------------------------------------------- Private Methods
+
+
+    private long writeHeaderAndFileTo(final WritableByteChannel c,
+            final Buffer h) throws IOException {
+        final int headerSize = h.remaining();
+        final ByteBuffer headerByteBuffer = h.toByteBuffer();
+
+        if (len == 0 || len > MAX_GATHERED_FILE_SIZE
+                || !(c instanceof GatheringByteChannel)) {
+            final int written = c.write(headerByteBuffer);
+            h.position(h.position() + written);
+
+            if (written < headerSize || len == 0) {
+                return written;
+            }
+
+            final long fileWritten = fileChannel.transferTo(pos, len, c);
+            pos += fileWritten;
+            len -= fileWritten;
+            return written + fileWritten;
+        }
+
+        // the file region is small, read it and write it together with the
+        // header, so the whole message is sent using a single write
+        final int fileSize = (int) len;
+        final DirectByteBufferRecord ioRecord = DirectByteBufferRecord.get();
+        try {
+            final ByteBuffer fileByteBuffer = ioRecord.allocate(fileSize);
+            fileByteBuffer.limit(fileByteBuffer.position() + fileSize);
+            final int filePos = fileByteBuffer.position();
+            
+            while (fileByteBuffer.hasRemaining()) {
+                if (fileChannel.read(fileByteBuffer,
+                        pos + fileByteBuffer.position() - filePos) < 0) {
+                    throw new EOFException("Unexpected end of file");
+                }
+            }
+            fileByteBuffer.position(filePos);
+
+            final long written = ((GatheringByteChannel) c).write(
+                    new ByteBuffer[] {headerByteBuffer, fileByteBuffer});
+
+            final int headerWritten = (int) Math.min(written, headerSize);
+            h.position(h.position() + headerWritten);
+            
+            final long fileWritten = written - headerWritten;
+            pos += fileWritten;
+            len -= fileWritten;
+            
+            return written;
+        } finally {
+            ioRecord.release();
+        }
+    }
     
     
     // ------------------------------------------ Methods from WritableMessage
@@ -138,7 +299,7 @@ public class FileTransfer implements WritableMessage {
      */
     @Override
     public boolean hasRemaining() {
-        return (len != 0);
+        return (len != 0 || (header != null && header.hasRemaining()));
     }
 
 
@@ -147,7 +308,8 @@ public class FileTransfer implements WritableMessage {
      */
     @Override
     public int remaining() {
-        return ((len > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) len);
+        final long total = header != null ? len + header.remaining() : len;
+        return ((total > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) total);
     }
 
 
@@ -161,6 +323,11 @@ public class FileTransfer implements WritableMessage {
         } catch (IOException ignored) {
         } finally {
             fileChannel = null;
+            
+            if (header != null) {
+                header.tryDispose();
+                header = null;
+            }
         }
         return true;
     }
@@ -23,6 +23,7 @@ import java.util.concurrent.TimeUnit;
 import org.glassfish.grizzly.asyncqueue.AsyncQueueWriter;
 import org.glassfish.grizzly.attributes.AttributeBuilder;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.LoadAwareConnectionDistributor;
 import org.glassfish.grizzly.nio.NIOChannelDistributor;
 import org.glassfish.grizzly.nio.NIOTransport;
 import org.glassfish.grizzly.nio.SelectionKeyHandler;
@@ -59,6 +60,8 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
     protected IOStrategy ioStrategy = WorkerThreadIOStrategy.getInstance();
     protected int selectorRunnerCount = NIOTransport.DEFAULT_SELECTOR_RUNNER_COUNT;
     protected NIOChannelDistributor nioChannelDistributor;
+    protected boolean loadAwareChannelDistribution;
+    protected long connectionMigrationInterval = -1;
     protected String name;
     protected Processor processor;
     protected ProcessorSelector processorSelector;
@@ -69,6 +72,7 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
     protected boolean reuseAddress = NIOTransport.DEFAULT_REUSE_ADDRESS;
     protected int maxPendingBytesPerConnection = AsyncQueueWriter.AUTO_SIZE;
     protected boolean optimizedForMultiplexing = NIOTransport.DEFAULT_OPTIMIZED_FOR_MULTIPLEXING;
+    protected boolean optimizedSelectedKeys = NIOTransport.DEFAULT_OPTIMIZED_SELECTED_KEYS;
 
     protected long readTimeout = TimeUnit.MILLISECONDS.convert(Transport.DEFAULT_READ_TIMEOUT, TimeUnit.SECONDS);
     protected long writeTimeout = TimeUnit.MILLISECONDS.convert(Transport.DEFAULT_WRITE_TIMEOUT, TimeUnit.SECONDS);
@@ -289,6 +293,73 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
         return getThis();
     }
 
+    /**
+     * @return <tt>true</tt>, if the created {@link NIOTransport} will use
+     *  {@link LoadAwareConnectionDistributor}, unless a {@link NIOChannelDistributor}
+     *  is set explicitly, or <tt>false</tt> otherwise.
+     *
+     * @since 2.4.5
+     */
+    public boolean isLoadAwareChannelDistribution() {
+        return loadAwareChannelDistribution;
+    }
+
+    /**
+     * If <tt>true</tt>, the created {@link NIOTransport} will assign new channels
+     * to the least loaded {@link org.glassfish.grizzly.nio.SelectorRunner}
+     * using {@link LoadAwareConnectionDistributor} instead of the default
+     * round-robin distribution. Has no effect, if a {@link NIOChannelDistributor}
+     * is set explicitly via {@link #setNIOChannelDistributor(NIOChannelDistributor)}.
+     *
+     * @param loadAwareChannelDistribution <tt>true</tt> to enable load-aware
+     *  channel distribution.
+     *
+     * @return this <code>NIOTransportBuilder</code>
+     *
+     * @since 2.4.5
+     */
+    public T setLoadAwareChannelDistribution(
+            final boolean loadAwareChannelDistribution) {
+        this.loadAwareChannelDistribution = loadAwareChannelDistribution;
+        return getThis();
+    }
+
+    /**
+     * @param timeUnit the {@link TimeUnit} of the returned value.
+     * @return the min interval between idle connection migrations performed by
+     *  {@link LoadAwareConnectionDistributor}, a negative value means
+     *  the migration is disabled.
+     *
+     * @since 2.4.5
+     */
+    public long getConnectionMigrationInterval(final TimeUnit timeUnit) {
+        return connectionMigrationInterval > 0
+                ? timeUnit.convert(connectionMigrationInterval, TimeUnit.MILLISECONDS)
+                : -1;
+    }
+
+    /**
+     * Sets the min interval between idle connection migrations performed by
+     * {@link LoadAwareConnectionDistributor}. Zero or negative value (default)
+     * disables the migration. Is used only if load-aware channel distribution
+     * is enabled.
+     *
+     * @param connectionMigrationInterval the min interval between two migrations.
+     * @param timeUnit the interval {@link TimeUnit}.
+     *
+     * @return this <code>NIOTransportBuilder</code>
+     *
+     * @see #setLoadAwareChannelDistribution(boolean)
+     * @since 2.4.5
+     */
+    public T setConnectionMigrationInterval(
+            final long connectionMigrationInterval, final TimeUnit timeUnit) {
+        this.connectionMigrationInterval = connectionMigrationInterval > 0
+                ? TimeUnit.MILLISECONDS.convert(connectionMigrationInterval, timeUnit)
+                : -1;
+        return getThis();
+    }
+
     /**
      * @return the {@link SelectorProvider} that will be used by the created {@link NIOTransport}.
      *  If not explicitly set, then {@link SelectorProvider#provider()} will be used.
@@ -559,6 +630,25 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
         return getThis();
     }
 
+    /**
+     * @return true, if NIOTransport's selectors are configured to use array-backed selected-key set, or false otherwise.
+     * @see org.glassfish.grizzly.nio.NIOTransport#isOptimizedSelectedKeys()
+     */
+    public boolean isOptimizedSelectedKeys() {
+        return optimizedSelectedKeys;
+    }
+
+    /**
+     * @param optimizedSelectedKeys Configure NIOTransport's selectors to use array-backed selected-key set
+     * @see org.glassfish.grizzly.nio.NIOTransport#setOptimizedSelectedKeys(boolean)
+     *
+     * @return this <code>NIOTransportBuilder</code>
+     */
+    public T setOptimizedSelectedKeys(final boolean optimizedSelectedKeys) {
+        this.optimizedSelectedKeys = optimizedSelectedKeys;
+        return getThis();
+    }
+
     /**
      * @return an {@link NIOTransport} based on the builder's configuration.
      */
@@ -577,7 +667,13 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
         transport.setMemoryManager(memoryManager);
         transport.setAttributeBuilder(attributeBuilder);
         transport.setSelectorRunnersCount(selectorRunnerCount);
-        transport.setNIOChannelDistributor(nioChannelDistributor);
+        if (nioChannelDistributor == null && loadAwareChannelDistribution) {
+            transport.setNIOChannelDistributor(
+                    new LoadAwareConnectionDistributor(transport, false,
+                            connectionMigrationInterval, TimeUnit.MILLISECONDS));
+        } else {
+            transport.setNIOChannelDistributor(nioChannelDistributor);
+        }
         transport.setProcessor(processor);
         transport.setProcessorSelector(processorSelector);
         transport.setClientSocketSoTimeout(clientSocketSoTimeout);
@@ -588,6 +684,7 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
         transport.setWriteBufferSize(writeBufferSize);
         transport.setReuseAddress(reuseAddress);
         transport.setOptimizedForMultiplexing(isOptimizedForMultiplexing());
+        transport.setOptimizedSelectedKeys(optimizedSelectedKeys);
         transport.getAsyncQueueIO()
                 .getWriter()
                 .setMaxPendingBytesPerConnection(
@@ -21,7 +21,10 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import org.glassfish.grizzly.WriteHandler;
+import org.glassfish.grizzly.utils.MpscArrayQueue;
 
 /**
  * Class represents common implementation of asynchronous processing queue.
@@ -33,10 +36,15 @@ import org.glassfish.grizzly.WriteHandler;
 public final class TaskQueue<E extends AsyncQueueRecord> {
     private volatile boolean isClosed;
     
+    // small chunks, because every connection has its own queue
+    private static final int QUEUE_CHUNK_SIZE = 16;
+
     /**
-     * The queue of tasks, which will be processed asynchronously
+     * The queue of tasks, which will be processed asynchronously.
+     * The queue's consumer side is lock-free and may be drained by the
+     * closing thread concurrently with the processing one.
      */
-    private final Queue<E> queue;
+    private final MpscArrayQueue<E> queue;
     
     private static final AtomicReferenceFieldUpdater<TaskQueue, AsyncQueueRecord> currentElementUpdater =
             AtomicReferenceFieldUpdater.newUpdater(TaskQueue.class, AsyncQueueRecord.class, "currentElement");
@@ -58,7 +66,7 @@ public final class TaskQueue<E extends AsyncQueueRecord> {
 
     protected TaskQueue(final MutableMaxQueueSize maxQueueSizeHolder) {
         this.maxQueueSizeHolder = maxQueueSizeHolder;
-        queue = new ConcurrentLinkedQueue<E>();
+        queue = new MpscArrayQueue<E>(QUEUE_CHUNK_SIZE);
     }
 
     // ---------------------------------------------------------- Public Methods
@@ -92,6 +100,26 @@ public final class TaskQueue<E extends AsyncQueueRecord> {
         return current != null ? current : queue.poll();
     }
 
+    /**
+     * Removes the tasks from the head of the queue, bypassing the current
+     * element, and passes them to the <tt>consumer</tt>, while they match the
+     * <tt>condition</tt>. The first task, which doesn't match the condition,
+     * remains at the head of the queue.
+     * This allows to collect a batch of the queued tasks in one call.
+     *
+     * @param condition the condition the drained tasks have to match
+     * @param consumer the consumer of the drained tasks
+     * @param maxTasks the max number of tasks to drain
+     *
+     * @return the number of drained tasks
+     *
+     * @since 2.4.5
+     */
+    public int drain(final Predicate<? super E> condition,
+            final Consumer<? super E> consumer, final int maxTasks) {
+        return queue.drain(condition, consumer, maxTasks);
+    }
+
     /**
      * Get the current processing task, if the current in not set, take the
      * task from the queue.
@@ -163,7 +191,11 @@ public final class TaskQueue<E extends AsyncQueueRecord> {
     }
 
     /**
-     * Get the queue of tasks, which will be processed asynchronously
+     * Get the queue of tasks, which will be processed asynchronously.
+     * {@link Queue#offer(Object)}, {@link Queue#poll()} and
+     * {@link Queue#remove(Object)} may be called on the returned queue
+     * concurrently, the other consumer side operations are weakly consistent.
+     *
      * @return the queue of tasks, which will be processed asynchronously
      */
     public Queue<E> getQueue() {
@@ -285,7 +317,7 @@ public final class TaskQueue<E extends AsyncQueueRecord> {
      */
     public void offer(final E task) {
         queue.offer(task);
-        if (isClosed && queue.remove(task)) {
+        if (isClosed && remove(task)) {
             task.notifyFailure(new IOException("Connection closed"));
         }
     }
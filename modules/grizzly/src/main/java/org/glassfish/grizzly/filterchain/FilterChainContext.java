@@ -158,6 +158,12 @@ public class FilterChainContext implements AttributeStorage {
     
     private final InvokeAction cachedInvokeAction = new InvokeAction();
 
+    /**
+     * The {@link ForkAction}, which forks the processing of this context,
+     * when this context is a copy created by {@link #getForkAction(NextAction)}.
+     */
+    private final ForkAction cachedForkAction = new ForkAction(this);
+
     private final List<CompletionListener> completionListeners =
             new ArrayList<CompletionListener>(2);
 
@@ -433,7 +439,7 @@ public class FilterChainContext implements AttributeStorage {
      * @param address address, associated with the current {@link org.glassfish.grizzly.IOEvent} processing.
      */
     public void setAddress(final Object address) {
-        addressHolder = Holder.staticHolder(address);
+        addressHolder = obtainAddressHolder(address, addressHolder);
     }
 
     protected final Runnable getRunnable() {
@@ -652,7 +658,7 @@ public class FilterChainContext implements AttributeStorage {
         contextCopy.addressHolder = addressHolder;
         contextCopy.predefinedNextAction = nextAction;
 
-        return new ForkAction(contextCopy);
+        return contextCopy.cachedForkAction;
     }
 
     /**
@@ -853,7 +859,9 @@ public class FilterChainContext implements AttributeStorage {
         newContext.operation = Operation.WRITE;
         newContext.transportFilterContext.configureBlocking(blocking);
         newContext.message = message;
-        newContext.addressHolder = address == null ? addressHolder : Holder.staticHolder(address);
+        newContext.addressHolder = address == null
+                ? addressHolder
+                : obtainAddressHolder(address, addressHolder);
         newContext.closeable = closeable;
         newContext.transportFilterContext.completionHandler = completionHandler;
         newContext.transportFilterContext.pushBackHandler = pushBackHandler;
@@ -1056,6 +1064,18 @@ public class FilterChainContext implements AttributeStorage {
         return sb.toString();
     }
 
+    /**
+     * Returns the {@link Holder} of the given address. The current holder is
+     * reused if it already holds the address (for example when replying to
+     * the peer the current message came from), so no new holder is allocated.
+     */
+    private static Holder<?> obtainAddressHolder(final Object address,
+            final Holder<?> currentHolder) {
+        return currentHolder != null && currentHolder.get() == address
+                ? currentHolder
+                : Holder.staticHolder(address);
+    }
+
     static Operation ioEvent2Operation(final IOEvent ioEvent) {
         switch(ioEvent) {
             case READ: return Operation.READ;
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.filterchain;
+
+/**
+ * The event, which is fired upstream through the {@link FilterChain}, when
+ * the {@link org.glassfish.grizzly.nio.NIOConnection} writability changes,
+ * because its async write queue has grown up to the high watermark or has
+ * been drained down to the low watermark
+ * (see {@link org.glassfish.grizzly.nio.NIOConnection#setWriteWatermarks(int, int)}).
+ *
+ * {@link Filter}s, which produce data for the {@link org.glassfish.grizzly.Connection}
+ * (like proxies or broadcasters), may listen for the event to stop reading
+ * their source, while the <tt>Connection</tt> is unwritable, and resume
+ * reading, once it becomes writable again.
+ * The events may be fired by different threads, so it's recommended to
+ * check the actual {@link org.glassfish.grizzly.nio.NIOConnection#isWritable()}
+ * state when handling the event.
+ *
+ * @since 2.4.5
+ */
+public final class WritabilityChangedEvent implements FilterChainEvent {
+
+    public static final Object TYPE = WritabilityChangedEvent.class.getName();
+
+    /**
+     * The event notifying that the connection has become writable.
+     */
+    public static final WritabilityChangedEvent WRITABLE =
+            new WritabilityChangedEvent(true);
+
+    /**
+     * The event notifying that the connection has become unwritable.
+     */
+    public static final WritabilityChangedEvent UNWRITABLE =
+            new WritabilityChangedEvent(false);
+
+    private final boolean isWritable;
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    private WritabilityChangedEvent(final boolean isWritable) {
+        this.isWritable = isWritable;
+    }
+
+
+    // --------------------------------------- Methods from FilterChainEvent
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object type() {
+        return TYPE;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * @return <tt>true</tt>, if the connection has become writable, or
+     *         <tt>false</tt>, if it has become unwritable
+     */
+    public boolean isWritable() {
+        return isWritable;
+    }
+
+    @Override
+    public String toString() {
+        return "WritabilityChangedEvent{isWritable=" + isWritable + '}';
+    }
+}
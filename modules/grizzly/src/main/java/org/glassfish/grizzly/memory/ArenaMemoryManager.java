@@ -0,0 +1,821 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.monitoring.DefaultMonitoringConfig;
+import org.glassfish.grizzly.monitoring.MonitoringConfig;
+import org.glassfish.grizzly.monitoring.MonitoringUtils;
+
+/**
+ * A direct {@link MemoryManager} implementation, which carves {@link Buffer}s
+ * out of a few large off-heap memory regions allocated once, when the manager
+ * is created.
+ *
+ * Unlike {@link ByteBufferManager} or a direct {@link PooledMemoryManager},
+ * which allocate many separate direct {@link ByteBuffer}s, each with its own
+ * native allocation and cleaner, this manager never allocates native memory
+ * after construction, so the off-heap memory used by the manager is hard capped
+ * at <tt>regionSize * numberOfRegions</tt> bytes. If there is no free block
+ * big enough for an allocation request - an {@link IllegalStateException} is
+ * thrown.
+ *
+ * Every region is managed by a binary buddy allocator: a request is rounded up
+ * to the closest power-of-two multiple of the min block size, and released
+ * blocks are merged with their free buddies. Allocation requests are striped
+ * across the regions by the calling thread. Requests bigger than the max block
+ * size are served by a {@link CompositeBuffer} of several blocks.
+ *
+ * The regions are either direct {@link ByteBuffer}s or, if a directory is
+ * provided, memory mapped files created (and immediately deleted) in this
+ * directory. Pointing the directory to a <tt>hugetlbfs</tt> mount gives the
+ * regions huge page backing, pointing it to <tt>tmpfs</tt> keeps them out of the
+ * JVM direct memory limit.
+ *
+ * The allocated and released blocks are reported via
+ * {@link MemoryProbe#onBufferAllocateFromPoolEvent(int)} and
+ * {@link MemoryProbe#onBufferReleaseToPoolEvent(int)}, the region
+ * fragmentation - via {@link MemoryProbe#onArenaFragmentationEvent(int, int)}.
+ *
+ * {@link #reset()} makes all the regions free at once, which is useful, when
+ * all the buffers allocated during some processing phase are known to be
+ * unused.
+ *
+ * @since 2.4.5
+ */
+public class ArenaMemoryManager implements MemoryManager<Buffer>, WrapperAware {
+
+    public static final int DEFAULT_REGION_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_NUMBER_OF_REGIONS = 4;
+    public static final int DEFAULT_MIN_BLOCK_SIZE = 512;
+    public static final int DEFAULT_MAX_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Basic monitoring support.  Concrete implementations of this class need
+     * only to implement the {@link #createJmxManagementObject()}  method
+     * to plug into the Grizzly 2.0 JMX framework.
+     */
+    protected final DefaultMonitoringConfig<MemoryProbe> monitoringConfig =
+            new DefaultMonitoringConfig<MemoryProbe>(MemoryProbe.class) {
+
+                @Override
+                public Object createManagementObject() {
+                    return createJmxManagementObject();
+                }
+
+            };
+
+    private final Region[] regions;
+
+    private final int regionSize;
+
+    private final int minBlockSize;
+
+    private final int maxBlockSize;
+
+    // log2(minBlockSize)
+    private final int log2MinBlockSize;
+
+    /**
+     * Creates a new <code>ArenaMemoryManager</code> with
+     * {@value #DEFAULT_NUMBER_OF_REGIONS} direct regions of
+     * {@value #DEFAULT_REGION_SIZE} bytes, {@value #DEFAULT_MIN_BLOCK_SIZE}
+     * bytes min block size and {@value #DEFAULT_MAX_BLOCK_SIZE} bytes max
+     * block size.
+     */
+    public ArenaMemoryManager() {
+        this(DEFAULT_REGION_SIZE, DEFAULT_NUMBER_OF_REGIONS,
+                DEFAULT_MIN_BLOCK_SIZE, DEFAULT_MAX_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a new <code>ArenaMemoryManager</code>, which regions are direct
+     * {@link ByteBuffer}s.
+     *
+     * @param regionSize the size of every memory region, must be a power of two
+     * @param numberOfRegions the number of memory regions
+     * @param minBlockSize the min size of the block allocated from a region,
+     *        must be a power of two
+     * @param maxBlockSize the max size of the block allocated from a region,
+     *        bigger requests are served by a {@link CompositeBuffer};
+     *        must be a power of two between minBlockSize and regionSize
+     */
+    public ArenaMemoryManager(final int regionSize,
+            final int numberOfRegions,
+            final int minBlockSize,
+            final int maxBlockSize) {
+        this(regionSize, numberOfRegions, minBlockSize, maxBlockSize, null);
+    }
+
+    /**
+     * Creates a new <code>ArenaMemoryManager</code>.
+     *
+     * @param regionSize the size of every memory region, must be a power of two
+     * @param numberOfRegions the number of memory regions
+     * @param minBlockSize the min size of the block allocated from a region,
+     *        must be a power of two
+     * @param maxBlockSize the max size of the block allocated from a region,
+     *        bigger requests are served by a {@link CompositeBuffer};
+     *        must be a power of two between minBlockSize and regionSize
+     * @param regionsDirectory the directory, where the memory mapped files
+     *        backing the regions are created, or <tt>null</tt> if the regions
+     *        are direct {@link ByteBuffer}s
+     *
+     * @throws IllegalStateException if a region file couldn't be mapped
+     */
+    public ArenaMemoryManager(final int regionSize,
+            final int numberOfRegions,
+            final int minBlockSize,
+            final int maxBlockSize,
+            final File regionsDirectory) {
+        if (numberOfRegions <= 0) {
+            throw new IllegalArgumentException("numberOfRegions must be greater than zero");
+        }
+        if (!isPowerOfTwo(regionSize) || !isPowerOfTwo(minBlockSize)
+                || !isPowerOfTwo(maxBlockSize)) {
+            throw new IllegalArgumentException("regionSize, minBlockSize and maxBlockSize must be a power of two");
+        }
+        if (minBlockSize > maxBlockSize || maxBlockSize > regionSize) {
+            throw new IllegalArgumentException("minBlockSize must be less or equal to maxBlockSize, which must be less or equal to regionSize");
+        }
+
+        this.regionSize = regionSize;
+        this.minBlockSize = minBlockSize;
+        this.maxBlockSize = maxBlockSize;
+        log2MinBlockSize = Integer.numberOfTrailingZeros(minBlockSize);
+
+        regions = new Region[numberOfRegions];
+        for (int i = 0; i < numberOfRegions; i++) {
+            regions[i] = new Region(this,
+                    regionsDirectory != null
+                            ? mapRegion(regionsDirectory, regionSize)
+                            : ByteBuffer.allocateDirect(regionSize),
+                    log2MinBlockSize);
+        }
+    }
+
+
+    // ---------------------------------------------- Methods from MemoryManager
+
+
+    /**
+     * For this implementation, this method simply calls through to
+     * {@link #allocateAtLeast(int)};
+     */
+    @Override
+    public Buffer allocate(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Requested allocation size must be greater than or equal to zero.");
+        }
+        return allocateAtLeast(size).limit(size);
+    }
+
+    /**
+     * Allocates a buffer of at least the size requested.
+     * <p/>
+     * Keep in mind that the capacity of the buffer may be greater than the
+     * allocation request.  The limit however, will be set to the specified
+     * size.  The memory beyond the limit, is available for use.
+     *
+     * @param size the min {@link Buffer} size to be allocated.
+     * @return a buffer with a limit of the specified <tt>size</tt>.
+     *
+     * @throws IllegalStateException if the arena has no free memory to
+     *         allocate the buffer
+     */
+    @Override
+    public Buffer allocateAtLeast(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Requested allocation size must be greater than or equal to zero.");
+        }
+
+        if (size == 0) {
+            return Buffers.EMPTY_BUFFER;
+        }
+
+        return size <= maxBlockSize
+                ? allocateBlock(size)
+                : allocateToCompositeBuffer(newCompositeBuffer(), size);
+    }
+
+    /**
+     * Reallocates an existing buffer to at least the specified size.
+     *
+     * @param oldBuffer old {@link Buffer} to be reallocated.
+     * @param newSize   new {@link Buffer} required size.
+     *
+     * @return potentially a new buffer of at least the specified size.
+     */
+    @Override
+    public Buffer reallocate(final Buffer oldBuffer, final int newSize) {
+        if (newSize == 0) {
+            oldBuffer.tryDispose();
+            return Buffers.EMPTY_BUFFER;
+        }
+
+        final int curBufSize = oldBuffer.capacity();
+
+        if (oldBuffer.isComposite()) {
+            final CompositeBuffer oldCompositeBuffer = (CompositeBuffer) oldBuffer;
+            if (curBufSize > newSize) {
+                final int oldPos = oldCompositeBuffer.position();
+                Buffers.setPositionLimit(oldBuffer, newSize, newSize);
+                oldCompositeBuffer.trim();
+                oldCompositeBuffer.position(Math.min(oldPos, newSize));
+
+                return oldCompositeBuffer;
+            } else {
+                return allocateToCompositeBuffer(oldCompositeBuffer,
+                        newSize - curBufSize);
+            }
+        }
+
+        if (curBufSize >= newSize) {
+            return oldBuffer.limit(newSize);
+        }
+
+        final int pos = oldBuffer.position();
+        Buffers.setPositionLimit(oldBuffer, 0, curBufSize);
+
+        final Buffer newBuffer = allocateAtLeast(newSize);
+        newBuffer.put(oldBuffer);
+        Buffers.setPositionLimit(newBuffer, pos, newSize);
+
+        oldBuffer.tryDispose();
+
+        return newBuffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release(final Buffer buffer) {
+        buffer.tryDispose();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean willAllocateDirect(final int size) {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MonitoringConfig<MemoryProbe> getMonitoringConfig() {
+        return monitoringConfig;
+    }
+
+
+    // ------------------------------------------------------ Arena Management
+
+
+    /**
+     * @return the size of every memory region
+     */
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * @return the number of memory regions
+     */
+    public int getNumberOfRegions() {
+        return regions.length;
+    }
+
+    /**
+     * @return the min size of the block allocated from a region
+     */
+    public int getMinBlockSize() {
+        return minBlockSize;
+    }
+
+    /**
+     * @return the max size of the block allocated from a region, bigger
+     *  requests are served by a {@link CompositeBuffer}
+     */
+    public int getMaxBlockSize() {
+        return maxBlockSize;
+    }
+
+    /**
+     * @return the total number of bytes managed by this manager
+     */
+    public long getCapacity() {
+        return (long) regionSize * regions.length;
+    }
+
+    /**
+     * @return the number of bytes, which are not allocated at the moment
+     */
+    public long getFreeBytes() {
+        long freeBytes = 0;
+        for (Region region : regions) {
+            freeBytes += region.freeBytes();
+        }
+
+        return freeBytes;
+    }
+
+    /**
+     * @return the size of the largest block, which could be allocated at the
+     *  moment
+     */
+    public int getLargestFreeBlockSize() {
+        int largestFreeBlockSize = 0;
+        for (Region region : regions) {
+            largestFreeBlockSize = Math.max(largestFreeBlockSize,
+                    region.largestFreeBlockSize());
+        }
+
+        return largestFreeBlockSize;
+    }
+
+    /**
+     * Returns the external fragmentation of the arena as a value between
+     * <tt>0</tt> (the free memory of every region is one contiguous block) and
+     * <tt>1</tt> (the free memory is split into min size blocks).
+     *
+     * @return the average fragmentation of the arena regions
+     */
+    public float getFragmentation() {
+        float fragmentation = 0;
+        for (Region region : regions) {
+            fragmentation += region.fragmentation();
+        }
+
+        return fragmentation / regions.length;
+    }
+
+    /**
+     * Makes all the memory regions free.
+     * The buffers allocated before the reset must not be used afterwards,
+     * disposing them has no effect.
+     */
+    public void reset() {
+        for (Region region : regions) {
+            region.reset();
+        }
+    }
+
+
+    // ----------------------------------------------- Methods from WrapperAware
+
+
+    @Override
+    public Buffer wrap(final byte[] data) {
+        return wrap(ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public Buffer wrap(byte[] data, int offset, int length) {
+        return wrap(ByteBuffer.wrap(data, offset, length));
+    }
+
+    @Override
+    public Buffer wrap(final String s) {
+        return wrap(s.getBytes(Charset.defaultCharset()));
+    }
+
+    @Override
+    public Buffer wrap(final String s, final Charset charset) {
+        return wrap(s.getBytes(charset));
+    }
+
+    @Override
+    public Buffer wrap(final ByteBuffer byteBuffer) {
+        return new ByteBufferWrapper(byteBuffer);
+    }
+
+
+    // ------------------------------------------------------- Protected Methods
+
+
+    protected Object createJmxManagementObject() {
+
+        return MonitoringUtils.loadJmxObject(
+                "org.glassfish.grizzly.memory.jmx.ArenaMemoryManager", this,
+                ArenaMemoryManager.class);
+    }
+
+    Region[] getRegions() {
+        return Arrays.copyOf(regions, regions.length);
+    }
+
+
+    // --------------------------------------------------------- Private Methods
+
+
+    private ArenaBuffer allocateBlock(final int size) {
+        final int order = size <= minBlockSize
+                ? 0
+                : 32 - Integer.numberOfLeadingZeros((size - 1) >>> log2MinBlockSize);
+
+        // stripe the requests across the regions by the calling thread
+        final int first = (int) (Thread.currentThread().getId() % regions.length);
+        for (int i = 0; i < regions.length; i++) {
+            final ArenaBuffer buffer =
+                    regions[(first + i) % regions.length].allocate(order);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+
+        throw new IllegalStateException("The arena has no free block of "
+                + (minBlockSize << order) + " bytes to allocate " + size
+                + " bytes (free bytes: " + getFreeBytes() + ")");
+    }
+
+    private CompositeBuffer allocateToCompositeBuffer(
+            final CompositeBuffer cb, int size) {
+
+        assert size >= 0;
+
+        final Buffer[] blocks = new Buffer[(size + maxBlockSize - 1) / maxBlockSize];
+        int count = 0;
+        try {
+            while (size > 0) {
+                final int blockSize = Math.min(size, maxBlockSize);
+                blocks[count] = allocateBlock(blockSize).limit(blockSize);
+                count++;
+                size -= blockSize;
+            }
+        } catch (IllegalStateException e) {
+            // return the partially allocated memory back to the arena
+            for (int i = 0; i < count; i++) {
+                blocks[i].tryDispose();
+            }
+
+            throw e;
+        }
+
+        for (int i = 0; i < count; i++) {
+            cb.append(blocks[i]);
+        }
+
+        return cb;
+    }
+
+    private CompositeBuffer newCompositeBuffer() {
+        final CompositeBuffer cb = CompositeBuffer.newBuffer(this);
+        cb.allowInternalBuffersDispose(true);
+        cb.allowBufferDispose(true);
+        return cb;
+    }
+
+    private static ByteBuffer mapRegion(final File directory, final int size) {
+        try {
+            final File file = File.createTempFile("grizzly-arena-", ".region",
+                    directory);
+            try {
+                final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                try {
+                    raf.setLength(size);
+                    // the mapping stays valid after the file is closed
+                    return raf.getChannel().map(FileChannel.MapMode.READ_WRITE,
+                            0, size);
+                } finally {
+                    raf.close();
+                }
+            } finally {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Unable to map the arena region in " + directory, e);
+        }
+    }
+
+    private static boolean isPowerOfTwo(final int valueToCheck) {
+        return valueToCheck > 0 && ((valueToCheck & (valueToCheck - 1)) == 0);
+    }
+
+
+    // ---------------------------------------------------------- Nested Classes
+
+
+    /**
+     * A memory region managed by a binary buddy allocator.
+     *
+     * The region is split into min size blocks. A free block of order
+     * <tt>n</tt> spans <tt>2^n</tt> min size blocks and is kept in the
+     * doubly linked free list of this order, which is indexed by the number
+     * of the block's first min size block.
+     */
+    static final class Region {
+        private static final int NONE = -1;
+
+        private final ArenaMemoryManager mm;
+        private final ByteBuffer memory;
+        private final int log2MinBlockSize;
+        private final int maxOrder;
+
+        // the first free block of every order
+        private final int[] freeListHeads;
+        // the free list links of the free blocks
+        private final int[] next;
+        private final int[] prev;
+        // order + 1 of the free block starting at the min block, 0 otherwise
+        private final byte[] freeBlockOrder;
+
+        private int freeBytes;
+
+        // incremented on every reset(), so the buffers allocated before are
+        // not returned to the region
+        private int generation;
+
+        Region(final ArenaMemoryManager mm, final ByteBuffer memory,
+                final int log2MinBlockSize) {
+            this.mm = mm;
+            this.memory = memory;
+            this.log2MinBlockSize = log2MinBlockSize;
+
+            final int blocksCount = memory.capacity() >>> log2MinBlockSize;
+            maxOrder = Integer.numberOfTrailingZeros(blocksCount);
+            freeListHeads = new int[maxOrder + 1];
+            next = new int[blocksCount];
+            prev = new int[blocksCount];
+            freeBlockOrder = new byte[blocksCount];
+
+            reset();
+        }
+
+        ArenaBuffer allocate(final int order) {
+            final int block;
+            final int freeBytesNow;
+            final int largestFreeBlockSizeNow;
+            final int generationNow;
+
+            synchronized (this) {
+                int blockOrder = order;
+                while (blockOrder <= maxOrder
+                        && freeListHeads[blockOrder] == NONE) {
+                    blockOrder++;
+                }
+
+                if (blockOrder > maxOrder) {
+                    return null;
+                }
+
+                block = freeListHeads[blockOrder];
+                removeFree(block, blockOrder);
+
+                // return the upper halves back to the free lists
+                while (blockOrder > order) {
+                    blockOrder--;
+                    addFree(block + (1 << blockOrder), blockOrder);
+                }
+
+                freeBytes -= blockSize(order);
+                freeBytesNow = freeBytes;
+                largestFreeBlockSizeNow = largestFreeBlockSize0();
+                generationNow = generation;
+            }
+
+            final int size = blockSize(order);
+            final int offset = block << log2MinBlockSize;
+            final ByteBuffer bb = memory.duplicate();
+            Buffers.setPositionLimit(bb, offset, offset + size);
+
+            ProbeNotifier.notifyBufferAllocatedFromPool(mm.monitoringConfig,
+                    size);
+            ProbeNotifier.notifyArenaFragmentation(mm.monitoringConfig,
+                    freeBytesNow, largestFreeBlockSizeNow);
+
+            return new ArenaBuffer(bb.slice(), this, block, order,
+                    generationNow);
+        }
+
+        void release(final int block, final int order, final int generation) {
+            final int freeBytesNow;
+            final int largestFreeBlockSizeNow;
+
+            synchronized (this) {
+                if (generation != this.generation) {
+                    // the region has been reset since the block was allocated
+                    return;
+                }
+
+                freeBytes += blockSize(order);
+
+                int mergedBlock = block;
+                int mergedOrder = order;
+                while (mergedOrder < maxOrder) {
+                    final int buddy = mergedBlock ^ (1 << mergedOrder);
+                    if (freeBlockOrder[buddy] != mergedOrder + 1) {
+                        break;
+                    }
+
+                    removeFree(buddy, mergedOrder);
+                    mergedBlock = Math.min(mergedBlock, buddy);
+                    mergedOrder++;
+                }
+
+                addFree(mergedBlock, mergedOrder);
+                freeBytesNow = freeBytes;
+                largestFreeBlockSizeNow = largestFreeBlockSize0();
+            }
+
+            ProbeNotifier.notifyBufferReleasedToPool(mm.monitoringConfig,
+                    blockSize(order));
+            ProbeNotifier.notifyArenaFragmentation(mm.monitoringConfig,
+                    freeBytesNow, largestFreeBlockSizeNow);
+        }
+
+        synchronized void reset() {
+            Arrays.fill(freeListHeads, NONE);
+            Arrays.fill(freeBlockOrder, (byte) 0);
+            addFree(0, maxOrder);
+            freeBytes = memory.capacity();
+            generation++;
+        }
+
+        synchronized int freeBytes() {
+            return freeBytes;
+        }
+
+        synchronized int largestFreeBlockSize() {
+            return largestFreeBlockSize0();
+        }
+
+        synchronized float fragmentation() {
+            return freeBytes == 0
+                    ? 0
+                    : 1 - (float) largestFreeBlockSize0() / freeBytes;
+        }
+
+        private int largestFreeBlockSize0() {
+            for (int order = maxOrder; order >= 0; order--) {
+                if (freeListHeads[order] != NONE) {
+                    return blockSize(order);
+                }
+            }
+
+            return 0;
+        }
+
+        private int blockSize(final int order) {
+            return 1 << (log2MinBlockSize + order);
+        }
+
+        private void addFree(final int block, final int order) {
+            final int head = freeListHeads[order];
+            next[block] = head;
+            prev[block] = NONE;
+            if (head != NONE) {
+                prev[head] = block;
+            }
+
+            freeListHeads[order] = block;
+            freeBlockOrder[block] = (byte) (order + 1);
+        }
+
+        private void removeFree(final int block, final int order) {
+            final int nextBlock = next[block];
+            final int prevBlock = prev[block];
+            if (prevBlock != NONE) {
+                next[prevBlock] = nextBlock;
+            } else {
+                freeListHeads[order] = nextBlock;
+            }
+
+            if (nextBlock != NONE) {
+                prev[nextBlock] = prevBlock;
+            }
+
+            freeBlockOrder[block] = 0;
+        }
+    } // END Region
+
+
+    /**
+     * A {@link Buffer} backed by a block of a {@link Region}.
+     * The block is returned to the region, when the buffer and all the buffers
+     * derived from it (slices, duplicates, split parts) are disposed.
+     */
+    static final class ArenaBuffer extends ByteBufferWrapper {
+
+        // the region and the block, which are set for the source buffer only
+        private final Region region;
+        private final int block;
+        private final int order;
+        private final int generation;
+
+        // represents the number of 'child' buffers that have been created using
+        // this as the foundation.  The block can't be returned to the region
+        // unless this value is zero.
+        private final AtomicInteger shareCount;
+
+        // represents the original buffer allocated from the region.
+        private final ArenaBuffer source;
+
+        // When this Buffer instance has been disposed, this flag will be true.
+        private boolean free;
+
+        private ArenaBuffer(final ByteBuffer underlyingByteBuffer,
+                final Region region, final int block, final int order,
+                final int generation) {
+            super(underlyingByteBuffer);
+            this.region = region;
+            this.block = block;
+            this.order = order;
+            this.generation = generation;
+            shareCount = new AtomicInteger();
+            source = this;
+            allowBufferDispose = true;
+        }
+
+        private ArenaBuffer(final ByteBuffer underlyingByteBuffer,
+                final ArenaBuffer source) {
+            super(underlyingByteBuffer);
+            region = null;
+            block = -1;
+            order = -1;
+            generation = -1;
+            shareCount = source.shareCount;
+            this.source = source;
+        }
+
+        // ------------------------------------------ Methods from ByteBufferWrapper
+
+        @Override
+        public void dispose() {
+            if (free) {
+                return;
+            }
+            free = true;
+
+            // check shared counter optimistically
+            boolean isNotShared = shareCount.get() == 0;
+            if (!isNotShared) {
+                // try pessimistic check using CAS loop
+                isNotShared = (shareCount.getAndDecrement() == 0);
+                if (isNotShared) {
+                    // if the former check is true - the shared counter is negative,
+                    // so we have to reset it
+                    shareCount.set(0);
+                }
+            }
+
+            if (isNotShared) {
+                source.region.release(source.block, source.order,
+                        source.generation);
+            }
+        }
+
+        // ----------------------------------------------------- Protected Methods
+
+        @Override
+        protected ByteBufferWrapper wrapByteBuffer(final ByteBuffer buffer) {
+            final ArenaBuffer b = new ArenaBuffer(buffer, source);
+            b.allowBufferDispose(true);
+            shareCount.incrementAndGet();
+
+            return b;
+        }
+
+        /**
+         * Override the default implementation to check the <tt>free</tt> status
+         * of this buffer (i.e., once released, operations on the buffer will no
+         * longer succeed).
+         */
+        @Override
+        protected void checkDispose() {
+            if (free) {
+                throw new IllegalStateException(
+                        "ArenaBuffer has already been disposed",
+                        disposeStackTrace);
+            }
+        }
+    } // END ArenaBuffer
+}
@@ -16,16 +16,279 @@
 
 package org.glassfish.grizzly.memory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.AccessController;
+import java.security.PrivilegedExceptionAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.grizzly.Grizzly;
+
 /**
  * Modified java.nio.Bits source for Grizzly Purposes.
  *
+ * If <tt>sun.misc.Unsafe</tt> is available and the platform supports
+ * unaligned memory access, multi-byte values are read from and written to
+ * byte arrays with a single memory access instead of being assembled byte by
+ * byte. The accelerated access could be disabled by setting the
+ * <tt>org.glassfish.grizzly.memory.Bits.unsafe-access</tt> system property
+ * to <tt>false</tt>.
+ *
  * @since 2.0
  */
 
 class Bits {
 
+    private static final Logger LOGGER = Grizzly.logger(Bits.class);
+
+    private static final String UNSAFE_ACCESS_PROPERTY =
+            Bits.class.getName() + ".unsafe-access";
+
+    private static final boolean NATIVE_BIG_ENDIAN =
+            ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private static final boolean UNSAFE_ACCESS = UnsafeAccess.ENABLED;
+
     private Bits() { }
 
+    /**
+     * @return <tt>true</tt> if multi-byte values are accessed using
+     *  <tt>sun.misc.Unsafe</tt>, or <tt>false</tt> if the portable byte by
+     *  byte implementation is used
+     */
+    static boolean isUnsafeAccessEnabled() {
+        return UNSAFE_ACCESS;
+    }
+
+    private static boolean isUnalignedAccessSupported() {
+        final String arch = System.getProperty("os.arch", "");
+        return arch.equals("amd64") || arch.equals("x86_64")
+                || arch.equals("i386") || arch.equals("x86")
+                || arch.equals("aarch64") || arch.equals("ppc64le")
+                || arch.equals("s390x");
+    }
+
+    private static void checkArrayBounds(final byte[] bb, final int bi,
+            final int size) {
+        if (bi < 0 || bi > bb.length - size) {
+            throw new ArrayIndexOutOfBoundsException(bi);
+        }
+    }
+
+    // -- search --
+
+    /**
+     * Returns the index of the first occurrence of the given byte in the
+     * <tt>[from, to)</tt> range of the byte array, or <tt>-1</tt> if there is
+     * no such byte.
+     * If {@link #isUnsafeAccessEnabled()} the array is scanned a long word at
+     * a time (SWAR), otherwise byte by byte.
+     */
+    static int indexOf(final byte[] bb, int from, final int to,
+            final byte b) {
+        if (from < 0 || to > bb.length) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+
+        if (UNSAFE_ACCESS) {
+            final long pattern = (b & 0xFFL) * ONES;
+            for (final int wordsTo = to - 8; from <= wordsTo; from += 8) {
+                final long found = zeroBytes(
+                        UnsafeAccess.getLong(bb, from)
+                                ^ pattern);
+                if (found != 0) {
+                    return from + firstZeroByte(found, NATIVE_BIG_ENDIAN);
+                }
+            }
+        }
+
+        for (; from < to; from++) {
+            if (bb[from] == b) {
+                return from;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of either of the given bytes
+     * in the <tt>[from, to)</tt> range of the byte array, or <tt>-1</tt> if
+     * there is no such byte.
+     * If {@link #isUnsafeAccessEnabled()} the array is scanned a long word at
+     * a time (SWAR), otherwise byte by byte.
+     */
+    static int indexOf(final byte[] bb, int from, final int to,
+            final byte b1, final byte b2) {
+        if (from < 0 || to > bb.length) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+
+        if (UNSAFE_ACCESS) {
+            final long pattern1 = (b1 & 0xFFL) * ONES;
+            final long pattern2 = (b2 & 0xFFL) * ONES;
+            for (final int wordsTo = to - 8; from <= wordsTo; from += 8) {
+                final long v = UnsafeAccess.getLong(bb, from);
+                final long found = zeroBytes(v ^ pattern1)
+                        | zeroBytes(v ^ pattern2);
+                if (found != 0) {
+                    return from + firstZeroByte(found, NATIVE_BIG_ENDIAN);
+                }
+            }
+        }
+
+        for (; from < to; from++) {
+            final byte b = bb[from];
+            if (b == b1 || b == b2) {
+                return from;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given byte sequence in
+     * the <tt>[from, to)</tt> range of the byte array, or <tt>-1</tt> if there
+     * is no such sequence.
+     */
+    static int indexOf(final byte[] bb, int from, final int to,
+            final byte[] pattern) {
+        final int patternLength = pattern.length;
+        if (patternLength == 0) {
+            return from;
+        }
+
+        final byte first = pattern[0];
+        final int lastFrom = to - patternLength + 1;
+        while (from < lastFrom) {
+            final int idx = indexOf(bb, from, lastFrom, first);
+            if (idx == -1) {
+                return -1;
+            }
+
+            int i = 1;
+            while (i < patternLength && bb[idx + i] == pattern[i]) {
+                i++;
+            }
+
+            if (i == patternLength) {
+                return idx;
+            }
+
+            from = idx + 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given byte in the
+     * <tt>[from, to)</tt> range of the {@link ByteBuffer}, or <tt>-1</tt> if
+     * there is no such byte.
+     * Neither the position nor the limit of the {@link ByteBuffer} is
+     * modified.
+     */
+    static int indexOf(final ByteBuffer bb, int from, final int to,
+            final byte b) {
+        if (bb.hasArray()) {
+            final int arrayOffset = bb.arrayOffset();
+            final int idx = indexOf(bb.array(), arrayOffset + from,
+                    arrayOffset + to, b);
+            return idx != -1 ? idx - arrayOffset : -1;
+        }
+
+        final long pattern = (b & 0xFFL) * ONES;
+        final boolean bigEndian = bb.order() == ByteOrder.BIG_ENDIAN;
+        for (final int wordsTo = to - 8; from <= wordsTo; from += 8) {
+            final long found = zeroBytes(bb.getLong(from) ^ pattern);
+            if (found != 0) {
+                return from + firstZeroByte(found, bigEndian);
+            }
+        }
+
+        for (; from < to; from++) {
+            if (bb.get(from) == b) {
+                return from;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given byte sequence in
+     * the <tt>[from, to)</tt> range of the {@link ByteBuffer}, or <tt>-1</tt>
+     * if there is no such sequence.
+     * Neither the position nor the limit of the {@link ByteBuffer} is
+     * modified.
+     */
+    static int indexOf(final ByteBuffer bb, int from, final int to,
+            final byte[] pattern) {
+        if (bb.hasArray()) {
+            final int arrayOffset = bb.arrayOffset();
+            final int idx = indexOf(bb.array(), arrayOffset + from,
+                    arrayOffset + to, pattern);
+            return idx != -1 ? idx - arrayOffset : -1;
+        }
+
+        final int patternLength = pattern.length;
+        if (patternLength == 0) {
+            return from;
+        }
+
+        final byte first = pattern[0];
+        final int lastFrom = to - patternLength + 1;
+        while (from < lastFrom) {
+            final int idx = indexOf(bb, from, lastFrom, first);
+            if (idx == -1) {
+                return -1;
+            }
+
+            int i = 1;
+            while (i < patternLength && bb.get(idx + i) == pattern[i]) {
+                i++;
+            }
+
+            if (i == patternLength) {
+                return idx;
+            }
+
+            from = idx + 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Sets the high bit of every zero byte of the given word and clears all
+     * the other bits. Unlike the shorter <tt>(v - 0x01..) &amp; ~v</tt>
+     * variant, no borrow propagates between bytes, so the result is exact for
+     * both byte orders.
+     */
+    private static long zeroBytes(final long v) {
+        return ~(((v & LOW_BITS) + LOW_BITS) | v | LOW_BITS);
+    }
+
+    /**
+     * @return the memory offset (0..7) of the first zero byte marked by
+     *  {@link #zeroBytes(long)} in a word loaded with the given byte order
+     */
+    private static int firstZeroByte(final long found,
+            final boolean bigEndian) {
+        return (bigEndian
+                ? Long.numberOfLeadingZeros(found)
+                : Long.numberOfTrailingZeros(found)) >>> 3;
+    }
+
     // -- get/put char --
 
     static char makeChar(byte b1, byte b0) {
@@ -43,6 +306,12 @@ class Bits {
     }
 
     static char getChar(byte[] bb, int bi, boolean bigEndian) {
+        if (UNSAFE_ACCESS) {
+            checkArrayBounds(bb, bi, 2);
+            final char x = UnsafeAccess.getChar(bb, bi);
+            return bigEndian == NATIVE_BIG_ENDIAN ? x : Character.reverseBytes(x);
+        }
+
         return (bigEndian ? getCharB(bb, bi) : getCharL(bb, bi));
     }
 
@@ -60,6 +329,13 @@ class Bits {
     }
 
     static void putChar(byte[] bb, int bi, char x, boolean bigEndian) {
+        if (UNSAFE_ACCESS) {
+            checkArrayBounds(bb, bi, 2);
+            UnsafeAccess.putChar(bb, bi,
+                    bigEndian == NATIVE_BIG_ENDIAN ? x : Character.reverseBytes(x));
+            return;
+        }
+
         if (bigEndian)
             putCharB(bb, bi, x);
         else
@@ -84,6 +360,12 @@ class Bits {
     }
 
     static short getShort(byte[] bb, int bi, boolean bigEndian) {
+        if (UNSAFE_ACCESS) {
+            checkArrayBounds(bb, bi, 2);
+            final short x = UnsafeAccess.getShort(bb, bi);
+            return bigEndian == NATIVE_BIG_ENDIAN ? x : Short.reverseBytes(x);
+        }
+
         return (bigEndian ? getShortB(bb, bi) : getShortL(bb, bi));
     }
 
@@ -101,6 +383,13 @@ class Bits {
     }
 
     static void putShort(byte[] bb, int bi, short x, boolean bigEndian) {
+        if (UNSAFE_ACCESS) {
+            checkArrayBounds(bb, bi, 2);
+            UnsafeAccess.putShort(bb, bi,
+                    bigEndian == NATIVE_BIG_ENDIAN ? x : Short.reverseBytes(x));
+            return;
+        }
+
         if (bigEndian)
             putShortB(bb, bi, x);
         else
@@ -132,6 +421,12 @@ class Bits {
     }
 
     static int getInt(byte[] bb, int bi, boolean bigEndian) {
+        if (UNSAFE_ACCESS) {
+            checkArrayBounds(bb, bi, 4);
+            final int x = UnsafeAccess.getInt(bb, bi);
+            return bigEndian == NATIVE_BIG_ENDIAN ? x : Integer.reverseBytes(x);
+        }
+
         return (bigEndian ? getIntB(bb, bi) : getIntL(bb, bi));
     }
 
@@ -155,6 +450,13 @@ class Bits {
     }
 
     static void putInt(byte[] bb, int bi, int x, boolean bigEndian) {
+        if (UNSAFE_ACCESS) {
+            checkArrayBounds(bb, bi, 4);
+            UnsafeAccess.putInt(bb, bi,
+                    bigEndian == NATIVE_BIG_ENDIAN ? x : Integer.reverseBytes(x));
+            return;
+        }
+
         if (bigEndian)
             putIntB(bb, bi, x);
         else
@@ -198,6 +500,12 @@ class Bits {
     }
 
     static long getLong(byte[] bb, int bi, boolean bigEndian) {
+        if (UNSAFE_ACCESS) {
+            checkArrayBounds(bb, bi, 8);
+            final long x = UnsafeAccess.getLong(bb, bi);
+            return bigEndian == NATIVE_BIG_ENDIAN ? x : Long.reverseBytes(x);
+        }
+
         return (bigEndian ? getLongB(bb, bi) : getLongL(bb, bi));
     }
 
@@ -233,6 +541,13 @@ class Bits {
     }
 
     static void putLong(byte[] bb, int bi, long x, boolean bigEndian) {
+        if (UNSAFE_ACCESS) {
+            checkArrayBounds(bb, bi, 8);
+            UnsafeAccess.putLong(bb, bi,
+                    bigEndian == NATIVE_BIG_ENDIAN ? x : Long.reverseBytes(x));
+            return;
+        }
+
         if (bigEndian)
             putLongB(bb, bi, x);
         else
@@ -250,7 +565,7 @@ class Bits {
     }
 
     static float getFloat(byte[] bb, int bi, boolean bigEndian) {
-        return (bigEndian ? getFloatB(bb, bi) : getFloatL(bb, bi));
+        return Float.intBitsToFloat(getInt(bb, bi, bigEndian));
     }
 
     static void putFloatL(byte[] bb, int bi, float x) {
@@ -262,10 +577,7 @@ class Bits {
     }
 
     static void putFloat(byte[] bb, int bi, float x, boolean bigEndian) {
-        if (bigEndian)
-            putFloatB(bb, bi, x);
-        else
-            putFloatL(bb, bi, x);
+        putInt(bb, bi, Float.floatToRawIntBits(x), bigEndian);
     }
 
     // -- get/put double --
@@ -279,7 +591,7 @@ class Bits {
     }
 
     static double getDouble(byte[] bb, int bi, boolean bigEndian) {
-        return (bigEndian ? getDoubleB(bb, bi) : getDoubleL(bb, bi));
+        return Double.longBitsToDouble(getLong(bb, bi, bigEndian));
     }
 
     static void putDoubleL(byte[] bb, int bi, double x) {
@@ -291,10 +603,177 @@ class Bits {
     }
 
     static void putDouble(byte[] bb, int bi, double x, boolean bigEndian) {
-        if (bigEndian)
-            putDoubleB(bb, bi, x);
-        else
-            putDoubleL(bb, bi, x);
+        putLong(bb, bi, Double.doubleToRawLongBits(x), bigEndian);
+    }
+
+    /**
+     * Holds the <tt>sun.misc.Unsafe</tt> based byte array access.
+     *
+     * <tt>sun.misc.Unsafe</tt> is looked up reflectively and invoked through
+     * {@link MethodHandle}s, so the proprietary API isn't referenced at compile
+     * time (javac can't suppress its warnings). The handles are static final,
+     * so the JIT compiles the calls down to the plain <tt>Unsafe</tt>
+     * intrinsics.
+     */
+    private static final class UnsafeAccess {
+
+        static final boolean ENABLED;
+
+        private static final long BYTE_ARRAY_BASE_OFFSET;
+
+        private static final MethodHandle GET_CHAR;
+        private static final MethodHandle PUT_CHAR;
+        private static final MethodHandle GET_SHORT;
+        private static final MethodHandle PUT_SHORT;
+        private static final MethodHandle GET_INT;
+        private static final MethodHandle PUT_INT;
+        private static final MethodHandle GET_LONG;
+        private static final MethodHandle PUT_LONG;
+
+        static {
+            final Object[] handles = lookup();
+            ENABLED = handles != null;
+            BYTE_ARRAY_BASE_OFFSET = ENABLED ? (Long) handles[0] : 0;
+            GET_CHAR = ENABLED ? (MethodHandle) handles[1] : null;
+            PUT_CHAR = ENABLED ? (MethodHandle) handles[2] : null;
+            GET_SHORT = ENABLED ? (MethodHandle) handles[3] : null;
+            PUT_SHORT = ENABLED ? (MethodHandle) handles[4] : null;
+            GET_INT = ENABLED ? (MethodHandle) handles[5] : null;
+            PUT_INT = ENABLED ? (MethodHandle) handles[6] : null;
+            GET_LONG = ENABLED ? (MethodHandle) handles[7] : null;
+            PUT_LONG = ENABLED ? (MethodHandle) handles[8] : null;
+        }
+
+        /**
+         * @return the byte array base offset followed by the get/put
+         *  {@link MethodHandle}s for char, short, int and long, or
+         *  <tt>null</tt> if <tt>sun.misc.Unsafe</tt> can't or mustn't be used
+         */
+        private static Object[] lookup() {
+            if (!Boolean.parseBoolean(
+                    System.getProperty(UNSAFE_ACCESS_PROPERTY, "true"))
+                    || !isUnalignedAccessSupported()) {
+                return null;
+            }
+
+            try {
+                return AccessController.doPrivileged(
+                        new PrivilegedExceptionAction<Object[]>() {
+                    @Override
+                    public Object[] run() throws Exception {
+                        final Class<?> unsafeClass =
+                                Class.forName("sun.misc.Unsafe");
+                        final Field f = unsafeClass.getDeclaredField("theUnsafe");
+                        f.setAccessible(true);
+                        final Object unsafe = f.get(null);
+
+                        if (((Integer) unsafeClass.getMethod("arrayIndexScale",
+                                Class.class).invoke(unsafe, byte[].class)) != 1) {
+                            return null;
+                        }
+
+                        final Object baseOffset = ((Integer) unsafeClass
+                                .getMethod("arrayBaseOffset", Class.class)
+                                .invoke(unsafe, byte[].class)).longValue();
+
+                        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+                        final Class<?>[] types = {char.class, short.class,
+                            int.class, long.class};
+                        final String[] names = {"Char", "Short", "Int", "Long"};
+
+                        final Object[] handles = new Object[1 + types.length * 2];
+                        handles[0] = baseOffset;
+                        for (int i = 0; i < types.length; i++) {
+                            handles[1 + i * 2] = lookup.findVirtual(unsafeClass,
+                                    "get" + names[i], MethodType.methodType(
+                                            types[i], Object.class, long.class))
+                                    .bindTo(unsafe);
+                            handles[2 + i * 2] = lookup.findVirtual(unsafeClass,
+                                    "put" + names[i], MethodType.methodType(
+                                            void.class, Object.class, long.class,
+                                            types[i]))
+                                    .bindTo(unsafe);
+                        }
+
+                        return handles;
+                    }
+                });
+            } catch (Throwable t) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE,
+                            "sun.misc.Unsafe is not available, falling back to"
+                            + " the portable Buffer access", t);
+                }
+                return null;
+            }
+        }
+
+        static char getChar(final byte[] bb, final int bi) {
+            try {
+                return (char) GET_CHAR.invokeExact((Object) bb,
+                        BYTE_ARRAY_BASE_OFFSET + bi);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        static void putChar(final byte[] bb, final int bi, final char x) {
+            try {
+                PUT_CHAR.invokeExact((Object) bb, BYTE_ARRAY_BASE_OFFSET + bi, x);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        static short getShort(final byte[] bb, final int bi) {
+            try {
+                return (short) GET_SHORT.invokeExact((Object) bb,
+                        BYTE_ARRAY_BASE_OFFSET + bi);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        static void putShort(final byte[] bb, final int bi, final short x) {
+            try {
+                PUT_SHORT.invokeExact((Object) bb, BYTE_ARRAY_BASE_OFFSET + bi, x);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        static int getInt(final byte[] bb, final int bi) {
+            try {
+                return (int) GET_INT.invokeExact((Object) bb,
+                        BYTE_ARRAY_BASE_OFFSET + bi);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        static void putInt(final byte[] bb, final int bi, final int x) {
+            try {
+                PUT_INT.invokeExact((Object) bb, BYTE_ARRAY_BASE_OFFSET + bi, x);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        static long getLong(final byte[] bb, final int bi) {
+            try {
+                return (long) GET_LONG.invokeExact((Object) bb,
+                        BYTE_ARRAY_BASE_OFFSET + bi);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        static void putLong(final byte[] bb, final int bi, final long x) {
+            try {
+                PUT_LONG.invokeExact((Object) bb, BYTE_ARRAY_BASE_OFFSET + bi, x);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
     }
-
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.localization.LogMessages;
+import org.glassfish.grizzly.monitoring.DefaultMonitoringConfig;
+
+/**
+ * Sampling leak detector for pooled buffers.
+ *
+ * Every sampled buffer allocation gets a {@link LeakTracker}, which weakly
+ * references the buffer and remembers the allocation stack trace.
+ * The tracker is closed, when the buffer is returned to its pool. If the
+ * buffer gets garbage collected while the tracker is still open - the buffer
+ * has never been released, so the leak is reported to the log and the
+ * {@link MemoryProbe}s.
+ *
+ * Garbage collected buffers are checked on every allocation and on
+ * {@link #detectLeaks()} call.
+ *
+ * @since 2.4.5
+ */
+final class BufferLeakDetector {
+    private static final Logger LOGGER = Grizzly.logger(BufferLeakDetector.class);
+
+    private final ReferenceQueue<Object> referenceQueue =
+            new ReferenceQueue<Object>();
+
+    // the open trackers, must be strongly reachable till the buffer
+    // is released or garbage collected
+    private final Set<LeakTracker> trackers = Collections.newSetFromMap(
+            new ConcurrentHashMap<LeakTracker, Boolean>());
+
+    private final AtomicLong leaksCount = new AtomicLong();
+
+    private final DefaultMonitoringConfig<MemoryProbe> monitoringConfig;
+
+    private volatile int samplingInterval;
+    private volatile boolean isParanoid;
+
+    BufferLeakDetector(final DefaultMonitoringConfig<MemoryProbe> monitoringConfig,
+            final int samplingInterval, final boolean isParanoid) {
+        this.monitoringConfig = monitoringConfig;
+        setSamplingInterval(samplingInterval);
+        this.isParanoid = isParanoid;
+    }
+
+    int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    void setSamplingInterval(final int samplingInterval) {
+        if (samplingInterval < 0) {
+            throw new IllegalArgumentException("samplingInterval must be greater or equal to zero");
+        }
+
+        this.samplingInterval = samplingInterval;
+    }
+
+    boolean isParanoid() {
+        return isParanoid;
+    }
+
+    void setParanoid(final boolean isParanoid) {
+        this.isParanoid = isParanoid;
+    }
+
+    boolean isEnabled() {
+        return isParanoid || samplingInterval > 0;
+    }
+
+    long getLeaksCount() {
+        return leaksCount.get();
+    }
+
+    /**
+     * Starts tracking the buffer, if the allocation is sampled.
+     *
+     * @param buffer the allocated buffer
+     * @param size the buffer size
+     * @return the {@link LeakTracker}, which has to be passed to
+     *          {@link #close(LeakTracker)} once the buffer is released, or
+     *          <tt>null</tt>, if the allocation is not sampled.
+     */
+    LeakTracker track(final Object buffer, final int size) {
+        detectLeaks();
+
+        if (!isParanoid) {
+            final int interval = samplingInterval;
+            if (interval <= 0 ||
+                    (interval > 1 && ThreadLocalRandom.current().nextInt(interval) != 0)) {
+                return null;
+            }
+        }
+
+        final LeakTracker tracker = new LeakTracker(buffer, size,
+                referenceQueue);
+        trackers.add(tracker);
+        return tracker;
+    }
+
+    /**
+     * Stops tracking the released buffer.
+     */
+    void close(final LeakTracker tracker) {
+        trackers.remove(tracker);
+        tracker.clear();
+    }
+
+    /**
+     * Reports the tracked buffers, which have been garbage collected
+     * without being released.
+     *
+     * @return the number of detected leaks.
+     */
+    int detectLeaks() {
+        int count = 0;
+        LeakTracker tracker;
+        while ((tracker = (LeakTracker) referenceQueue.poll()) != null) {
+            if (trackers.remove(tracker)) {
+                count++;
+                leaksCount.incrementAndGet();
+                ProbeNotifier.notifyBufferLeak(monitoringConfig, tracker.size);
+                
+                if (LOGGER.isLoggable(Level.WARNING)) {
+                    LOGGER.log(Level.WARNING,
+                            LogMessages.WARNING_GRIZZLY_MEMORY_BUFFER_LEAK(tracker.size),
+                            tracker.allocationTrace);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    static final class LeakTracker extends WeakReference<Object> {
+        private final int size;
+        private final Throwable allocationTrace;
+
+        private LeakTracker(final Object buffer, final int size,
+                final ReferenceQueue<Object> referenceQueue) {
+            super(buffer, referenceQueue);
+            this.size = size;
+            allocationTrace = new Throwable("Buffer allocated by thread "
+                    + Thread.currentThread().getName());
+        }
+    }
+}
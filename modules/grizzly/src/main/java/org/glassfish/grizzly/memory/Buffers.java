@@ -286,6 +286,15 @@ public class Buffers {
                     dstBuffer.arrayOffset() + dstBuffer.position(),
                     length);
             dstBuffer.position(dstBuffer.position() + length);
+        } else if (srcBuffer != dstBuffer) {
+            final int oldPos = srcBuffer.position();
+            final int oldLim = srcBuffer.limit();
+            setPositionLimit(srcBuffer, srcOffset, srcOffset + length);
+            try {
+                dstBuffer.put(srcBuffer);
+            } finally {
+                setPositionLimit(srcBuffer, oldPos, oldLim);
+            }
         } else {
             for(int i = srcOffset; i < srcOffset + length; i++) {
                 dstBuffer.put(srcBuffer.get(i));
@@ -306,9 +315,7 @@ public class Buffers {
                 dstBuffer.put(srcByteBuffer.array(),
                         srcByteBuffer.arrayOffset() + position, length);
             } else {
-                for(int i=0; i<length; i++) {
-                    dstBuffer.put(srcByteBuffer.get(position + i));
-                }
+                dstBuffer.put(srcByteBuffer, position, length);
             }
         } else {
             final ByteBufferArray array = src.toByteBufferArray(position,
@@ -325,9 +332,8 @@ public class Buffers {
                             srcByteBuffer.arrayOffset() + initialPosition,
                             srcByteBufferLen);
                 } else {
-                    for (int j = 0; j < srcByteBufferLen; i++) {
-                        dstBuffer.put(srcByteBuffer.get(initialPosition + j));
-                    }
+                    // the original position is restored by array.restore()
+                    dstBuffer.put(srcByteBuffer);
                 }
             }
 
@@ -536,6 +542,29 @@ public class Buffers {
         }
     }
 
+    /**
+     * Returns the index of the first occurrence of either of the given bytes
+     * in the byte array's part [from, to), or <tt>-1</tt> if there is no such
+     * byte.
+     * Where the platform allows, the array is scanned a long word at a time,
+     * which makes the method suitable for searching delimiters like CR/LF
+     * in protocol parsers.
+     *
+     * @param array the byte array to search in
+     * @param from the array index to start with (inclusive)
+     * @param to the array index, where the search ends (exclusive)
+     * @param b1 the first byte to search for
+     * @param b2 the second byte to search for
+     * @return the index of the first <tt>b1</tt> or <tt>b2</tt> byte,
+     *         or <tt>-1</tt> if neither of them was found
+     *
+     * @since 2.4.5
+     */
+    public static int indexOf(final byte[] array, final int from,
+            final int to, final byte b1, final byte b2) {
+        return Bits.indexOf(array, from, to, b1, b2);
+    }
+
     /**
      * Clones the source {@link Buffer}.
      * The method returns a new {@link Buffer} instance, which has the same content.
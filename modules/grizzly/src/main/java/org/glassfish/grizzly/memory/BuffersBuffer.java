@@ -744,6 +744,85 @@ public final class BuffersBuffer extends CompositeBuffer {
         return this;
     }
 
+    @Override
+    public int indexOf(final byte b) {
+        checkDispose();
+
+        return indexOf(b, position, limit);
+    }
+
+    @Override
+    public int indexOf(final byte[] pattern) {
+        checkDispose();
+
+        final int patternLength = pattern.length;
+        if (patternLength == 0) {
+            return position;
+        }
+
+        final int lastFrom = limit - patternLength + 1;
+        int from = position;
+        while (from < lastFrom) {
+            final int idx = indexOf(pattern[0], from, lastFrom);
+            if (idx == -1) {
+                return -1;
+            }
+
+            int i = 1;
+            while (i < patternLength && get(idx + i) == pattern[i]) {
+                i++;
+            }
+
+            if (i == patternLength) {
+                return idx;
+            }
+
+            from = idx + 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Searches the <tt>[from, to)</tt> range one component buffer at a time,
+     * so each component's own {@link Buffer#indexOf(byte)} implementation
+     * is used.
+     */
+    private int indexOf(final byte b, final int from, final int to) {
+        if (from >= to) {
+            return -1;
+        }
+
+        checkIndex(from);
+
+        int bufferIdx = lastSegmentIndex;
+        Buffer buffer = activeBuffer;
+        int bufferLowerBound = activeBufferLowerBound;
+        int bufferPosition = toActiveBufferPos(from);
+
+        while (true) {
+            final int oldPos = buffer.position();
+            final int oldLim = buffer.limit();
+            Buffers.setPositionLimit(buffer, bufferPosition,
+                    Math.min(oldLim, to - bufferLowerBound));
+            final int idx = buffer.indexOf(b);
+            Buffers.setPositionLimit(buffer, oldPos, oldLim);
+
+            if (idx != -1) {
+                return idx + bufferLowerBound;
+            }
+
+            if (++bufferIdx == buffersSize
+                    || bufferBounds[bufferIdx - 1] >= to) {
+                return -1;
+            }
+
+            buffer = buffers[bufferIdx];
+            bufferPosition = buffer.position();
+            bufferLowerBound = bufferBounds[bufferIdx - 1] - bufferPosition;
+        }
+    }
+
 
     private void checkIndex(final int index) {
         if (index >= lowerBound & index < upperBound) {
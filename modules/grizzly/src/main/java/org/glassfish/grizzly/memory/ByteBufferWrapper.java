@@ -321,6 +321,19 @@ public class ByteBufferWrapper implements Buffer {
         return this;
     }
 
+    @Override
+    public int indexOf(final byte b) {
+        checkDispose();
+        return Bits.indexOf(visible, visible.position(), visible.limit(), b);
+    }
+
+    @Override
+    public int indexOf(final byte[] pattern) {
+        checkDispose();
+        return Bits.indexOf(visible, visible.position(), visible.limit(),
+                pattern);
+    }
+
     @Override
     public ByteBufferWrapper get(final byte[] dst) {
         return get(dst, 0, dst.length);
@@ -353,6 +353,18 @@ public class HeapBuffer implements Buffer {
         return this;
     }
 
+    @Override
+    public int indexOf(final byte b) {
+        final int idx = Bits.indexOf(heap, offset + pos, offset + lim, b);
+        return idx != -1 ? idx - offset : -1;
+    }
+
+    @Override
+    public int indexOf(final byte[] pattern) {
+        final int idx = Bits.indexOf(heap, offset + pos, offset + lim, pattern);
+        return idx != -1 ? idx - offset : -1;
+    }
+
     @Override
     public HeapBuffer get(final byte[] dst) {
         return get(dst, 0, dst.length);
@@ -43,6 +43,52 @@ public interface MemoryProbe {
      */
     void onBufferReleaseToPoolEvent(int size);
 
+    /**
+     * Called by {@link MemoryManager}, when buffer gets allocated from
+     * the current thread's buffer cache.
+     *
+     * @param size buffer size
+     *
+     * @since 2.4.5
+     */
+    void onThreadCacheHitEvent(int size);
+
+    /**
+     * Called by {@link MemoryManager}, when the current thread's buffer cache
+     * has no buffer of the requested size, so the buffer has to be allocated
+     * from a shared pool.
+     *
+     * @param size buffer size
+     *
+     * @since 2.4.5
+     */
+    void onThreadCacheMissEvent(int size);
+
+    /**
+     * Called by {@link MemoryManager}, when a pooled buffer has been garbage
+     * collected without being released back to its pool.
+     * Only the buffers sampled by the leak detector are reported.
+     *
+     * @param size buffer size
+     *
+     * @since 2.4.5
+     */
+    void onBufferLeakEvent(int size);
+
+    /**
+     * Called by {@link ArenaMemoryManager}, when a buffer gets allocated from
+     * or released into one of its memory regions.
+     * The difference between the free bytes and the largest free block size
+     * shows how fragmented the region is.
+     *
+     * @param freeBytes the number of free bytes in the region
+     * @param largestFreeBlockSize the size of the largest contiguous block,
+     *        which could be allocated from the region
+     *
+     * @since 2.4.5
+     */
+    void onArenaFragmentationEvent(int freeBytes, int largestFreeBlockSize);
+
 
     // ---------------------------------------------------------- Nested Classes
 
@@ -76,5 +122,30 @@ public interface MemoryProbe {
         @Override
         public void onBufferReleaseToPoolEvent(int size) {}
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onThreadCacheHitEvent(int size) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onThreadCacheMissEvent(int size) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onBufferLeakEvent(int size) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onArenaFragmentationEvent(int freeBytes,
+                int largestFreeBlockSize) {}
+
     } // END Adapter
 }
@@ -30,6 +30,7 @@ import java.util.concurrent.locks.LockSupport;
 import org.glassfish.grizzly.monitoring.DefaultMonitoringConfig;
 import org.glassfish.grizzly.monitoring.MonitoringConfig;
 import org.glassfish.grizzly.monitoring.MonitoringUtils;
+import org.glassfish.grizzly.threadpool.DefaultWorkerThread;
 
 /**
  * A {@link MemoryManager} implementation based on a series of shared memory pools.
@@ -61,13 +62,36 @@ import org.glassfish.grizzly.monitoring.MonitoringUtils;
  * {@link org.glassfish.grizzly.memory.ByteBufferManager} is that this implementation doesn't use ThreadLocal pools
  * and as such, doesn't suffer from the memory fragmentation/reallocation cycle that can impact the ThreadLocal versions.
  *
+ * Optionally (see {@link #PooledMemoryManager(int, int, int, int, float, float, boolean, int, int)})
+ * the manager may be configured to:
+ * <ul>
+ *     <li>use finer grained size classes: every power-of-two range between the base and the max pooled buffer size
+ *     is split into several equally spaced size classes (for example 8K, 10K, 12K, 14K, 16K), so odd sizes like 9K
+ *     don't waste half of a buffer</li>
+ *     <li>keep a small per-thread cache ("magazine") of free buffers for every size class in front of the shared
+ *     pool slices, so the allocate/release cycle on the same thread doesn't touch the shared pool at all.
+ *     When a magazine overflows - half of it is returned to the shared pool slices, so the buffers are rebalanced
+ *     between the threads. Only Grizzly worker threads keep the magazines, as their {@link ThreadLocalPool}
+ *     (see {@link ThreadLocalPoolProvider}), other threads (selector, application or virtual threads)
+ *     allocate from and release to the shared pool slices directly.
+ *     The magazine hits and misses are reported via {@link MemoryProbe}.</li>
+ * </ul>
+ *
+ * To find the code, which doesn't release the pooled buffers, the leak detection may be enabled
+ * (see {@link #setLeakDetectionSamplingInterval(int)} and {@link #setLeakDetectionParanoid(boolean)}).
+ * The sampled buffers, which get garbage collected without being released, are logged together with
+ * the allocation stack trace and reported via {@link MemoryProbe#onBufferLeakEvent(int)}.
+ *
  * @since 2.3.11
  */
-public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware {
+public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware,
+        ThreadLocalPoolProvider {
 
     public static final int DEFAULT_BASE_BUFFER_SIZE = 4 * 1024;
     public static final int DEFAULT_NUMBER_OF_POOLS = 3;
     public static final int DEFAULT_GROWTH_FACTOR = 2;
+    public static final int DEFAULT_SIZE_CLASSES_PER_DOUBLING = 0;
+    public static final int DEFAULT_MAGAZINE_SIZE = 0;
     
     public static final float DEFAULT_HEAP_USAGE_PERCENTAGE = 0.03f;
     public static final float DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE = 1.0f;
@@ -77,6 +101,13 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
 
     private static final long BACK_OFF_DELAY = Long.getLong(
             PooledMemoryManager.class + ".back-off-delay", 0L);
+
+    private static final int LEAK_DETECTION_SAMPLING_INTERVAL = Integer.getInteger(
+            PooledMemoryManager.class.getName() + ".leak-detection-sampling-interval", 0);
+
+    private static final boolean LEAK_DETECTION_PARANOID = Boolean.getBoolean(
+            PooledMemoryManager.class.getName() + ".leak-detection-paranoid");
+
     /**
      * Basic monitoring support.  Concrete implementations of this class need
      * only to implement the {@link #createJmxManagementObject()}  method
@@ -98,6 +129,25 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     // the max buffer size pooled by this memory manager
     private final int maxPooledBufferSize;
 
+    // log2 of the base buffer size
+    private final int log2BaseBufferSize;
+
+    // log2 of the number of size classes per power-of-two range,
+    // or -1 if the size classes are defined by the growth factor
+    private final int log2SizeClassesPerDoubling;
+
+    // the max number of buffers cached per thread for every size class,
+    // 0 if the per-thread caches are disabled
+    private final int magazineSize;
+
+    // true, if the pooled buffers are direct
+    private final boolean isDirect;
+
+    // reports the pooled buffers, which have never been released
+    private final BufferLeakDetector leakDetector = new BufferLeakDetector(
+            monitoringConfig, LEAK_DETECTION_SAMPLING_INTERVAL,
+            LEAK_DETECTION_PARANOID);
+
 
     // ------------------------------------------------------------ Constructors
 
@@ -158,6 +208,45 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             final float percentOfHeap,
             final float percentPreallocated,
             final boolean isDirect) {
+        this(baseBufferSize,
+                numberOfPools,
+                growthFactor,
+                numberOfPoolSlices,
+                percentOfHeap,
+                percentPreallocated,
+                isDirect,
+                DEFAULT_SIZE_CLASSES_PER_DOUBLING,
+                DEFAULT_MAGAZINE_SIZE);
+    }
+
+    /**
+     * Creates a new <code>PooledMemoryManager</code> using the specified parameters for configuration.
+     *
+     * @param baseBufferSize the base size of the buffer for the 1st pool, every next pool n will have buffer size equal to bufferSize(n-1) * 2^growthFactor
+     * @param numberOfPools the number of pools, responsible for allocation of buffers of a pool-specific size
+     * @param growthFactor the buffer size growth factor, that defines 2^x multiplier, used to calculate buffer size for next allocated pool
+     * @param numberOfPoolSlices the number of pool slices that every pool will stripe allocation requests across
+     * @param percentOfHeap percentage of the heap that will be used when populating the pools
+     * @param percentPreallocated percentage of buffers to be pre-allocated during MemoryManager initialization
+     * @param isDirect flag, indicating whether direct or heap based {@link Buffer}s will be allocated
+     * @param sizeClassesPerDoubling the number of size classes (pools) every power-of-two range between the base and
+     *        the max pooled buffer size (baseBufferSize * 2^(growthFactor * (numberOfPools - 1))) is split into.
+     *        Must be a power of two. If zero - there is one size class per pool as described above.
+     * @param magazineSize the max number of free buffers of every size class cached per Grizzly worker thread.
+     *        If zero - the per-thread caches are disabled.
+     *
+     * @since 2.4.5
+     */
+    public PooledMemoryManager(
+            final int baseBufferSize,
+            final int numberOfPools,
+            final int growthFactor,
+            final int numberOfPoolSlices,
+            final float percentOfHeap,
+            final float percentPreallocated,
+            final boolean isDirect,
+            final int sizeClassesPerDoubling,
+            final int magazineSize) {
         if (baseBufferSize <= 0) {
             throw new IllegalArgumentException("baseBufferSize must be greater than zero");
         }
@@ -186,16 +275,53 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             throw new IllegalArgumentException("percentPreallocated must be greater or equal to zero and less or equal to 1");
         }
 
+        if (sizeClassesPerDoubling < 0 || !isPowerOfTwo(sizeClassesPerDoubling)) {
+            throw new IllegalArgumentException("sizeClassesPerDoubling must be zero or a power of two");
+        }
+
+        if (sizeClassesPerDoubling > baseBufferSize) {
+            throw new IllegalArgumentException("sizeClassesPerDoubling must be less or equal to baseBufferSize");
+        }
+
+        if (magazineSize < 0) {
+            throw new IllegalArgumentException("magazineSize must be greater or equal to zero");
+        }
+
+        log2BaseBufferSize = Integer.numberOfTrailingZeros(baseBufferSize);
+
+        final int[] bufferSizes;
+        if (sizeClassesPerDoubling == 0) {
+            log2SizeClassesPerDoubling = -1;
+            bufferSizes = new int[numberOfPools];
+            for (int i = 0, bufferSize = baseBufferSize; i < numberOfPools; i++, bufferSize <<= growthFactor) {
+                bufferSizes[i] = bufferSize;
+            }
+        } else {
+            log2SizeClassesPerDoubling = Integer.numberOfTrailingZeros(sizeClassesPerDoubling);
+            final int doublings = growthFactor * (numberOfPools - 1);
+            bufferSizes = new int[doublings * sizeClassesPerDoubling + 1];
+            bufferSizes[0] = baseBufferSize;
+            for (int i = 0, groupSize = baseBufferSize; i < doublings; i++, groupSize <<= 1) {
+                final int step = groupSize >> log2SizeClassesPerDoubling;
+                for (int j = 1; j <= sizeClassesPerDoubling; j++) {
+                    bufferSizes[i * sizeClassesPerDoubling + j] = groupSize + step * j;
+                }
+            }
+        }
+
         final long heapSize = Runtime.getRuntime().maxMemory();
-        final long memoryPerSubPool = (long) (heapSize * percentOfHeap / numberOfPools);
+        final long memoryPerSubPool = (long) (heapSize * percentOfHeap / bufferSizes.length);
 
-        pools = new Pool[numberOfPools];
-        for (int i = 0, bufferSize = baseBufferSize; i < numberOfPools; i++, bufferSize <<= growthFactor) {
-            pools[i] = new Pool(bufferSize, memoryPerSubPool,
+        pools = new Pool[bufferSizes.length];
+        for (int i = 0; i < bufferSizes.length; i++) {
+            pools[i] = new Pool(this, i, bufferSizes[i], memoryPerSubPool,
                     numberOfPoolSlices, percentPreallocated, isDirect,
                     monitoringConfig);
         }
-        maxPooledBufferSize = pools[numberOfPools - 1].bufferSize;
+        maxPooledBufferSize = pools[pools.length - 1].bufferSize;
+
+        this.isDirect = isDirect;
+        this.magazineSize = magazineSize;
     }
 
     
@@ -331,6 +457,16 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         return false;
     }
 
+    /**
+     * @return <tt>true</tt>, if the pooled {@link Buffer}s are direct,
+     *         or <tt>false</tt> otherwise.
+     *
+     * @since 2.4.5
+     */
+    public boolean isDirect() {
+        return isDirect;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -340,6 +476,99 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     }
 
 
+    // ---------------------------------------------------------- Leak Detection
+
+
+    /**
+     * @return the leak detection sampling interval: every N-th buffer
+     *          allocation is tracked, 0 means the leak detection is disabled.
+     *
+     * @since 2.4.5
+     */
+    public int getLeakDetectionSamplingInterval() {
+        return leakDetector.getSamplingInterval();
+    }
+
+    /**
+     * Sets the leak detection sampling interval. If the interval is N &gt; 0,
+     * on average every N-th buffer allocation is tracked: the allocation stack
+     * trace is recorded and, if the buffer gets garbage collected without
+     * being released back to the pool, the leak is logged and reported to
+     * {@link MemoryProbe#onBufferLeakEvent(int)}.
+     * The default value may be set using the
+     * <tt>org.glassfish.grizzly.memory.PooledMemoryManager.leak-detection-sampling-interval</tt>
+     * system property.
+     *
+     * @param samplingInterval the sampling interval, 0 disables the leak detection.
+     *
+     * @since 2.4.5
+     */
+    public void setLeakDetectionSamplingInterval(final int samplingInterval) {
+        leakDetector.setSamplingInterval(samplingInterval);
+    }
+
+    /**
+     * @return <tt>true</tt>, if every buffer allocation is tracked by the
+     *          leak detector regardless of the sampling interval.
+     *
+     * @since 2.4.5
+     */
+    public boolean isLeakDetectionParanoid() {
+        return leakDetector.isParanoid();
+    }
+
+    /**
+     * Enables or disables the paranoid leak detection mode, in which every
+     * buffer allocation is tracked regardless of the sampling interval.
+     * The mode is expensive and meant for tests.
+     * The default value may be set using the
+     * <tt>org.glassfish.grizzly.memory.PooledMemoryManager.leak-detection-paranoid</tt>
+     * system property.
+     *
+     * @since 2.4.5
+     */
+    public void setLeakDetectionParanoid(final boolean isParanoid) {
+        leakDetector.setParanoid(isParanoid);
+    }
+
+    /**
+     * Reports the tracked buffers, which have been garbage collected without
+     * being released. The check is also performed on every buffer
+     * allocation, while the leak detection is enabled.
+     *
+     * @return the number of leaks detected by this call.
+     *
+     * @since 2.4.5
+     */
+    public int detectLeaks() {
+        return leakDetector.detectLeaks();
+    }
+
+    /**
+     * @return the total number of detected leaks.
+     *
+     * @since 2.4.5
+     */
+    public long getDetectedLeaksCount() {
+        return leakDetector.getLeaksCount();
+    }
+
+
+    // ------------------------------------ Methods from ThreadLocalPoolProvider
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * Returns the per-thread buffer cache, if the caches are enabled,
+     * or <tt>null</tt> otherwise.
+     */
+    @Override
+    public ThreadLocalPool createThreadLocalPool() {
+        return magazineSize > 0 ? new PoolMagazines(this) : null;
+    }
+
+
     // ----------------------------------------------- Methods from WrapperAware
 
 
@@ -388,6 +617,10 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
 
 
     private Pool getPoolFor(final int size) {
+        if (log2SizeClassesPerDoubling >= 0) {
+            return pools[sizeClassIndex(size)];
+        }
+
         for (int i = 0; i < pools.length; i++) {
             final Pool pool = pools[i];
             if (pool.bufferSize >= size) {
@@ -399,6 +632,51 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
                 "There is no pool big enough to allocate " + size + " bytes");
     }
 
+    /**
+     * Returns the index of the smallest size class, which is big enough
+     * for the given size. Applicable only if the finer grained size classes
+     * are configured and the size doesn't exceed the max pooled buffer size.
+     */
+    private int sizeClassIndex(final int size) {
+        if (size <= pools[0].bufferSize) {
+            return 0;
+        }
+
+        final int n = size - 1;
+        // the power-of-two range the size belongs to
+        final int log2Group = 31 - Integer.numberOfLeadingZeros(n);
+        final int groupIdx = log2Group - log2BaseBufferSize;
+        // the size class within the range
+        final int classIdx = (n - (1 << log2Group)) >>
+                (log2Group - log2SizeClassesPerDoubling);
+
+        return (groupIdx << log2SizeClassesPerDoubling) + classIdx + 1;
+    }
+
+    /**
+     * Returns the current thread's buffer cache, or <tt>null</tt>, if the
+     * caches are disabled or the current thread is not a Grizzly worker thread.
+     * Other threads may never come back to drain their cache, so they go
+     * straight to the pool slices.
+     */
+    private PoolMagazines getMagazines() {
+        if (magazineSize == 0) {
+            return null;
+        }
+
+        final Thread t = Thread.currentThread();
+        if (t instanceof DefaultWorkerThread) {
+            final ThreadLocalPool threadLocalPool =
+                    ((DefaultWorkerThread) t).getMemoryPool();
+            if (threadLocalPool instanceof PoolMagazines
+                    && ((PoolMagazines) threadLocalPool).mm == this) {
+                return (PoolMagazines) threadLocalPool;
+            }
+        }
+
+        return null;
+    }
+
     private CompositeBuffer allocateToCompositeBuffer(
             final CompositeBuffer cb, int size) {
 
@@ -461,14 +739,22 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     }
 
     static final class Pool {
+        private final PooledMemoryManager mm;
+        // the pool index, which is also the size class index
+        private final int index;
         private final PoolSlice[] slices;
         private final int bufferSize;
+        private final DefaultMonitoringConfig<MemoryProbe> monitoringConfig;
 
-        public Pool(final int bufferSize, final long memoryPerSubPool,
+        public Pool(final PooledMemoryManager mm, final int index,
+                final int bufferSize, final long memoryPerSubPool,
                 final int numberOfPoolSlices, final float percentPreallocated,
                 final boolean isDirect,
                 final DefaultMonitoringConfig<MemoryProbe> monitoringConfig) {
+            this.mm = mm;
+            this.index = index;
             this.bufferSize = bufferSize;
+            this.monitoringConfig = monitoringConfig;
             slices = new PoolSlice[numberOfPoolSlices];
             final long memoryPerSlice = memoryPerSubPool / numberOfPoolSlices;
             
@@ -500,15 +786,61 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         }
         
         public Buffer allocate() {
+            final PoolMagazines magazines = mm.getMagazines();
+            if (magazines != null) {
+                final PoolBuffer b = magazines.poll(index);
+                if (b != null) {
+                    ProbeNotifier.notifyThreadCacheHit(monitoringConfig,
+                                                       bufferSize);
+                    ProbeNotifier.notifyBufferAllocatedFromPool(monitoringConfig,
+                                                                bufferSize);
+                    return prepare(b);
+                }
+
+                ProbeNotifier.notifyThreadCacheMiss(monitoringConfig,
+                                                    bufferSize);
+            }
+
             final PoolSlice slice = getSlice();
             PoolBuffer b = slice.poll();
             if (b == null) {
                 b = slice.allocate();
             }
             
+            return prepare(b);
+        }
+
+        private PoolBuffer prepare(final PoolBuffer b) {
+            final BufferLeakDetector leakDetector = mm.leakDetector;
+            if (leakDetector.isEnabled()) {
+                b.leakTracker(leakDetector.track(b, bufferSize));
+            }
+
             return b.prepare();
         }
 
+        /**
+         * Returns the buffer to the current thread's cache, if available,
+         * or to the buffer's {@link PoolSlice}.
+         */
+        void release(final PoolBuffer b) {
+            final BufferLeakDetector.LeakTracker leakTracker = b.leakTracker();
+            if (leakTracker != null) {
+                b.leakTracker(null);
+                mm.leakDetector.close(leakTracker);
+            }
+
+            final PoolMagazines magazines = mm.getMagazines();
+            if (magazines != null) {
+                magazines.offer(index, b);
+                ProbeNotifier.notifyBufferReleasedToPool(monitoringConfig,
+                                                         bufferSize);
+                return;
+            }
+
+            b.owner().offer(b);
+        }
+
         @Override
         public String toString() {
             final StringBuilder sb = new StringBuilder(
@@ -675,6 +1007,20 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         }
 
         public final boolean offer(final PoolBuffer b) {
+            if (offer0(b)) {
+                ProbeNotifier.notifyBufferReleasedToPool(monitoringConfig,
+                                                         bufferSize);
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Same as {@link #offer(PoolBuffer)}, but doesn't notify the
+         * {@link MemoryProbe}s.
+         */
+        final boolean offer0(final PoolBuffer b) {
             int offerIdx;
             for (;;) {
                 offerIdx = this.offerIdx.get();
@@ -697,9 +1043,6 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             for (;;) {
                 // unmask the current write value to the actual array index.
                 if (pool.compareAndSet(unmaskedOfferIdx, null, b)) {
-                    ProbeNotifier.notifyBufferReleasedToPool(monitoringConfig,
-                                                             bufferSize);
-
                     return true;
                 }
                 // give poll at this index time to complete...
@@ -877,12 +1220,143 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     } // END BufferPool
 
 
+    /**
+     * The per-thread cache of free {@link PoolBuffer}s: a small LIFO stack
+     * ("magazine") per size class. Must be accessed by the owner thread only.
+     *
+     * When a magazine is full, the older half of it is returned to the
+     * buffers' {@link PoolSlice}s, so other threads are able to reuse them.
+     */
+    static final class PoolMagazines implements ThreadLocalPool<Buffer> {
+        private final PooledMemoryManager mm;
+        private final PoolBuffer[][] magazines;
+        private final int[] counts;
+
+        PoolMagazines(final PooledMemoryManager mm) {
+            this.mm = mm;
+            magazines = new PoolBuffer[mm.pools.length][mm.magazineSize];
+            counts = new int[mm.pools.length];
+        }
+
+        PoolBuffer poll(final int sizeClass) {
+            final int count = counts[sizeClass];
+            if (count == 0) {
+                return null;
+            }
+
+            final PoolBuffer[] magazine = magazines[sizeClass];
+            final PoolBuffer b = magazine[count - 1];
+            magazine[count - 1] = null;
+            counts[sizeClass] = count - 1;
+
+            return b;
+        }
+
+        void offer(final int sizeClass, final PoolBuffer b) {
+            final PoolBuffer[] magazine = magazines[sizeClass];
+            int count = counts[sizeClass];
+            if (count == magazine.length) {
+                count = flush(magazine, count);
+            }
+
+            magazine[count] = b;
+            counts[sizeClass] = count + 1;
+        }
+
+        /**
+         * Returns the older half of the magazine back to the pool slices.
+         * @return the new number of buffers in the magazine.
+         */
+        private static int flush(final PoolBuffer[] magazine, final int count) {
+            final int toFlush = (count + 1) >> 1;
+            for (int i = 0; i < toFlush; i++) {
+                final PoolBuffer b = magazine[i];
+                b.owner().offer0(b);
+            }
+
+            final int remaining = count - toFlush;
+            System.arraycopy(magazine, toFlush, magazine, 0, remaining);
+            Arrays.fill(magazine, remaining, count, null);
+
+            return remaining;
+        }
+
+        /**
+         * @return the number of buffers cached for the given size class.
+         */
+        int size(final int sizeClass) {
+            return counts[sizeClass];
+        }
+
+        
+        // ---------------------------------------- Methods from ThreadLocalPool
+
+
+        @Override
+        public void reset(final Buffer pool) {
+        }
+
+        @Override
+        public Buffer allocate(final int size) {
+            if (size <= 0 || size > mm.maxPooledBufferSize) {
+                return null;
+            }
+
+            final PoolBuffer b = poll(mm.getPoolFor(size).index);
+            return b != null ? b.prepare().limit(size) : null;
+        }
+
+        @Override
+        public Buffer reallocate(final Buffer oldBuffer, final int newSize) {
+            return null;
+        }
+
+        @Override
+        public boolean release(final Buffer underlyingBuffer) {
+            if (underlyingBuffer instanceof PoolBuffer) {
+                underlyingBuffer.tryDispose();
+                return true;
+            }
+
+            return false;
+        }
+
+        @Override
+        public boolean isLastAllocated(final Buffer oldBuffer) {
+            return false;
+        }
+
+        @Override
+        public Buffer reduceLastAllocated(final Buffer buffer) {
+            return null;
+        }
+
+        @Override
+        public boolean wantReset(final int size) {
+            return false;
+        }
+
+        @Override
+        public int remaining() {
+            return 0;
+        }
+
+        @Override
+        public boolean hasRemaining() {
+            return false;
+        }
+    } // END PoolMagazines
+
+
     interface PoolBuffer extends Buffer {
         PoolBuffer prepare();
         boolean free();
         PoolBuffer free(boolean free);
 
         PoolSlice owner();
+
+        BufferLeakDetector.LeakTracker leakTracker();
+        void leakTracker(BufferLeakDetector.LeakTracker leakTracker);
     }
     
     private static final class PoolHeapBuffer extends HeapBuffer
@@ -895,6 +1369,9 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         // be true.
         boolean free;
 
+        // tracks the buffer, if it's sampled by the leak detector
+        private BufferLeakDetector.LeakTracker leakTracker;
+
         // represents the number of 'child' buffers that have been created using
         // this as the foundation.  This source buffer can't be returned
         // to the pool unless this value is zero.
@@ -966,6 +1443,16 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         public PoolSlice owner() {
             return owner;
         }
+
+        @Override
+        public BufferLeakDetector.LeakTracker leakTracker() {
+            return leakTracker;
+        }
+
+        @Override
+        public void leakTracker(final BufferLeakDetector.LeakTracker leakTracker) {
+            this.leakTracker = leakTracker;
+        }
         
         @Override
         public boolean free() {
@@ -1056,7 +1543,7 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             // clear
             clear();
             
-            owner.offer(this);
+            owner.owner.release(this);
         }
         
         // ----------------------------------------------------- Protected Methods
@@ -1116,6 +1603,9 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         // be true.
         boolean free;
 
+        // tracks the buffer, if it's sampled by the leak detector
+        private BufferLeakDetector.LeakTracker leakTracker;
+
         // represents the number of 'child' buffers that have been created using
         // this as the foundation.  This source buffer can't be returned
         // to the pool unless this value is zero.
@@ -1192,6 +1682,16 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         public PoolSlice owner() {
             return owner;
         }
+
+        @Override
+        public BufferLeakDetector.LeakTracker leakTracker() {
+            return leakTracker;
+        }
+
+        @Override
+        public void leakTracker(final BufferLeakDetector.LeakTracker leakTracker) {
+            this.leakTracker = leakTracker;
+        }
         
         @Override
         public boolean free() {
@@ -1272,7 +1772,7 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             // should be called on "source" only
             visible = origVisible;
             visible.clear();
-            owner.offer(this);
+            owner.owner.release(this);
         }
     } // END PoolBuffer    
 }
@@ -77,4 +77,73 @@ final class ProbeNotifier {
         }
     }
 
+    /**
+     * Notify registered {@link MemoryProbe}s about the "thread cache hit" event.
+     *
+     * @param size buffer size
+     */
+    static void notifyThreadCacheHit(
+            final DefaultMonitoringConfig<MemoryProbe> config,
+            final int size) {
+
+        final MemoryProbe[] probes = config.getProbesUnsafe();
+        if (probes != null) {
+            for (MemoryProbe probe : probes) {
+                probe.onThreadCacheHitEvent(size);
+            }
+        }
+    }
+
+    /**
+     * Notify registered {@link MemoryProbe}s about the "thread cache miss" event.
+     *
+     * @param size buffer size
+     */
+    static void notifyThreadCacheMiss(
+            final DefaultMonitoringConfig<MemoryProbe> config,
+            final int size) {
+
+        final MemoryProbe[] probes = config.getProbesUnsafe();
+        if (probes != null) {
+            for (MemoryProbe probe : probes) {
+                probe.onThreadCacheMissEvent(size);
+            }
+        }
+    }
+
+    /**
+     * Notify registered {@link MemoryProbe}s about the "buffer leak" event.
+     *
+     * @param size buffer size
+     */
+    static void notifyBufferLeak(
+            final DefaultMonitoringConfig<MemoryProbe> config,
+            final int size) {
+
+        final MemoryProbe[] probes = config.getProbesUnsafe();
+        if (probes != null) {
+            for (MemoryProbe probe : probes) {
+                probe.onBufferLeakEvent(size);
+            }
+        }
+    }
+
+    /**
+     * Notify registered {@link MemoryProbe}s about the "arena fragmentation" event.
+     *
+     * @param freeBytes the number of free bytes in the arena region
+     * @param largestFreeBlockSize the largest free block size in the arena region
+     */
+    static void notifyArenaFragmentation(
+            final DefaultMonitoringConfig<MemoryProbe> config,
+            final int freeBytes, final int largestFreeBlockSize) {
+
+        final MemoryProbe[] probes = config.getProbesUnsafe();
+        if (probes != null) {
+            for (MemoryProbe probe : probes) {
+                probe.onArenaFragmentationEvent(freeBytes, largestFreeBlockSize);
+            }
+        }
+    }
+
 }
@@ -230,6 +230,11 @@ public abstract class AbstractNIOAsyncQueueWriter
                 return;
             }
 
+            if (nioConnection.isCorked() && cork(nioConnection, queueRecord,
+                    writeTaskQueue, isCurrent, pendingBytes, message, cloner)) {
+                return;
+            }
+
             if (isCurrent && isAllowDirectWrite) {
 
                 // If we can write directly - do it w/o creating queue record (simple)
@@ -287,9 +292,64 @@ public abstract class AbstractNIOAsyncQueueWriter
         } finally {
             reentrants.dec();
         }
+
+        nioConnection.checkWritability();
     }
     
 
+    /**
+     * Queues the record of the corked {@link NIOConnection}.
+     * The first record is held (as the current record) until the cork max
+     * delay elapses, or the amount of queued bytes reaches the cork max bytes
+     * limit, or {@link NIOConnection#flush()} is called, so the queued records
+     * could be written at once.
+     *
+     * @return <tt>true</tt> if the record has been queued, or <tt>false</tt>
+     *         if it has to be written the regular way
+     */
+    private boolean cork(final NIOConnection nioConnection,
+            final AsyncWriteQueueRecord queueRecord,
+            final TaskQueue<AsyncWriteQueueRecord> writeTaskQueue,
+            final boolean isCurrent, final int pendingBytes,
+            final WritableMessage message,
+            final MessageCloner<WritableMessage> cloner) throws IOException {
+
+        // empty message is a flush request
+        final boolean isFlush = !message.hasRemaining()
+                || !queueRecord.canBeAggregated()
+                || pendingBytes >= nioConnection.getCorkMaxBytes();
+
+        if (isCurrent) {
+            if (isFlush) {
+                // nothing is held, write the record the regular way
+                return false;
+            }
+
+            queueRecord.setMessage(
+                    cloneRecordIfNeeded(nioConnection, cloner, message));
+            writeTaskQueue.setCurrentElement(queueRecord);
+
+            if (!nioConnection.holdCorkedWrites()) {
+                onReadyToWrite(nioConnection);
+            } else if (writeTaskQueue.spaceInBytes() >= nioConnection.getCorkMaxBytes()) {
+                // records might have been queued before the hold was started
+                nioConnection.flush();
+            }
+
+            return true;
+        }
+
+        queueRecord.setMessage(
+                cloneRecordIfNeeded(nioConnection, cloner, message));
+        writeTaskQueue.offer(queueRecord);
+
+        if (isFlush) {
+            nioConnection.flush();
+        }
+
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -388,6 +448,7 @@ public abstract class AbstractNIOAsyncQueueWriter
                 context.complete(result.toProcessorResult());
                 
                 writeTaskQueue.doNotify();
+                nioConnection.checkWritability();
 
                 return AsyncResult.TERMINATE;
             }
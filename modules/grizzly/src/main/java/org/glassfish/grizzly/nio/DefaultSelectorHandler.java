@@ -110,18 +110,55 @@ public class DefaultSelectorHandler implements SelectorHandler {
     public void registerKeyInterest(final SelectorRunner selectorRunner,
             final SelectionKey key, final int interest) throws IOException {
         if (isSelectorRunnerThread(selectorRunner)) {
-            registerKey0(key, interest);
+            registerKey0(selectorRunner, key, interest);
         } else {
             selectorRunner.addPendingTask(new RegisterKeyTask(key, interest));
         }
     }
 
-    private static void registerKey0(final SelectionKey selectionKey, final int interest) {
+    private static void registerKey0(final SelectorRunner selectorRunner,
+            final SelectionKey selectionKey, final int interest)
+            throws IOException {
         if (selectionKey.isValid()) {
             final int currentOps = selectionKey.interestOps();
             if ((currentOps & interest) != interest) {
                 selectionKey.interestOps(currentOps | interest);
             }
+        } else {
+            redirectKeyInterest(selectorRunner, selectionKey, interest);
+        }
+    }
+
+    /**
+     * Applies the interest to the {@link SelectionKey} the {@link NIOConnection}
+     * is currently registered with, if the passed (invalid) key has been
+     * cancelled, because the connection was moved to another
+     * {@link SelectorRunner}, for example by {@link LoadAwareConnectionDistributor}.
+     * Does nothing, if the key belongs to a closed connection.
+     */
+    static void redirectKeyInterest(final SelectorRunner selectorRunner,
+            final SelectionKey selectionKey, final int interest)
+            throws IOException {
+        final NIOTransport transport = selectorRunner.getTransport();
+        final NIOConnection connection = transport.getSelectionKeyHandler()
+                .getConnectionForKey(selectionKey);
+        if (connection == null || !connection.isOpen()) {
+            return;
+        }
+
+        final SelectionKey currentKey = connection.getSelectionKey();
+        final SelectorRunner currentRunner = connection.getSelectorRunner();
+        if (currentKey == null || currentRunner == null) {
+            return;
+        }
+
+        if (currentKey != selectionKey || currentRunner != selectorRunner) {
+            transport.getSelectorHandler().registerKeyInterest(currentRunner,
+                    currentKey, interest);
+        } else {
+            // the connection registration on this runner is still pending
+            selectorRunner.getPostponedTasks().offer(
+                    new RedirectKeyTask(selectionKey, interest));
         }
     }
     
@@ -251,11 +288,7 @@ public class DefaultSelectorHandler implements SelectorHandler {
         }
 
         selectorRunner.addPendingTask(task);
-        
-        if (selectorRunner.isStop() &&
-                selectorRunner.getPendingTasks().remove(task)) {
-            task.cancel();
-        }
+        selectorRunner.abortPendingTasksIfStopped();
     }
 
     private boolean processPendingTasks(final SelectorRunner selectorRunner)
@@ -264,7 +297,35 @@ public class DefaultSelectorHandler implements SelectorHandler {
         return processPendingTaskQueue(selectorRunner, selectorRunner.obtainPostponedTasks())
                 &&
                 (!selectorRunner.hasPendingTasks ||
-                processPendingTaskQueue(selectorRunner, selectorRunner.getPendingTasks()));
+                processCrossThreadTaskQueue(selectorRunner));
+    }
+
+    /**
+     * Processes the tasks submitted by other threads and reports the number
+     * of processed tasks to the {@link SelectorHandlerProbe}s.
+     */
+    private boolean processCrossThreadTaskQueue(final SelectorRunner selectorRunner)
+            throws IOException {
+        final Queue<SelectorHandlerTask> selectorHandlerTasks =
+                selectorRunner.getPendingTasks();
+        int tasksCount = 0;
+        
+        try {
+            SelectorHandlerTask selectorHandlerTask;
+            while ((selectorHandlerTask = selectorHandlerTasks.poll()) != null) {
+                tasksCount++;
+                if (!selectorHandlerTask.run(selectorRunner)) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            if (tasksCount > 0) {
+                NIOTransport.notifyProbesPendingTasks(
+                        selectorRunner.getTransport(), selectorRunner, tasksCount);
+            }
+        }
     }
 
     private boolean processPendingTaskQueue(final SelectorRunner selectorRunner,
@@ -354,6 +415,7 @@ public class DefaultSelectorHandler implements SelectorHandler {
                 if (key != null) {
                     // If channel is registered
                     selectorRunner.getTransport().getSelectionKeyHandler().cancel(key);
+                    selectorRunner.onKeyCancelled();
 
                     selectorRunner.getTransport().
                             getSelectionKeyHandler().
@@ -380,6 +442,14 @@ public class DefaultSelectorHandler implements SelectorHandler {
         }
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Batch createBatch(final SelectorRunner selectorRunner) {
+        return new DefaultBatch(selectorRunner);
+    }
+
     @Override
     public boolean onSelectorClosed(final SelectorRunner selectorRunner) {
         try {
@@ -395,6 +465,77 @@ public class DefaultSelectorHandler implements SelectorHandler {
                 Thread.currentThread() == selectorRunner.getRunnerThread();
     }
 
+    /**
+     * {@link SelectorHandler.Batch} implementation, which collects
+     * {@link SelectorHandlerTask}s and adds them to the
+     * {@link SelectorRunner}'s pending task queue at once.
+     * If the batch is submitted by the selector thread - the tasks are added
+     * to the postponed task queue, so no wakeup is required at all.
+     */
+    protected static class DefaultBatch implements Batch {
+        protected final SelectorRunner selectorRunner;
+        private final List<SelectorHandlerTask> tasks =
+                new ArrayList<SelectorHandlerTask>();
+
+        public DefaultBatch(final SelectorRunner selectorRunner) {
+            this.selectorRunner = selectorRunner;
+        }
+
+        @Override
+        public Batch registerKeyInterest(final SelectionKey key,
+                final int interest) {
+            if (isSelectorRunnerThread(selectorRunner)) {
+                try {
+                    registerKey0(selectorRunner, key, interest);
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "Can not register key interest", e);
+                }
+                return this;
+            }
+            
+            return addTask(new RegisterKeyTask(key, interest));
+        }
+
+        @Override
+        public Batch enque(final Task task,
+                final CompletionHandler<Task> completionHandler) {
+            return addTask(new RunnableTask(task, completionHandler));
+        }
+
+        @Override
+        public Batch addTask(final SelectorHandlerTask task) {
+            tasks.add(task);
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+
+        @Override
+        public void submit() {
+            if (tasks.isEmpty()) {
+                return;
+            }
+            
+            try {
+                if (selectorRunner == null) {
+                    for (SelectorHandlerTask task : tasks) {
+                        task.cancel();
+                    }
+                } else if (isSelectorRunnerThread(selectorRunner)) {
+                    selectorRunner.getPostponedTasks().addAll(tasks);
+                } else {
+                    selectorRunner.addPendingTasks(tasks);
+                    selectorRunner.abortPendingTasksIfStopped();
+                }
+            } finally {
+                tasks.clear();
+            }
+        }
+    }
+
     protected static final class RegisterKeyTask implements SelectorHandlerTask {
         private final SelectionKey selectionKey;
         private final int interest;
@@ -411,7 +552,7 @@ public class DefaultSelectorHandler implements SelectorHandler {
                 localSelectionKey = selectorRunner.checkIfSpinnedKey(selectionKey);
             }
 
-            registerKey0(localSelectionKey, interest);
+            registerKey0(selectorRunner, localSelectionKey, interest);
             
             return true;
         }
@@ -421,6 +562,26 @@ public class DefaultSelectorHandler implements SelectorHandler {
         }
     }
 
+    private static final class RedirectKeyTask implements SelectorHandlerTask {
+        private final SelectionKey selectionKey;
+        private final int interest;
+
+        private RedirectKeyTask(final SelectionKey selectionKey, final int interest) {
+            this.selectionKey = selectionKey;
+            this.interest = interest;
+        }
+
+        @Override
+        public boolean run(final SelectorRunner selectorRunner) throws IOException {
+            redirectKeyInterest(selectorRunner, selectionKey, interest);
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
     protected static final class RegisterChannelOperation implements SelectorHandlerTask {
         private final SelectableChannel channel;
         private final int interest;
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SelectorHandler} implementation, which applies {@link SelectionKey}
+ * interest changes directly from the calling thread instead of queueing a
+ * task for the {@link SelectorRunner} thread.
+ *
+ * The {@link DefaultSelectorHandler} schedules a task for every interest
+ * registration made outside of the selector thread, which means an object
+ * allocation, a concurrent queue offer/poll and a selector wakeup per
+ * <tt>enableIOEvent(...)</tt> call. This handler updates the key's interest
+ * set in place and only requests a (coalesced) selector wakeup, so the
+ * change is picked up by the currently blocked <tt>select()</tt> call.
+ *
+ * This relies on {@link SelectionKey#interestOps(int)} being non-blocking
+ * when called concurrently with <tt>select()</tt>, which is the case for the
+ * epoll (Linux) and kqueue (Mac OS X) based selector providers, but is not
+ * guaranteed by the specification. On other platforms the
+ * {@link DefaultSelectorHandler} should be used.
+ *
+ * The handler may be plugged into any {@link NIOTransport} using
+ * {@link org.glassfish.grizzly.NIOTransportBuilder#setSelectorHandler(SelectorHandler)}.
+ * It doesn't change the {@link org.glassfish.grizzly.IOStrategy} or
+ * filter chain processing.
+ */
+public class DirectInterestSelectorHandler extends DefaultSelectorHandler {
+
+    public DirectInterestSelectorHandler() {
+        super();
+    }
+
+    public DirectInterestSelectorHandler(final long selectTimeout,
+            final TimeUnit timeunit) {
+        super(selectTimeout, timeunit);
+    }
+
+    @Override
+    public void registerKeyInterest(final SelectorRunner selectorRunner,
+            final SelectionKey key, final int interest) throws IOException {
+        if (key.isValid()) {
+            try {
+                if (registerKey0(key, interest)
+                        && selectorRunner != null
+                        && Thread.currentThread() != selectorRunner.getRunnerThread()) {
+                    selectorRunner.wakeupSelector();
+                }
+
+                return;
+            } catch (CancelledKeyException ignored) {
+                // the key has been cancelled concurrently
+            }
+        }
+
+        // The key is not valid anymore, it might have been re-registered
+        // on a new Selector by the selector spin workaround,
+        // so let the selector thread take care of it
+        selectorRunner.addPendingTask(new DirectRegisterKeyTask(key, interest));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deregisterKeyInterest(final SelectorRunner selectorRunner,
+            final SelectionKey key, final int interest) throws IOException {
+        if (key.isValid()) {
+            synchronized (key) {
+                final int currentOps = key.interestOps();
+                if ((currentOps & interest) != 0) {
+                    key.interestOps(currentOps & (~interest));
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Batch createBatch(final SelectorRunner selectorRunner) {
+        return new DirectInterestBatch(selectorRunner);
+    }
+
+    /**
+     * Adds the interest to the {@link SelectionKey}'s interest set.
+     * The read-modify-write is guarded by the key monitor, because interest
+     * changes may come from different threads at the same time.
+     *
+     * @return <tt>true</tt> if the key's interest set has been changed,
+     *          or <tt>false</tt> otherwise
+     */
+    private static boolean registerKey0(final SelectionKey selectionKey,
+            final int interest) {
+        synchronized (selectionKey) {
+            if (selectionKey.isValid()) {
+                final int currentOps = selectionKey.interestOps();
+                if ((currentOps & interest) != interest) {
+                    selectionKey.interestOps(currentOps | interest);
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * {@link SelectorHandler.Batch}, which applies the interest changes
+     * directly and defers the Selector wakeup till {@link #submit()}.
+     */
+    private static final class DirectInterestBatch extends DefaultBatch {
+        private boolean isWakeupRequired;
+
+        private DirectInterestBatch(final SelectorRunner selectorRunner) {
+            super(selectorRunner);
+        }
+
+        @Override
+        public Batch registerKeyInterest(final SelectionKey key,
+                final int interest) {
+            if (key.isValid()) {
+                try {
+                    if (registerKey0(key, interest)) {
+                        isWakeupRequired = true;
+                    }
+
+                    return this;
+                } catch (CancelledKeyException ignored) {
+                    // the key has been cancelled concurrently
+                }
+            }
+
+            return addTask(new DirectRegisterKeyTask(key, interest));
+        }
+
+        @Override
+        public void submit() {
+            // if there are tasks - the Selector will be woken up by super.submit()
+            if (isWakeupRequired && size() == 0 && selectorRunner != null
+                    && Thread.currentThread() != selectorRunner.getRunnerThread()) {
+                selectorRunner.wakeupSelector();
+            }
+
+            isWakeupRequired = false;
+            super.submit();
+        }
+    }
+
+    private static final class DirectRegisterKeyTask
+            implements SelectorHandlerTask {
+        private final SelectionKey selectionKey;
+        private final int interest;
+
+        private DirectRegisterKeyTask(final SelectionKey selectionKey,
+                final int interest) {
+            this.selectionKey = selectionKey;
+            this.interest = interest;
+        }
+
+        @Override
+        public boolean run(final SelectorRunner selectorRunner)
+                throws IOException {
+            SelectionKey localSelectionKey = selectionKey;
+            if (IS_WORKAROUND_SELECTOR_SPIN) {
+                localSelectionKey = selectorRunner.checkIfSpinnedKey(selectionKey);
+            }
+
+            if (localSelectionKey.isValid()) {
+                registerKey0(localSelectionKey, interest);
+            } else {
+                redirectKeyInterest(selectorRunner, localSelectionKey, interest);
+            }
+
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.CompletionHandler;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.EmptyCompletionHandler;
+import org.glassfish.grizzly.Grizzly;
+
+/**
+ * {@link NIOChannelDistributor} implementation, which assigns a new channel
+ * to the least loaded {@link SelectorRunner}.
+ *
+ * The load of a {@link SelectorRunner} is estimated using its live metrics:
+ * the number of registered {@link SelectionKey}s, the number of pending
+ * tasks and the recent select loop latency, expressed as the fraction of
+ * the select loop time the runner spent processing events rather than
+ * waiting for them (see {@link SelectorRunner#getBusyRatio()}).
+ *
+ * Optionally the distributor may periodically move idle connections
+ * (connections, which are only interested in {@link SelectionKey#OP_READ})
+ * from the most loaded {@link SelectorRunner} to the least loaded one,
+ * see {@link #rebalance()}.
+ *
+ * @since 2.4.5
+ */
+public final class LoadAwareConnectionDistributor
+        extends AbstractNIOConnectionDistributor {
+    private static final Logger LOGGER =
+            Grizzly.logger(LoadAwareConnectionDistributor.class);
+
+    /**
+     * The max number of connections moved by one {@link #rebalance()} call.
+     */
+    public static final int MAX_MIGRATIONS_PER_REBALANCE = 64;
+
+    private final boolean useDedicatedAcceptor;
+    private final long migrationIntervalNanos;
+
+    private final AtomicInteger offset = new AtomicInteger();
+    private final AtomicLong nextRebalanceNanos = new AtomicLong();
+    private final AtomicLong migratedConnectionsCount = new AtomicLong();
+
+    public LoadAwareConnectionDistributor(final NIOTransport transport) {
+        this(transport, false, -1, TimeUnit.MILLISECONDS);
+    }
+
+    public LoadAwareConnectionDistributor(final NIOTransport transport,
+            final boolean useDedicatedAcceptor) {
+        this(transport, useDedicatedAcceptor, -1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs LoadAwareConnectionDistributor with the given configuration.
+     *
+     * @param transport
+     * @param useDedicatedAcceptor depending on this flag server {@link Connection}s,
+     *          responsible for accepting client connections, will or will not
+     *          use dedicated {@link SelectorRunner}
+     * @param migrationInterval the min interval between two automatic
+     *          {@link #rebalance()} attempts, which are made as part of new
+     *          channel registration. Zero or negative value disables
+     *          automatic connection migration.
+     * @param timeUnit the migration interval {@link TimeUnit}
+     */
+    public LoadAwareConnectionDistributor(final NIOTransport transport,
+            final boolean useDedicatedAcceptor,
+            final long migrationInterval, final TimeUnit timeUnit) {
+        super(transport);
+        this.useDedicatedAcceptor = useDedicatedAcceptor;
+        this.migrationIntervalNanos = migrationInterval > 0
+                ? timeUnit.toNanos(migrationInterval)
+                : -1;
+    }
+
+    /**
+     * @return <tt>true</tt>, if idle connections are periodically moved
+     *          between {@link SelectorRunner}s, or <tt>false</tt> otherwise.
+     */
+    public boolean isMigrationEnabled() {
+        return migrationIntervalNanos > 0;
+    }
+
+    /**
+     * @return the total number of connections moved to another
+     *          {@link SelectorRunner} by this distributor.
+     */
+    public long getMigratedConnectionsCount() {
+        return migratedConnectionsCount.get();
+    }
+
+    @Override
+    public void registerChannel(final SelectableChannel channel,
+            final int interestOps, final Object attachment) throws IOException {
+        transport.getSelectorHandler().registerChannel(next(),
+                channel, interestOps, attachment);
+        checkRebalance();
+    }
+
+    @Override
+    public void registerChannelAsync(
+            final SelectableChannel channel, final int interestOps,
+            final Object attachment,
+            final CompletionHandler<RegisterChannelResult> completionHandler) {
+        transport.getSelectorHandler().registerChannelAsync(
+                next(), channel, interestOps, attachment, completionHandler);
+        checkRebalance();
+    }
+
+    @Override
+    public void registerServiceChannelAsync(
+            final SelectableChannel channel, final int interestOps,
+            final Object attachment,
+            final CompletionHandler<RegisterChannelResult> completionHandler) {
+        final SelectorRunner runner = useDedicatedAcceptor
+                ? getTransportSelectorRunners()[0]
+                : next();
+
+        transport.getSelectorHandler().registerChannelAsync(
+                runner, channel, interestOps, attachment, completionHandler);
+    }
+
+    /**
+     * Moves up to {@link #MAX_MIGRATIONS_PER_REBALANCE} idle connections from
+     * the most loaded {@link SelectorRunner} to the least loaded one, if
+     * the difference between their loads is significant.
+     * The connections are moved asynchronously by the source
+     * {@link SelectorRunner} thread.
+     *
+     * @return the number of connections scheduled for migration.
+     */
+    public int rebalance() {
+        final SelectorRunner[] runners = getTransportSelectorRunners();
+        final int from = firstRunnerIdx(runners);
+        if (runners.length - from < 2) {
+            return 0;
+        }
+
+        SelectorRunner src = null;
+        SelectorRunner dst = null;
+        float srcScore = -1;
+        float dstScore = Float.MAX_VALUE;
+        for (int i = from; i < runners.length; i++) {
+            final float score = score(runners[i]);
+            if (score > srcScore) {
+                srcScore = score;
+                src = runners[i];
+            }
+            if (score < dstScore) {
+                dstScore = score;
+                dst = runners[i];
+            }
+        }
+
+        if (src == null || dst == null || src == dst
+                || srcScore <= dstScore * 1.25f) {
+            return 0;
+        }
+
+        final int count = Math.min(MAX_MIGRATIONS_PER_REBALANCE,
+                (src.getRegisteredKeysCount() - dst.getRegisteredKeysCount()) / 2);
+        if (count <= 0) {
+            return 0;
+        }
+
+        transport.getSelectorHandler().execute(src,
+                new MigrationTask(src, dst, count), null);
+
+        return count;
+    }
+
+    private void checkRebalance() {
+        if (migrationIntervalNanos <= 0) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final long next = nextRebalanceNanos.get();
+        if (now - next >= 0
+                && nextRebalanceNanos.compareAndSet(next, now + migrationIntervalNanos)) {
+            rebalance();
+        }
+    }
+
+    /**
+     * Returns the least loaded {@link SelectorRunner}, the scan starts from
+     * a rotating position, so equally loaded runners are picked in
+     * round-robin order.
+     */
+    private SelectorRunner next() {
+        final SelectorRunner[] runners = getTransportSelectorRunners();
+        final int from = firstRunnerIdx(runners);
+        final int size = runners.length - from;
+        if (size == 1) {
+            return runners[from];
+        }
+
+        final int start = (offset.getAndIncrement() & 0x7fffffff) % size;
+        SelectorRunner best = null;
+        float bestScore = Float.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            final SelectorRunner runner = runners[from + (start + i) % size];
+            final float score = score(runner);
+            if (score < bestScore) {
+                bestScore = score;
+                best = runner;
+            }
+        }
+
+        return best;
+    }
+
+    private int firstRunnerIdx(final SelectorRunner[] runners) {
+        return useDedicatedAcceptor && runners.length > 1 ? 1 : 0;
+    }
+
+    private static float score(final SelectorRunner runner) {
+        final int load = runner.getRegisteredKeysCount()
+                + runner.getPendingTasksCount() + 1;
+        return load * (1f + runner.getBusyRatio());
+    }
+
+    /**
+     * Moves idle connections from the source {@link SelectorRunner} to the
+     * destination one, is executed by the source {@link SelectorRunner} thread.
+     */
+    private final class MigrationTask implements SelectorHandler.Task {
+        private final SelectorRunner src;
+        private final SelectorRunner dst;
+        private final int count;
+
+        private MigrationTask(final SelectorRunner src,
+                final SelectorRunner dst, final int count) {
+            this.src = src;
+            this.dst = dst;
+            this.count = count;
+        }
+
+        @Override
+        public boolean run() throws Exception {
+            final Selector selector = src.getSelector();
+            final SelectionKeyHandler selectionKeyHandler =
+                    transport.getSelectionKeyHandler();
+
+            final List<NIOConnection> connections =
+                    new ArrayList<NIOConnection>(count);
+            for (SelectionKey key : selector.keys()) {
+                if (key.isValid() && key.interestOps() == SelectionKey.OP_READ) {
+                    final NIOConnection connection =
+                            selectionKeyHandler.getConnectionForKey(key);
+                    if (connection != null && connection.isOpen()
+                            && connection.getSelectionKey() == key
+                            && connection.getSelectorRunner() == src) {
+                        connections.add(connection);
+                        if (connections.size() == count) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            for (NIOConnection connection : connections) {
+                migrate(connection, selectionKeyHandler);
+            }
+
+            return true;
+        }
+
+        private void migrate(final NIOConnection connection,
+                final SelectionKeyHandler selectionKeyHandler)
+                throws IOException {
+            final SelectionKey key = connection.getSelectionKey();
+            final int interestOps = key.interestOps();
+
+            selectionKeyHandler.cancel(key);
+            src.onKeyCancelled();
+            connection.setSelectorRunner(dst);
+
+            transport.getSelectorHandler().registerChannelAsync(dst,
+                    connection.getChannel(), interestOps, connection,
+                    new EmptyCompletionHandler<RegisterChannelResult>() {
+
+                        @Override
+                        public void completed(final RegisterChannelResult result) {
+                            connection.onSelectionKeyUpdated(result.getSelectionKey());
+                            migratedConnectionsCount.incrementAndGet();
+                        }
+
+                        @Override
+                        public void failed(final Throwable throwable) {
+                            LOGGER.log(Level.FINE,
+                                    "Connection migration failed", throwable);
+                            connection.closeSilently();
+                        }
+                    });
+        }
+    }
+}
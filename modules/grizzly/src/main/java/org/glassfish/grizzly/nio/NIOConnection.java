@@ -31,7 +31,10 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -58,6 +61,8 @@ import org.glassfish.grizzly.asyncqueue.AsyncReadQueueRecord;
 import org.glassfish.grizzly.asyncqueue.AsyncWriteQueueRecord;
 import org.glassfish.grizzly.asyncqueue.TaskQueue;
 import org.glassfish.grizzly.attributes.AttributeHolder;
+import org.glassfish.grizzly.filterchain.FilterChain;
+import org.glassfish.grizzly.filterchain.WritabilityChangedEvent;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.MemoryManager;
@@ -118,6 +123,30 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
     
     protected volatile boolean isBlocking;
     protected volatile boolean isStandalone;        
+
+    // cork mode settings, corkMaxDelayNanos == -1 means the cork mode is off
+    private volatile long corkMaxDelayNanos = -1;
+    private volatile int corkMaxBytes;
+
+    // the id of the current cork hold, 0 - no writes are held,
+    // FLUSH_REQUESTED - flush was requested before the hold has been started
+    private static final long FLUSH_REQUESTED = -1;
+    private static final AtomicLongFieldUpdater<NIOConnection> corkHoldUpdater =
+            AtomicLongFieldUpdater.newUpdater(NIOConnection.class, "corkHold");
+    @SuppressWarnings("unused")
+    private volatile long corkHold;
+    // accessed by the thread, which owns the current async write queue record
+    private long corkHoldCounter;
+
+    // write watermarks, writeHighWatermark == -1 means the watermarks are off
+    private volatile int writeLowWatermark = -1;
+    private volatile int writeHighWatermark = -1;
+
+    // 1 - the connection is writable, 0 - the async write queue has reached
+    // the high watermark and hasn't been drained to the low watermark yet
+    private static final AtomicIntegerFieldUpdater<NIOConnection> writableUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(NIOConnection.class, "writable");
+    private volatile int writable = 1;
     protected short zeroByteReadCount;
     private final List<org.glassfish.grizzly.CloseListener> closeListeners =
             Collections.synchronizedList(new LinkedList<>());
@@ -223,6 +252,291 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         writeTimeoutMillis = TimeUnit.MILLISECONDS.convert(timeout, timeUnit);
     }
 
+    /**
+     * Turns on the cork mode for this <tt>Connection</tt>.
+     * In the cork mode asynchronous writes are not sent to the network
+     * immediately, but held in the async write queue until either
+     * <tt>maxDelay</tt> elapses, or the amount of held data reaches
+     * <tt>maxBytes</tt>, or {@link #flush()} is called. The held writes are
+     * then written at once, which lets the transport aggregate them into a
+     * single gathering write.
+     *
+     * Writes, which can't be aggregated (like file regions), as well as
+     * flush requests (empty buffers, see
+     * {@link org.glassfish.grizzly.filterchain.FilterChainContext#flush(CompletionHandler)})
+     * release the held writes.
+     *
+     * @param maxDelay the max time the first held write may wait before being
+     *                 written
+     * @param timeUnit the {@link TimeUnit} of <tt>maxDelay</tt>
+     * @param maxBytes the amount of held bytes, which triggers the write
+     *
+     * @see #uncork()
+     * @since 2.4.5
+     */
+    public void cork(final long maxDelay, final TimeUnit timeUnit,
+            final int maxBytes) {
+        if (maxDelay <= 0) {
+            throw new IllegalArgumentException("maxDelay must be positive");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+
+        corkMaxBytes = maxBytes;
+        // drop the flush request left from the previous cork session (if any)
+        corkHoldUpdater.compareAndSet(this, FLUSH_REQUESTED, 0);
+        corkMaxDelayNanos = timeUnit.toNanos(maxDelay);
+    }
+
+    /**
+     * Turns off the cork mode and releases the held writes (if any).
+     *
+     * @since 2.4.5
+     */
+    public void uncork() {
+        corkMaxDelayNanos = -1;
+        flush();
+        corkHoldUpdater.compareAndSet(this, FLUSH_REQUESTED, 0);
+    }
+
+    /**
+     * @return <tt>true</tt>, if the cork mode is on, or <tt>false</tt> otherwise
+     *
+     * @see #cork(long, TimeUnit, int)
+     * @since 2.4.5
+     */
+    public boolean isCorked() {
+        return corkMaxDelayNanos != -1;
+    }
+
+    /**
+     * @param timeUnit the {@link TimeUnit} of the result
+     *
+     * @return the max time the first held write may wait before being written,
+     *         or <tt>-1</tt> if the cork mode is off
+     * @since 2.4.5
+     */
+    public long getCorkMaxDelay(final TimeUnit timeUnit) {
+        final long maxDelayNanos = corkMaxDelayNanos;
+        return maxDelayNanos == -1
+                ? -1
+                : timeUnit.convert(maxDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the amount of held bytes, which triggers the write in the cork mode
+     * @since 2.4.5
+     */
+    public int getCorkMaxBytes() {
+        return corkMaxBytes;
+    }
+
+    /**
+     * Releases the writes held by the cork mode, so they get written using a
+     * single (gathering) write. The cork mode remains on, so the following
+     * writes will be held again.
+     *
+     * @since 2.4.5
+     */
+    public void flush() {
+        for (;;) {
+            final long hold = corkHold;
+            if (hold > 0) {
+                if (corkHoldUpdater.compareAndSet(this, hold, 0)) {
+                    releaseCorkedWrites();
+                    return;
+                }
+            } else if (hold == 0) {
+                if (corkMaxDelayNanos == -1 || asyncWriteQueue.isEmpty()) {
+                    // nothing is held
+                    return;
+                }
+
+                // the hold might be just about to start - let it know it
+                // has to write immediately
+                if (corkHoldUpdater.compareAndSet(this, 0, FLUSH_REQUESTED)) {
+                    return;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts holding the current async write queue record. Must be called by
+     * the thread, which has just set the current record.
+     *
+     * @return <tt>true</tt>, if the record is held, or <tt>false</tt>
+     *         if it has to be written immediately
+     */
+    boolean holdCorkedWrites() {
+        final long maxDelayNanos = corkMaxDelayNanos;
+        if (maxDelayNanos == -1) {
+            return false;
+        }
+
+        final long holdId = ++corkHoldCounter;
+        if (!corkHoldUpdater.compareAndSet(this, 0, holdId)) {
+            // flush has been requested
+            corkHold = 0;
+            return false;
+        }
+
+        try {
+            transport.obtainCorkScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (corkHoldUpdater.compareAndSet(NIOConnection.this,
+                            holdId, 0)) {
+                        releaseCorkedWrites();
+                    }
+                }
+            }, maxDelayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the transport is being stopped
+            return !corkHoldUpdater.compareAndSet(this, holdId, 0);
+        }
+
+        return true;
+    }
+
+    private void releaseCorkedWrites() {
+        try {
+            simulateIOEvent(IOEvent.WRITE);
+        } catch (IOException e) {
+            closeWithReason(e);
+        }
+    }
+
+    /**
+     * Sets the async write queue watermarks for this <tt>Connection</tt>.
+     * Once the amount of the queued bytes reaches the <tt>highWatermark</tt>,
+     * the <tt>Connection</tt> becomes unwritable (see {@link #isWritable()})
+     * and stays unwritable until the queue gets drained down to the
+     * <tt>lowWatermark</tt>. Unlike the
+     * {@link #setMaxAsyncWriteQueueSize(int) max async write queue size},
+     * the watermarks never reject writes, they only notify about the state
+     * changes: the {@link WritabilityChangedEvent} is fired upstream through
+     * the <tt>Connection</tt>'s {@link FilterChain} and
+     * {@link ConnectionProbe#onWriteStallEvent(Connection, int)} gets called,
+     * when the <tt>Connection</tt> becomes unwritable.
+     *
+     * Passing a negative <tt>highWatermark</tt> turns the watermarks off.
+     *
+     * @param lowWatermark the amount of queued bytes, at which the
+     *        <tt>Connection</tt> becomes writable again
+     * @param highWatermark the amount of queued bytes, at which the
+     *        <tt>Connection</tt> becomes unwritable, or <tt>-1</tt> to turn
+     *        the watermarks off
+     *
+     * @throws IllegalArgumentException if <tt>lowWatermark</tt> is negative
+     *         or not less than <tt>highWatermark</tt>
+     * @since 2.4.5
+     */
+    public void setWriteWatermarks(final int lowWatermark,
+            final int highWatermark) {
+        if (highWatermark < 0) {
+            writeHighWatermark = -1;
+            writeLowWatermark = -1;
+        } else {
+            if (lowWatermark < 0 || lowWatermark >= highWatermark) {
+                throw new IllegalArgumentException("lowWatermark must be "
+                        + "non-negative and less than highWatermark");
+            }
+
+            writeLowWatermark = lowWatermark;
+            writeHighWatermark = highWatermark;
+        }
+
+        checkWritability();
+    }
+
+    /**
+     * @return the amount of queued bytes, at which the <tt>Connection</tt>
+     *         becomes writable again, or <tt>-1</tt> if the watermarks are off
+     *
+     * @see #setWriteWatermarks(int, int)
+     * @since 2.4.5
+     */
+    public int getWriteLowWatermark() {
+        return writeLowWatermark;
+    }
+
+    /**
+     * @return the amount of queued bytes, at which the <tt>Connection</tt>
+     *         becomes unwritable, or <tt>-1</tt> if the watermarks are off
+     *
+     * @see #setWriteWatermarks(int, int)
+     * @since 2.4.5
+     */
+    public int getWriteHighWatermark() {
+        return writeHighWatermark;
+    }
+
+    /**
+     * @return <tt>false</tt>, if the async write queue has reached the high
+     *         watermark and hasn't been drained down to the low watermark
+     *         yet, or <tt>true</tt> otherwise
+     *
+     * @see #setWriteWatermarks(int, int)
+     * @since 2.4.5
+     */
+    public boolean isWritable() {
+        return writable == 1;
+    }
+
+    /**
+     * Checks the async write queue size against the write watermarks and
+     * flips the writability state if needed.
+     * Must be called after the async write queue size has been changed.
+     */
+    void checkWritability() {
+        final int highWatermark = writeHighWatermark;
+        if (highWatermark < 0) {
+            // the watermarks might have been just turned off
+            if (writable == 0 && writableUpdater.compareAndSet(this, 0, 1)) {
+                onWritabilityChanged(true);
+            }
+            return;
+        }
+
+        for (;;) {
+            final int queueSize = asyncWriteQueue.spaceInBytes();
+            if (writable == 1) {
+                if (queueSize < highWatermark
+                        || !writableUpdater.compareAndSet(this, 1, 0)) {
+                    return;
+                }
+
+                notifyProbesWriteStall(this, queueSize);
+                onWritabilityChanged(false);
+            } else {
+                if (queueSize > writeLowWatermark
+                        || !writableUpdater.compareAndSet(this, 0, 1)) {
+                    return;
+                }
+
+                onWritabilityChanged(true);
+            }
+
+            // the queue size might have been changed concurrently by the
+            // thread, whose state flip has been lost, so check it again
+        }
+    }
+
+    private void onWritabilityChanged(final boolean isWritable) {
+        final Processor localProcessor = processor;
+        if (localProcessor instanceof FilterChain) {
+            ((FilterChain) localProcessor).fireEventUpstream(this,
+                    isWritable
+                            ? WritabilityChangedEvent.WRITABLE
+                            : WritabilityChangedEvent.UNWRITABLE,
+                    null);
+        }
+    }
+
     public SelectorRunner getSelectorRunner() {
         return selectorRunner;
     }
@@ -332,15 +646,14 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         final Executor threadPool = transport.getIOStrategy()
                 .getThreadPoolFor(this, event);
         if (threadPool == null) {
-            transport.getSelectorHandler().enque(selectorRunner,
-                    new SelectorHandler.Task() {
+            enque(new SelectorHandler.Task() {
 
                         @Override
                         public boolean run() throws Exception {
                             runnable.run();
                             return true;
                         }
-                    }, null);
+                    });
         } else {
             threadPool.execute(runnable);
         }
@@ -759,6 +1072,23 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         }
     }
 
+    /**
+     * Notify registered {@link ConnectionProbe}s about the read size
+     * prediction result.
+     */
+    protected static void notifyProbesReadSizePrediction(
+            final NIOConnection connection, final int predictedSize,
+            final int readSize) {
+        final ConnectionProbe[] probes =
+            connection.monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (ConnectionProbe probe : probes) {
+                probe.onReadSizePredictionEvent(connection, predictedSize,
+                        readSize);
+            }
+        }
+    }
+
     /**
      * Notify registered {@link ConnectionProbe}s about the write event.
      */
@@ -773,6 +1103,23 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         }
     }
 
+    /**
+     * Notify registered {@link ConnectionProbe}s about the write stall event.
+     *
+     * @param connection the <tt>Connection</tt> event occurred on.
+     * @param queueSize the number of bytes queued for writing.
+     */
+    protected static void notifyProbesWriteStall(final NIOConnection connection,
+            final int queueSize) {
+        final ConnectionProbe[] probes =
+            connection.monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (ConnectionProbe probe : probes) {
+                probe.onWriteStallEvent(connection, queueSize);
+            }
+        }
+    }
+
     /**
      * Notify registered {@link ConnectionProbe}s about the IO Event ready event.
      *
@@ -901,13 +1248,12 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
             return;
         }
         
-        final SelectorHandler selectorHandler = transport.getSelectorHandler();
         switch (ioEvent) {
             case WRITE:
-                selectorHandler.enque(selectorRunner, writeSimulatorRunnable, null);
+                enque(writeSimulatorRunnable);
                 break;
             case READ:
-                selectorHandler.enque(selectorRunner, readSimulatorRunnable, null);
+                enque(readSimulatorRunnable);
                 break;
             default:
                 throw new IllegalArgumentException("We support only READ and WRITE events. Got " + ioEvent);
@@ -931,9 +1277,44 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         // if OP_READ was enabled at least once - isInitialReadRequired should be false
         isInitialReadRequired = isInitialReadRequired && !isOpRead;
         
-        final SelectorHandler selectorHandler = transport.getSelectorHandler();
-        selectorHandler.registerKeyInterest(selectorRunner, selectionKey,
-            interest);
+        final SelectorHandler.Batch batch = getThreadBatch();
+        if (batch == null) {
+            transport.getSelectorHandler().registerKeyInterest(selectorRunner,
+                    selectionKey, interest);
+            return;
+        }
+
+        batch.registerKeyInterest(selectionKey, interest);
+        if (ioEvent == IOEvent.WRITE) {
+            // the thread may wait for the write queue to be flushed before
+            // its batch gets submitted, so hand OP_WRITE over right away
+            batch.submit();
+        }
+    }
+
+    /**
+     * Enques the task to the connection's {@link SelectorRunner}, using
+     * the current thread's {@link SelectorHandler.Batch}, if it has one open.
+     */
+    private void enque(final SelectorHandler.Task task) {
+        final SelectorHandler.Batch batch = getThreadBatch();
+        if (batch != null) {
+            batch.enque(task, null);
+        } else {
+            transport.getSelectorHandler().enque(selectorRunner, task, null);
+        }
+    }
+
+    /**
+     * @return the current thread's open {@link SelectorHandler.Batch} for
+     *         the connection's {@link SelectorRunner}, or <tt>null</tt>
+     * @see SelectorRunner#openThreadBatch()
+     */
+    private SelectorHandler.Batch getThreadBatch() {
+        final SelectorRunner localSelectorRunner = selectorRunner;
+        return localSelectorRunner != null
+                ? localSelectorRunner.getThreadBatch()
+                : null;
     }
 
     private final SelectorHandler.Task writeSimulatorRunnable =
@@ -22,6 +22,8 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -41,6 +43,8 @@ import org.glassfish.grizzly.TransportProbe;
 import org.glassfish.grizzly.asyncqueue.AsyncQueueEnabledTransport;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.localization.LogMessages;
+import org.glassfish.grizzly.monitoring.DefaultMonitoringConfig;
+import org.glassfish.grizzly.monitoring.MonitoringConfig;
 import org.glassfish.grizzly.nio.tmpselectors.TemporarySelectorIO;
 import org.glassfish.grizzly.nio.tmpselectors.TemporarySelectorPool;
 import org.glassfish.grizzly.nio.tmpselectors.TemporarySelectorsEnabledTransport;
@@ -67,6 +71,7 @@ public abstract class NIOTransport extends AbstractTransport
             SocketConnectorHandler.DEFAULT_CONNECTION_TIMEOUT;
     public static final int DEFAULT_SELECTOR_RUNNER_COUNT = -1;
     public static final boolean DEFAULT_OPTIMIZED_FOR_MULTIPLEXING = false;
+    public static final boolean DEFAULT_OPTIMIZED_SELECTED_KEYS = false;
 
     private static final Logger LOGGER = Grizzly.logger(NIOTransport.class);
 
@@ -95,6 +100,8 @@ public abstract class NIOTransport extends AbstractTransport
 
     private boolean optimizedForMultiplexing = DEFAULT_OPTIMIZED_FOR_MULTIPLEXING;
 
+    private boolean optimizedSelectedKeys = DEFAULT_OPTIMIZED_SELECTED_KEYS;
+
     protected SelectorRunner[] selectorRunners;
     
     protected NIOChannelDistributor nioChannelDistributor;
@@ -115,6 +122,18 @@ public abstract class NIOTransport extends AbstractTransport
      */
     protected ExecutorService shutdownService;
 
+    /**
+     * Scheduler, which releases the writes held by corked
+     * {@link NIOConnection}s. Created lazily.
+     */
+    private volatile ScheduledExecutorService corkScheduler;
+
+    /**
+     * Selector handler probes
+     */
+    protected final DefaultMonitoringConfig<SelectorHandlerProbe> selectorHandlerMonitoringConfig =
+            new DefaultMonitoringConfig<SelectorHandlerProbe>(SelectorHandlerProbe.class);
+
     public NIOTransport(final String name) {
         super(name);
         temporarySelectorIO = createTemporarySelectorIO();
@@ -256,6 +275,43 @@ public abstract class NIOTransport extends AbstractTransport
         getAsyncQueueIO().getWriter().setAllowDirectWrite(!optimizedForMultiplexing);
     }
 
+    /**
+     * Returns <tt>true</tt>, if the {@link SelectorRunner}s' {@link java.nio.channels.Selector}s
+     * use an array-backed selected-key set, or <tt>false</tt> otherwise.
+     *
+     * @return <tt>true</tt>, if the {@link SelectorRunner}s' {@link java.nio.channels.Selector}s
+     * use an array-backed selected-key set, or <tt>false</tt> otherwise.
+     */
+    public boolean isOptimizedSelectedKeys() {
+        return optimizedSelectedKeys;
+    }
+
+    /**
+     * Configures <tt>NIOTransport</tt> to replace the JDK
+     * {@link java.nio.channels.Selector}'s <tt>HashSet</tt> based selected-key
+     * set with an array-backed one, so the select loop doesn't produce garbage.
+     * The replacement relies on the JDK internals and, on JDK 9+, requires
+     * <tt>--add-opens java.base/sun.nio.ch=ALL-UNNAMED</tt>; if it's not
+     * possible, the default selected-key set is used.
+     *
+     * Has effect on the {@link SelectorRunner}s started after the change.
+     */
+    public void setOptimizedSelectedKeys(final boolean optimizedSelectedKeys) {
+        this.optimizedSelectedKeys = optimizedSelectedKeys;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * Get the monitoring configuration for the {@link SelectorHandler} and
+     * {@link SelectorRunner}s of the <tt>NIOTransport</tt>.
+     *
+     * @return the {@link SelectorHandlerProbe} monitoring configuration.
+     * @since 2.4.5
+     */
+    public MonitoringConfig<SelectorHandlerProbe> getSelectorHandlerMonitoringConfig() {
+        return selectorHandlerMonitoringConfig;
+    }
+
     protected synchronized void startSelectorRunners() throws IOException {
         selectorRunners = new SelectorRunner[selectorRunnersCount];
         
@@ -303,6 +359,46 @@ public abstract class NIOTransport extends AbstractTransport
         return selectorRunners;
     }
 
+    /**
+     * Notify registered {@link SelectorHandlerProbe}s about the Selector
+     * wakeup event.
+     *
+     * @param transport the <tt>Transport</tt> event occurred on.
+     * @param selectorRunner the {@link SelectorRunner}, which Selector has
+     *        been woken up.
+     */
+    protected static void notifyProbesSelectorWakeup(
+            final NIOTransport transport, final SelectorRunner selectorRunner) {
+        final SelectorHandlerProbe[] probes =
+                transport.selectorHandlerMonitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (SelectorHandlerProbe probe : probes) {
+                probe.onSelectorWakeupEvent(selectorRunner);
+            }
+        }
+    }
+
+    /**
+     * Notify registered {@link SelectorHandlerProbe}s about the processed
+     * pending tasks.
+     *
+     * @param transport the <tt>Transport</tt> event occurred on.
+     * @param selectorRunner the {@link SelectorRunner}, which has processed
+     *        the tasks.
+     * @param tasksCount the number of processed tasks.
+     */
+    protected static void notifyProbesPendingTasks(
+            final NIOTransport transport, final SelectorRunner selectorRunner,
+            final int tasksCount) {
+        final SelectorHandlerProbe[] probes =
+                transport.selectorHandlerMonitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (SelectorHandlerProbe probe : probes) {
+                probe.onPendingTasksEvent(selectorRunner, tasksCount);
+            }
+        }
+    }
+
     /**
      * Notify registered {@link TransportProbe}s about the error.
      *
@@ -601,6 +697,13 @@ public abstract class NIOTransport extends AbstractTransport
         notifyProbesBeforeStop(this);
         stopSelectorRunners();
 
+        synchronized (this) {
+            if (corkScheduler != null) {
+                corkScheduler.shutdownNow();
+                corkScheduler = null;
+            }
+        }
+
         if (workerThreadPool != null && managedWorkerPool) {
             workerThreadPool.shutdown();
             workerThreadPool = null;
@@ -610,6 +713,13 @@ public abstract class NIOTransport extends AbstractTransport
             kernelPool.shutdownNow();
             kernelPool = null;
         }
+
+        final TemporarySelectorPool selectorPool =
+                temporarySelectorIO.getSelectorPool();
+        if (selectorPool != null) {
+            selectorPool.close();
+        }
+        
         state.setState(State.STOPPED);
         notifyProbesStop(this);
         
@@ -753,4 +863,36 @@ public abstract class NIOTransport extends AbstractTransport
 
         return Executors.newFixedThreadPool(2, factory);
     }
+
+    /**
+     * Returns the scheduler, which releases the writes held by corked
+     * {@link NIOConnection}s. The scheduler works with nanosecond resolution,
+     * unlike {@link org.glassfish.grizzly.utils.DelayedExecutor}.
+     */
+    ScheduledExecutorService obtainCorkScheduler() {
+        final ScheduledExecutorService scheduler = corkScheduler;
+        if (scheduler != null) {
+            return scheduler;
+        }
+
+        synchronized (this) {
+            if (corkScheduler != null) {
+                return corkScheduler;
+            }
+
+            final String threadName = getName() + '['
+                    + Integer.toHexString(hashCode()) + "]-Cork-Flusher";
+            final ScheduledThreadPoolExecutor newScheduler =
+                    new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                        @Override
+                        public Thread newThread(final Runnable r) {
+                            final Thread t = new Thread(r, threadName);
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            corkScheduler = newScheduler;
+            return newScheduler;
+        }
+    }
 }
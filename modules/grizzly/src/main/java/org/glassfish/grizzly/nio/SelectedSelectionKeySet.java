@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.lang.reflect.Field;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+
+/**
+ * Array-backed replacement of the JDK {@link Selector}'s selected-key set.
+ *
+ * The JDK selector implementation keeps the selected keys in a
+ * <tt>HashSet</tt>, so every select loop allocates hash nodes for the ready
+ * keys and an {@link Iterator} to go through them. Once
+ * {@link #install(Selector) installed}, the selector adds ready keys to this
+ * set, which just appends them to an array, and {@link SelectorRunner}
+ * processes the keys by index.
+ *
+ * The set is meant to be used by the selector only, so it doesn't follow
+ * the {@link java.util.Set} contract completely: {@link #contains(Object)}
+ * always returns <tt>false</tt> to keep {@link #add(SelectionKey)} O(1).
+ *
+ * The selector's fields are replaced using reflection, which on JDK 9+
+ * requires <tt>--add-opens java.base/sun.nio.ch=ALL-UNNAMED</tt>.
+ * If the replacement is not possible - the selector keeps using its own
+ * selected-key set.
+ */
+final class SelectedSelectionKeySet extends AbstractSet<SelectionKey> {
+    private static final Logger LOGGER = Grizzly.logger(SelectedSelectionKeySet.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Field SELECTED_KEYS_FIELD;
+    private static final Field PUBLIC_SELECTED_KEYS_FIELD;
+    private static final Class<?> SELECTOR_IMPL_CLASS;
+
+    static {
+        Class<?> selectorImplClass = null;
+        Field selectedKeysField = null;
+        Field publicSelectedKeysField = null;
+
+        try {
+            selectorImplClass = Class.forName("sun.nio.ch.SelectorImpl",
+                    false, ClassLoader.getSystemClassLoader());
+            selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+            publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+            selectedKeysField.setAccessible(true);
+            publicSelectedKeysField.setAccessible(true);
+        } catch (Throwable t) {
+            LOGGER.log(Level.FINE,
+                    "Can't access the Selector's selected-key set, the optimization is disabled", t);
+            selectorImplClass = null;
+            selectedKeysField = null;
+            publicSelectedKeysField = null;
+        }
+
+        SELECTOR_IMPL_CLASS = selectorImplClass;
+        SELECTED_KEYS_FIELD = selectedKeysField;
+        PUBLIC_SELECTED_KEYS_FIELD = publicSelectedKeysField;
+    }
+
+    private SelectionKey[] keys = new SelectionKey[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Replaces the {@link Selector}'s selected-key set with a new
+     * <tt>SelectedSelectionKeySet</tt>.
+     *
+     * @param selector the freshly opened {@link Selector}
+     * @return <tt>true</tt> if the set has been installed,
+     *          or <tt>false</tt> otherwise
+     */
+    static boolean install(final Selector selector) {
+        if (SELECTOR_IMPL_CLASS == null
+                || !SELECTOR_IMPL_CLASS.isInstance(selector)) {
+            return false;
+        }
+
+        final SelectedSelectionKeySet set = new SelectedSelectionKeySet();
+        try {
+            SELECTED_KEYS_FIELD.set(selector, set);
+            PUBLIC_SELECTED_KEYS_FIELD.set(selector, set);
+            return true;
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE,
+                    "Can't replace the Selector's selected-key set", e);
+            return false;
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if the {@link Selector}'s selected-key set may be
+     *          replaced on this JVM
+     */
+    static boolean isSupported() {
+        return SELECTOR_IMPL_CLASS != null;
+    }
+
+    @Override
+    public boolean add(final SelectionKey key) {
+        if (key == null) {
+            return false;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+
+        keys[size++] = key;
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == o) {
+                System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                keys[--size] = null;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the key with the given index.
+     * 
+     * @param index the key index, must be less than {@link #size()}
+     * @return the {@link SelectionKey}
+     */
+    SelectionKey get(final int index) {
+        return keys[index];
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator() {
+        return new Iterator<SelectionKey>() {
+            private int idx;
+
+            @Override
+            public boolean hasNext() {
+                return idx < size;
+            }
+
+            @Override
+            public SelectionKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                
+                return keys[idx++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
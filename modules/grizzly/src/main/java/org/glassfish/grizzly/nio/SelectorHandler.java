@@ -122,9 +122,84 @@ public interface SelectorHandler {
                                     final Task task,
                                     final CompletionHandler<Task> completionHandler);
 
+    /**
+     * Creates a {@link Batch}, which collects the tasks and
+     * {@link SelectionKey} interest changes addressed to the
+     * {@link SelectorRunner} and submits them at once, waking up the
+     * runner's Selector at most one time.
+     * 
+     * The default implementation returns a {@link Batch}, which passes the
+     * collected operations to this handler's
+     * {@link #registerKeyInterest(org.glassfish.grizzly.nio.SelectorRunner, java.nio.channels.SelectionKey, int)}
+     * and {@link #enque(org.glassfish.grizzly.nio.SelectorRunner, org.glassfish.grizzly.nio.SelectorHandler.Task, org.glassfish.grizzly.CompletionHandler)}
+     * one by one on submit, so it doesn't coalesce the wakeups.
+     * 
+     * @param selectorRunner {@link SelectorRunner}
+     * @return the {@link Batch} bound to the {@link SelectorRunner}
+     * 
+     * @since 2.4.5
+     */
+    default Batch createBatch(final SelectorRunner selectorRunner) {
+        return new SequentialBatch(this, selectorRunner);
+    }
+
     boolean onSelectorClosed(SelectorRunner selectorRunner);
     
     interface Task {
         boolean run() throws Exception;
-    }        
+    }
+
+    /**
+     * Collects the operations addressed to a {@link SelectorRunner}, so they
+     * can be handed over to the runner thread with a single Selector wakeup.
+     * 
+     * The operations are not executed until {@link #submit()} is called.
+     * After submit the batch is empty and may be reused.
+     * A batch instance is not thread-safe, it's meant to be used by the
+     * thread, which has created it.
+     * 
+     * @since 2.4.5
+     */
+    interface Batch {
+
+        /**
+         * Adds the {@link SelectionKey} interest registration to the batch.
+         * 
+         * @param key {@link SelectionKey}
+         * @param interest the interest ops to register
+         * @return this batch
+         */
+        Batch registerKeyInterest(SelectionKey key, int interest);
+
+        /**
+         * Adds the task to the batch.
+         * 
+         * @param task {@link Task}
+         * @param completionHandler {@link CompletionHandler}
+         * @return this batch
+         * 
+         * @see SelectorHandler#enque(org.glassfish.grizzly.nio.SelectorRunner, org.glassfish.grizzly.nio.SelectorHandler.Task, org.glassfish.grizzly.CompletionHandler)
+         */
+        Batch enque(Task task, CompletionHandler<Task> completionHandler);
+
+        /**
+         * Adds the {@link SelectorHandlerTask} to the batch.
+         * 
+         * @param task {@link SelectorHandlerTask}
+         * @return this batch
+         */
+        Batch addTask(SelectorHandlerTask task);
+
+        /**
+         * @return the number of operations in the batch, which haven't been
+         *         submitted yet.
+         */
+        int size();
+
+        /**
+         * Hands all the collected operations over to the
+         * {@link SelectorRunner} and wakes up its Selector, if needed.
+         */
+        void submit();
+    }
 }
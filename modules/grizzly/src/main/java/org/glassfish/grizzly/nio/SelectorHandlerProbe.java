@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio;
+
+/**
+ * Monitoring probe providing callbacks that may be invoked by the
+ * {@link SelectorHandler} and {@link SelectorRunner} of a
+ * {@link NIOTransport}.
+ *
+ * @see NIOTransport#getSelectorHandlerMonitoringConfig()
+ * @see SelectorWakeupStatsProbe
+ *
+ * @since 2.4.5
+ */
+public interface SelectorHandlerProbe {
+
+    /**
+     * Method will be called, when the {@link SelectorRunner}'s Selector is
+     * being woken up by a non-selector thread.
+     *
+     * @param selectorRunner {@link SelectorRunner}, the event belongs to.
+     */
+    void onSelectorWakeupEvent(SelectorRunner selectorRunner);
+
+    /**
+     * Method will be called, when the {@link SelectorRunner} has processed
+     * the tasks submitted by other threads.
+     *
+     * @param selectorRunner {@link SelectorRunner}, the event belongs to.
+     * @param tasksCount the number of processed tasks.
+     */
+    void onPendingTasksEvent(SelectorRunner selectorRunner, int tasksCount);
+
+
+    // ---------------------------------------------------------- Nested Classes
+
+
+    /**
+     * {@link SelectorHandlerProbe} adapter that provides no-op implementations
+     * for all interface methods allowing easy extension by the developer.
+     */
+    class Adapter implements SelectorHandlerProbe {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onSelectorWakeupEvent(final SelectorRunner selectorRunner) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onPendingTasksEvent(final SelectorRunner selectorRunner,
+                final int tasksCount) {
+        }
+    }
+}
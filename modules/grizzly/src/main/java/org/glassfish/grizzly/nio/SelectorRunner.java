@@ -28,13 +28,13 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.WeakHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +43,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.glassfish.grizzly.localization.LogMessages;
 import org.glassfish.grizzly.threadpool.Threads;
+import org.glassfish.grizzly.utils.MpscArrayQueue;
 import org.glassfish.grizzly.utils.StateHolder;
 
 /**
@@ -58,7 +59,7 @@ public final class SelectorRunner implements Runnable {
     private final NIOTransport transport;
     private final AtomicReference<State> stateHolder;
     
-    private final Queue<SelectorHandlerTask> pendingTasks;
+    private final MpscArrayQueue<SelectorHandlerTask> pendingTasks;
     
     private Queue<SelectorHandlerTask> currentPostponedTasks;
     private final Queue<SelectorHandlerTask> evenPostponedTasks;
@@ -74,16 +75,42 @@ public final class SelectorRunner implements Runnable {
     private int lastSelectedKeysCount;
     private Set<SelectionKey> readyKeySet;
     private Iterator<SelectionKey> iterator;
+    // the next key index, if readyKeySet is a SelectedSelectionKeySet
+    private int readyKeyIndex;
     private SelectionKey key = null;
     private int keyReadyOps;
 
     private final AtomicBoolean selectorWakeupFlag = new AtomicBoolean();
+
+    // Load metrics, updated by the runner thread only (EWMA, alpha = 1/8)
+    private volatile long avgBusyNanos;
+    private volatile long avgLoopNanos;
+    // the number of keys cancelled by the runner thread, which are still
+    // in the Selector's key set until the next select
+    private volatile int cancelledKeysCount;
     private final AtomicInteger runnerThreadActivityCounter = new AtomicInteger();
 
+    // the batch, which collects the operations the current thread addresses
+    // to a SelectorRunner, see openThreadBatch()
+    private static final ThreadLocal<ThreadBatch> THREAD_BATCH =
+            new ThreadLocal<ThreadBatch>();
+
     public static SelectorRunner create(final NIOTransport transport)
             throws IOException {
-        return new SelectorRunner(transport,
-                Selectors.newSelector(transport.getSelectorProvider()));
+        return new SelectorRunner(transport, openSelector(transport));
+    }
+
+    private static Selector openSelector(final NIOTransport transport)
+            throws IOException {
+        final Selector selector =
+                Selectors.newSelector(transport.getSelectorProvider());
+        if (transport.isOptimizedSelectedKeys()
+                && !SelectedSelectionKeySet.install(selector)
+                && LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Selected-key set optimization is not available for selector {0}", selector);
+        }
+
+        return selector;
     }
     
     volatile boolean hasPendingTasks;
@@ -94,7 +121,7 @@ public final class SelectorRunner implements Runnable {
         this.selector = selector;
         stateHolder = new AtomicReference<State>(State.STOPPED);
 
-        pendingTasks = new ConcurrentLinkedQueue<SelectorHandlerTask>();
+        pendingTasks = new MpscArrayQueue<SelectorHandlerTask>();
         evenPostponedTasks = new ArrayDeque<SelectorHandlerTask>();
         oddPostponedTasks = new ArrayDeque<SelectorHandlerTask>();
         currentPostponedTasks = evenPostponedTasks;
@@ -107,12 +134,109 @@ public final class SelectorRunner implements Runnable {
         wakeupSelector();
     }
 
-    private void wakeupSelector() {
+    /**
+     * Adds all the tasks to the pending task queue and wakes up the
+     * {@link Selector} once for the whole batch.
+     */
+    void addPendingTasks(final Collection<SelectorHandlerTask> tasks) {
+        for (SelectorHandlerTask task : tasks) {
+            pendingTasks.offer(task);
+        }
+        
+        hasPendingTasks = true;
+
+        wakeupSelector();
+    }
+
+    /**
+     * Opens the current thread's {@link SelectorHandler.Batch} for this
+     * runner. Until {@link #submitThreadBatch()} is called, the
+     * {@link NIOConnection} interest registrations and selector task enques
+     * the thread addresses to this runner are collected in the batch, so
+     * they are handed over to the runner with a single Selector wakeup.
+     * The method is meant to be called by a worker thread before it
+     * processes an IOEvent.
+     *
+     * @return <tt>true</tt> if the batch has been opened, or <tt>false</tt>
+     *         if the current thread is the runner's thread or has a batch
+     *         opened already
+     *
+     * @since 2.4.5
+     */
+    public boolean openThreadBatch() {
+        if (Thread.currentThread() == selectorRunnerThread) {
+            return false;
+        }
+
+        ThreadBatch threadBatch = THREAD_BATCH.get();
+        if (threadBatch == null) {
+            threadBatch = new ThreadBatch();
+            THREAD_BATCH.set(threadBatch);
+        } else if (threadBatch.isOpen) {
+            return false;
+        }
+
+        final SelectorHandler selectorHandler = transport.getSelectorHandler();
+        if (threadBatch.selectorRunner != this
+                || threadBatch.selectorHandler != selectorHandler) {
+            threadBatch.selectorRunner = this;
+            threadBatch.selectorHandler = selectorHandler;
+            threadBatch.batch = selectorHandler.createBatch(this);
+        }
+
+        threadBatch.isOpen = true;
+        return true;
+    }
+
+    /**
+     * Submits and closes the current thread's {@link SelectorHandler.Batch}
+     * opened by {@link #openThreadBatch()}.
+     *
+     * @since 2.4.5
+     */
+    public void submitThreadBatch() {
+        final ThreadBatch threadBatch = THREAD_BATCH.get();
+        if (threadBatch != null && threadBatch.isOpen
+                && threadBatch.selectorRunner == this) {
+            threadBatch.isOpen = false;
+            threadBatch.batch.submit();
+        }
+    }
+
+    /**
+     * @return the current thread's open {@link SelectorHandler.Batch} for
+     *         this runner, or <tt>null</tt> if there is no such batch
+     */
+    SelectorHandler.Batch getThreadBatch() {
+        final ThreadBatch threadBatch = THREAD_BATCH.get();
+        return threadBatch != null && threadBatch.isOpen
+                && threadBatch.selectorRunner == this
+                ? threadBatch.batch
+                : null;
+    }
+
+    /**
+     * Cancels the tasks left in the pending task queue, if the runner thread
+     * has been stopped and is not going to process them.
+     * The method has to be called after a task has been added to the queue,
+     * in order to not leave the task behind, if the runner is being stopped
+     * concurrently.
+     */
+    void abortPendingTasksIfStopped() {
+        if (runnerThreadActivityCounter.get() == -1) {
+            synchronized (pendingTasks) {
+                abortTasksInQueue(pendingTasks);
+            }
+        }
+    }
+
+    void wakeupSelector() {
         final Selector localSelector = getSelector();
         if (localSelector != null &&
                 selectorWakeupFlag.compareAndSet(false, true)) {
             try {
                 localSelector.wakeup();
+                NIOTransport.notifyProbesSelectorWakeup(transport, this);
             } catch (Exception e) {
                 LOGGER.log(Level.FINE, "Error during selector wakeup", e);
             }
@@ -222,7 +346,11 @@ public final class SelectorRunner implements Runnable {
             }
         }
 
-        abortTasksInQueue(pendingTasks);
+        // the pending task queue is single-consumer, so synchronize with
+        // the threads, which might abort their tasks concurrently
+        synchronized (pendingTasks) {
+            abortTasksInQueue(pendingTasks);
+        }
         abortTasksInQueue(evenPostponedTasks);
         abortTasksInQueue(oddPostponedTasks);
     }
@@ -308,19 +436,36 @@ public final class SelectorRunner implements Runnable {
 
             lastSelectedKeysCount = 0;
 
+            // the load metrics are only measured if the distributor uses them
+            final boolean measureLoad = transport.getNIOChannelDistributor()
+                    instanceof LoadAwareConnectionDistributor;
+
+            final long loopStart = measureLoad ? System.nanoTime() : 0;
             if (!selectorHandler.preSelect(this)) {
                 return false;
             }
 
+            final long selectStart = measureLoad ? System.nanoTime() : 0;
             readyKeySet = selectorHandler.select(this);
+            final long selectEnd = measureLoad ? System.nanoTime() : 0;
             selectorWakeupFlag.set(false);
 
+            // select() has deregistered the keys cancelled by this thread
+            if (cancelledKeysCount != 0) {
+                cancelledKeysCount = 0;
+            }
+
             if (stateHolder.get() == State.STOPPING) return true;
             
             lastSelectedKeysCount = readyKeySet.size();
             
             if (lastSelectedKeysCount != 0) {
-                iterator = readyKeySet.iterator();
+                if (readyKeySet instanceof SelectedSelectionKeySet) {
+                    readyKeyIndex = 0;
+                } else {
+                    iterator = readyKeySet.iterator();
+                }
+                
                 if (!iterateKeys()) return false;
                 readyKeySet.clear();
             }
@@ -328,6 +473,12 @@ public final class SelectorRunner implements Runnable {
             readyKeySet = null;
             iterator = null;
             selectorHandler.postSelect(this);
+
+            if (measureLoad) {
+                final long loopEnd = System.nanoTime();
+                updateLoadMetrics((selectStart - loopStart) + (loopEnd - selectEnd),
+                        loopEnd - loopStart);
+            }
         } catch (ClosedSelectorException e) {
             if (isRunning()) {
                 if (selectorHandler.onSelectorClosed(this)) {
@@ -352,6 +503,9 @@ public final class SelectorRunner implements Runnable {
 
     private boolean iterateKeys() {
         final Iterator<SelectionKey> it = iterator;
+        if (it == null) {
+            return iterateKeysByIndex();
+        }
 
         while (it.hasNext()) {
             try {
@@ -372,6 +526,33 @@ public final class SelectorRunner implements Runnable {
     }
 
 
+    /**
+     * Allocation-free version of {@link #iterateKeys()}, used when the
+     * {@link Selector}'s selected-key set is {@link SelectedSelectionKeySet}.
+     */
+    private boolean iterateKeysByIndex() {
+        final SelectedSelectionKeySet keySet =
+                (SelectedSelectionKeySet) readyKeySet;
+        final int size = keySet.size();
+
+        while (readyKeyIndex < size) {
+            try {
+                key = keySet.get(readyKeyIndex++);
+                keyReadyOps = key.readyOps();
+                if (!iterateKeyEvents()) {
+                    return false;
+                }
+            } catch (IOException e) {
+                keyReadyOps = 0;
+                dropConnectionDueToException(key, "Unexpected IOException. Channel " + key.channel() + " will be closed.", e, Level.WARNING, Level.FINE);
+            } catch (CancelledKeyException e) {
+                keyReadyOps = 0;
+                dropConnectionDueToException(key, "Unexpected CancelledKeyException. Channel " + key.channel() + " will be closed.", e, Level.FINE, Level.FINE);
+            }
+        }
+        return true;
+    }
+
     private boolean iterateKeyEvents()
             throws IOException {
 
@@ -397,6 +578,16 @@ public final class SelectorRunner implements Runnable {
         return true;
     }
 
+    /**
+     * Returns the queue of the tasks submitted to this runner by other
+     * threads.
+     * The queue is a multi-producer single-consumer queue: any thread may
+     * offer a task, but {@link Queue#poll()}, {@link Queue#peek()},
+     * {@link Queue#size()} and iteration are safe only on the runner's thread,
+     * and {@link Iterator#remove()} is not supported.
+     *
+     * @return the queue of the tasks submitted by other threads.
+     */
     public Queue<SelectorHandlerTask> getPendingTasks() {
         hasPendingTasks = false;
         return pendingTasks;
@@ -450,6 +641,7 @@ public final class SelectorRunner implements Runnable {
                     } else {
                         final SelectableChannel channel = key.channel();
                         transport.getSelectionKeyHandler().cancel(key);
+                        onKeyCancelled();
                         channel.close();
                     }
                 } catch (IOException cancelException) {
@@ -474,9 +666,85 @@ public final class SelectorRunner implements Runnable {
         return lastSelectedKeysCount;
     }
 
+    /**
+     * Returns the approximate number of valid {@link SelectionKey}s
+     * registered with this runner's {@link Selector}. The keys cancelled by
+     * the runner's thread, which are not deregistered yet, are not counted.
+     *
+     * @return the approximate number of registered {@link SelectionKey}s.
+     *
+     * @since 2.4.5
+     */
+    public int getRegisteredKeysCount() {
+        final Selector localSelector = selector;
+        try {
+            return localSelector != null
+                    ? Math.max(0, localSelector.keys().size() - cancelledKeysCount)
+                    : 0;
+        } catch (ClosedSelectorException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Has to be called by the runner's thread, when it cancels a
+     * {@link SelectionKey} registered with this runner's {@link Selector}.
+     * The cancelled key stays in the {@link Selector#keys()} set until the
+     * next select, so it's excluded from {@link #getRegisteredKeysCount()}.
+     */
+    void onKeyCancelled() {
+        cancelledKeysCount++;
+    }
+
+    /**
+     * Returns the approximate number of tasks waiting to be executed by this
+     * runner's thread.
+     *
+     * @return the approximate number of pending {@link SelectorHandlerTask}s.
+     *
+     * @since 2.4.5
+     */
+    public int getPendingTasksCount() {
+        return pendingTasks.approximateSize();
+    }
+
+    /**
+     * Returns the moving average of the time the runner spent processing
+     * (not waiting in {@link Selector#select()}) per select loop iteration.
+     *
+     * @param timeUnit the {@link TimeUnit} of the returned value.
+     * @return the average select loop processing latency.
+     *
+     * @since 2.4.5
+     */
+    public long getSelectLoopLatency(final TimeUnit timeUnit) {
+        return timeUnit.convert(avgBusyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the moving average fraction of the select loop time the runner
+     * spent processing rather than waiting for events, in the range
+     * <tt>[0, 1]</tt>.
+     *
+     * @return the select loop busy ratio.
+     *
+     * @since 2.4.5
+     */
+    public float getBusyRatio() {
+        final long loop = avgLoopNanos;
+        return loop > 0 ? Math.min(1f, (float) avgBusyNanos / loop) : 0f;
+    }
+
+    private void updateLoadMetrics(final long busyNanos, final long loopNanos) {
+        final long busy = avgBusyNanos;
+        final long loop = avgLoopNanos;
+        avgBusyNanos = busy + ((busyNanos - busy) >> 3);
+        avgLoopNanos = loop + ((loopNanos - loop) >> 3);
+    }
+
     protected final void switchToNewSelector() throws IOException {
         final Selector oldSelector = selector;
-        final Selector newSelector = Selectors.newSelector(transport.getSelectorProvider());
+        final Selector newSelector = openSelector(transport);
 
         final Set<SelectionKey> keys = oldSelector.keys();
         final SelectionKeyHandler selectionKeyHandler =
@@ -499,6 +767,7 @@ public final class SelectorRunner implements Runnable {
         }
 
         setSelector(newSelector);
+        cancelledKeysCount = 0;
 
         try {
             oldSelector.close();
@@ -593,4 +862,11 @@ public final class SelectorRunner implements Runnable {
                     name.substring(0, name.length() - THREAD_MARKER.length()));
         }
     }
+
+    private static final class ThreadBatch {
+        private SelectorRunner selectorRunner;
+        private SelectorHandler selectorHandler;
+        private SelectorHandler.Batch batch;
+        private boolean isOpen;
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link SelectorHandlerProbe}, which collects the Selector wakeup statistics:
+ * the number of wakeups, the wakeup rate and the average number of
+ * cross-thread tasks processed per wakeup.
+ *
+ * The wakeups requested while the Selector is already being woken up are
+ * coalesced, so a tasks-per-wakeup ratio close to 1 under load means the
+ * worker threads submit tasks faster than the selector loop turns around.
+ *
+ * Example usage:
+ * <pre>
+ *     SelectorWakeupStatsProbe probe = new SelectorWakeupStatsProbe();
+ *     transport.getSelectorHandlerMonitoringConfig().addProbes(probe);
+ *     ...
+ *     double rate = probe.getWakeupsPerSecond();
+ *     double ratio = probe.getTasksPerWakeup();
+ * </pre>
+ *
+ * @since 2.4.5
+ */
+public class SelectorWakeupStatsProbe extends SelectorHandlerProbe.Adapter {
+
+    private final AtomicLong wakeupsCount = new AtomicLong();
+    private final AtomicLong tasksCount = new AtomicLong();
+
+    private volatile long resetTimestamp = System.nanoTime();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onSelectorWakeupEvent(final SelectorRunner selectorRunner) {
+        wakeupsCount.incrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPendingTasksEvent(final SelectorRunner selectorRunner,
+            final int tasksCount) {
+        this.tasksCount.addAndGet(tasksCount);
+    }
+
+    /**
+     * @return the number of Selector wakeups since the last {@link #reset()}.
+     */
+    public long getWakeupsCount() {
+        return wakeupsCount.get();
+    }
+
+    /**
+     * @return the number of processed cross-thread tasks since the
+     *          last {@link #reset()}.
+     */
+    public long getTasksCount() {
+        return tasksCount.get();
+    }
+
+    /**
+     * @return the average number of Selector wakeups per second since the
+     *          last {@link #reset()}.
+     */
+    public double getWakeupsPerSecond() {
+        final long elapsedNanos = System.nanoTime() - resetTimestamp;
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+
+        return (double) wakeupsCount.get() * TimeUnit.SECONDS.toNanos(1)
+                / elapsedNanos;
+    }
+
+    /**
+     * @return the average number of cross-thread tasks processed per
+     *          Selector wakeup since the last {@link #reset()}.
+     */
+    public double getTasksPerWakeup() {
+        final long wakeups = wakeupsCount.get();
+        return wakeups != 0 ? (double) tasksCount.get() / wakeups : 0;
+    }
+
+    /**
+     * Resets all the counters.
+     */
+    public void reset() {
+        wakeupsCount.set(0);
+        tasksCount.set(0);
+        resetTimestamp = System.nanoTime();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.nio;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.CompletionHandler;
+import org.glassfish.grizzly.EmptyCompletionHandler;
+import org.glassfish.grizzly.Grizzly;
+
+/**
+ * {@link SelectorHandler.Batch}, which hands the collected operations over to
+ * the {@link SelectorHandler} one by one on {@link #submit()}.
+ * It's returned by the default {@link SelectorHandler#createBatch(SelectorRunner)}
+ * implementation, so a {@link SelectorHandler}, which doesn't provide its own
+ * batch, keeps processing the operations its own way.
+ */
+final class SequentialBatch implements SelectorHandler.Batch {
+    private static final Logger LOGGER = Grizzly.logger(SequentialBatch.class);
+
+    private final SelectorHandler selectorHandler;
+    private final SelectorRunner selectorRunner;
+
+    private final List<Operation> operations = new ArrayList<Operation>();
+
+    SequentialBatch(final SelectorHandler selectorHandler,
+            final SelectorRunner selectorRunner) {
+        this.selectorHandler = selectorHandler;
+        this.selectorRunner = selectorRunner;
+    }
+
+    @Override
+    public SelectorHandler.Batch registerKeyInterest(final SelectionKey key,
+            final int interest) {
+        operations.add(new Operation() {
+            @Override
+            void submit() throws IOException {
+                selectorHandler.registerKeyInterest(selectorRunner, key, interest);
+            }
+        });
+
+        return this;
+    }
+
+    @Override
+    public SelectorHandler.Batch enque(final SelectorHandler.Task task,
+            final CompletionHandler<SelectorHandler.Task> completionHandler) {
+        operations.add(new Operation() {
+            @Override
+            void submit() {
+                selectorHandler.enque(selectorRunner, task, completionHandler);
+            }
+        });
+
+        return this;
+    }
+
+    @Override
+    public SelectorHandler.Batch addTask(final SelectorHandlerTask task) {
+        final TaskAdapter adapter = new TaskAdapter(task);
+        return enque(adapter, adapter);
+    }
+
+    @Override
+    public int size() {
+        return operations.size();
+    }
+
+    @Override
+    public void submit() {
+        try {
+            for (Operation operation : operations) {
+                try {
+                    operation.submit();
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Can not register key interest", e);
+                }
+            }
+        } finally {
+            operations.clear();
+        }
+    }
+
+    private abstract static class Operation {
+        abstract void submit() throws IOException;
+    }
+
+    /**
+     * Runs the {@link SelectorHandlerTask} as a {@link SelectorHandler.Task}
+     * and cancels it, if the handler fails the task without running it.
+     */
+    private final class TaskAdapter
+            extends EmptyCompletionHandler<SelectorHandler.Task>
+            implements SelectorHandler.Task {
+        private final SelectorHandlerTask task;
+        private boolean isRun;
+
+        private TaskAdapter(final SelectorHandlerTask task) {
+            this.task = task;
+        }
+
+        @Override
+        public boolean run() throws Exception {
+            isRun = true;
+            return task.run(selectorRunner);
+        }
+
+        @Override
+        public void failed(final Throwable throwable) {
+            if (!isRun) {
+                task.cancel();
+            }
+        }
+    }
+}
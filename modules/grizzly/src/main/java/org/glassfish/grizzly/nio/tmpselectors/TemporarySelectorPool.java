@@ -63,6 +63,12 @@ public class TemporarySelectorPool {
     private final AtomicInteger missesCounter;
     
     private final SelectorProvider selectorProvider;
+
+    /**
+     * The poller, which waits for channel readiness on behalf of
+     * virtual threads, created lazily.
+     */
+    private VirtualThreadPoller virtualThreadPoller;
     
     public TemporarySelectorPool(final SelectorProvider selectorProvider) {
         this(selectorProvider, DEFAULT_SELECTORS_COUNT);
@@ -156,7 +162,34 @@ public class TemporarySelectorPool {
             while ((selector = selectors.poll()) != null) {
                 closeSelector(selector);
             }
+
+            if (virtualThreadPoller != null) {
+                virtualThreadPoller.close();
+                virtualThreadPoller = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link VirtualThreadPoller}, which parks virtual threads
+     * until their channels are ready, instead of blocking them on a temporary
+     * {@link Selector}.
+     *
+     * @return the {@link VirtualThreadPoller}, or <tt>null</tt> if the pool
+     *         is closed or the poller could not be created
+     */
+    synchronized VirtualThreadPoller getVirtualThreadPoller() {
+        if (virtualThreadPoller == null && !isClosed.get()) {
+            try {
+                virtualThreadPoller = new VirtualThreadPoller(selectorProvider);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING,
+                        LogMessages.WARNING_GRIZZLY_TEMPORARY_SELECTOR_POOL_CREATE_SELECTOR_EXCEPTION(),
+                        e);
+            }
         }
+        
+        return virtualThreadPoller;
     }
 
     private void closeSelector(Selector selector) {
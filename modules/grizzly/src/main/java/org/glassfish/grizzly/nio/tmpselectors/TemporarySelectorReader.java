@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.glassfish.grizzly.*;
 import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.threadpool.VirtualThreads;
 
 /**
  *
@@ -147,21 +148,36 @@ public abstract class TemporarySelectorReader
             bytesRead = readNow0(connection, buffer, currentResult);
 
             if (bytesRead == 0) {
-                readSelector = transport.getTemporarySelectorIO().
-                        getSelectorPool().poll();
-
-                if (readSelector == null) {
-                    return bytesRead;
-                }
-
-                key = channel.register(readSelector, SelectionKey.OP_READ);
-                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
-                int code = readSelector.select(readTimeout);
-                key.interestOps(
-                        key.interestOps() & (~SelectionKey.OP_READ));
-
-                if (code == 0) {
-                    return bytesRead; // Return on the main Selector and try again.
+                final TemporarySelectorPool selectorPool =
+                        transport.getTemporarySelectorIO().getSelectorPool();
+                final VirtualThreadPoller poller =
+                        VirtualThreads.isCurrentThreadVirtual()
+                        ? selectorPool.getVirtualThreadPoller()
+                        : null;
+
+                if (poller != null) {
+                    // park the virtual thread instead of pinning it
+                    // to a temporary Selector
+                    if (!poller.await(channel, SelectionKey.OP_READ,
+                            readTimeout)) {
+                        return bytesRead;
+                    }
+                } else {
+                    readSelector = selectorPool.poll();
+
+                    if (readSelector == null) {
+                        return bytesRead;
+                    }
+
+                    key = channel.register(readSelector, SelectionKey.OP_READ);
+                    key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+                    int code = readSelector.select(readTimeout);
+                    key.interestOps(
+                            key.interestOps() & (~SelectionKey.OP_READ));
+
+                    if (code == 0) {
+                        return bytesRead; // Return on the main Selector and try again.
+                    }
                 }
 
                 bytesRead = readNow0(connection, buffer, currentResult);
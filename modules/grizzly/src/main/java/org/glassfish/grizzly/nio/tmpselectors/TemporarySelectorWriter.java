@@ -26,6 +26,7 @@ import org.glassfish.grizzly.*;
 import org.glassfish.grizzly.asyncqueue.MessageCloner;
 import org.glassfish.grizzly.asyncqueue.WritableMessage;
 import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.threadpool.VirtualThreads;
 
 /**
  *
@@ -169,6 +170,7 @@ public abstract class TemporarySelectorWriter
 
         SelectionKey key = null;
         Selector writeSelector = null;
+        VirtualThreadPoller poller = null;
         int attempts = 0;
         int bytesWritten = 0;
 
@@ -184,6 +186,23 @@ public abstract class TemporarySelectorWriter
                         bytesWritten += len;
                     } else {
                         attempts++;
+                        if (poller == null && writeSelector == null
+                                && VirtualThreads.isCurrentThreadVirtual()) {
+                            poller = transport.getTemporarySelectorIO()
+                                    .getSelectorPool().getVirtualThreadPoller();
+                        }
+
+                        if (poller != null) {
+                            // park the virtual thread instead of pinning it
+                            // to a temporary Selector
+                            if (!poller.await(channel, SelectionKey.OP_WRITE,
+                                    writeTimeout) && attempts > 2) {
+                                throw new IOException("Client disconnected");
+                            }
+
+                            continue;
+                        }
+                        
                         if (writeSelector == null) {
                             writeSelector = transport.getTemporarySelectorIO().
                                     getSelectorPool().poll();
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.nio.tmpselectors;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.nio.Selectors;
+
+/**
+ * Waits for channel readiness on behalf of virtual threads.
+ *
+ * Instead of holding a temporary {@link Selector} and blocking in
+ * {@link Selector#select(long)}, which would pin the virtual thread to its
+ * carrier thread, the virtual thread registers its interest with the poller
+ * and parks. The poller runs a single daemon thread, which selects on behalf
+ * of all the parked threads and unparks them, once their channels are ready.
+ *
+ * @since 2.4.5
+ */
+final class VirtualThreadPoller implements Runnable {
+    private static final Logger LOGGER = Grizzly.logger(VirtualThreadPoller.class);
+
+    private final Selector selector;
+    private final Queue<Waiter> pendingWaiters =
+            new ConcurrentLinkedQueue<Waiter>();
+    // the waiters, which have timed out or have been interrupted, their
+    // interest is removed by the poller thread
+    private final Queue<Waiter> cancelledWaiters =
+            new ConcurrentLinkedQueue<Waiter>();
+    private final Thread pollerThread;
+    
+    private volatile boolean isClosed;
+
+    VirtualThreadPoller(final SelectorProvider selectorProvider)
+            throws IOException {
+        selector = Selectors.newSelector(selectorProvider);
+        
+        pollerThread = new Thread(this, "Grizzly-virtual-thread-poller");
+        pollerThread.setDaemon(true);
+        pollerThread.start();
+    }
+
+    /**
+     * Parks the current thread until the channel is ready for the operation,
+     * the timeout expires or the thread is interrupted.
+     *
+     * @param channel the {@link SelectableChannel}
+     * @param op the {@link SelectionKey} operation to wait for
+     * @param timeoutMillis the timeout in milliseconds, if the value is not
+     *        positive - wait until the channel is ready
+     * @return <tt>true</tt> if the channel is (or might be) ready for the
+     *         operation, or <tt>false</tt> if the wait has timed out
+     */
+    boolean await(final SelectableChannel channel, final int op,
+            final long timeoutMillis) {
+        
+        final Waiter waiter = new Waiter(channel, op, Thread.currentThread());
+        pendingWaiters.offer(waiter);
+        selector.wakeup();
+
+        final long deadline = timeoutMillis > 0
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)
+                : 0;
+
+        while (!waiter.isReady && !isClosed) {
+            if (timeoutMillis > 0) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                LockSupport.park(this);
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+
+        waiter.isCancelled = true;
+        if (waiter.isReady) {
+            return true;
+        }
+
+        if (!isClosed) {
+            // the interest is still registered, let the poller remove it
+            cancelledWaiters.offer(waiter);
+            selector.wakeup();
+        }
+
+        return false;
+    }
+
+    void close() {
+        isClosed = true;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!isClosed) {
+                selector.select();
+                registerPendingWaiters();
+                removeCancelledWaiters();
+                notifyReadyWaiters();
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "VirtualThreadPoller: unexpected error", e);
+            isClosed = true;
+        } finally {
+            // release the threads, which are still parked
+            for (SelectionKey key : selector.keys()) {
+                ((ChannelWaiters) key.attachment()).signal(
+                        SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+
+            Waiter waiter;
+            while ((waiter = pendingWaiters.poll()) != null) {
+                waiter.signal();
+            }
+            
+            try {
+                selector.close();
+            } catch (IOException e) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "VirtualThreadPoller: error " +
+                            "occurred when trying to close the Selector", e);
+                }
+            }
+        }
+    }
+
+    private void registerPendingWaiters() {
+        Waiter waiter;
+        while ((waiter = pendingWaiters.poll()) != null) {
+            if (waiter.isCancelled) {
+                continue;
+            }
+            
+            final SelectableChannel channel = waiter.channel;
+            try {
+                SelectionKey key = channel.keyFor(selector);
+                if (key == null) {
+                    key = channel.register(selector, 0, new ChannelWaiters());
+                }
+
+                ((ChannelWaiters) key.attachment()).set(waiter);
+                key.interestOps(key.interestOps() | waiter.op);
+            } catch (ClosedChannelException | CancelledKeyException e) {
+                // let the thread fail on the closed channel
+                waiter.signal();
+            }
+        }
+    }
+
+    private void removeCancelledWaiters() {
+        Waiter waiter;
+        while ((waiter = cancelledWaiters.poll()) != null) {
+            final SelectionKey key = waiter.channel.keyFor(selector);
+            if (key == null || !key.isValid()) {
+                continue;
+            }
+
+            final ChannelWaiters waiters = (ChannelWaiters) key.attachment();
+            if (waiters.remove(waiter)) {
+                if (waiters.isEmpty()) {
+                    // nobody waits for the channel, the key is deregistered
+                    // by the next select
+                    key.cancel();
+                } else {
+                    key.interestOps(key.interestOps() & ~waiter.op);
+                }
+            }
+        }
+    }
+
+    private void notifyReadyWaiters() {
+        final Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+            final SelectionKey key = it.next();
+            it.remove();
+
+            final ChannelWaiters waiters = (ChannelWaiters) key.attachment();
+            try {
+                final int readyOps = key.readyOps();
+                waiters.signal(readyOps);
+                key.interestOps(key.interestOps() & ~readyOps);
+            } catch (CancelledKeyException e) {
+                waiters.signal(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final SelectableChannel channel;
+        private final int op;
+        private final Thread thread;
+
+        private volatile boolean isReady;
+        private volatile boolean isCancelled;
+        
+        private Waiter(final SelectableChannel channel, final int op,
+                final Thread thread) {
+            this.channel = channel;
+            this.op = op;
+            this.thread = thread;
+        }
+
+        private void signal() {
+            isReady = true;
+            if (!isCancelled) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * The threads waiting for the channel readiness, accessed by the poller
+     * thread only.
+     */
+    private static final class ChannelWaiters {
+        private Waiter reader;
+        private Waiter writer;
+
+        private void set(final Waiter waiter) {
+            if (waiter.op == SelectionKey.OP_WRITE) {
+                writer = waiter;
+            } else {
+                reader = waiter;
+            }
+        }
+
+        private boolean remove(final Waiter waiter) {
+            if (reader == waiter) {
+                reader = null;
+                return true;
+            }
+
+            if (writer == waiter) {
+                writer = null;
+                return true;
+            }
+
+            return false;
+        }
+
+        private boolean isEmpty() {
+            return reader == null && writer == null;
+        }
+
+        private void signal(final int readyOps) {
+            if (reader != null && (readyOps & ~SelectionKey.OP_WRITE) != 0) {
+                reader.signal();
+                reader = null;
+            }
+
+            if (writer != null && (readyOps & SelectionKey.OP_WRITE) != 0) {
+                writer.signal();
+                writer = null;
+            }
+        }
+    }
+}
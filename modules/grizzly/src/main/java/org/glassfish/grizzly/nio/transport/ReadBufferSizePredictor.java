@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.nio.transport;
+
+/**
+ * Predicts the size of the next read operation on a {@link TCPNIOConnection}
+ * based on the sizes of the previous reads.
+ *
+ * The predictor walks a table of sizes (16 byte steps up to 512 bytes,
+ * doubling afterwards): if a read fills the predicted size completely, the
+ * prediction is increased aggressively, if two reads in a row could have fit
+ * into a smaller size - the prediction is decreased by one step.
+ * So small requests are read into small buffers, and bulk transfers quickly
+ * reach the maximum read size.
+ *
+ * The predictor is not thread-safe, it's expected to be used by the thread
+ * processing the connection's READ event.
+ *
+ * @see TCPNIOTransport#setAdaptiveReadBufferSize(boolean)
+ *
+ * @since 2.4.5
+ */
+public final class ReadBufferSizePredictor {
+    public static final int DEFAULT_MIN_SIZE = 64;
+    public static final int DEFAULT_INITIAL_SIZE = 1024;
+    public static final int DEFAULT_MAX_SIZE = 65536;
+
+    private static final int INDEX_INCREMENT = 4;
+    private static final int INDEX_DECREMENT = 1;
+
+    private static final int[] SIZE_TABLE;
+
+    static {
+        int count = 0;
+        for (int size = 16; size < 512; size += 16) {
+            count++;
+        }
+        for (int size = 512; size > 0; size <<= 1) {
+            count++;
+        }
+
+        SIZE_TABLE = new int[count];
+        int i = 0;
+        for (int size = 16; size < 512; size += 16) {
+            SIZE_TABLE[i++] = size;
+        }
+        for (int size = 512; size > 0; size <<= 1) {
+            SIZE_TABLE[i++] = size;
+        }
+    }
+
+    private final int minIndex;
+    private final int maxIndex;
+    private int index;
+    private boolean decreaseNow;
+
+    public ReadBufferSizePredictor() {
+        this(DEFAULT_MIN_SIZE, DEFAULT_INITIAL_SIZE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param minSize the minimum predicted size.
+     * @param initialSize the size predicted for the first read.
+     * @param maxSize the maximum predicted size, if it's less than
+     *        <tt>minSize</tt> - the prediction is always <tt>minSize</tt>.
+     */
+    public ReadBufferSizePredictor(final int minSize, final int initialSize,
+            final int maxSize) {
+        if (minSize <= 0) {
+            throw new IllegalArgumentException("minSize can't be less than 1");
+        }
+
+        final int min = sizeTableIndex(minSize);
+        minIndex = Math.min(SIZE_TABLE[min] < minSize ? min + 1 : min,
+                SIZE_TABLE.length - 1);
+
+        final int max = sizeTableIndex(maxSize);
+        maxIndex = Math.max(minIndex,
+                SIZE_TABLE[max] > maxSize ? max - 1 : max);
+
+        index = Math.max(minIndex, Math.min(maxIndex,
+                sizeTableIndex(initialSize)));
+    }
+
+    /**
+     * @return the predicted size of the next read.
+     */
+    public int nextReadSize() {
+        return SIZE_TABLE[index];
+    }
+
+    /**
+     * Updates the prediction based on the number of bytes, that have been
+     * actually read.
+     *
+     * @param attemptedSize the number of bytes the read operation could have
+     *        read, may differ from {@link #nextReadSize()} if the buffer
+     *        was bigger or limited by the socket receive buffer size.
+     * @param readSize the number of bytes read.
+     */
+    public void record(final int attemptedSize, final int readSize) {
+        if (readSize <= SIZE_TABLE[Math.max(0, index - INDEX_DECREMENT)]) {
+            if (decreaseNow) {
+                index = Math.max(index - INDEX_DECREMENT, minIndex);
+                decreaseNow = false;
+            } else {
+                decreaseNow = true;
+            }
+        } else if (readSize >= attemptedSize
+                && SIZE_TABLE[index] <= attemptedSize) {
+            // the read buffer has been filled completely and the read size
+            // wasn't limited by the socket receive buffer size
+            index = Math.min(index + INDEX_INCREMENT, maxIndex);
+            decreaseNow = false;
+        }
+    }
+
+    /**
+     * Returns the index of the biggest table size, which is less or equal
+     * to the given size, or the index of the smallest table size, if the
+     * given size is smaller.
+     */
+    private static int sizeTableIndex(final int size) {
+        int low = 0;
+        int high = SIZE_TABLE.length - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midSize = SIZE_TABLE[mid];
+            if (midSize < size) {
+                low = mid + 1;
+            } else if (midSize > size) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return Math.max(0, high);
+    }
+
+    @Override
+    public String toString() {
+        return "ReadBufferSizePredictor{nextReadSize=" + nextReadSize() + '}';
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio.transport;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.ConnectionProbe;
+
+/**
+ * {@link ConnectionProbe}, which counts accepted connections per
+ * {@link TCPNIOServerConnection} acceptor. Useful to check how evenly the
+ * OS spreads incoming connections across the SO_REUSEPORT acceptors
+ * (see {@link TCPNIOTransport#setServerAcceptorsCount(int)}).
+ *
+ * Example usage:
+ * <pre>
+ *     TCPNIOAcceptorsProbe probe = new TCPNIOAcceptorsProbe();
+ *     transport.getConnectionMonitoringConfig().addProbes(probe);
+ *     ...
+ *     long accepted = probe.getAcceptedCount(serverConnection);
+ * </pre>
+ *
+ * @since 2.4.5
+ */
+public class TCPNIOAcceptorsProbe extends ConnectionProbe.Adapter {
+
+    private final ConcurrentMap<Connection, AtomicLong> acceptedCounters =
+            new ConcurrentHashMap<Connection, AtomicLong>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onAcceptEvent(final Connection serverConnection,
+            final Connection clientConnection) {
+        AtomicLong counter = acceptedCounters.get(serverConnection);
+        if (counter == null) {
+            final AtomicLong newCounter = new AtomicLong();
+            counter = acceptedCounters.putIfAbsent(serverConnection, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+
+        counter.incrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onCloseEvent(final Connection connection) {
+        if (connection instanceof TCPNIOServerConnection) {
+            acceptedCounters.remove(connection);
+        }
+    }
+
+    /**
+     * @param acceptor the server {@link Connection}.
+     * @return the number of connections accepted by the acceptor.
+     */
+    public long getAcceptedCount(final Connection acceptor) {
+        final AtomicLong counter = acceptedCounters.get(acceptor);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * @return the number of accepted connections mapped to the acceptor
+     *          (open server {@link Connection}).
+     */
+    public Map<Connection, Long> getAcceptedCounts() {
+        final Map<Connection, Long> counts =
+                new HashMap<Connection, Long>(acceptedCounters.size());
+        for (Map.Entry<Connection, AtomicLong> entry : acceptedCounters.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+
+        return counts;
+    }
+
+    /**
+     * Resets all the counters.
+     */
+    public void reset() {
+        acceptedCounters.clear();
+    }
+}
@@ -23,6 +23,8 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.glassfish.grizzly.Buffer;
@@ -313,37 +315,25 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
             return currentRecord;
         }
         
-        AsyncWriteQueueRecord nextRecord = checkAndGetNextRecord(writeTaskQueue);
+        final CompositeQueueRecord compositeQueueRecord =
+                obtainCompositeQueueRecord(currentRecord);
+        
+        // drain the aggregatable records in one batch, until all the
+        // queued bytes are collected
+        compositeQueueRecord.sizeLimit = compositeQueueRecord == currentRecord
+                ? queueSize
+                : queueSize - currentRecord.remaining();
+        final int drained = writeTaskQueue.drain(compositeQueueRecord,
+                compositeQueueRecord, Integer.MAX_VALUE);
         
-        if (nextRecord == null) {
+        if (compositeQueueRecord == currentRecord || drained == 0) {
             return currentRecord;
         }
         
-        final CompositeQueueRecord compositeQueueRecord =
-                createCompositeQueueRecord(currentRecord);
-        
-        do {
-            compositeQueueRecord.append(nextRecord);
-        } while(compositeQueueRecord.remaining() < queueSize &&
-                (nextRecord = checkAndGetNextRecord(writeTaskQueue)) != null);
-        
+        compositeQueueRecord.prepend(currentRecord);
         return compositeQueueRecord;
     }
 
-    private static AsyncWriteQueueRecord checkAndGetNextRecord(
-            final TaskQueue<AsyncWriteQueueRecord> writeTaskQueue) {
-
-        final AsyncWriteQueueRecord nextRecord = writeTaskQueue.getQueue().poll();
-        if (nextRecord == null) {
-            return null;
-        } else if (!canBeAggregated(nextRecord)) {
-            writeTaskQueue.setCurrentElement(nextRecord);
-            return null;
-        }
-
-        return nextRecord;
-    }
-    
     private static boolean canBeAggregated(final AsyncWriteQueueRecord record) {
         return record.canBeAggregated();
     }
@@ -352,7 +342,11 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
             Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(
                     TCPNIOAsyncQueueWriter.class.getName() + ".compositeBuffer");
 
-    private CompositeQueueRecord createCompositeQueueRecord(
+    /**
+     * Returns the <tt>currentRecord</tt>, if it's a {@link CompositeQueueRecord},
+     * or the connection's (empty) cached {@link CompositeQueueRecord} otherwise.
+     */
+    private CompositeQueueRecord obtainCompositeQueueRecord(
             final AsyncWriteQueueRecord currentRecord) {
         
         if (!(currentRecord instanceof CompositeQueueRecord)) {
@@ -365,14 +359,21 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
                 COMPOSITE_BUFFER_ATTR.set(connection, compositeQueueRecord);
             }
 
-            compositeQueueRecord.append(currentRecord);
             return compositeQueueRecord;
         } else {
             return (CompositeQueueRecord) currentRecord;
         }
     }
 
-    private static final class CompositeQueueRecord extends AsyncWriteQueueRecord {
+    /**
+     * Aggregates several {@link AsyncWriteQueueRecord}s to be written at once.
+     * Acts as the condition and the consumer, when draining the records from
+     * the {@link TaskQueue}: the records are accepted, while they can be
+     * aggregated and the aggregated size is less than the size limit.
+     */
+    private static final class CompositeQueueRecord extends AsyncWriteQueueRecord
+            implements Predicate<AsyncWriteQueueRecord>,
+            Consumer<AsyncWriteQueueRecord> {
         
         private final ArrayList<BufferArray> savedBufferStates =
                 new ArrayList<BufferArray>(2);
@@ -382,6 +383,8 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
         
         private int size;
         
+        private long sizeLimit;
+        
         
         public static CompositeQueueRecord create(final Connection connection) {
             return new CompositeQueueRecord(connection);
@@ -402,6 +405,21 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
             queue.add(queueRecord);
         }
 
+        public void prepend(final AsyncWriteQueueRecord queueRecord) {
+            size += queueRecord.remaining();
+            queue.addFirst(queueRecord);
+        }
+
+        @Override
+        public boolean test(final AsyncWriteQueueRecord queueRecord) {
+            return size < sizeLimit && queueRecord.canBeAggregated();
+        }
+
+        @Override
+        public void accept(final AsyncWriteQueueRecord queueRecord) {
+            append(queueRecord);
+        }
+
         @Override
         public boolean isUncountable() {
             return false;
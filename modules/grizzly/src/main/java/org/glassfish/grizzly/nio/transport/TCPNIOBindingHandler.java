@@ -18,13 +18,19 @@ package org.glassfish.grizzly.nio.transport;
 
 import org.glassfish.grizzly.AbstractBindingHandler;
 import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.localization.LogMessages;
 import org.glassfish.grizzly.utils.Exceptions;
 
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.ServerSocketChannel;
 import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This class may be used to apply a custom {@link org.glassfish.grizzly.Processor} and/or {@link org.glassfish.grizzly.ProcessorSelector}
@@ -40,6 +46,14 @@ import java.util.concurrent.locks.Lock;
  */
 public class TCPNIOBindingHandler extends AbstractBindingHandler {
 
+    private static final Logger LOGGER = Grizzly.logger(TCPNIOBindingHandler.class);
+
+    /**
+     * <tt>StandardSocketOptions.SO_REUSEPORT</tt>, which is available
+     * since JDK 9, or <tt>null</tt> if the option is not available.
+     */
+    private static final SocketOption<Boolean> SO_REUSEPORT = lookupReusePortOption();
+
     private final TCPNIOTransport tcpTransport;
 
     // ------------------------------------------------------------ Constructors
@@ -61,10 +75,22 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
 
     @Override
     public TCPNIOServerConnection bind(SocketAddress socketAddress, int backlog) throws IOException {
+        final int acceptorsCount = tcpTransport.getServerAcceptorsCount();
+        if (acceptorsCount > 1) {
+            if (isReusePortSupported()) {
+                return bindAcceptors(socketAddress, backlog, acceptorsCount);
+            }
+
+            LOGGER.log(Level.WARNING,
+                    LogMessages.WARNING_GRIZZLY_TRANSPORT_REUSEPORT_NOT_SUPPORTED(socketAddress));
+        }
+
         return bindToChannelAndAddress(
                 tcpTransport.getSelectorProvider().openServerSocketChannel(),
                 socketAddress,
-                backlog);
+                backlog,
+                null,
+                0);
     }
 
     @Override
@@ -72,7 +98,9 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
         return bindToChannelAndAddress(
                 this.<ServerSocketChannel>getSystemInheritedChannel(ServerSocketChannel.class),
                 null,
-                -1);
+                -1,
+                null,
+                0);
     }
 
     @Override
@@ -85,12 +113,116 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
     }
 
 
+    /**
+     * Binds a new acceptor to the address of the failed acceptor and puts
+     * it in place of the failed one within its SO_REUSEPORT acceptor group.
+     */
+    TCPNIOServerConnection rebindAcceptor(final TCPNIOServerConnection failedAcceptor,
+                                          final SocketAddress socketAddress)
+    throws IOException {
+        return bindToChannelAndAddress(openReusePortChannel(),
+                socketAddress,
+                tcpTransport.getServerConnectionBackLog(),
+                failedAcceptor.getAcceptorGroup(),
+                failedAcceptor.getAcceptorIndex());
+    }
+
+
     // --------------------------------------------------------- Private Methods
 
 
+    /**
+     * Binds <tt>acceptorsCount</tt> server channels with SO_REUSEPORT to the
+     * same address, so the OS load-balances incoming connections across them.
+     *
+     * @return the first acceptor, which represents the whole acceptor group
+     */
+    private TCPNIOServerConnection bindAcceptors(final SocketAddress socketAddress,
+                                                 final int backlog,
+                                                 final int acceptorsCount)
+    throws IOException {
+        final TCPNIOServerConnection[] acceptors =
+                new TCPNIOServerConnection[acceptorsCount];
+
+        final Lock lock = tcpTransport.getState().getStateLocker().writeLock();
+        lock.lock();
+        try {
+            SocketAddress acceptorAddress = socketAddress;
+            for (int i = 0; i < acceptorsCount; i++) {
+                final TCPNIOServerConnection acceptor = bindToChannelAndAddress(
+                        openReusePortChannel(), acceptorAddress, backlog,
+                        acceptors, i);
+                if (i == 0) {
+                    // the port might have been chosen by the OS,
+                    // the rest of acceptors have to use the same one
+                    acceptorAddress = acceptor.getLocalAddress();
+                }
+            }
+
+            return acceptors[0];
+        } catch (IOException e) {
+            for (TCPNIOServerConnection acceptor : acceptors) {
+                if (acceptor != null) {
+                    tcpTransport.unbind(acceptor);
+                }
+            }
+
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ServerSocketChannel openReusePortChannel() throws IOException {
+        final ServerSocketChannel serverSocketChannel =
+                tcpTransport.getSelectorProvider().openServerSocketChannel();
+        try {
+            serverSocketChannel.setOption(SO_REUSEPORT, Boolean.TRUE);
+        } catch (Exception e) {
+            try {
+                serverSocketChannel.close();
+            } catch (IOException ignored) {
+            }
+
+            throw Exceptions.makeIOException(e);
+        }
+
+        return serverSocketChannel;
+    }
+
+    private boolean isReusePortSupported() {
+        if (SO_REUSEPORT == null) {
+            return false;
+        }
+
+        try {
+            final ServerSocketChannel serverSocketChannel =
+                    tcpTransport.getSelectorProvider().openServerSocketChannel();
+            try {
+                return serverSocketChannel.supportedOptions().contains(SO_REUSEPORT);
+            } finally {
+                serverSocketChannel.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> lookupReusePortOption() {
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class
+                    .getField("SO_REUSEPORT").get(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private TCPNIOServerConnection bindToChannelAndAddress(final ServerSocketChannel serverSocketChannel,
                                                            final SocketAddress socketAddress,
-                                                           final int backlog)
+                                                           final int backlog,
+                                                           final TCPNIOServerConnection[] acceptorGroup,
+                                                           final int acceptorIndex)
     throws IOException {
         TCPNIOServerConnection serverConnection = null;
 
@@ -111,6 +243,9 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
                     serverSocketChannel);
 
             serverConnection = tcpTransport.obtainServerNIOConnection(serverSocketChannel);
+            if (acceptorGroup != null) {
+                serverConnection.setAcceptorGroup(acceptorGroup, acceptorIndex);
+            }
             serverConnection.setProcessor(getProcessor());
             serverConnection.setProcessorSelector(getProcessorSelector());
             tcpTransport.serverConnections.add(serverConnection);
@@ -50,6 +50,18 @@ public class TCPNIOConnection extends NIOConnection {
 
     private AtomicReference<ConnectResultHandler> connectHandlerRef;
 
+    /**
+     * The next read size predictor, <tt>null</tt> if the adaptive read
+     * buffer sizing is disabled.
+     */
+    ReadBufferSizePredictor readBufferSizePredictor;
+
+    /**
+     * The size of the chunks the scattering reads are performed into,
+     * <tt>-1</tt> if the scattering reads are disabled.
+     */
+    int scatteringReadChunkSize = -1;
+
     public TCPNIOConnection(TCPNIOTransport transport,
             SelectableChannel channel) {
         super(transport);
@@ -278,6 +290,28 @@ public class TCPNIOConnection extends NIOConnection {
         checkEmptyRead(size);
     }
 
+    /**
+     * Method will be called, when the data was read into a buffer, which
+     * size has been predicted by the {@link ReadBufferSizePredictor}.
+     */
+    final void onReadSizePrediction(final int predictedSize, final int readSize) {
+        readBufferSizePredictor.record(predictedSize, readSize);
+        notifyProbesReadSizePrediction(this, predictedSize, readSize);
+    }
+
+    /**
+     * @return the {@link ReadBufferSizePredictor} used to size the buffers
+     *          allocated for the read operations, or <tt>null</tt> if the
+     *          adaptive read buffer sizing is disabled.
+     *
+     * @see TCPNIOTransport#setAdaptiveReadBufferSize(boolean)
+     *
+     * @since 2.4.5
+     */
+    public ReadBufferSizePredictor getReadBufferSizePredictor() {
+        return readBufferSizePredictor;
+    }
+
     @Override
     protected void enableInitialOpRead() throws IOException {
         super.enableInitialOpRead();
@@ -51,6 +51,13 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
     private final RegisterAcceptedChannelCompletionHandler defaultCompletionHandler;
     private final Object acceptSync = new Object();
 
+    /**
+     * The SO_REUSEPORT acceptor group this connection belongs to,
+     * or <tt>null</tt> if the connection is the only acceptor for its address.
+     */
+    private volatile TCPNIOServerConnection[] acceptorGroup;
+    private int acceptorIndex;
+
     public TCPNIOServerConnection(TCPNIOTransport transport,
             ServerSocketChannel serverSocketChannel) {
         super(transport, serverSocketChannel);
@@ -64,11 +71,19 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
 
         final FutureImpl<RegisterChannelResult> future =
                 SafeFutureImpl.create();
-        
-        transport.getNIOChannelDistributor().registerServiceChannelAsync(
-                channel, SelectionKey.OP_ACCEPT, this,
+        final CompletionHandler<RegisterChannelResult> completionHandler =
                 new CompletionHandlerAdapter<RegisterChannelResult, RegisterChannelResult>(
-                future, registerCompletionHandler));
+                future, registerCompletionHandler);
+
+        if (acceptorGroup == null) {
+            transport.getNIOChannelDistributor().registerServiceChannelAsync(
+                    channel, SelectionKey.OP_ACCEPT, this, completionHandler);
+        } else {
+            // each acceptor of the group is owned by its own SelectorRunner
+            transport.getSelectorHandler().registerChannelAsync(
+                    ((TCPNIOTransport) transport).getAcceptorSelectorRunner(acceptorIndex),
+                    channel, SelectionKey.OP_ACCEPT, this, completionHandler);
+        }
         try {
             future.get(10, TimeUnit.SECONDS);
         } catch (ExecutionException e) {
@@ -81,6 +96,40 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
         notifyProbesBind(this);
     }
 
+    /**
+     * Returns the index of this acceptor within its SO_REUSEPORT acceptor
+     * group. The index is <tt>0</tt> if this connection is the only acceptor
+     * bound to its address.
+     *
+     * The index may be used by {@link ConnectionProbe}s to tell acceptors
+     * apart, see {@link TCPNIOAcceptorsProbe}.
+     *
+     * @return the index of this acceptor within its acceptor group.
+     */
+    public int getAcceptorIndex() {
+        return acceptorIndex;
+    }
+
+    /**
+     * @return the number of acceptors bound to the same address as this
+     *          connection, using SO_REUSEPORT.
+     */
+    public int getAcceptorsCount() {
+        final TCPNIOServerConnection[] group = acceptorGroup;
+        return group != null ? group.length : 1;
+    }
+
+    TCPNIOServerConnection[] getAcceptorGroup() {
+        return acceptorGroup;
+    }
+
+    void setAcceptorGroup(final TCPNIOServerConnection[] acceptorGroup,
+            final int acceptorIndex) {
+        this.acceptorIndex = acceptorIndex;
+        this.acceptorGroup = acceptorGroup;
+        acceptorGroup[acceptorIndex] = this;
+    }
+
     @Override
     public boolean isBlocking() {
         return transport.isBlocking();
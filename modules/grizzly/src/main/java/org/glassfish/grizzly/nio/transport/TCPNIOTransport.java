@@ -75,6 +75,12 @@ public final class TCPNIOTransport extends NIOTransport implements
     public static final boolean DEFAULT_KEEP_ALIVE = true;
     public static final int DEFAULT_LINGER = -1;
     public static final int DEFAULT_SERVER_CONNECTION_BACKLOG = 4096;
+    public static final int DEFAULT_SERVER_ACCEPTORS_COUNT = 1;
+    public static final boolean DEFAULT_ADAPTIVE_READ_BUFFER_SIZE = false;
+    public static final boolean DEFAULT_SCATTERING_READS = false;
+    public static final int DEFAULT_SCATTERING_READ_CHUNK_SIZE = 16 * 1024;
+    public static final int DEFAULT_WRITE_LOW_WATERMARK = -1;
+    public static final int DEFAULT_WRITE_HIGH_WATERMARK = -1;
 
     private static final String DEFAULT_TRANSPORT_NAME = "TCPNIOTransport";
     /**
@@ -94,6 +100,35 @@ public final class TCPNIOTransport extends NIOTransport implements
      * The default server connection backlog size
      */
     int serverConnectionBackLog = DEFAULT_SERVER_CONNECTION_BACKLOG;
+    /**
+     * The number of server channels, bound with SO_REUSEPORT to the same
+     * address, each accepting on its own {@link SelectorRunner}.
+     */
+    int serverAcceptorsCount = DEFAULT_SERVER_ACCEPTORS_COUNT;
+    /**
+     * <tt>true</tt>, if the size of the buffers allocated for read
+     * operations is predicted per connection based on the previous reads.
+     */
+    boolean adaptiveReadBufferSize = DEFAULT_ADAPTIVE_READ_BUFFER_SIZE;
+    /**
+     * <tt>true</tt>, if the data is read into a composite buffer built of
+     * several chunks, using a single scattering read.
+     */
+    boolean scatteringReads = DEFAULT_SCATTERING_READS;
+    /**
+     * The size of the chunks the scattering reads are performed into.
+     */
+    int scatteringReadChunkSize = DEFAULT_SCATTERING_READ_CHUNK_SIZE;
+    /**
+     * The amount of queued bytes, at which a connection becomes writable
+     * again.
+     */
+    int writeLowWatermark = DEFAULT_WRITE_LOW_WATERMARK;
+    /**
+     * The amount of queued bytes, at which a connection becomes unwritable,
+     * <tt>-1</tt> means the write watermarks are off.
+     */
+    int writeHighWatermark = DEFAULT_WRITE_HIGH_WATERMARK;
     /**
      * The socket tcpDelay.
      *
@@ -266,6 +301,19 @@ public final class TCPNIOTransport extends NIOTransport implements
                             LogMessages.WARNING_GRIZZLY_TRANSPORT_UNBINDING_CONNECTION_EXCEPTION(connection),
                             e);
                 }
+
+                // unbinding the first acceptor unbinds the whole
+                // SO_REUSEPORT acceptor group
+                final TCPNIOServerConnection serverConnection =
+                        (TCPNIOServerConnection) connection;
+                final TCPNIOServerConnection[] acceptors =
+                        serverConnection.getAcceptorGroup();
+                if (acceptors != null
+                        && serverConnection.getAcceptorIndex() == 0) {
+                    for (int i = 1; i < acceptors.length; i++) {
+                        unbind(acceptors[i]);
+                    }
+                }
             }
         } finally {
             lock.unlock();
@@ -394,6 +442,20 @@ public final class TCPNIOTransport extends NIOTransport implements
     TCPNIOConnection obtainNIOConnection(final SocketChannel channel) {
         final TCPNIOConnection connection = new TCPNIOConnection(this, channel);
         configureNIOConnection(connection);
+        if (adaptiveReadBufferSize) {
+            // the predicted size is limited by the connection's read buffer
+            // size at read time
+            connection.readBufferSizePredictor = new ReadBufferSizePredictor(
+                    ReadBufferSizePredictor.DEFAULT_MIN_SIZE,
+                    ReadBufferSizePredictor.DEFAULT_INITIAL_SIZE,
+                    MAX_RECEIVE_BUFFER_SIZE);
+        }
+        if (scatteringReads) {
+            connection.scatteringReadChunkSize = scatteringReadChunkSize;
+        }
+        if (writeHighWatermark >= 0) {
+            connection.setWriteWatermarks(writeLowWatermark, writeHighWatermark);
+        }
         
         return connection;
     }
@@ -474,6 +536,209 @@ public final class TCPNIOTransport extends NIOTransport implements
         this.serverConnectionBackLog = serverConnectionBackLog;
     }
 
+    /**
+     * Get the number of server channels (acceptors) bound to each address.
+     * @return the number of server channels (acceptors) bound to each address.
+     */
+    public int getServerAcceptorsCount() {
+        return serverAcceptorsCount;
+    }
+
+    /**
+     * Set the number of server channels (acceptors) bound to each address.
+     *
+     * If the value is greater than <tt>1</tt>, each bind operation opens
+     * <tt>serverAcceptorsCount</tt> server channels with SO_REUSEPORT
+     * enabled, and each of them accepts connections on its own
+     * {@link SelectorRunner}, so the OS spreads incoming connections
+     * across the acceptors. The {@link TCPNIOServerConnection} returned by
+     * <tt>bind(...)</tt> represents the whole acceptor group, unbinding it
+     * unbinds all the acceptors.
+     * If SO_REUSEPORT isn't supported by the JDK or the OS - only one server
+     * channel is bound.
+     *
+     * Has effect on subsequent bind operations only.
+     *
+     * @param serverAcceptorsCount the number of server channels (acceptors)
+     *        bound to each address.
+     */
+    public void setServerAcceptorsCount(final int serverAcceptorsCount) {
+        if (serverAcceptorsCount < 1) {
+            throw new IllegalArgumentException(
+                    "serverAcceptorsCount can't be less than 1");
+        }
+        
+        this.serverAcceptorsCount = serverAcceptorsCount;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * @return <tt>true</tt>, if the size of the buffers allocated for read
+     *          operations is predicted per connection based on the sizes of
+     *          the previous reads.
+     *
+     * @since 2.4.5
+     */
+    public boolean isAdaptiveReadBufferSize() {
+        return adaptiveReadBufferSize;
+    }
+
+    /**
+     * Enables or disables the adaptive read buffer sizing.
+     *
+     * By default the transport reads into a buffer of the connection's read
+     * buffer size and then copies the read data into a buffer of the exact
+     * size. If the adaptive sizing is enabled, each {@link TCPNIOConnection}
+     * gets a {@link ReadBufferSizePredictor}, which guesses the next read size
+     * based on the previous reads, so if the {@link org.glassfish.grizzly.memory.MemoryManager}
+     * allocates direct buffers - the data is read directly into a buffer of
+     * the predicted size. The prediction accuracy is reported to
+     * {@link org.glassfish.grizzly.ConnectionProbe#onReadSizePredictionEvent(Connection, int, int)}.
+     *
+     * Has effect on connections created afterwards.
+     *
+     * @param adaptiveReadBufferSize <tt>true</tt> to enable the adaptive
+     *        read buffer sizing.
+     *
+     * @since 2.4.5
+     */
+    public void setAdaptiveReadBufferSize(final boolean adaptiveReadBufferSize) {
+        this.adaptiveReadBufferSize = adaptiveReadBufferSize;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * @return <tt>true</tt>, if the data is read into a composite buffer
+     *          built of several chunks, using a single scattering read.
+     *
+     * @see #setScatteringReads(boolean)
+     * @since 2.4.5
+     */
+    public boolean isScatteringReads() {
+        return scatteringReads;
+    }
+
+    /**
+     * Enables or disables the scattering reads.
+     *
+     * By default each read event reads the data into a single contiguous
+     * buffer. If the scattering reads are enabled and the expected read size
+     * (the connection's read buffer size, or the predicted size if
+     * {@link #setAdaptiveReadBufferSize(boolean) adaptive read buffer sizing}
+     * is on) exceeds the {@link #getScatteringReadChunkSize() chunk size},
+     * the data is scattered by a single read operation into several chunks
+     * allocated by the {@link org.glassfish.grizzly.memory.MemoryManager}
+     * and appended to a {@link org.glassfish.grizzly.memory.CompositeBuffer}.
+     * The chunks, which got no data, are released right after the read.
+     * So large payloads are never copied or reallocated into bigger buffers,
+     * which works best with a direct
+     * {@link org.glassfish.grizzly.memory.PooledMemoryManager}, whose pooled
+     * buffers the chunks are.
+     *
+     * Has effect on connections created afterwards.
+     *
+     * @param scatteringReads <tt>true</tt> to enable the scattering reads.
+     *
+     * @since 2.4.5
+     */
+    public void setScatteringReads(final boolean scatteringReads) {
+        this.scatteringReads = scatteringReads;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * @return the size of the chunks the scattering reads are performed into.
+     *
+     * @see #setScatteringReads(boolean)
+     * @since 2.4.5
+     */
+    public int getScatteringReadChunkSize() {
+        return scatteringReadChunkSize;
+    }
+
+    /**
+     * Sets the size of the chunks the scattering reads are performed into.
+     * Has effect on connections created afterwards.
+     *
+     * @param scatteringReadChunkSize the chunk size.
+     *
+     * @see #setScatteringReads(boolean)
+     * @since 2.4.5
+     */
+    public void setScatteringReadChunkSize(final int scatteringReadChunkSize) {
+        if (scatteringReadChunkSize <= 0) {
+            throw new IllegalArgumentException("scatteringReadChunkSize must be positive");
+        }
+
+        this.scatteringReadChunkSize = scatteringReadChunkSize;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * @return the amount of queued bytes, at which a connection becomes
+     *          writable again, or <tt>-1</tt> if the write watermarks are off.
+     *
+     * @see #setWriteWatermarks(int, int)
+     * @since 2.4.5
+     */
+    public int getWriteLowWatermark() {
+        return writeLowWatermark;
+    }
+
+    /**
+     * @return the amount of queued bytes, at which a connection becomes
+     *          unwritable, or <tt>-1</tt> if the write watermarks are off.
+     *
+     * @see #setWriteWatermarks(int, int)
+     * @since 2.4.5
+     */
+    public int getWriteHighWatermark() {
+        return writeHighWatermark;
+    }
+
+    /**
+     * Sets the async write queue watermarks for the {@link TCPNIOConnection}s.
+     * A connection becomes unwritable, once its async write queue reaches the
+     * <tt>highWatermark</tt>, and writable again, once the queue gets drained
+     * down to the <tt>lowWatermark</tt>. The writability changes are
+     * reported by the {@link org.glassfish.grizzly.filterchain.WritabilityChangedEvent}
+     * fired through the connection's filter chain.
+     * Has effect on connections created afterwards.
+     *
+     * @param lowWatermark the amount of queued bytes, at which a connection
+     *        becomes writable again.
+     * @param highWatermark the amount of queued bytes, at which a connection
+     *        becomes unwritable, or <tt>-1</tt> to turn the watermarks off.
+     *
+     * @see org.glassfish.grizzly.nio.NIOConnection#setWriteWatermarks(int, int)
+     * @since 2.4.5
+     */
+    public void setWriteWatermarks(final int lowWatermark,
+            final int highWatermark) {
+        if (highWatermark < 0) {
+            this.writeLowWatermark = DEFAULT_WRITE_LOW_WATERMARK;
+            this.writeHighWatermark = DEFAULT_WRITE_HIGH_WATERMARK;
+        } else {
+            if (lowWatermark < 0 || lowWatermark >= highWatermark) {
+                throw new IllegalArgumentException("lowWatermark must be "
+                        + "non-negative and less than highWatermark");
+            }
+
+            this.writeLowWatermark = lowWatermark;
+            this.writeHighWatermark = highWatermark;
+        }
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * Returns the {@link SelectorRunner}, which owns the acceptor with the
+     * given index within a SO_REUSEPORT acceptor group.
+     */
+    SelectorRunner getAcceptorSelectorRunner(final int acceptorIndex) {
+        final SelectorRunner[] runners = getSelectorRunners();
+        return runners[acceptorIndex % runners.length];
+    }
+
     @Override
     public Filter getTransportFilter() {
         return defaultTransportFilter;
@@ -835,7 +1100,14 @@ public final class TCPNIOTransport extends NIOTransport implements
             //noinspection SuspiciousMethodCalls
             if (serverConnections.remove(connection)) {
                 final SocketAddress address = (SocketAddress) connection.getLocalAddress();
-                bind(address);
+                final TCPNIOServerConnection serverConnection =
+                        (TCPNIOServerConnection) connection;
+                if (serverConnection.getAcceptorGroup() != null) {
+                    // re-bind just the failed acceptor, not the whole group
+                    bindingHandler.rebindAcceptor(serverConnection, address);
+                } else {
+                    bind(address);
+                }
             }
         } finally {
             lock.unlock();
@@ -30,6 +30,12 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
     protected boolean keepAlive = TCPNIOTransport.DEFAULT_KEEP_ALIVE;
     protected int linger = TCPNIOTransport.DEFAULT_LINGER;
     protected int serverConnectionBackLog = TCPNIOTransport.DEFAULT_SERVER_CONNECTION_BACKLOG;
+    protected int serverAcceptorsCount = TCPNIOTransport.DEFAULT_SERVER_ACCEPTORS_COUNT;
+    protected boolean adaptiveReadBufferSize = TCPNIOTransport.DEFAULT_ADAPTIVE_READ_BUFFER_SIZE;
+    protected boolean scatteringReads = TCPNIOTransport.DEFAULT_SCATTERING_READS;
+    protected int scatteringReadChunkSize = TCPNIOTransport.DEFAULT_SCATTERING_READ_CHUNK_SIZE;
+    protected int writeLowWatermark = TCPNIOTransport.DEFAULT_WRITE_LOW_WATERMARK;
+    protected int writeHighWatermark = TCPNIOTransport.DEFAULT_WRITE_HIGH_WATERMARK;
     protected int serverSocketSoTimeout = TCPNIOTransport.DEFAULT_SERVER_SOCKET_SO_TIMEOUT;
     protected boolean tcpNoDelay = TCPNIOTransport.DEFAULT_TCP_NO_DELAY;
 
@@ -99,6 +105,99 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
         return getThis();
     }
 
+    /**
+     * @see TCPNIOTransport#getServerAcceptorsCount()
+     */
+    public int getServerAcceptorsCount() {
+        return serverAcceptorsCount;
+    }
+
+    /**
+     * @see TCPNIOTransport#setServerAcceptorsCount(int)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setServerAcceptorsCount(int serverAcceptorsCount) {
+        this.serverAcceptorsCount = serverAcceptorsCount;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#isAdaptiveReadBufferSize()
+     */
+    public boolean isAdaptiveReadBufferSize() {
+        return adaptiveReadBufferSize;
+    }
+
+    /**
+     * @see TCPNIOTransport#setAdaptiveReadBufferSize(boolean)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setAdaptiveReadBufferSize(boolean adaptiveReadBufferSize) {
+        this.adaptiveReadBufferSize = adaptiveReadBufferSize;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#isScatteringReads()
+     */
+    public boolean isScatteringReads() {
+        return scatteringReads;
+    }
+
+    /**
+     * @see TCPNIOTransport#setScatteringReads(boolean)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setScatteringReads(boolean scatteringReads) {
+        this.scatteringReads = scatteringReads;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#getScatteringReadChunkSize()
+     */
+    public int getScatteringReadChunkSize() {
+        return scatteringReadChunkSize;
+    }
+
+    /**
+     * @see TCPNIOTransport#setScatteringReadChunkSize(int)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setScatteringReadChunkSize(int scatteringReadChunkSize) {
+        this.scatteringReadChunkSize = scatteringReadChunkSize;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#getWriteLowWatermark()
+     */
+    public int getWriteLowWatermark() {
+        return writeLowWatermark;
+    }
+
+    /**
+     * @see TCPNIOTransport#getWriteHighWatermark()
+     */
+    public int getWriteHighWatermark() {
+        return writeHighWatermark;
+    }
+
+    /**
+     * @see TCPNIOTransport#setWriteWatermarks(int, int)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setWriteWatermarks(int lowWatermark, int highWatermark) {
+        this.writeLowWatermark = lowWatermark;
+        this.writeHighWatermark = highWatermark;
+        return getThis();
+    }
+
     /**
      * @see TCPNIOTransport#getServerSocketSoTimeout()
      */
@@ -142,6 +241,11 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
         transport.setKeepAlive(keepAlive);
         transport.setLinger(linger);
         transport.setServerConnectionBackLog(serverConnectionBackLog);
+        transport.setServerAcceptorsCount(serverAcceptorsCount);
+        transport.setAdaptiveReadBufferSize(adaptiveReadBufferSize);
+        transport.setScatteringReads(scatteringReads);
+        transport.setScatteringReadChunkSize(scatteringReadChunkSize);
+        transport.setWriteWatermarks(writeLowWatermark, writeHighWatermark);
         transport.setTcpNoDelay(tcpNoDelay);
         transport.setServerSocketSoTimeout(serverSocketSoTimeout);
         return transport;
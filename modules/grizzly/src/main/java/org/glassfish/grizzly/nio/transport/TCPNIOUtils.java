@@ -28,6 +28,7 @@ import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.ByteBufferArray;
 import org.glassfish.grizzly.memory.CompositeBuffer;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.memory.PooledMemoryManager;
 import org.glassfish.grizzly.nio.DirectByteBufferRecord;
 import org.glassfish.grizzly.utils.Exceptions;
 
@@ -190,6 +191,11 @@ public class TCPNIOUtils {
                 Math.min(bufferSize, (connection.getWriteBufferSize() * 3) / 2));
     }
 
+    private static boolean isPooledDirect(final MemoryManager memoryManager) {
+        return memoryManager instanceof PooledMemoryManager
+                && ((PooledMemoryManager) memoryManager).isDirect();
+    }
+
     public static Buffer allocateAndReadBuffer(final TCPNIOConnection connection)
             throws IOException {
         
@@ -199,16 +205,34 @@ public class TCPNIOUtils {
         Throwable error = null;
         Buffer buffer = null;
         
+        final ReadBufferSizePredictor predictor =
+                connection.readBufferSizePredictor;
+        int readSize = 0;
+        
         try {
             final int receiveBufferSize =
                     Math.min(TCPNIOTransport.MAX_RECEIVE_BUFFER_SIZE,
                             connection.getReadBufferSize());
-        
-            if (!memoryManager.willAllocateDirect(receiveBufferSize)) {
+            readSize = predictor != null
+                    ? Math.min(predictor.nextReadSize(), receiveBufferSize)
+                    : receiveBufferSize;
+
+            final int chunkSize = connection.scatteringReadChunkSize;
+            if (chunkSize > 0 && readSize > chunkSize) {
+                // scatter the read into several chunks, no copy needed
+                final CompositeBuffer compositeBuffer =
+                        allocateChunks(memoryManager, readSize, chunkSize);
+                buffer = compositeBuffer;
+                readSize = compositeBuffer.remaining();
+                read = readCompositeBuffer(connection, compositeBuffer);
+            } else if (!memoryManager.willAllocateDirect(readSize)
+                    // the read size is predicted, so it's cheaper to read
+                    // into a right-sized pooled direct buffer than to copy
+                    && !(predictor != null && isPooledDirect(memoryManager))) {
                 final DirectByteBufferRecord ioRecord = 
                         DirectByteBufferRecord.get();
                 final ByteBuffer directByteBuffer =
-                        ioRecord.allocate(receiveBufferSize);
+                        ioRecord.allocate(readSize);
                 
                 try {
                     read = readSimpleByteBuffer(connection, directByteBuffer);
@@ -221,7 +245,9 @@ public class TCPNIOUtils {
                     ioRecord.release();
                 }
             } else {
-                buffer = memoryManager.allocateAtLeast(receiveBufferSize);
+                // read directly into the (pooled) direct buffer, no copy needed
+                buffer = memoryManager.allocateAtLeast(readSize);
+                readSize = buffer.remaining();
                 read = readBuffer(connection, buffer);
             }
         } catch (Throwable e) {
@@ -229,6 +255,10 @@ public class TCPNIOUtils {
             read = -1;
         }
         
+        if (predictor != null && read > 0) {
+            connection.onReadSizePrediction(readSize, read);
+        }
+        
         if (read > 0) {
             buffer.position(read);
             buffer.allowBufferDispose(true);
@@ -255,6 +285,29 @@ public class TCPNIOUtils {
         return buffer;
     }
 
+    /**
+     * Allocates a {@link CompositeBuffer} built of <tt>chunkSize</tt> buffers,
+     * which is able to hold at least <tt>size</tt> bytes.
+     * The chunks, which haven't got any data, are disposed once the buffer is
+     * {@link Buffer#trim() trimmed}.
+     */
+    static CompositeBuffer allocateChunks(final MemoryManager memoryManager,
+            final int size, final int chunkSize) {
+        final CompositeBuffer compositeBuffer =
+                CompositeBuffer.newBuffer(memoryManager);
+        compositeBuffer.allowInternalBuffersDispose(true);
+        compositeBuffer.allowBufferDispose(true);
+
+        int allocated = 0;
+        while (allocated < size) {
+            final Buffer chunk = memoryManager.allocateAtLeast(chunkSize);
+            allocated += chunk.remaining();
+            compositeBuffer.append(chunk);
+        }
+
+        return compositeBuffer;
+    }
+
     public static int readBuffer(final TCPNIOConnection connection,
                                  final Buffer buffer) throws IOException {
         return buffer.isComposite()
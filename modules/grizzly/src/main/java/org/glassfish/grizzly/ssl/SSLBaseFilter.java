@@ -75,7 +75,7 @@ public class SSLBaseFilter extends BaseFilter {
     private static final Logger LOGGER = Grizzly.logger(SSLBaseFilter.class);
     protected static final MessageCloner<Buffer> COPY_CLONER = new OnWriteCopyCloner();
 
-    private static final Allocator MM_ALLOCATOR = new Allocator() {
+    static final Allocator MM_ALLOCATOR = new Allocator() {
         @Override
         @SuppressWarnings("unchecked")
         public Buffer grow(final SSLConnectionContext sslCtx,
@@ -88,7 +88,7 @@ public class SSLBaseFilter extends BaseFilter {
         }
     };
     
-    private static final Allocator OUTPUT_BUFFER_ALLOCATOR =
+    static final Allocator OUTPUT_BUFFER_ALLOCATOR =
             new Allocator() {
         @Override
         public Buffer grow(final SSLConnectionContext sslCtx,
@@ -353,16 +353,31 @@ public class SSLBaseFilter extends BaseFilter {
     @SuppressWarnings("unchecked")
     @Override
     public NextAction handleWrite(final FilterChainContext ctx) throws IOException {
-        if (ctx.getMessage() instanceof FileTransfer) {
-            throw new IllegalStateException("TLS operations not supported with SendFile messages");
-        }
-
         final Connection connection = ctx.getConnection();
 
         //noinspection SynchronizationOnLocalVariableOrMethodParameter
         synchronized(connection) {
-            final Buffer output =
-                    wrapAll(ctx, obtainSslConnectionContext(connection));
+            final SSLConnectionContext sslCtx =
+                    obtainSslConnectionContext(connection);
+            
+            final SSLFileTransferWriter fileTransferWriter =
+                    sslCtx.fileTransferWriter;
+            if (fileTransferWriter != null) {
+                // a file is being sent, the write will be resumed after that
+                fileTransferWriter.addPendingWrite(ctx);
+                return ctx.getSuspendAction();
+            }
+            
+            if (ctx.getMessage() instanceof FileTransfer) {
+                final SSLFileTransferWriter newFileTransferWriter =
+                        new SSLFileTransferWriter(sslCtx, ctx);
+                sslCtx.fileTransferWriter = newFileTransferWriter;
+                newFileTransferWriter.start();
+                
+                return ctx.getSuspendAction();
+            }
+            
+            final Buffer output = wrapAll(ctx, sslCtx);
 
             final TransportContext transportContext =
                     ctx.getTransportContext();
@@ -76,6 +76,9 @@ public final class SSLConnectionContext {
     private final Connection connection;
     private FilterChain newConnectionFilterChain;
 
+    // the FileTransfer, which is being sent, guarded by the connection lock
+    SSLFileTransferWriter fileTransferWriter;
+
     public SSLConnectionContext(Connection connection) {
         this.connection = connection;
     }    
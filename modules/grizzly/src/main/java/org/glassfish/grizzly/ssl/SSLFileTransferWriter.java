@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.ssl;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.net.ssl.SSLException;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.CompletionHandler;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.FileTransfer;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.WriteResult;
+import org.glassfish.grizzly.asyncqueue.MessageCloner;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.FilterChainContext.TransportContext;
+import org.glassfish.grizzly.ssl.SSLConnectionContext.SslResult;
+import org.glassfish.grizzly.utils.Exceptions;
+
+/**
+ * Sends a {@link FileTransfer} over a TLS {@link Connection}.
+ *
+ * The file is read chunk by chunk into a single {@link Buffer} and each chunk
+ * is encrypted into a single network {@link Buffer}, both are reused for the
+ * whole transfer. The next chunk is read, when the previous one has been
+ * written, so only one encrypted chunk per connection is kept in memory.
+ * The file is read outside of the connection lock, only the encryption and
+ * the write are synchronized with the other writers.
+ * The writes initiated while the file is being sent are suspended and
+ * resumed, when the transfer is completed, so the file content isn't
+ * interleaved with other data.
+ *
+ * @since 2.4.5
+ */
+final class SSLFileTransferWriter implements CompletionHandler<WriteResult> {
+    private static final Logger LOGGER = Grizzly.logger(SSLFileTransferWriter.class);
+
+    // two max size TLS records
+    private static final int CHUNK_SIZE = 32768;
+
+    private static final int IDLE = 0;
+    private static final int WRITING = 1;
+    private static final int COMPLETED_INLINE = 2;
+
+    private final SSLConnectionContext sslCtx;
+    private final Connection connection;
+    private final FilterChainContext ctx;
+    private final FileTransfer fileTransfer;
+    private final CompletionHandler<WriteResult> completionHandler;
+    private final boolean isBlocking;
+    private final Buffer chunk;
+    // the encrypted chunk, allocated (and grown if needed) by the first wrap
+    private Buffer netBuffer;
+
+    // the state of the current chunk write
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+
+    private List<FilterChainContext> pendingWriteContexts;
+    private long written;
+    private boolean isDone;
+
+    @SuppressWarnings("unchecked")
+    SSLFileTransferWriter(final SSLConnectionContext sslCtx,
+            final FilterChainContext ctx) {
+        this.sslCtx = sslCtx;
+        this.ctx = ctx;
+        connection = ctx.getConnection();
+        fileTransfer = ctx.getMessage();
+
+        final TransportContext transportContext = ctx.getTransportContext();
+        completionHandler = transportContext.getCompletionHandler();
+        isBlocking = transportContext.isBlocking();
+
+        chunk = connection.getMemoryManager().allocate(
+                Math.max(1, Math.min(CHUNK_SIZE, fileTransfer.remaining())));
+    }
+
+    /**
+     * Suspends the write, which has been initiated while the file is being
+     * sent. The write will be resumed, when the file transfer is completed.
+     *
+     * Has to be called in synchronized(connection) {...} scope.
+     */
+    void addPendingWrite(final FilterChainContext context) {
+        if (pendingWriteContexts == null) {
+            pendingWriteContexts = new LinkedList<FilterChainContext>();
+        }
+
+        pendingWriteContexts.add(context);
+    }
+
+    /**
+     * Starts the file transfer.
+     */
+    void start() {
+        writeNext();
+    }
+
+    private void writeNext() {
+        try {
+            do {
+                if (!fileTransfer.hasRemaining()) {
+                    done(null);
+                    return;
+                }
+
+                state.set(WRITING);
+
+                // the previous chunk has been written, so the chunk and the
+                // file are not accessed by anybody else
+                chunk.clear();
+                written += fileTransfer.readTo(chunk);
+                chunk.flip();
+
+                //noinspection SynchronizationOnLocalVariableOrMethodParameter
+                synchronized (connection) {
+                    wrapChunk();
+
+                    // the network buffer is reused, so it's not cloned and
+                    // is not touched until the write is completed
+                    ctx.write(null, netBuffer, this,
+                            (MessageCloner<Buffer>) null, isBlocking);
+                }
+
+                // if the chunk has been written inline - write the next one
+                // right away, otherwise completed() will do that
+            } while (!state.compareAndSet(WRITING, IDLE));
+        } catch (Exception e) {
+            done(e);
+        }
+    }
+
+    /**
+     * Encrypts the chunk into the {@link #netBuffer}.
+     *
+     * Has to be called in synchronized(connection) {...} scope.
+     */
+    private void wrapChunk() throws SSLException {
+        Buffer output = netBuffer;
+        if (output != null) {
+            output.clear();
+        }
+
+        try {
+            while (chunk.hasRemaining()) {
+                final int remaining = chunk.remaining();
+                final SslResult result = sslCtx.wrap(chunk, output,
+                        SSLBaseFilter.MM_ALLOCATOR);
+                output = result.getOutput();
+
+                if (result.isError()) {
+                    throw result.getError();
+                }
+
+                if (chunk.remaining() == remaining) {
+                    throw new SSLException("SSL wrap error: "
+                            + result.getSslEngineResult().getStatus());
+                }
+            }
+        } finally {
+            netBuffer = output;
+        }
+
+        output.flip();
+        output.allowBufferDispose(false);
+    }
+
+    // ------------------------------------------ Methods from CompletionHandler
+
+
+    @Override
+    public void cancelled() {
+        failed(new CancellationException());
+    }
+
+    @Override
+    public void failed(final Throwable throwable) {
+        done(throwable);
+    }
+
+    @Override
+    public void completed(final WriteResult result) {
+        if (!state.compareAndSet(WRITING, COMPLETED_INLINE)) {
+            writeNext();
+        }
+    }
+
+    @Override
+    public void updated(final WriteResult result) {
+    }
+
+
+    // --------------------------------------------------------- Private Methods
+
+
+    @SuppressWarnings("unchecked")
+    private void done(final Throwable error) {
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (connection) {
+            if (isDone) {
+                return;
+            }
+            isDone = true;
+
+            if (sslCtx.fileTransferWriter == this) {
+                sslCtx.fileTransferWriter = null;
+            }
+
+            fileTransfer.release();
+            chunk.dispose();
+            if (netBuffer != null) {
+                netBuffer.dispose();
+            }
+
+            if (error != null) {
+                connection.closeWithReason(Exceptions.makeIOException(error));
+            }
+
+            final List<FilterChainContext> pendingWriteContextsLocal =
+                    pendingWriteContexts;
+            pendingWriteContexts = null;
+
+            // the file transfer is completed before the writes, which came
+            // after it, are resumed
+            if (completionHandler != null) {
+                if (error == null) {
+                    completionHandler.completed(WriteResult.create(connection,
+                            fileTransfer, null, written));
+                } else {
+                    completionHandler.failed(error);
+                }
+            }
+
+            // resume the writes, which came while the file was being sent,
+            // they will fail, if the connection has been closed
+            if (pendingWriteContextsLocal != null) {
+                for (FilterChainContext pendingContext : pendingWriteContextsLocal) {
+                    try {
+                        pendingContext.resume();
+                    } catch (Exception e) {
+                        LOGGER.log(Level.FINE, "Pending write error", e);
+                    }
+                }
+            }
+        }
+
+        ctx.resume(ctx.getStopAction());
+    }
+}
@@ -33,6 +33,7 @@ import org.glassfish.grizzly.FileTransfer;
 import org.glassfish.grizzly.GenericCloseListener;
 import org.glassfish.grizzly.Grizzly;
 import org.glassfish.grizzly.PendingWriteQueueLimitExceededException;
+import org.glassfish.grizzly.asyncqueue.WritableMessage;
 import org.glassfish.grizzly.attributes.Attribute;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.FilterChainContext.Operation;
@@ -124,10 +125,6 @@ public class SSLFilter extends SSLBaseFilter {
     public NextAction handleWrite(final FilterChainContext ctx) throws IOException {
         final Connection connection = ctx.getConnection();
 
-        if (ctx.getMessage() instanceof FileTransfer) {
-            throw new IllegalStateException("TLS operations not supported with SendFile messages");
-        }
-
         //noinspection SynchronizationOnLocalVariableOrMethodParameter
         synchronized (connection) {
             final SSLConnectionContext sslCtx =
@@ -356,9 +353,12 @@ public class SSLFilter extends SSLBaseFilter {
             if (error != null) throw Exceptions.makeIOException(error);
             if (isComplete) return false;
 
-            final Buffer buffer = context.getMessage();
+            final WritableMessage message = context.getMessage();
 
-            final int newSize = sizeInBytes + buffer.remaining();
+            // the FileTransfer content isn't kept in memory
+            final int newSize = message instanceof FileTransfer
+                    ? sizeInBytes
+                    : sizeInBytes + message.remaining();
             if (newSize > maxPendingBytes) {
                 throw new PendingWriteQueueLimitExceededException(
                         "Max queued data limit exceeded: "
@@ -24,6 +24,8 @@ import java.util.logging.Logger;
 import org.glassfish.grizzly.*;
 import org.glassfish.grizzly.asyncqueue.AsyncQueue;
 import org.glassfish.grizzly.localization.LogMessages;
+import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.nio.SelectorRunner;
 import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 
 /**
@@ -85,11 +87,23 @@ public abstract class AbstractIOStrategy implements IOStrategy {
                                       final IOEvent ioEvent,
                                       final IOEventLifeCycleListener listener,
                                       final Logger logger) {
+        // a worker thread collects the interest changes and selector tasks
+        // it issues while processing the event, and hands them over to the
+        // selector thread at once
+        final SelectorRunner selectorRunner = connection instanceof NIOConnection
+                ? ((NIOConnection) connection).getSelectorRunner()
+                : null;
+        final boolean isBatchOpened = selectorRunner != null
+                && selectorRunner.openThreadBatch();
         try {
             connection.getTransport().fireIOEvent(ioEvent, connection, listener);
         } catch (Exception e) {
             logger.log(Level.WARNING, LogMessages.WARNING_GRIZZLY_IOSTRATEGY_UNCAUGHT_EXCEPTION(), e);
             connection.closeSilently();
+        } finally {
+            if (isBatchOpened) {
+                selectorRunner.submitThreadBatch();
+            }
         }
 
     }
@@ -70,7 +70,11 @@ public class GrizzlyExecutorService extends AbstractExecutorService
         }
         
         final Queue<Runnable> queue = cfg.getQueue();
-        if ((queue == null || queue instanceof BlockingQueue) &&
+        if (cfg.isVirtualThreads() && VirtualThreads.isSupported()) {
+            this.pool = new VirtualThreadPool(cfg);
+        } else if (cfg.isWorkStealing()) {
+            this.pool = new WorkStealingThreadPool(cfg);
+        } else if ((queue == null || queue instanceof BlockingQueue) &&
                 (cfg.getCorePoolSize() < 0 || cfg.getCorePoolSize() == cfg.getMaxPoolSize())) {
 
             this.pool = cfg.getQueueLimit() < 0
@@ -188,4 +188,23 @@ final class ProbeNotifier {
             }
         }
     }
+
+    /**
+     * Notify registered {@link ThreadPoolProbe}s about the "task stolen" event.
+     *
+     * @param threadPool the {@link AbstractThreadPool} being monitored
+     * @param task the unit of work that has been stolen
+     * @param queueSize the number of tasks left in the task queue the task
+     *  has been stolen from
+     */
+    static void notifyTaskStolen(final AbstractThreadPool threadPool,
+            final Runnable task, final int queueSize) {
+
+        final ThreadPoolProbe[] probes = threadPool.monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (ThreadPoolProbe probe : probes) {
+                probe.onTaskStealEvent(threadPool, task, queueSize);
+            }
+        }
+    }
 }
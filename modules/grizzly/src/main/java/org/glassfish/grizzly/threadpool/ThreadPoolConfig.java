@@ -73,6 +73,9 @@ public final class ThreadPoolConfig {
     protected DelayedExecutor transactionMonitor;
     protected long transactionTimeoutMillis;
     protected ClassLoader initialClassLoader;
+    protected boolean isVirtualThreads;
+    protected boolean isWorkStealing;
+    protected boolean isSelectorAffinity = true;
 
     /**
      * Thread pool probes
@@ -131,6 +134,9 @@ public final class ThreadPoolConfig {
         this.keepAliveTimeMillis   = cfg.keepAliveTimeMillis;
         this.mm              = cfg.mm;
         this.initialClassLoader = cfg.initialClassLoader;
+        this.isVirtualThreads = cfg.isVirtualThreads;
+        this.isWorkStealing = cfg.isWorkStealing;
+        this.isSelectorAffinity = cfg.isSelectorAffinity;
         
         this.threadPoolMonitoringConfig =
                 new DefaultMonitoringConfig<ThreadPoolProbe>(ThreadPoolProbe.class);
@@ -396,6 +402,94 @@ public final class ThreadPoolConfig {
         return this;
     }
 
+    /**
+     * @return <tt>true</tt> if the thread pool has to run each task on
+     *  a virtual thread, if the JDK supports them, or <tt>false</tt> otherwise
+     *
+     * @since 2.4.5
+     */
+    public boolean isVirtualThreads() {
+        return isVirtualThreads;
+    }
+
+    /**
+     * Specifies whether the thread pool has to run each task on a virtual
+     * thread. If <tt>true</tt> and the JDK supports virtual threads
+     * (see {@link VirtualThreads#isSupported()}),
+     * {@link GrizzlyExecutorService} creates a {@link VirtualThreadPool},
+     * where {@link #getMaxPoolSize()} limits the number of concurrently
+     * running tasks. Otherwise the setting is ignored and a regular,
+     * platform thread pool is created.
+     *
+     * @param isVirtualThreads <tt>true</tt> to run tasks on virtual threads
+     *
+     * @return the {@link ThreadPoolConfig}
+     *
+     * @since 2.4.5
+     */
+    public ThreadPoolConfig setVirtualThreads(final boolean isVirtualThreads) {
+        this.isVirtualThreads = isVirtualThreads;
+        return this;
+    }
+
+    /**
+     * @return <tt>true</tt> if the thread pool has to give each worker thread
+     *  its own task queue and let idle worker threads steal tasks from the
+     *  busy ones, or <tt>false</tt> otherwise
+     *
+     * @since 2.4.5
+     */
+    public boolean isWorkStealing() {
+        return isWorkStealing;
+    }
+
+    /**
+     * Specifies whether {@link GrizzlyExecutorService} has to create
+     * a {@link WorkStealingThreadPool} with {@link #getMaxPoolSize()} worker
+     * threads, each having its own task queue.
+     *
+     * @param isWorkStealing <tt>true</tt> to create a work-stealing thread pool
+     *
+     * @return the {@link ThreadPoolConfig}
+     *
+     * @since 2.4.5
+     */
+    public ThreadPoolConfig setWorkStealing(final boolean isWorkStealing) {
+        this.isWorkStealing = isWorkStealing;
+        return this;
+    }
+
+    /**
+     * @return <tt>true</tt> if the tasks submitted by the same thread have to
+     *  be preferably processed by the same worker thread, or <tt>false</tt>
+     *  otherwise
+     *
+     * @since 2.4.5
+     */
+    public boolean isSelectorAffinity() {
+        return isSelectorAffinity;
+    }
+
+    /**
+     * Specifies whether the tasks submitted by the same thread (typically
+     * a {@link org.glassfish.grizzly.nio.SelectorRunner} thread) have to
+     * be preferably processed by the same worker thread of
+     * a {@link WorkStealingThreadPool}. The setting is <tt>true</tt> by
+     * default and is ignored by the other thread pool implementations.
+     *
+     * @param isSelectorAffinity <tt>true</tt> to assign each submitting thread
+     *        its "home" worker thread, <tt>false</tt> to distribute the tasks
+     *        between the worker threads in round-robin fashion
+     *
+     * @return the {@link ThreadPoolConfig}
+     *
+     * @since 2.4.5
+     */
+    public ThreadPoolConfig setSelectorAffinity(final boolean isSelectorAffinity) {
+        this.isSelectorAffinity = isSelectorAffinity;
+        return this;
+    }
+
     @Override
     public String toString() {
         return ThreadPoolConfig.class.getSimpleName() + " :\r\n"
@@ -410,6 +504,9 @@ public final class ThreadPoolConfig {
                 + "  transactionTimeoutMillis: " + transactionTimeoutMillis + "\r\n"
                 + "  priority: " + priority + "\r\n"
                 + "  isDaemon: " + isDaemon + "\r\n"
+                + "  isVirtualThreads: " + isVirtualThreads + "\r\n"
+                + "  isWorkStealing: " + isWorkStealing + "\r\n"
+                + "  isSelectorAffinity: " + isSelectorAffinity + "\r\n"
                 + "  initialClassLoader: " + initialClassLoader;
     }
 }
@@ -135,6 +135,22 @@ public interface ThreadPoolProbe {
      * @param threadPool the {@link AbstractThreadPool} being monitored
      */
     void onTaskQueueOverflowEvent(AbstractThreadPool threadPool);
+
+    /**
+     * <p>
+     * This event may be fired when an idle worker thread of a work-stealing
+     * {@link AbstractThreadPool} implementation has stolen a task from the
+     * task queue of another worker thread.
+     * </p>
+     *
+     * @param threadPool the {@link AbstractThreadPool} being monitored
+     * @param task the unit of work that has been stolen
+     * @param queueSize the number of tasks left in the task queue the task
+     *  has been stolen from
+     *
+     * @since 2.4.5
+     */
+    void onTaskStealEvent(AbstractThreadPool threadPool, Runnable task, int queueSize);
     
     
     // ---------------------------------------------------------- Nested Classes
@@ -213,6 +229,12 @@ public interface ThreadPoolProbe {
         @Override
         public void onTaskQueueOverflowEvent(AbstractThreadPool threadPool) {}
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onTaskStealEvent(AbstractThreadPool threadPool, Runnable task, int queueSize) {}
+
     } // END Adapter
 
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.threadpool;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pool, which runs each task on its own, newly started thread.
+ * By default the threads are virtual threads, created by
+ * {@link VirtualThreads#newThreadFactory(String)}, so blocking tasks park
+ * cheaply instead of occupying a platform thread each. A different
+ * {@link java.util.concurrent.ThreadFactory} might be set via
+ * {@link ThreadPoolConfig#setThreadFactory(java.util.concurrent.ThreadFactory)}.
+ *
+ * {@link ThreadPoolConfig#getMaxPoolSize()} limits the number of tasks
+ * running concurrently, the tasks submitted after the limit has been reached
+ * are queued and picked up by the threads, which complete their current
+ * task. {@link ThreadPoolConfig#getCorePoolSize()} and
+ * {@link ThreadPoolConfig#getKeepAliveTime(java.util.concurrent.TimeUnit)}
+ * are not used, threads are never kept idle.
+ *
+ * The {@link ThreadPoolProbe} events are fired the same way as for the other
+ * Grizzly thread pools: every task is reported as queued, dequeued and
+ * completed, every per-task thread as allocated and released.
+ *
+ * @since 2.4.5
+ */
+public class VirtualThreadPool extends AbstractThreadPool {
+
+    private final Queue<Runnable> workQueue;
+    private final AtomicInteger queuedTasksCount = new AtomicInteger();
+    private final AtomicInteger activeThreadsCount = new AtomicInteger();
+
+    public VirtualThreadPool(final ThreadPoolConfig config) {
+        super(initThreadFactory(config));
+
+        workQueue = config.getQueue() != null ?
+            config.getQueue() :
+            config.setQueue(new ConcurrentLinkedQueue<Runnable>()).getQueue();
+
+        ProbeNotifier.notifyThreadPoolStarted(this);
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Runnable task is null");
+        }
+
+        if (!running) {
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+
+        if (tryAcquireThread()) {
+            onTaskQueued(task);
+            startTaskWorker(task);
+            return;
+        }
+
+        final int queueLimit = config.getQueueLimit();
+        if (queuedTasksCount.incrementAndGet() > queueLimit && queueLimit >= 0) {
+            queuedTasksCount.decrementAndGet();
+            onTaskQueueOverflow();
+        }
+
+        if (!workQueue.offer(task)) {
+            queuedTasksCount.decrementAndGet();
+            onTaskQueueOverflow();
+        }
+
+        onTaskQueued(task);
+
+        // the threads might have completed their tasks, while the task was
+        // being queued, make sure it's not left in the queue unattended
+        if (tryAcquireThread()) {
+            final Runnable queuedTask = pollQueuedTask();
+            if (queuedTask != null) {
+                startTaskWorker(queuedTask);
+            } else {
+                activeThreadsCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return the number of tasks being executed at the moment
+     */
+    public int getActiveThreadsCount() {
+        return activeThreadsCount.get();
+    }
+
+    /**
+     * The per-task threads are not waiting on the task queue, so there is
+     * nothing to poison, the threads complete once the task queue is empty.
+     */
+    @Override
+    protected void poisonAll() {
+    }
+
+    /**
+     * Fires the thread released probe event before the worker is removed
+     * from the pool, so once {@link #awaitTermination(long, TimeUnit)}
+     * returns, every allocated thread has been reported as released.
+     */
+    @Override
+    protected void onWorkerExit(final Worker worker) {
+        ProbeNotifier.notifyThreadReleased(this, worker.t);
+
+        synchronized (stateLock) {
+            workers.remove(worker);
+            if (delayedQueue != null) {
+                delayedQueue.remove(worker);
+            }
+            if (workers.isEmpty()) {
+                // notify awaitTermination threads
+                stateLock.notifyAll();
+            }
+        }
+    }
+
+    private boolean tryAcquireThread() {
+        final int maxPoolSize = config.getMaxPoolSize();
+        
+        for (;;) {
+            final int count = activeThreadsCount.get();
+            if (count >= maxPoolSize) {
+                return false;
+            }
+
+            if (activeThreadsCount.compareAndSet(count, count + 1)) {
+                if (count + 1 == maxPoolSize) {
+                    onMaxNumberOfThreadsReached();
+                }
+                
+                return true;
+            }
+        }
+    }
+
+    private Runnable pollQueuedTask() {
+        final Runnable task = workQueue.poll();
+        if (task != null) {
+            queuedTasksCount.decrementAndGet();
+        }
+
+        return task;
+    }
+
+    private void startTaskWorker(final Runnable task) {
+        try {
+            synchronized (stateLock) {
+                startWorker(new TaskWorker(task));
+            }
+        } catch (RuntimeException e) {
+            activeThreadsCount.decrementAndGet();
+            onTaskDequeued(task);
+            onTaskCancelled(task);
+            throw e;
+        }
+    }
+
+    private static ThreadPoolConfig initThreadFactory(
+            final ThreadPoolConfig config) {
+        if (config.getThreadFactory() == null) {
+            config.setThreadFactory(
+                    VirtualThreads.newThreadFactory(config.getPoolName()));
+        }
+
+        return config;
+    }
+
+    private final class TaskWorker extends Worker {
+        private Runnable firstTask;
+
+        private TaskWorker(final Runnable firstTask) {
+            this.firstTask = firstTask;
+        }
+
+        @Override
+        protected Runnable getTask() {
+            final Runnable task = firstTask;
+            if (task != null) {
+                firstTask = null;
+                return task;
+            }
+
+            for (;;) {
+                final Runnable queuedTask = pollQueuedTask();
+                if (queuedTask != null) {
+                    return queuedTask;
+                }
+
+                activeThreadsCount.decrementAndGet();
+
+                // recheck the queue to not miss a task, which has been
+                // queued while the thread was releasing its slot
+                if (workQueue.isEmpty() || !tryAcquireThread()) {
+                    return null;
+                }
+            }
+        }
+    }
+}
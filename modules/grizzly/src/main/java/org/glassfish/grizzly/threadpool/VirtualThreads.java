@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.threadpool;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual {@link Thread} utilities.
+ *
+ * Grizzly is compiled against the Java 8 API, so virtual threads are accessed
+ * reflectively: on a JDK, which supports them (Java 21+, or Java 19/20
+ * with <tt>--enable-preview</tt>), {@link #isSupported()} returns
+ * <tt>true</tt> and {@link #newThreadFactory(String)} creates virtual threads,
+ * otherwise virtual threads are reported as unsupported and no
+ * {@link Thread} is ever considered virtual.
+ *
+ * @since 2.4.5
+ */
+public final class VirtualThreads {
+
+    private static final MethodHandle IS_VIRTUAL;
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle FACTORY;
+
+    static {
+        MethodHandle isVirtual = null;
+        MethodHandle ofVirtual = null;
+        MethodHandle factory = null;
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> builderClass =
+                    Class.forName("java.lang.Thread$Builder");
+            final Class<?> ofVirtualClass =
+                    Class.forName("java.lang.Thread$Builder$OfVirtual");
+
+            isVirtual = lookup.findVirtual(Thread.class, "isVirtual",
+                    MethodType.methodType(boolean.class));
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual",
+                    MethodType.methodType(ofVirtualClass));
+            factory = lookup.findVirtual(builderClass, "factory",
+                    MethodType.methodType(ThreadFactory.class));
+
+            // Java 19/20 throw UnsupportedOperationException here,
+            // if preview features are not enabled
+            factory.invoke(ofVirtual.invoke());
+        } catch (Throwable t) {
+            isVirtual = null;
+            ofVirtual = null;
+        }
+
+        IS_VIRTUAL = isVirtual;
+        OF_VIRTUAL = ofVirtual;
+        FACTORY = factory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return <tt>true</tt> if the running JDK is able to create virtual
+     *  threads, or <tt>false</tt> otherwise
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param thread the {@link Thread} to check
+     * @return <tt>true</tt> if the passed {@link Thread} is a virtual thread,
+     *  or <tt>false</tt> otherwise
+     */
+    public static boolean isVirtual(final Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if the current {@link Thread} is a virtual
+     *  thread, or <tt>false</tt> otherwise
+     */
+    public static boolean isCurrentThreadVirtual() {
+        return IS_VIRTUAL != null && isVirtual(Thread.currentThread());
+    }
+
+    /**
+     * Creates a {@link ThreadFactory}, which starts a new virtual thread for
+     * each {@link Runnable}. The threads are named <tt>namePrefix(N)</tt>,
+     * where <tt>N</tt> is a thread counter starting from <tt>1</tt>.
+     *
+     * @param namePrefix the thread name prefix
+     * @return the virtual {@link ThreadFactory}
+     * @throws UnsupportedOperationException if virtual threads are not
+     *  supported by the running JDK
+     */
+    public static ThreadFactory newThreadFactory(final String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads are not supported by the JDK");
+        }
+
+        final ThreadFactory factory;
+        try {
+            factory = (ThreadFactory) FACTORY.invoke(OF_VIRTUAL.invoke());
+        } catch (Throwable t) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads are not supported by the JDK", t);
+        }
+
+        final AtomicInteger counter = new AtomicInteger();
+
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = factory.newThread(r);
+                thread.setName(namePrefix + '(' + counter.incrementAndGet() + ')');
+                return thread;
+            }
+        };
+    }
+}
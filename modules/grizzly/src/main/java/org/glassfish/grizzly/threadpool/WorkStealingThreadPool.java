@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.threadpool;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed size thread pool, where each worker thread has its own task queue
+ * and idle worker threads steal tasks from the queues of the busy ones.
+ *
+ * Unlike {@link FixedThreadPool}, the threads submitting tasks don't contend
+ * on a single shared queue. A task submitted by a worker thread of the pool is
+ * queued to the worker's own queue. If {@link ThreadPoolConfig#isSelectorAffinity()}
+ * is <tt>true</tt>, each other submitting thread (typically a
+ * {@link org.glassfish.grizzly.nio.SelectorRunner} thread) is assigned a
+ * "home" worker thread, so the tasks of the same selector are preferably
+ * processed by the same worker thread, which keeps the connections' data
+ * cache-warm; otherwise the tasks are distributed between the worker threads
+ * in round-robin fashion.
+ *
+ * A worker thread processes the tasks from its queue in FIFO order, the tasks
+ * are stolen from the tail of the queue. Every steal is reported via
+ * {@link ThreadPoolProbe#onTaskStealEvent(AbstractThreadPool, Runnable, int)}.
+ *
+ * @since 2.4.5
+ */
+public class WorkStealingThreadPool extends AbstractThreadPool {
+
+    private final StealingWorker[] stealingWorkers;
+    private final boolean isSelectorAffinity;
+    
+    private final AtomicInteger queuedTasksCount = new AtomicInteger();
+    private final AtomicLong stolenTasksCount = new AtomicLong();
+    private final AtomicInteger nextWorkerIdx = new AtomicInteger();
+    
+    private final Queue<StealingWorker> idleWorkers =
+            new ConcurrentLinkedQueue<StealingWorker>();
+    private final ThreadLocal<StealingWorker> homeWorker =
+            new ThreadLocal<StealingWorker>();
+    private final Queue<Runnable> taskQueues = new TaskQueues();
+    
+    public WorkStealingThreadPool(final ThreadPoolConfig config) {
+        super(config);
+
+        isSelectorAffinity = config.isSelectorAffinity();
+        
+        final int poolSize = config.getMaxPoolSize();
+        stealingWorkers = new StealingWorker[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            stealingWorkers[i] = new StealingWorker();
+        }
+        
+        synchronized (stateLock) {
+            for (StealingWorker worker : stealingWorkers) {
+                startWorker(worker);
+            }
+        }
+
+        ProbeNotifier.notifyThreadPoolStarted(this);
+        super.onMaxNumberOfThreadsReached();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Runnable task is null");
+        }
+
+        if (!running) {
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+
+        final int queueLimit = config.getQueueLimit();
+        if (queuedTasksCount.incrementAndGet() > queueLimit && queueLimit >= 0) {
+            queuedTasksCount.decrementAndGet();
+            onTaskQueueOverflow();
+        }
+
+        final StealingWorker worker = selectWorker();
+        worker.deque.offerLast(task);
+        onTaskQueued(task);
+        
+        signalWork(worker);
+    }
+
+    /**
+     * Returns the view of all the worker threads' task queues.
+     * The returned {@link Queue} is weakly consistent: its size and contents
+     * reflect the state of the worker queues at some point during the call.
+     * 
+     * @return the view of all the worker threads' task queues
+     */
+    @Override
+    public Queue<Runnable> getQueue() {
+        return taskQueues;
+    }
+
+    /**
+     * @return the number of tasks, which have been stolen by the idle worker
+     *  threads from the busy ones
+     */
+    public long getStolenTasksCount() {
+        return stolenTasksCount.get();
+    }
+
+    /**
+     * @return the current size of each worker thread's task queue
+     */
+    public int[] getQueueSizes() {
+        final int[] sizes = new int[stealingWorkers.length];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = stealingWorkers[i].deque.size();
+        }
+
+        return sizes;
+    }
+
+    /**
+     * The worker threads are not waiting on a shared task queue, so instead of
+     * poisoning the queue - wake up all the worker threads, they complete once
+     * there are no more tasks to process.
+     */
+    @Override
+    protected void poisonAll() {
+        for (StealingWorker worker : stealingWorkers) {
+            LockSupport.unpark(worker.t);
+        }
+    }
+
+    /**
+     * Method is called by a worker thread each time it has stolen a task from
+     * another worker thread's task queue.
+     *
+     * @param task the stolen task
+     * @param queueSize the number of tasks left in the task queue the task
+     *  has been stolen from
+     */
+    protected void onTaskStolen(final Runnable task, final int queueSize) {
+        ProbeNotifier.notifyTaskStolen(this, task, queueSize);
+    }
+
+    private StealingWorker selectWorker() {
+        StealingWorker worker = homeWorker.get();
+        if (worker == null) {
+            worker = nextWorker();
+            if (isSelectorAffinity) {
+                homeWorker.set(worker);
+            }
+        }
+
+        return worker;
+    }
+
+    private StealingWorker nextWorker() {
+        final int idx = nextWorkerIdx.getAndIncrement() & Integer.MAX_VALUE;
+        return stealingWorkers[idx % stealingWorkers.length];
+    }
+
+    private void signalWork(final StealingWorker worker) {
+        if (worker.unpark()) {
+            return;
+        }
+
+        // the worker is busy (or has already been woken up),
+        // wake up an idle one to steal the task
+        StealingWorker idleWorker;
+        while ((idleWorker = idleWorkers.poll()) != null) {
+            idleWorker.isInIdleQueue.set(false);
+            if (idleWorker.unpark()) {
+                return;
+            }
+        }
+    }
+
+    private void offerTask(final Runnable task) {
+        queuedTasksCount.incrementAndGet();
+        final StealingWorker worker = nextWorker();
+        worker.deque.offerLast(task);
+        signalWork(worker);
+    }
+
+    private Runnable pollTask() {
+        for (StealingWorker worker : stealingWorkers) {
+            final Runnable task = worker.deque.pollFirst();
+            if (task != null) {
+                queuedTasksCount.decrementAndGet();
+                return task;
+            }
+        }
+
+        return null;
+    }
+
+    private final class StealingWorker extends Worker {
+        private final Deque<Runnable> deque = new ConcurrentLinkedDeque<Runnable>();
+        private final AtomicBoolean isParked = new AtomicBoolean();
+        // true, if the worker is in the idleWorkers queue. A worker, which
+        // has been woken up directly, stays in the queue, so the flag keeps
+        // it from being queued twice
+        private final AtomicBoolean isInIdleQueue = new AtomicBoolean();
+
+        @Override
+        protected void doWork() {
+            // the tasks submitted by the worker are queued to its own queue
+            homeWorker.set(this);
+            
+            super.doWork();
+        }
+        
+        @Override
+        protected Runnable getTask() {
+            for (;;) {
+                Runnable task = deque.pollFirst();
+                if (task != null) {
+                    queuedTasksCount.decrementAndGet();
+                    return task;
+                }
+
+                task = steal();
+                if (task != null) {
+                    return task;
+                }
+
+                if (!running && queuedTasksCount.get() <= 0) {
+                    return null;
+                }
+
+                isParked.set(true);
+                if (isInIdleQueue.compareAndSet(false, true)) {
+                    idleWorkers.offer(this);
+                }
+
+                // recheck to not miss a task, which has been queued while
+                // the worker was getting parked
+                if (queuedTasksCount.get() <= 0 && running) {
+                    LockSupport.park(this);
+                    
+                    // don't let the (transaction timeout) interruption spin
+                    // the idle worker
+                    Thread.interrupted();
+                }
+
+                isParked.set(false);
+            }
+        }
+
+        /**
+         * Wakes up the worker, if it's parked and hasn't been woken up yet.
+         */
+        private boolean unpark() {
+            if (isParked.compareAndSet(true, false)) {
+                LockSupport.unpark(t);
+                return true;
+            }
+
+            return false;
+        }
+
+        private Runnable steal() {
+            final StealingWorker[] workers = stealingWorkers;
+            final int count = workers.length;
+            if (count == 1) {
+                return null;
+            }
+
+            final int start = ThreadLocalRandom.current().nextInt(count);
+            for (int i = 0; i < count; i++) {
+                final StealingWorker victim = workers[(start + i) % count];
+                if (victim == this) {
+                    continue;
+                }
+
+                final Runnable task = victim.deque.pollLast();
+                if (task != null) {
+                    queuedTasksCount.decrementAndGet();
+                    stolenTasksCount.incrementAndGet();
+                    if (monitoringConfig.hasProbes()) {
+                        onTaskStolen(task, victim.deque.size());
+                    }
+                    
+                    return task;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * The {@link Queue} view of all the worker threads' task queues.
+     */
+    private final class TaskQueues extends AbstractQueue<Runnable> {
+
+        @Override
+        public boolean offer(final Runnable task) {
+            if (task == null) {
+                throw new NullPointerException();
+            }
+
+            offerTask(task);
+            return true;
+        }
+
+        @Override
+        public Runnable poll() {
+            return pollTask();
+        }
+
+        @Override
+        public Runnable peek() {
+            for (StealingWorker worker : stealingWorkers) {
+                final Runnable task = worker.deque.peekFirst();
+                if (task != null) {
+                    return task;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (StealingWorker worker : stealingWorkers) {
+                size += worker.deque.size();
+            }
+
+            return size;
+        }
+
+        @Override
+        public Iterator<Runnable> iterator() {
+            final List<Runnable> snapshot = new ArrayList<Runnable>();
+            for (StealingWorker worker : stealingWorkers) {
+                snapshot.addAll(worker.deque);
+            }
+
+            return Collections.unmodifiableList(snapshot).iterator();
+        }
+    }
+}
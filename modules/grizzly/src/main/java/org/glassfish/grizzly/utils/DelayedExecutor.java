@@ -98,49 +98,58 @@ public class DelayedExecutor {
         return queue;
     }
 
-    private static boolean wasModified(final long l1, final long l2) {
+    /**
+     * Checks the registered {@link DelayQueue}s and executes the
+     * {@link Worker} for each element, whose timeout has expired.
+     * The method is called by the executor thread every check interval.
+     *
+     * @param currentTimeMillis the current time in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    protected void processQueues(final long currentTimeMillis) {
+        for (final DelayQueue delayQueue : queues) {
+            if (delayQueue.queue.isEmpty()) continue;
+
+            final Resolver resolver = delayQueue.resolver;
+
+            for (Iterator it = delayQueue.queue.keySet().iterator(); it.hasNext(); ) {
+                final Object element = it.next();
+                final long timeoutMillis = resolver.getTimeoutMillis(element);
+
+                if (timeoutMillis == UNSET_TIMEOUT) {
+                    it.remove();
+                    if (wasModified(timeoutMillis,
+                            resolver.getTimeoutMillis(element))) {
+                        delayQueue.queue.put(element, delayQueue);
+                    }
+                } else if (currentTimeMillis - timeoutMillis >= 0) {
+                    it.remove();
+                    if (wasModified(timeoutMillis,
+                            resolver.getTimeoutMillis(element))) {
+                        delayQueue.queue.put(element, delayQueue);
+                    } else {
+                        try {
+                            if (!delayQueue.worker.doWork(element)) {
+                                delayQueue.queue.put(element, delayQueue);
+                            }
+                        } catch (Exception ignored) {
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static boolean wasModified(final long l1, final long l2) {
         return l1 != l2;
     }
 
     private class DelayedRunnable implements Runnable {
 
-        @SuppressWarnings("unchecked")
         @Override
         public void run() {
             while(isStarted) {
-                final long currentTimeMillis = System.currentTimeMillis();
-                
-                for (final DelayQueue delayQueue : queues) {
-                    if (delayQueue.queue.isEmpty()) continue;
-                    
-                    final Resolver resolver = delayQueue.resolver;
-
-                    for (Iterator it = delayQueue.queue.keySet().iterator(); it.hasNext(); ) {
-                        final Object element = it.next();
-                        final long timeoutMillis = resolver.getTimeoutMillis(element);
-                        
-                        if (timeoutMillis == UNSET_TIMEOUT) {
-                            it.remove();
-                            if (wasModified(timeoutMillis,
-                                    resolver.getTimeoutMillis(element))) {                                
-                                delayQueue.queue.put(element, delayQueue);
-                            }
-                        } else if (currentTimeMillis - timeoutMillis >= 0) {
-                            it.remove();
-                            if (wasModified(timeoutMillis,
-                                    resolver.getTimeoutMillis(element))) {
-                                delayQueue.queue.put(element, delayQueue);
-                            } else {
-                                try {
-                                    if (!delayQueue.worker.doWork(element)) {
-                                        delayQueue.queue.put(element, delayQueue);
-                                    }
-                                } catch (Exception ignored) {
-                                }
-                            }
-                        }
-                    }
-                }
+                processQueues(System.currentTimeMillis());
 
                 synchronized(sync) {
                     if (!isStarted) return;
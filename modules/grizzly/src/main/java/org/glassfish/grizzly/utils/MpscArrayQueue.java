@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.utils;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Unbounded multi-producer/single-consumer queue, which stores its elements
+ * in linked array chunks.
+ *
+ * Unlike {@link java.util.concurrent.ConcurrentLinkedQueue}, the queue
+ * doesn't allocate a node per element: producers claim a slot in the current
+ * chunk with a single atomic increment, and a new chunk is allocated once
+ * per <tt>chunkSize</tt> elements.
+ *
+ * {@link #offer(Object)} may be called by any thread. The queue is optimized
+ * for a single consumer, but the consumer side is lock-free as well: the
+ * consumer takes an element by CASing its slot to a "removed" marker, so
+ * {@link #poll()}, {@link #drain(Predicate, Consumer, int)} and
+ * {@link #remove(Object)} may occasionally be called concurrently with the
+ * consumer (for example by a thread, which closes the queue owner), and
+ * every element is still taken exactly once. {@link #peek()},
+ * {@link #isEmpty()}, {@link #size()} and {@link #iterator()} are weakly
+ * consistent in that case. {@link #approximateSize()} may be called by
+ * any thread.
+ * An element, which slot has been claimed, but not yet stored by a producer,
+ * is not visible to the consumers and hides the elements offered after it
+ * until the store completes, so the consumers may see the queue as empty
+ * for a short while.
+ *
+ * @param <E> the element type
+ */
+public final class MpscArrayQueue<E> extends AbstractQueue<E> {
+
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+
+    // marks the slot of a taken or removed element
+    private static final Object REMOVED = new Object();
+
+    private final int chunkSize;
+
+    // the chunk producers currently append to
+    private final AtomicReference<Chunk> producerChunk;
+
+    // the chunk the consumers currently take elements from, it only
+    // moves forward
+    private static final AtomicReferenceFieldUpdater<MpscArrayQueue, Chunk> consumerChunkUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(MpscArrayQueue.class, Chunk.class, "consumerChunk");
+    private volatile Chunk consumerChunk;
+
+    private static final AtomicLongFieldUpdater<MpscArrayQueue> consumedCountUpdater =
+            AtomicLongFieldUpdater.newUpdater(MpscArrayQueue.class, "consumedCount");
+    // the number of polled and removed elements
+    private volatile long consumedCount;
+
+    public MpscArrayQueue() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public MpscArrayQueue(final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize has to be > 0");
+        }
+
+        this.chunkSize = chunkSize;
+        final Chunk chunk = new Chunk(chunkSize, 0);
+        consumerChunk = chunk;
+        producerChunk = new AtomicReference<Chunk>(chunk);
+    }
+
+    @Override
+    public boolean offer(final E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+
+        Chunk chunk = producerChunk.get();
+        for (;;) {
+            final int idx = chunk.claimed.getAndIncrement();
+            if (idx < chunkSize) {
+                chunk.slots.set(idx, e);
+                return true;
+            }
+
+            // the chunk is full, move to the next one
+            Chunk next = chunk.next.get();
+            if (next == null) {
+                final Chunk newChunk =
+                        new Chunk(chunkSize, chunk.base + chunkSize);
+                next = chunk.next.compareAndSet(null, newChunk)
+                        ? newChunk
+                        : chunk.next.get();
+            }
+
+            producerChunk.compareAndSet(chunk, next);
+            chunk = next;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        final Object e = take();
+        if (e == null) {
+            return null;
+        }
+
+        consumedCountUpdater.incrementAndGet(this);
+        return (E) e;
+    }
+
+    /**
+     * Returns the head element, skipping the taken ones.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        Chunk chunk = consumerChunk;
+        int idx = chunk.consumerIndex;
+        for (;;) {
+            if (idx == chunkSize) {
+                final Chunk next = chunk.next.get();
+                if (next == null) {
+                    return null;
+                }
+
+                consumerChunkUpdater.compareAndSet(this, chunk, next);
+                chunk = next;
+                idx = chunk.consumerIndex;
+                continue;
+            }
+
+            final Object e = chunk.slots.get(idx);
+            if (e != REMOVED) {
+                chunk.consumerIndex = idx;
+                return (E) e;
+            }
+
+            idx++;
+        }
+    }
+
+    /**
+     * Removes the elements from the head of the queue and passes them to the
+     * <tt>consumer</tt>, while they match the <tt>condition</tt>.
+     * The first element, which doesn't match the condition, remains at the
+     * head of the queue.
+     *
+     * @param condition the condition the drained elements have to match
+     * @param consumer the consumer of the drained elements
+     * @param maxElements the max number of elements to drain
+     *
+     * @return the number of drained elements
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(final Predicate<? super E> condition,
+            final Consumer<? super E> consumer, final int maxElements) {
+        Chunk chunk = consumerChunk;
+        int idx = chunk.consumerIndex;
+        int count = 0;
+        while (count < maxElements) {
+            if (idx == chunkSize) {
+                final Chunk next = chunk.next.get();
+                if (next == null) {
+                    break;
+                }
+
+                chunk.consumerIndex = idx;
+                consumerChunkUpdater.compareAndSet(this, chunk, next);
+                chunk = next;
+                idx = chunk.consumerIndex;
+                continue;
+            }
+
+            final Object e = chunk.slots.get(idx);
+            if (e == null) {
+                break;
+            }
+
+            if (e != REMOVED) {
+                if (!condition.test((E) e)) {
+                    break;
+                }
+
+                if (chunk.slots.compareAndSet(idx, e, REMOVED)) {
+                    count++;
+                    consumer.accept((E) e);
+                }
+            }
+
+            idx++;
+        }
+
+        chunk.consumerIndex = idx;
+        if (count > 0) {
+            consumedCountUpdater.addAndGet(this, count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Removes the element from the queue. The element's slot is marked
+     * as removed and is skipped by the consumers.
+     */
+    @Override
+    public boolean remove(final Object o) {
+        if (o == null) {
+            return false;
+        }
+
+        Chunk chunk = consumerChunk;
+        int idx = chunk.consumerIndex;
+        for (;;) {
+            if (idx == chunkSize) {
+                chunk = chunk.next.get();
+                if (chunk == null) {
+                    return false;
+                }
+
+                idx = 0;
+            }
+
+            final Object e = chunk.slots.get(idx);
+            if (e == null) {
+                return false;
+            }
+
+            if (e != REMOVED && o.equals(e)
+                    && chunk.slots.compareAndSet(idx, e, REMOVED)) {
+                consumedCountUpdater.incrementAndGet(this);
+                return true;
+            }
+
+            idx++;
+        }
+    }
+
+    /**
+     * Takes the head element.
+     *
+     * @return the taken element, or <tt>null</tt> if the queue is empty
+     */
+    private Object take() {
+        Chunk chunk = consumerChunk;
+        int idx = chunk.consumerIndex;
+        for (;;) {
+            if (idx == chunkSize) {
+                final Chunk next = chunk.next.get();
+                if (next == null) {
+                    return null;
+                }
+
+                consumerChunkUpdater.compareAndSet(this, chunk, next);
+                chunk = next;
+                idx = chunk.consumerIndex;
+                continue;
+            }
+
+            final Object e = chunk.slots.get(idx);
+            if (e == null) {
+                chunk.consumerIndex = idx;
+                return null;
+            }
+
+            // the slot keeps the marker (rather than null), so a consumer
+            // with a stale index skips it instead of taking it for the end
+            // of the queue
+            if (e != REMOVED && chunk.slots.compareAndSet(idx, e, REMOVED)) {
+                chunk.consumerIndex = idx + 1;
+                return e;
+            }
+
+            // the element has been taken by another consumer
+            idx++;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    /**
+     * Returns the number of elements visible to the consumer.
+     * The result is an estimation, if producers are adding elements
+     * concurrently.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        final Iterator<E> it = iterator();
+        while (it.hasNext()) {
+            it.next();
+            size++;
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the approximate number of elements in the queue, including
+     * the elements, which slots have been claimed, but not yet stored.
+     * Unlike {@link #size()}, the method doesn't iterate over the elements
+     * and may be called by any thread.
+     *
+     * @return the approximate number of elements in the queue.
+     */
+    public int approximateSize() {
+        final long consumed = consumedCount;
+        final Chunk chunk = producerChunk.get();
+        final long produced = chunk.base
+                + Math.min(chunk.claimed.get(), chunkSize);
+        final long size = produced - consumed;
+
+        return size <= 0 ? 0 : (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the iterator over the elements visible to the consumer.
+     * The iterator doesn't support {@link Iterator#remove()}.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private final class Itr implements Iterator<E> {
+        private Chunk chunk = consumerChunk;
+        private int idx = chunk.consumerIndex;
+        private E nextElement = advance();
+
+        @SuppressWarnings("unchecked")
+        private E advance() {
+            for (;;) {
+                if (idx == chunkSize) {
+                    chunk = chunk.next.get();
+                    if (chunk == null) {
+                        return null;
+                    }
+
+                    idx = 0;
+                }
+
+                final Object e = chunk.slots.get(idx++);
+                if (e != REMOVED) {
+                    return (E) e;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextElement != null;
+        }
+
+        @Override
+        public E next() {
+            final E e = nextElement;
+            if (e == null) {
+                throw new NoSuchElementException();
+            }
+
+            nextElement = advance();
+            return e;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class Chunk {
+        // the position of the chunk's first slot in the queue
+        final long base;
+        final AtomicReferenceArray<Object> slots;
+        final AtomicInteger claimed = new AtomicInteger();
+        final AtomicReference<Chunk> next = new AtomicReference<Chunk>();
+        // the consumers' position in the chunk, the slots before it have
+        // been taken. It's a hint: a consumer may see a stale (lower) value
+        // and then skips the taken slots
+        int consumerIndex;
+
+        Chunk(final int size, final long base) {
+            this.base = base;
+            slots = new AtomicReferenceArray<Object>(size);
+        }
+    }
+}
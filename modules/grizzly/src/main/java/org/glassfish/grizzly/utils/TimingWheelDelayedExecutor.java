@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DelayedExecutor} implementation based on a hierarchical timing wheel.
+ *
+ * Unlike the default {@link DelayedExecutor}, which checks every registered
+ * element each check interval, this implementation places elements into the
+ * wheel slot, which corresponds to the element's timeout, so adding, removing
+ * and expiring an element costs O(1) and each tick only touches the elements,
+ * which are due.
+ *
+ * The wheel consists of {@value #LEVELS} levels, each of them has
+ * {@value #WHEEL_SIZE} slots; the slot of the first level represents one tick
+ * (check interval), the slot of each next level represents the whole
+ * previous level. Elements scheduled further than the last level covers are
+ * checked every tick.
+ *
+ * Elements' timeouts are still maintained by the {@link Resolver}. When the
+ * element's slot is reached, its timeout is checked again: if the timeout has
+ * been postponed - the element is moved to the corresponding slot, if it's
+ * expired - the {@link Worker} is executed. Please note, if the timeout is
+ * changed to an earlier time directly using the {@link Resolver} - the change
+ * will not be noticed before the originally scheduled time, so the
+ * {@link DelayQueue#add(Object, long, TimeUnit)} has to be called again.
+ * The only exception is the timeout changed from a value beyond the wheel range
+ * (like {@link Long#MAX_VALUE}, which is used to suspend the timeout), such
+ * elements are checked every tick.
+ *
+ * @since 2.4.5
+ */
+public class TimingWheelDelayedExecutor extends DelayedExecutor {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * The number of ticks covered by the wheel.
+     */
+    private static final long MAX_TICKS = 1L << (WHEEL_BITS * LEVELS);
+
+    private final long tickMillis;
+
+    /**
+     * Elements added or removed by other threads, they are placed to the wheel
+     * by the executor thread.
+     */
+    private final Queue<Entry> inbox = new ConcurrentLinkedQueue<Entry>();
+
+    // the wheel is accessed by the executor thread only
+    private final Entry[][] wheel = new Entry[LEVELS][WHEEL_SIZE];
+    private Entry overflow;
+    private long currentTick = -1;
+    private long nextCheckMillis;
+
+    public TimingWheelDelayedExecutor(final ExecutorService threadPool) {
+        this(threadPool, 1000, TimeUnit.MILLISECONDS);
+    }
+
+    public TimingWheelDelayedExecutor(final ExecutorService threadPool,
+            final long tickDuration, final TimeUnit timeunit) {
+        super(threadPool, tickDuration, timeunit);
+        
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tick duration has to be positive");
+        }
+        
+        this.tickMillis = Math.max(1,
+                TimeUnit.MILLISECONDS.convert(tickDuration, timeunit));
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        inbox.clear();
+    }
+
+    @Override
+    public <E> DelayQueue<E> createDelayQueue(final Worker<E> worker,
+            final Resolver<E> resolver) {
+        return new WheelDelayQueue<E>(worker, resolver);
+    }
+
+    @Override
+    protected void processQueues(final long currentTimeMillis) {
+        final long tick = currentTimeMillis / tickMillis;
+        if (currentTick == -1) {
+            currentTick = tick - 1;
+        }
+        nextCheckMillis = (tick + 1) * tickMillis;
+
+        Entry entry;
+        while ((entry = inbox.poll()) != null) {
+            process(entry, currentTimeMillis);
+        }
+
+        while (currentTick < tick) {
+            currentTick++;
+            cascade();
+
+            final int slot = (int) (currentTick & WHEEL_MASK);
+            entry = wheel[0][slot];
+            wheel[0][slot] = null;
+            processList(entry, currentTimeMillis);
+        }
+
+        entry = overflow;
+        overflow = null;
+        processList(entry, currentTimeMillis);
+    }
+
+    /**
+     * Moves the entries of the higher level slots, which became current,
+     * to the lower levels.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            final int shift = WHEEL_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+
+            final int slot = (int) ((currentTick >>> shift) & WHEEL_MASK);
+            Entry entry = wheel[level][slot];
+            wheel[level][slot] = null;
+
+            while (entry != null) {
+                final Entry next = entry.next;
+                if (!entry.isStale(entry.element)) {
+                    place(entry, entry.deadlineTick);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    private void processList(Entry entry, final long currentTimeMillis) {
+        while (entry != null) {
+            final Entry next = entry.next;
+            entry.next = null;
+            process(entry, currentTimeMillis);
+            entry = next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void process(final Entry entry, final long currentTimeMillis) {
+        final Object element = entry.element;
+        if (entry.isStale(element)) {
+            return;
+        }
+
+        final WheelDelayQueue delayQueue = entry.delayQueue;
+        final Resolver resolver = delayQueue.resolver;
+        final long timeoutMillis = resolver.getTimeoutMillis(element);
+
+        if (timeoutMillis == UNSET_TIMEOUT) {
+            if (!delayQueue.entries.remove(element, entry)) {
+                return; // the element has been added anew
+            }
+            if (wasModified(timeoutMillis,
+                    resolver.getTimeoutMillis(element))) {
+                reschedule(entry, element, resolver);
+            }
+        } else if (currentTimeMillis - timeoutMillis >= 0) {
+            if (!delayQueue.entries.remove(element, entry)) {
+                return; // the element has been added anew
+            }
+            if (wasModified(timeoutMillis,
+                    resolver.getTimeoutMillis(element))) {
+                reschedule(entry, element, resolver);
+            } else {
+                try {
+                    if (!delayQueue.worker.doWork(element)) {
+                        reschedule(entry, element, resolver);
+                    }
+                } catch (Exception ignored) {
+                }
+            }
+        } else {
+            schedule(entry, timeoutMillis);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reschedule(final Entry entry, final Object element,
+            final Resolver resolver) {
+        // register the entry again, unless the element has been added anew,
+        // the element is checked not earlier than on the next tick
+        if (entry.delayQueue.entries.putIfAbsent(element, entry) == null) {
+            schedule(entry, Math.max(resolver.getTimeoutMillis(element),
+                    nextCheckMillis));
+        }
+    }
+
+    private void schedule(final Entry entry, final long timeoutMillis) {
+        final long deadlineTick = timeoutMillis / tickMillis
+                + (timeoutMillis % tickMillis != 0 ? 1 : 0);
+
+        if (deadlineTick - currentTick >= MAX_TICKS) {
+            entry.next = overflow;
+            overflow = entry;
+        } else {
+            place(entry, deadlineTick);
+        }
+    }
+
+    private void place(final Entry entry, long deadlineTick) {
+        if (deadlineTick <= currentTick) {
+            deadlineTick = currentTick + 1;
+        }
+
+        final long delta = deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1
+                && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+
+        final int slot = (int) ((deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        entry.deadlineTick = deadlineTick;
+        entry.next = wheel[level][slot];
+        wheel[level][slot] = entry;
+    }
+
+    public class WheelDelayQueue<E> extends DelayQueue<E> {
+        final ConcurrentMap<E, Entry> entries = new ConcurrentHashMap<E, Entry>();
+        
+        private volatile boolean isDestroyed;
+
+        public WheelDelayQueue(final Worker<E> worker, final Resolver<E> resolver) {
+            super(worker, resolver);
+        }
+
+        @Override
+        public void add(final E elem, final long delay, final TimeUnit timeUnit) {
+            if (delay >= 0) {
+                final long delayWithSysTime =
+                        System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(delay, timeUnit);
+                resolver.setTimeoutMillis(elem, ((delayWithSysTime < 0) ? Long.MAX_VALUE : delayWithSysTime));
+                
+                enqueue(elem);
+            }
+        }
+
+        @Override
+        public void remove(final E elem) {
+            super.remove(elem);
+            
+            // the element will be checked (and released) on the next tick
+            // rather than when its original timeout expires
+            if (entries.containsKey(elem)) {
+                enqueue(elem);
+            }
+        }
+
+        @Override
+        public void destroy() {
+            isDestroyed = true;
+            super.destroy();
+        }
+
+        private void enqueue(final E elem) {
+            final Entry entry = new Entry(this, elem);
+            // the previously registered entry, if any, becomes stale and
+            // shouldn't keep the element referenced till its slot is reached
+            final Entry staleEntry = entries.put(elem, entry);
+            if (staleEntry != null) {
+                staleEntry.element = null;
+            }
+            inbox.offer(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final WheelDelayQueue delayQueue;
+        private volatile Object element;
+
+        private long deadlineTick;
+        private Entry next;
+
+        private Entry(final WheelDelayQueue delayQueue, final Object element) {
+            this.delayQueue = delayQueue;
+            this.element = element;
+        }
+
+        private boolean isStale(final Object element) {
+            // the element reference is cleared, once the entry is replaced
+            return element == null || delayQueue.isDestroyed;
+        }
+    }
+}
@@ -37,8 +37,10 @@ import org.glassfish.grizzly.filterchain.BaseFilter;
 import org.glassfish.grizzly.filterchain.FilterChain;
 import org.glassfish.grizzly.filterchain.FilterChainBuilder;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.FilterChainEvent;
 import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.filterchain.WritabilityChangedEvent;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
 import org.glassfish.grizzly.memory.Buffers;
@@ -554,6 +556,328 @@ public class AsyncWriteQueueTest {
         }
     }
     
+    @Test
+    public void testCorkedWritesFlush() throws Exception {
+        final int packetSize = 32;
+        final int packetsCount = 5;
+
+        final AtomicInteger serverRcvdBytes = new AtomicInteger();
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(FilterChainContext ctx)
+                    throws IOException {
+                serverRcvdBytes.addAndGet(((Buffer) ctx.getMessage()).remaining());
+                return ctx.getStopAction();
+            }
+        });
+
+        final TCPNIOTransport transport = createTransport(isOptimizedForMultiplexing);
+        transport.setProcessor(filterChainBuilder.build());
+
+        NIOConnection connection = null;
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            Future<Connection> future = transport.connect("localhost", PORT);
+            connection = (NIOConnection) future.get(10, TimeUnit.SECONDS);
+            assertTrue(connection != null);
+            connection.configureStandalone(true);
+
+            connection.cork(1, TimeUnit.MINUTES,
+                    packetSize * packetsCount * 2);
+            assertTrue(connection.isCorked());
+
+            final AsyncQueueWriter<SocketAddress> asyncQueueWriter =
+                    transport.getAsyncQueueIO().getWriter();
+            final MemoryManager mm = transport.getMemoryManager();
+            final AtomicInteger completedCounter = new AtomicInteger();
+
+            for (int i = 0; i < packetsCount; i++) {
+                final byte[] message = new byte[packetSize];
+                Arrays.fill(message, (byte) ('A' + i));
+                asyncQueueWriter.write(connection, Buffers.wrap(mm, message),
+                        new EmptyCompletionHandler<WriteResult<WritableMessage, SocketAddress>>() {
+                            @Override
+                            public void completed(
+                                    WriteResult<WritableMessage, SocketAddress> result) {
+                                completedCounter.incrementAndGet();
+                            }
+                        });
+            }
+
+            Thread.sleep(500);
+            // the writes have to be held
+            assertEquals(0, completedCounter.get());
+            assertEquals(0, serverRcvdBytes.get());
+            assertEquals(packetSize * packetsCount,
+                    connection.getAsyncWriteQueue().spaceInBytes());
+
+            connection.flush();
+
+            waitFor(serverRcvdBytes, packetSize * packetsCount, 10000);
+            assertEquals(packetSize * packetsCount, serverRcvdBytes.get());
+            waitFor(completedCounter, packetsCount, 10000);
+            assertEquals(packetsCount, completedCounter.get());
+
+            // max bytes limit releases the held writes
+            for (int i = 0; i < packetsCount * 2; i++) {
+                asyncQueueWriter.write(connection,
+                        Buffers.wrap(mm, new byte[packetSize]));
+            }
+
+            waitFor(serverRcvdBytes, packetSize * packetsCount * 3, 10000);
+            assertEquals(packetSize * packetsCount * 3, serverRcvdBytes.get());
+
+            connection.uncork();
+            assertFalse(connection.isCorked());
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCorkedWritesRecork() throws Exception {
+        final int packetSize = 32;
+
+        final AtomicInteger serverRcvdBytes = new AtomicInteger();
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(FilterChainContext ctx)
+                    throws IOException {
+                serverRcvdBytes.addAndGet(((Buffer) ctx.getMessage()).remaining());
+                return ctx.getStopAction();
+            }
+        });
+
+        final TCPNIOTransport transport = createTransport(isOptimizedForMultiplexing);
+        transport.setProcessor(filterChainBuilder.build());
+
+        NIOConnection connection = null;
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            Future<Connection> future = transport.connect("localhost", PORT);
+            connection = (NIOConnection) future.get(10, TimeUnit.SECONDS);
+            assertTrue(connection != null);
+            connection.configureStandalone(true);
+
+            final MemoryManager mm = transport.getMemoryManager();
+
+            connection.cork(1, TimeUnit.MINUTES, Integer.MAX_VALUE);
+            connection.write(Buffers.wrap(mm, new byte[packetSize]));
+            connection.flush();
+            waitFor(serverRcvdBytes, packetSize, 10000);
+            assertEquals(packetSize, serverRcvdBytes.get());
+
+            // nothing is held, so neither flush, nor uncork must affect
+            // the next cork session
+            connection.flush();
+            connection.uncork();
+
+            connection.cork(1, TimeUnit.MINUTES, Integer.MAX_VALUE);
+            connection.write(Buffers.wrap(mm, new byte[packetSize]));
+
+            Thread.sleep(500);
+            // the write has to be held
+            assertEquals(packetSize, serverRcvdBytes.get());
+
+            connection.uncork();
+            waitFor(serverRcvdBytes, packetSize * 2, 10000);
+            assertEquals(packetSize * 2, serverRcvdBytes.get());
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCorkedWritesMaxDelay() throws Exception {
+        final int packetSize = 32;
+        final int packetsCount = 5;
+
+        final AtomicInteger serverRcvdBytes = new AtomicInteger();
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(FilterChainContext ctx)
+                    throws IOException {
+                serverRcvdBytes.addAndGet(((Buffer) ctx.getMessage()).remaining());
+                return ctx.getStopAction();
+            }
+        });
+
+        final TCPNIOTransport transport = createTransport(isOptimizedForMultiplexing);
+        transport.setProcessor(filterChainBuilder.build());
+
+        NIOConnection connection = null;
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            Future<Connection> future = transport.connect("localhost", PORT);
+            connection = (NIOConnection) future.get(10, TimeUnit.SECONDS);
+            assertTrue(connection != null);
+            connection.configureStandalone(true);
+
+            connection.cork(200, TimeUnit.MILLISECONDS, Integer.MAX_VALUE);
+
+            final MemoryManager mm = transport.getMemoryManager();
+
+            for (int i = 0; i < packetsCount; i++) {
+                connection.write(Buffers.wrap(mm, new byte[packetSize]));
+            }
+
+            waitFor(serverRcvdBytes, packetSize * packetsCount, 10000);
+            assertEquals(packetSize * packetsCount, serverRcvdBytes.get());
+            assertTrue(connection.isCorked());
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWriteWatermarks() throws Exception {
+        final int packetSize = 256000;
+        final int lowWatermark = packetSize;
+        final int highWatermark = packetSize * 4;
+
+        final AtomicInteger unwritableEvents = new AtomicInteger();
+        final AtomicInteger writableEvents = new AtomicInteger();
+        final AtomicInteger writeStalls = new AtomicInteger();
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new BaseFilter() {
+
+            @Override
+            public NextAction handleRead(FilterChainContext ctx)
+                    throws IOException {
+                return ctx.getStopAction();
+            }
+
+            @Override
+            public NextAction handleEvent(FilterChainContext ctx,
+                    FilterChainEvent event) throws IOException {
+                if (event.type() == WritabilityChangedEvent.TYPE) {
+                    if (((WritabilityChangedEvent) event).isWritable()) {
+                        writableEvents.incrementAndGet();
+                    } else {
+                        unwritableEvents.incrementAndGet();
+                    }
+                    return ctx.getStopAction();
+                }
+
+                return ctx.getInvokeAction();
+            }
+        });
+
+        final TCPNIOTransport transport = createTransport(isOptimizedForMultiplexing);
+        transport.setProcessor(filterChainBuilder.build());
+
+        NIOConnection connection = null;
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            Future<Connection> future = transport.connect("localhost", PORT);
+            connection = (NIOConnection) future.get(10, TimeUnit.SECONDS);
+            assertTrue(connection != null);
+
+            try {
+                connection.setWriteWatermarks(highWatermark, lowWatermark);
+                fail("IllegalArgumentException is expected");
+            } catch (IllegalArgumentException expected) {
+            }
+
+            connection.getMonitoringConfig().addProbes(new ConnectionProbe.Adapter() {
+
+                @Override
+                public void onWriteStallEvent(Connection connection,
+                        int queueSize) {
+                    writeStalls.incrementAndGet();
+                }
+            });
+
+            connection.setWriteWatermarks(lowWatermark, highWatermark);
+            assertEquals(lowWatermark, connection.getWriteLowWatermark());
+            assertEquals(highWatermark, connection.getWriteHighWatermark());
+            assertTrue(connection.isWritable());
+
+            final MemoryManager mm = transport.getMemoryManager();
+
+            // don't let the queue drain, so it grows up to the high watermark
+            transport.pause();
+
+            int packets = 0;
+            while (connection.isWritable()) {
+                assertTrue("The connection doesn't become unwritable",
+                        ++packets < 1000);
+                connection.write(Buffers.wrap(mm, new byte[packetSize]));
+            }
+
+            assertTrue(connection.getAsyncWriteQueue().spaceInBytes()
+                    >= highWatermark);
+            assertEquals(1, unwritableEvents.get());
+            assertEquals(1, writeStalls.get());
+            assertEquals(0, writableEvents.get());
+
+            transport.resume();
+
+            waitFor(writableEvents, 1, 10000);
+            assertEquals(1, writableEvents.get());
+            assertTrue(connection.isWritable());
+            assertEquals(1, unwritableEvents.get());
+
+            // turning the watermarks off keeps the connection writable
+            connection.setWriteWatermarks(-1, -1);
+            assertEquals(-1, connection.getWriteHighWatermark());
+            assertTrue(connection.isWritable());
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            if (transport.isPaused()) {
+                transport.resume();
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    private static void waitFor(final AtomicInteger counter,
+            final int expected, final long timeoutMillis)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (counter.get() < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
     // ---------------------------------------------------------- Nested Classes
 
 
@@ -20,7 +20,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.util.Random;
@@ -104,6 +106,92 @@ public class FileTransferTest {
         System.out.println("File transfer completed in " + (stop - start) + " ms.");
     }
 
+    @Test
+    public void testFileTransferWithHeader() throws Exception {
+        // the small file is gathered with the header, the large one is
+        // written using the header write followed by the file transfer
+        final File small = generateTempFile(1024);
+        final File large = generateTempFile(256 * 1024);
+        final byte[] header1 = "HEADER-1\r\n".getBytes();
+        final byte[] header2 = "HEADER-2\r\n".getBytes();
+        final long expectedSize = header1.length + small.length()
+                + header2.length + large.length();
+
+        TCPNIOTransport t = TCPNIOTransportBuilder.newInstance().build();
+        FilterChainBuilder builder = FilterChainBuilder.stateless();
+        builder.add(new TransportFilter());
+        builder.add(new BaseFilter() {
+            @Override
+            public NextAction handleRead(FilterChainContext ctx) throws IOException {
+                final FileTransfer f1 = new FileTransfer(small);
+                f1.setHeader(Buffers.wrap(ctx.getMemoryManager(), header1));
+                ctx.write(f1);
+                
+                final FileTransfer f2 = new FileTransfer(large);
+                f2.setHeader(Buffers.wrap(ctx.getMemoryManager(), header2));
+                ctx.write(f2);
+                return ctx.getStopAction();
+            }
+        });
+        t.setProcessor(builder.build());
+
+        TCPNIOTransport client = TCPNIOTransportBuilder.newInstance().build();
+        FilterChainBuilder clientChain = FilterChainBuilder.stateless();
+        final SafeFutureImpl<File> future = SafeFutureImpl.create();
+        final File temp = File.createTempFile("grizzly-download-", ".tmp");
+        temp.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(temp);
+        final AtomicInteger total = new AtomicInteger(0);
+        clientChain.add(new TransportFilter());
+        clientChain.add(new BaseFilter() {
+            @Override
+            public NextAction handleConnect(FilterChainContext ctx) throws IOException {
+                ctx.write(Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER, "."));
+                return ctx.getStopAction();
+            }
+
+            @Override
+            public NextAction handleRead(FilterChainContext ctx) throws IOException {
+                Buffer b = ctx.getMessage();
+                ByteBuffer bb = b.toByteBuffer();
+                total.addAndGet(b.remaining());
+                out.getChannel().write(bb);
+                if (total.get() == expectedSize) {
+                    out.close();
+                    future.result(temp);
+                }
+                return ctx.getStopAction();
+            }
+        });
+        client.setProcessor(clientChain.build());
+
+        try {
+            final InetSocketAddress address = (InetSocketAddress)
+                    t.bind("localhost", 0).getLocalAddress();
+            t.start();
+            client.start();
+            client.connect(address);
+
+            final File expected = File.createTempFile("grizzly-expected-", ".tmp");
+            expected.deleteOnExit();
+            final FileOutputStream expectedOut = new FileOutputStream(expected);
+            try {
+                expectedOut.write(header1);
+                copy(small, expectedOut);
+                expectedOut.write(header2);
+                copy(large, expectedOut);
+            } finally {
+                expectedOut.close();
+            }
+
+            BigInteger testSum = getMDSum(future.get(10, TimeUnit.SECONDS));
+            assertTrue(getMDSum(expected).equals(testSum));
+        } finally {
+            client.shutdownNow();
+            t.shutdownNow();
+        }
+    }
+
     @Test
     public void negativeFileTransferAPITest() throws Exception {
         try {
@@ -194,6 +282,20 @@ public class FileTransferTest {
     }
     
     
+    private static void copy(final File f, final OutputStream out)
+            throws IOException {
+        final FileInputStream in = new FileInputStream(f);
+        try {
+            final byte[] b = new byte[8192];
+            int len;
+            while ((len = in.read(b)) != -1) {
+                out.write(b, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
     private static File generateTempFile(final int size) throws IOException {
         final File f = File.createTempFile("grizzly-temp-" + size, ".tmp");
         Random r = new Random();
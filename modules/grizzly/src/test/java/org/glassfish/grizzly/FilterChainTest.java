@@ -48,6 +48,7 @@ import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
 import org.glassfish.grizzly.utils.EchoFilter;
 import org.glassfish.grizzly.utils.Futures;
+import org.glassfish.grizzly.utils.Holder;
 import org.glassfish.grizzly.utils.NullaryFunction;
 import org.glassfish.grizzly.utils.StringFilter;
 
@@ -194,6 +195,27 @@ public class FilterChainTest extends TestCase {
         }
     }
 
+    public void testAddressHolderReuse() throws Exception {
+        final FilterChainContext ctx = new FilterChainContext();
+        try {
+            final Object address = new InetSocketAddress("127.0.0.1", PORT);
+            ctx.setAddress(address);
+            final Holder<?> holder = ctx.getAddressHolder();
+
+            // the same address doesn't need a new holder
+            ctx.setAddress(address);
+            assertSame(holder, ctx.getAddressHolder());
+
+            final Object otherAddress = new InetSocketAddress("127.0.0.1", PORT + 1);
+            ctx.setAddress(otherAddress);
+            assertNotSame(holder, ctx.getAddressHolder());
+            assertSame(otherAddress, ctx.getAddress());
+            assertSame(address, holder.get());
+        } finally {
+            ctx.reset();
+        }
+    }
+
     public void testEventUpstream() throws Exception {
         final Connection connection =
                 new TCPNIOConnection(TCPNIOTransportBuilder.newInstance().build(), null);
@@ -42,6 +42,7 @@ import org.glassfish.grizzly.filterchain.BaseFilter;
 import org.glassfish.grizzly.strategies.LeaderFollowerNIOStrategy;
 import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
 import org.glassfish.grizzly.strategies.SimpleDynamicNIOStrategy;
+import org.glassfish.grizzly.strategies.VirtualThreadIOStrategy;
 import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
 import org.glassfish.grizzly.utils.Charsets;
 import org.glassfish.grizzly.utils.StringFilter;
@@ -68,7 +69,8 @@ public class IOStrategyTest {
                     {WorkerThreadIOStrategy.getInstance()},
                     {LeaderFollowerNIOStrategy.getInstance()},
                     {SameThreadIOStrategy.getInstance()},
-                    {SimpleDynamicNIOStrategy.getInstance()}
+                    {SimpleDynamicNIOStrategy.getInstance()},
+                    {VirtualThreadIOStrategy.getInstance()}
         }
                 );
     }
@@ -18,6 +18,8 @@ package org.glassfish.grizzly;
 
 import java.io.IOException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.glassfish.grizzly.filterchain.BaseFilter;
@@ -25,10 +27,12 @@ import org.glassfish.grizzly.filterchain.FilterChainBuilder;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
 import org.glassfish.grizzly.utils.DelayedExecutor;
 import org.glassfish.grizzly.utils.IdleTimeoutFilter;
+import org.glassfish.grizzly.utils.TimingWheelDelayedExecutor;
 
 /**
  * Test {@link IdleTimeoutFilter}
@@ -93,6 +97,71 @@ public class IdleConnectionFilterTest extends GrizzlyTestCase {
         }
     }
 
+    public void testAcceptedConnectionIdleTimeoutTimingWheel() throws Exception {
+        Connection connection = null;
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ExecutorService threadPool = Executors.newSingleThreadExecutor();
+        final DelayedExecutor timeoutExecutor = new TimingWheelDelayedExecutor(
+                threadPool, 100, TimeUnit.MILLISECONDS);
+        timeoutExecutor.start();
+        IdleTimeoutFilter idleTimeoutFilter =
+                new IdleTimeoutFilter(timeoutExecutor, 2, TimeUnit.SECONDS);
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(idleTimeoutFilter);
+        filterChainBuilder.add(new BaseFilter() {
+                private volatile Connection acceptedConnection;
+                @Override
+                public NextAction handleAccept(FilterChainContext ctx)
+                        throws IOException {
+                    acceptedConnection = ctx.getConnection();
+                    return ctx.getInvokeAction();
+                }
+
+                @Override
+                public NextAction handleClose(FilterChainContext ctx)
+                        throws IOException {
+                    if (ctx.getConnection().equals(acceptedConnection)) {
+                        latch.countDown();
+                    }
+
+                    return ctx.getInvokeAction();
+                }
+
+            });
+
+        TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+        
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            Future<Connection> future = transport.connect("localhost", PORT);
+            connection = future.get(10, TimeUnit.SECONDS);
+            assertTrue(connection != null);
+
+            // the connection is active, so it mustn't be closed
+            for (int i = 0; i < 3; i++) {
+                Thread.sleep(1000);
+                connection.write(Buffers.wrap(transport.getMemoryManager(), "ping"));
+            }
+            assertEquals(1, latch.getCount());
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            timeoutExecutor.stop();
+            timeoutExecutor.destroy();
+            threadPool.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
     public void testConnectedConnectionIdleTimeout() throws Exception {
         Connection connection = null;
         final CountDownLatch latch = new CountDownLatch(1);
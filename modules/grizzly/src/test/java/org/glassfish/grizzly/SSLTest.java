@@ -17,6 +17,9 @@
 package org.glassfish.grizzly;
 
 import java.util.concurrent.ExecutorService;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 
@@ -36,6 +39,7 @@ import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Random;
 import org.junit.runners.Parameterized.Parameters;
 import org.glassfish.grizzly.attributes.Attribute;
 import org.glassfish.grizzly.filterchain.Filter;
@@ -374,6 +378,109 @@ public class SSLTest {
     }
 
 
+    @Test
+    public void testFileTransfer() throws Exception {
+        final byte[] fileContent = new byte[100000];
+        new Random().nextBytes(fileContent);
+        final File file = File.createTempFile("grizzly-ssl-file-", ".tmp");
+        file.deleteOnExit();
+        final FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write(fileContent);
+        } finally {
+            fos.close();
+        }
+        final byte[] trailer = "END".getBytes();
+
+        SSLContextConfigurator sslContextConfigurator = createSSLContextConfigurator();
+        SSLEngineConfigurator clientSSLEngineConfigurator = null;
+        SSLEngineConfigurator serverSSLEngineConfigurator = null;
+
+        if (sslContextConfigurator.validateConfiguration(true)) {
+            clientSSLEngineConfigurator =
+                    new SSLEngineConfigurator(sslContextConfigurator.createSSLContext(true));
+            serverSSLEngineConfigurator =
+                    new SSLEngineConfigurator(sslContextConfigurator.createSSLContext(true),
+                    false, false, false);
+        } else {
+            fail("Failed to validate SSLContextConfiguration.");
+        }
+
+        final FutureImpl<WriteResult> fileWriteFuture = Futures.createSafeFuture();
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new SSLFilter(serverSSLEngineConfigurator, null));
+        filterChainBuilder.add(new BaseFilter() {
+            @Override
+            public NextAction handleRead(final FilterChainContext ctx)
+                    throws IOException {
+                // the trailer has to be written after the file content
+                ctx.write(new FileTransfer(file),
+                        Futures.toCompletionHandler(fileWriteFuture));
+                ctx.write(Buffers.wrap(ctx.getMemoryManager(), trailer));
+                return ctx.getStopAction();
+            }
+        });
+
+        TCPNIOTransport transport =
+                TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(filterChainBuilder.build());
+        transport.setMemoryManager(manager);
+
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        final FutureImpl<byte[]> clientFuture = Futures.createSafeFuture();
+        FilterChainBuilder clientChain = FilterChainBuilder.stateless();
+        clientChain.add(new TransportFilter());
+        clientChain.add(new SSLFilter(null, clientSSLEngineConfigurator));
+        clientChain.add(new BaseFilter() {
+            @Override
+            public NextAction handleRead(final FilterChainContext ctx)
+                    throws IOException {
+                final Buffer buffer = ctx.getMessage();
+                final byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                received.write(bytes);
+                if (received.size() >= fileContent.length + trailer.length) {
+                    clientFuture.result(received.toByteArray());
+                }
+                return ctx.getStopAction();
+            }
+        });
+
+        TCPNIOTransport cTransport =
+                TCPNIOTransportBuilder.newInstance().build();
+        cTransport.setProcessor(clientChain.build());
+        cTransport.setMemoryManager(manager);
+
+        Connection connection = null;
+        try {
+            final InetSocketAddress address = (InetSocketAddress)
+                    transport.bind("localhost", 0).getLocalAddress();
+            transport.start();
+            cTransport.start();
+
+            connection = cTransport.connect(address).get(10, TimeUnit.SECONDS);
+            connection.write(Buffers.wrap(manager, "."));
+
+            final byte[] result = clientFuture.get(10, TimeUnit.SECONDS);
+            assertEquals(fileContent.length + trailer.length, result.length);
+            assertArrayEquals(fileContent,
+                    Arrays.copyOfRange(result, 0, fileContent.length));
+            assertArrayEquals(trailer, Arrays.copyOfRange(result,
+                    fileContent.length, result.length));
+            
+            final WriteResult writeResult = fileWriteFuture.get(10, TimeUnit.SECONDS);
+            assertEquals(fileContent.length, writeResult.getWrittenSize());
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            cTransport.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
+
     // ------------------------------------------------------- Protected Methods
 
 
@@ -16,12 +16,18 @@
 
 package org.glassfish.grizzly;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.nio.channels.SelectableChannel;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -41,16 +47,24 @@ import org.glassfish.grizzly.filterchain.TransportFilter;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
 import org.glassfish.grizzly.memory.ByteBufferWrapper;
+import org.glassfish.grizzly.memory.PooledMemoryManager;
 import org.glassfish.grizzly.nio.AbstractNIOConnectionDistributor;
+import org.glassfish.grizzly.nio.DirectInterestSelectorHandler;
 import org.glassfish.grizzly.nio.NIOConnection;
 import org.glassfish.grizzly.nio.NIOTransport;
 import org.glassfish.grizzly.nio.RegisterChannelResult;
+import org.glassfish.grizzly.nio.SelectorHandler;
 import org.glassfish.grizzly.nio.SelectorRunner;
+import org.glassfish.grizzly.nio.SelectorWakeupStatsProbe;
+import org.glassfish.grizzly.nio.transport.ReadBufferSizePredictor;
+import org.glassfish.grizzly.nio.transport.TCPNIOAcceptorsProbe;
+import org.glassfish.grizzly.nio.transport.TCPNIOConnection;
 import org.glassfish.grizzly.nio.transport.TCPNIOConnectorHandler;
 import org.glassfish.grizzly.nio.transport.TCPNIOServerConnection;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
 import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
 import org.glassfish.grizzly.streams.StreamReader;
 import org.glassfish.grizzly.streams.StreamWriter;
 import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
@@ -65,6 +79,7 @@ import org.junit.Test;
 
 import static junit.framework.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
@@ -325,6 +340,449 @@ public class TCPNIOTransportTest {
         }
     }
 
+    @Test
+    public void testDirectInterestSelectorHandler() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setSelectorHandler(new DirectInterestSelectorHandler())
+                .setIOStrategy(WorkerThreadIOStrategy.getInstance())
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new EchoFilter())
+                .build());
+
+        final Socket socket = new Socket();
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            transport.start();
+
+            socket.connect(serverConnection.getLocalAddress());
+            socket.setSoTimeout(10000);
+
+            // large enough to make the server register OP_WRITE interest
+            // from a worker thread
+            final byte[] message = new byte[1024 * 1024];
+            for (int i = 0; i < message.length; i++) {
+                message[i] = (byte) i;
+            }
+
+            final OutputStream out = socket.getOutputStream();
+            final InputStream in = socket.getInputStream();
+
+            for (int i = 0; i < 3; i++) {
+                final Thread writer = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            out.write(message);
+                            out.flush();
+                        } catch (IOException ignored) {
+                        }
+                    }
+                };
+                writer.start();
+
+                final byte[] echo = new byte[message.length];
+                int read = 0;
+                while (read < echo.length) {
+                    final int n = in.read(echo, read, echo.length - read);
+                    assertTrue("Unexpected EOF", n >= 0);
+                    read += n;
+                }
+
+                writer.join(10000);
+                assertTrue(Arrays.equals(message, echo));
+            }
+        } finally {
+            socket.close();
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testServerAcceptors() throws Exception {
+        final int acceptorsCount = 4;
+        final int connectionsCount = 64;
+
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setServerAcceptorsCount(acceptorsCount)
+                .setSelectorRunnersCount(acceptorsCount)
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new EchoFilter())
+                .build());
+
+        final TCPNIOAcceptorsProbe probe = new TCPNIOAcceptorsProbe();
+        transport.getConnectionMonitoringConfig().addProbes(probe);
+
+        final Socket[] sockets = new Socket[connectionsCount];
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            final int port = ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+            transport.start();
+
+            // SO_REUSEPORT is not available on every JDK/OS
+            final int boundAcceptors = serverConnection.getAcceptorsCount();
+            assertTrue(boundAcceptors == 1 || boundAcceptors == acceptorsCount);
+
+            for (int i = 0; i < connectionsCount; i++) {
+                sockets[i] = new Socket("localhost", port);
+                sockets[i].setSoTimeout(10000);
+                sockets[i].getOutputStream().write(1);
+                assertEquals(1, sockets[i].getInputStream().read());
+            }
+
+            final Map<Connection, Long> counts = probe.getAcceptedCounts();
+            assertTrue(counts.size() <= boundAcceptors);
+
+            long total = 0;
+            for (Map.Entry<Connection, Long> entry : counts.entrySet()) {
+                final TCPNIOServerConnection acceptor =
+                        (TCPNIOServerConnection) entry.getKey();
+                assertTrue(acceptor.getAcceptorIndex() < boundAcceptors);
+                total += entry.getValue();
+            }
+            assertEquals(connectionsCount, total);
+
+            // unbinding the returned connection has to close all acceptors
+            transport.unbind(serverConnection);
+            for (Connection acceptor : counts.keySet()) {
+                assertFalse(acceptor.isOpen());
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAdaptiveReadBufferSize() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setAdaptiveReadBufferSize(true)
+                .setMemoryManager(new PooledMemoryManager(true))
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new EchoFilter())
+                .build());
+
+        final BlockingQueue<Connection> connections =
+                new LinkedTransferQueue<Connection>();
+        final AtomicInteger predictions = new AtomicInteger();
+        final AtomicInteger readBytes = new AtomicInteger();
+        transport.getConnectionMonitoringConfig().addProbes(
+                new ConnectionProbe.Adapter() {
+                    @Override
+                    public void onAcceptEvent(Connection serverConnection,
+                            Connection clientConnection) {
+                        connections.add(clientConnection);
+                    }
+
+                    @Override
+                    public void onReadSizePredictionEvent(Connection connection,
+                            int predictedSize, int readSize) {
+                        if (readSize <= predictedSize) {
+                            predictions.incrementAndGet();
+                        }
+                        readBytes.addAndGet(readSize);
+                    }
+                });
+
+        Socket socket = null;
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            final int port = ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+            transport.start();
+
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(10000);
+            final OutputStream out = socket.getOutputStream();
+            final InputStream in = socket.getInputStream();
+
+            final TCPNIOConnection connection = (TCPNIOConnection)
+                    connections.poll(10, TimeUnit.SECONDS);
+            assertNotNull(connection);
+            final ReadBufferSizePredictor predictor =
+                    connection.getReadBufferSizePredictor();
+            assertNotNull(predictor);
+            final int initialSize = predictor.nextReadSize();
+
+            // small messages shrink the prediction
+            final byte[] small = new byte[16];
+            for (int i = 0; i < 32; i++) {
+                out.write(small);
+                readFully(in, small.length);
+            }
+            assertTrue(predictions.get() > 0);
+            final int smallSize = predictor.nextReadSize();
+            assertTrue("smallSize=" + smallSize, smallSize < initialSize);
+
+            // bulk transfer grows it
+            final byte[] big = new byte[512 * 1024];
+            for (int i = 0; i < 4; i++) {
+                out.write(big);
+                readFully(in, big.length);
+            }
+            assertTrue(predictor.nextReadSize() > smallSize);
+            assertEquals(32 * small.length + 4 * big.length, readBytes.get());
+            assertTrue(predictions.get() > 0);
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScatteringReads() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setScatteringReads(true)
+                .setScatteringReadChunkSize(4096)
+                .setMemoryManager(new PooledMemoryManager(true))
+                .build();
+        transport.setReadBufferSize(64 * 1024);
+
+        final AtomicInteger compositeReads = new AtomicInteger();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new BaseFilter() {
+                    @Override
+                    public NextAction handleRead(final FilterChainContext ctx)
+                            throws IOException {
+                        if (((Buffer) ctx.getMessage()).isComposite()) {
+                            compositeReads.incrementAndGet();
+                        }
+                        return ctx.getInvokeAction();
+                    }
+                })
+                .add(new EchoFilter())
+                .build());
+
+        Socket socket = null;
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            final int port = ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+            transport.start();
+
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(10000);
+            final OutputStream out = socket.getOutputStream();
+            final InputStream in = socket.getInputStream();
+
+            final byte[] message = new byte[1024 * 1024];
+            for (int i = 0; i < message.length; i++) {
+                message[i] = (byte) i;
+            }
+
+            final byte[] echo = new byte[message.length];
+            final Thread writer = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        out.write(message);
+                    } catch (IOException ignored) {
+                    }
+                }
+            };
+            writer.start();
+
+            int offset = 0;
+            while (offset < echo.length) {
+                final int read = in.read(echo, offset, echo.length - offset);
+                if (read < 0) {
+                    throw new EOFException();
+                }
+                offset += read;
+            }
+            writer.join(10000);
+
+            assertTrue(Arrays.equals(message, echo));
+            assertTrue(compositeReads.get() > 0);
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    private static void readFully(final InputStream in, final int length)
+            throws IOException {
+        final byte[] buffer = new byte[8192];
+        int remaining = length;
+        while (remaining > 0) {
+            final int read = in.read(buffer, 0,
+                    Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException();
+            }
+            remaining -= read;
+        }
+    }
+
+    @Test
+    public void testOptimizedSelectedKeys() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setOptimizedSelectedKeys(true)
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new EchoFilter())
+                .build());
+
+        final Socket[] sockets = new Socket[16];
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            final int port = ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+            transport.start();
+
+            for (int i = 0; i < sockets.length; i++) {
+                sockets[i] = new Socket("localhost", port);
+                sockets[i].setSoTimeout(10000);
+            }
+
+            for (int round = 0; round < 10; round++) {
+                for (Socket socket : sockets) {
+                    socket.getOutputStream().write(round);
+                }
+
+                for (Socket socket : sockets) {
+                    assertEquals(round, socket.getInputStream().read());
+                }
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSelectorWakeupStats() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setSelectorRunnersCount(1)
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .build());
+        final SelectorWakeupStatsProbe probe = new SelectorWakeupStatsProbe();
+        transport.getSelectorHandlerMonitoringConfig().addProbes(probe);
+
+        final int tasksCount = 100;
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            transport.start();
+
+            final SelectorRunner selectorRunner = serverConnection.getSelectorRunner();
+            final SelectorHandler selectorHandler = transport.getSelectorHandler();
+
+            // let the runner process a task, so there is no wakeup in progress
+            final CountDownLatch idleLatch = new CountDownLatch(1);
+            selectorHandler.enque(selectorRunner, new SelectorHandler.Task() {
+                @Override
+                public boolean run() {
+                    idleLatch.countDown();
+                    return true;
+                }
+            }, null);
+            assertTrue(idleLatch.await(10, TimeUnit.SECONDS));
+
+            // the batch submitted by another thread wakes up the Selector once
+            final CountDownLatch latch = new CountDownLatch(tasksCount);
+            final AtomicInteger selectorThreadTasks = new AtomicInteger();
+            final SelectorHandler.Batch batch =
+                    selectorHandler.createBatch(selectorRunner);
+            for (int i = 0; i < tasksCount; i++) {
+                batch.enque(new SelectorHandler.Task() {
+                    @Override
+                    public boolean run() {
+                        if (Thread.currentThread() == selectorRunner.getRunnerThread()) {
+                            selectorThreadTasks.incrementAndGet();
+                        }
+                        return true;
+                    }
+                }, new EmptyCompletionHandler<SelectorHandler.Task>() {
+                    @Override
+                    public void completed(final SelectorHandler.Task result) {
+                        latch.countDown();
+                    }
+                });
+            }
+
+            assertEquals(tasksCount, batch.size());
+            probe.reset();
+            batch.submit();
+            assertEquals(0, batch.size());
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(tasksCount, selectorThreadTasks.get());
+            assertEquals(1, probe.getWakeupsCount());
+            // the processed tasks are reported after the last one completes
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (probe.getTasksCount() < tasksCount
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(tasksCount, probe.getTasksCount());
+
+            // the batch submitted by the selector thread doesn't wake it up,
+            // the only wakeup is caused by the task, which submits the batch
+            final CountDownLatch selectorLatch = new CountDownLatch(tasksCount);
+            probe.reset();
+            selectorHandler.enque(selectorRunner, new SelectorHandler.Task() {
+                @Override
+                public boolean run() {
+                    final SelectorHandler.Batch selectorBatch =
+                            selectorHandler.createBatch(selectorRunner);
+                    for (int i = 0; i < tasksCount; i++) {
+                        selectorBatch.enque(new SelectorHandler.Task() {
+                            @Override
+                            public boolean run() {
+                                selectorLatch.countDown();
+                                return true;
+                            }
+                        }, null);
+                    }
+
+                    selectorBatch.submit();
+                    return true;
+                }
+            }, null);
+
+            assertTrue(selectorLatch.await(10, TimeUnit.SECONDS));
+            assertEquals(1, probe.getWakeupsCount());
+
+            // the connection's selector tasks go to the thread's open batch
+            assertTrue(selectorRunner.openThreadBatch());
+            final CountDownLatch eventThreadLatch = new CountDownLatch(1);
+            serverConnection.executeInEventThread(IOEvent.SERVER_ACCEPT,
+                    new Runnable() {
+                @Override
+                public void run() {
+                    eventThreadLatch.countDown();
+                }
+            });
+            assertFalse(eventThreadLatch.await(200, TimeUnit.MILLISECONDS));
+            selectorRunner.submitThreadBatch();
+            assertTrue(eventThreadLatch.await(10, TimeUnit.SECONDS));
+        } finally {
+            transport.shutdownNow();
+        }
+    }
+
     @Test
     public void testConnectFutureCancel() throws Exception {
         TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
@@ -23,14 +23,27 @@ import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 import org.junit.Test;
 
 import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
 import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+import org.glassfish.grizzly.strategies.VirtualThreadIOStrategy;
 import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
+import org.glassfish.grizzly.threadpool.ThreadPoolProbe;
+import org.glassfish.grizzly.threadpool.VirtualThreadPool;
+import org.glassfish.grizzly.threadpool.VirtualThreads;
+import org.glassfish.grizzly.threadpool.WorkStealingThreadPool;
 
 public class ThreadPoolsTest {
 
@@ -97,4 +110,245 @@ public class ThreadPoolsTest {
             tcpTransport.shutdownNow();
         }
     }    
+
+    @Test
+    public void testVirtualThreadPool() throws Exception {
+        final int maxPoolSize = 2;
+        final int tasksCount = 20;
+
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicInteger dequeued = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger allocated = new AtomicInteger();
+        final AtomicInteger released = new AtomicInteger();
+
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setMaxPoolSize(maxPoolSize)
+                // platform threads, so the test runs on any JDK
+                .setThreadFactory(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r);
+                    }
+                });
+        config.getInitialMonitoringConfig().addProbes(new ThreadPoolProbe.Adapter() {
+            @Override
+            public void onThreadAllocateEvent(AbstractThreadPool threadPool, Thread thread) {
+                allocated.incrementAndGet();
+            }
+
+            @Override
+            public void onThreadReleaseEvent(AbstractThreadPool threadPool, Thread thread) {
+                released.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskQueueEvent(AbstractThreadPool threadPool, Runnable task) {
+                queued.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskDequeueEvent(AbstractThreadPool threadPool, Runnable task) {
+                dequeued.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskCompleteEvent(AbstractThreadPool threadPool, Runnable task) {
+                completed.incrementAndGet();
+            }
+        });
+
+        final VirtualThreadPool pool = new VirtualThreadPool(config);
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(tasksCount);
+        try {
+            for (int i = 0; i < tasksCount; i++) {
+                pool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final int current = running.incrementAndGet();
+                        int max;
+                        while ((max = maxRunning.get()) < current
+                                && !maxRunning.compareAndSet(max, current)) {
+                        }
+
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException ignored) {
+                        }
+
+                        running.decrementAndGet();
+                        latch.countDown();
+                    }
+                });
+            }
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= maxPoolSize);
+        assertEquals(0, pool.getActiveThreadsCount());
+        assertEquals(tasksCount, queued.get());
+        assertEquals(tasksCount, dequeued.get());
+        assertEquals(tasksCount, completed.get());
+        assertTrue(allocated.get() > 0);
+        assertEquals(allocated.get(), released.get());
+    }
+
+    @Test
+    public void testVirtualThreadIOStrategyWorkerPoolConfig() throws Exception {
+        final TCPNIOTransport tcpTransport = TCPNIOTransportBuilder.newInstance()
+                .setIOStrategy(VirtualThreadIOStrategy.getInstance())
+                .build();
+
+        assertEquals(VirtualThreads.isSupported(),
+                tcpTransport.getWorkerThreadPoolConfig().isVirtualThreads());
+        if (!VirtualThreads.isSupported()) {
+            assertFalse(VirtualThreads.isCurrentThreadVirtual());
+        }
+
+        try {
+            tcpTransport.start();
+        } finally {
+            tcpTransport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWorkStealingThreadPool() throws Exception {
+        final int poolSize = 4;
+        final int tasksCount = 200;
+
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger stolen = new AtomicInteger();
+
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(poolSize)
+                .setMaxPoolSize(poolSize)
+                .setWorkStealing(true);
+        config.getInitialMonitoringConfig().addProbes(new ThreadPoolProbe.Adapter() {
+            @Override
+            public void onTaskQueueEvent(AbstractThreadPool threadPool, Runnable task) {
+                queued.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskCompleteEvent(AbstractThreadPool threadPool, Runnable task) {
+                completed.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskStealEvent(AbstractThreadPool threadPool,
+                    Runnable task, int queueSize) {
+                stolen.incrementAndGet();
+            }
+        });
+
+        final WorkStealingThreadPool pool = new WorkStealingThreadPool(config);
+        final CountDownLatch latch = new CountDownLatch(tasksCount);
+        try {
+            // all the tasks are submitted by the same thread, so they're
+            // queued to the same "home" worker, the other workers have to steal
+            for (int i = 0; i < tasksCount; i++) {
+                pool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(1);
+                        } catch (InterruptedException ignored) {
+                        }
+
+                        latch.countDown();
+                    }
+                });
+            }
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(tasksCount, queued.get());
+        assertEquals(tasksCount, completed.get());
+        assertTrue(pool.getStolenTasksCount() > 0);
+        assertEquals(pool.getStolenTasksCount(), stolen.get());
+        assertEquals(0, pool.getQueue().size());
+    }
+
+    @Test
+    public void testWorkStealingThreadPoolIdleWorkers() throws Exception {
+        final int poolSize = 4;
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(poolSize)
+                .setMaxPoolSize(poolSize);
+        final WorkStealingThreadPool pool = new WorkStealingThreadPool(config);
+        Field idleWorkers = WorkStealingThreadPool.class.getDeclaredField("idleWorkers");
+        idleWorkers.setAccessible(true);
+
+        try {
+            // light load: the home worker is woken up directly for each task,
+            // it must not be queued as idle again and again
+            for (int i = 0; i < 1000; i++) {
+                final CountDownLatch latch = new CountDownLatch(1);
+                pool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        latch.countDown();
+                    }
+                });
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            }
+
+            final int size = ((Collection) idleWorkers.get(pool)).size();
+            assertTrue("idleWorkers size=" + size, size <= poolSize);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWorkStealingThreadPoolShutdownNow() throws Exception {
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(2)
+                .setMaxPoolSize(2)
+                .setSelectorAffinity(false);
+        final WorkStealingThreadPool pool = new WorkStealingThreadPool(config);
+
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable blockingTask = new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+
+        pool.execute(blockingTask);
+        pool.execute(blockingTask);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 10; i++) {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        }
+
+        assertEquals(10, pool.getQueue().size());
+        final List<Runnable> drained = pool.shutdownNow();
+        assertEquals(10, drained.size());
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
 }
@@ -35,6 +35,7 @@ public class AbstractMemoryManagerTest {
                 {0},
                 {1},
                 {2},
+                {3},
         });
     }
 
@@ -49,6 +50,9 @@ public class AbstractMemoryManagerTest {
             case 2:
                 mm = createPooledMemoryManager();
                 break;
+            case 3:
+                mm = createArenaMemoryManager();
+                break;
             default:
                 throw new IllegalStateException("Unknown memory manager type");
         }
@@ -58,6 +62,12 @@ public class AbstractMemoryManagerTest {
         return new PooledMemoryManager();
     }
 
+    protected ArenaMemoryManager createArenaMemoryManager() {
+        // some tests never release their buffers, so use small blocks
+        return new ArenaMemoryManager(2 * 1024 * 1024, 4, 64,
+                ArenaMemoryManager.DEFAULT_MAX_BLOCK_SIZE);
+    }
+
     protected ByteBufferManager createByteBufferManager() {
         return new ByteBufferManager();
     }
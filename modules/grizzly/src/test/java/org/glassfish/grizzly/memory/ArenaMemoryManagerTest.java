@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.grizzly.Buffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArenaMemoryManagerTest {
+
+    private static final int KB = 1024;
+
+    @Test
+    public void testInvalidConstructorArguments() {
+        final int[][] invalidArgs = {
+            {64 * KB, 0, KB, 16 * KB},      // no regions
+            {60 * KB, 1, KB, 16 * KB},      // region size is not a power of two
+            {64 * KB, 1, 1000, 16 * KB},    // min block size is not a power of two
+            {64 * KB, 1, 32 * KB, 16 * KB}, // min block size > max block size
+            {64 * KB, 1, KB, 128 * KB},     // max block size > region size
+        };
+
+        for (int[] args : invalidArgs) {
+            try {
+                new ArenaMemoryManager(args[0], args[1], args[2], args[3]);
+                fail("IllegalArgumentException is expected for " + args[0]
+                        + ", " + args[1] + ", " + args[2] + ", " + args[3]);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testBuddyAllocationAndMerge() {
+        final ArenaMemoryManager mm = new ArenaMemoryManager(64 * KB, 1, KB, 16 * KB);
+        assertEquals(64 * KB, mm.getCapacity());
+        assertEquals(64 * KB, mm.getFreeBytes());
+
+        final Buffer b1 = mm.allocate(1000);
+        final Buffer b2 = mm.allocate(1500);
+        final Buffer b3 = mm.allocateAtLeast(5000);
+
+        assertTrue(b1.isDirect());
+        assertEquals(1000, b1.limit());
+        assertEquals(KB, b1.capacity());
+        assertEquals(2 * KB, b2.capacity());
+        assertEquals(8 * KB, b3.capacity());
+        assertEquals(8 * KB, b3.limit());
+        assertEquals((64 - 11) * KB, mm.getFreeBytes());
+        assertEquals(32 * KB, mm.getLargestFreeBlockSize());
+
+        b1.put(0, (byte) 1);
+        b2.put(0, (byte) 2);
+        b3.put(0, (byte) 3);
+        assertEquals(1, b1.get(0));
+        assertEquals(2, b2.get(0));
+
+        b2.dispose();
+        b1.dispose();
+        b3.dispose();
+
+        assertEquals(64 * KB, mm.getFreeBytes());
+        assertEquals(64 * KB, mm.getLargestFreeBlockSize());
+        assertEquals(0f, mm.getFragmentation(), 0f);
+    }
+
+    @Test
+    public void testFragmentation() {
+        final ArenaMemoryManager mm = new ArenaMemoryManager(64 * KB, 1, KB, 16 * KB);
+        final Buffer[] buffers = new Buffer[64];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = mm.allocate(KB);
+        }
+        assertEquals(0, mm.getFreeBytes());
+        assertEquals(0, mm.getLargestFreeBlockSize());
+
+        for (int i = 0; i < buffers.length; i += 2) {
+            buffers[i].dispose();
+        }
+
+        // every free block is surrounded by allocated ones
+        assertEquals(32 * KB, mm.getFreeBytes());
+        assertEquals(KB, mm.getLargestFreeBlockSize());
+        assertEquals(1 - 1f / 32, mm.getFragmentation(), 0.0001f);
+
+        for (int i = 1; i < buffers.length; i += 2) {
+            buffers[i].dispose();
+        }
+
+        assertEquals(64 * KB, mm.getLargestFreeBlockSize());
+        assertEquals(0f, mm.getFragmentation(), 0f);
+    }
+
+    @Test
+    public void testCapacityLimit() {
+        final ArenaMemoryManager mm = new ArenaMemoryManager(64 * KB, 1, KB, 16 * KB);
+
+        // served by a composite buffer of 16K blocks
+        final Buffer composite = mm.allocate(48 * KB);
+        assertTrue(composite.isComposite());
+        assertEquals(48 * KB, composite.limit());
+        assertEquals(16 * KB, mm.getFreeBytes());
+
+        try {
+            mm.allocate(32 * KB);
+            fail("IllegalStateException is expected");
+        } catch (IllegalStateException expected) {
+        }
+
+        // the partially allocated composite buffer is returned to the arena
+        assertEquals(16 * KB, mm.getFreeBytes());
+
+        final Buffer last = mm.allocate(16 * KB);
+        try {
+            mm.allocate(1);
+            fail("IllegalStateException is expected");
+        } catch (IllegalStateException expected) {
+        }
+
+        last.dispose();
+        composite.dispose();
+        assertEquals(64 * KB, mm.getFreeBytes());
+    }
+
+    @Test
+    public void testSharedBufferReleasedLast() {
+        final ArenaMemoryManager mm = new ArenaMemoryManager(64 * KB, 1, KB, 16 * KB);
+
+        final Buffer buffer = mm.allocate(4 * KB);
+        final Buffer slice = buffer.slice(0, KB);
+        final Buffer split = buffer.split(2 * KB);
+
+        buffer.dispose();
+        slice.dispose();
+        assertEquals(60 * KB, mm.getFreeBytes());
+
+        split.dispose();
+        assertEquals(64 * KB, mm.getFreeBytes());
+
+        try {
+            buffer.get(0);
+            fail("IllegalStateException is expected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testReallocate() {
+        final ArenaMemoryManager mm = new ArenaMemoryManager(64 * KB, 1, KB, 16 * KB);
+
+        Buffer buffer = mm.allocate(KB);
+        buffer.put(Buffers.wrap(mm, "Hello"));
+
+        buffer = mm.reallocate(buffer, 4 * KB);
+        assertEquals(5, buffer.position());
+        assertEquals(4 * KB, buffer.limit());
+        buffer.flip();
+        assertEquals("Hello", buffer.toStringContent());
+        assertEquals(60 * KB, mm.getFreeBytes());
+
+        buffer.clear();
+        buffer = mm.reallocate(buffer, 32 * KB);
+        assertTrue(buffer.isComposite());
+        assertEquals(32 * KB, buffer.limit());
+        assertEquals(32 * KB, mm.getFreeBytes());
+
+        buffer.dispose();
+        assertEquals(64 * KB, mm.getFreeBytes());
+    }
+
+    @Test
+    public void testReset() {
+        final ArenaMemoryManager mm = new ArenaMemoryManager(64 * KB, 2, KB, 16 * KB);
+
+        final List<Buffer> buffers = new ArrayList<Buffer>();
+        for (int i = 0; i < 10; i++) {
+            buffers.add(mm.allocate(3 * KB));
+        }
+        assertEquals(88 * KB, mm.getFreeBytes());
+
+        mm.reset();
+        assertEquals(128 * KB, mm.getFreeBytes());
+
+        final Buffer afterReset = mm.allocate(KB);
+
+        // the buffers allocated before the reset are not returned twice
+        for (Buffer buffer : buffers) {
+            buffer.dispose();
+        }
+        assertEquals(127 * KB, mm.getFreeBytes());
+
+        afterReset.dispose();
+        assertEquals(128 * KB, mm.getFreeBytes());
+    }
+
+    @Test
+    public void testMappedRegions() throws IOException {
+        final File dir = File.createTempFile("arena", "test");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+
+        try {
+            final ArenaMemoryManager mm = new ArenaMemoryManager(64 * KB, 2,
+                    KB, 16 * KB, dir);
+
+            // the region files are deleted right after they are mapped
+            assertEquals(0, dir.list().length);
+
+            final Buffer buffer = mm.allocate(10);
+            assertTrue(buffer.isDirect());
+            buffer.put("0123456789".getBytes());
+            buffer.flip();
+            assertEquals("0123456789", buffer.toStringContent());
+            buffer.dispose();
+
+            assertEquals(128 * KB, mm.getFreeBytes());
+        } finally {
+            assertTrue(dir.delete());
+        }
+    }
+
+    @Test
+    public void testProbeEvents() {
+        final ArenaMemoryManager mm = new ArenaMemoryManager(64 * KB, 1, KB, 16 * KB);
+        final AtomicInteger allocated = new AtomicInteger();
+        final AtomicInteger released = new AtomicInteger();
+        final AtomicInteger lastFreeBytes = new AtomicInteger();
+        final AtomicInteger lastLargestFreeBlock = new AtomicInteger();
+
+        mm.getMonitoringConfig().addProbes(new MemoryProbe.Adapter() {
+            @Override
+            public void onBufferAllocateFromPoolEvent(int size) {
+                allocated.addAndGet(size);
+            }
+
+            @Override
+            public void onBufferReleaseToPoolEvent(int size) {
+                released.addAndGet(size);
+            }
+
+            @Override
+            public void onArenaFragmentationEvent(int freeBytes,
+                    int largestFreeBlockSize) {
+                lastFreeBytes.set(freeBytes);
+                lastLargestFreeBlock.set(largestFreeBlockSize);
+            }
+        });
+
+        final Buffer b1 = mm.allocate(KB);
+        final Buffer b2 = mm.allocate(KB);
+        assertEquals(2 * KB, allocated.get());
+        assertEquals(62 * KB, lastFreeBytes.get());
+        assertEquals(32 * KB, lastLargestFreeBlock.get());
+
+        b1.dispose();
+        assertEquals(KB, released.get());
+        assertEquals(63 * KB, lastFreeBytes.get());
+        assertEquals(32 * KB, lastLargestFreeBlock.get());
+
+        b2.dispose();
+        assertEquals(2 * KB, released.get());
+        assertEquals(64 * KB, lastFreeBytes.get());
+        assertEquals(64 * KB, lastLargestFreeBlock.get());
+    }
+
+    @Test
+    public void testConcurrentAllocation() throws Exception {
+        final ArenaMemoryManager mm = new ArenaMemoryManager(256 * KB, 2, 512, 16 * KB);
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < threads; t++) {
+                final int seed = t;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        final Random random = new Random(seed);
+                        final Buffer[] buffers = new Buffer[8];
+                        for (int i = 0; i < 10000; i++) {
+                            final int idx = random.nextInt(buffers.length);
+                            if (buffers[idx] != null) {
+                                if (buffers[idx].get(0) != (byte) idx) {
+                                    return false;
+                                }
+                                buffers[idx].dispose();
+                            }
+
+                            buffers[idx] = mm.allocate(1 + random.nextInt(4 * KB));
+                            buffers[idx].put(0, (byte) idx);
+                        }
+
+                        for (Buffer buffer : buffers) {
+                            if (buffer != null) {
+                                buffer.dispose();
+                            }
+                        }
+
+                        return true;
+                    }
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(mm.getCapacity(), mm.getFreeBytes());
+        assertEquals(0f, mm.getFragmentation(), 0f);
+    }
+}
@@ -218,6 +218,29 @@ public class BuffersBufferTest extends AbstractMemoryManagerTest {
     }
 
 
+    @Test
+    public void testIndexOfAcrossBuffers() {
+        final BuffersBuffer b = BuffersBuffer.create(mm);
+        b.append(Buffers.wrap(mm, "Host: localhost\r"));
+        b.append(BuffersBuffer.create(mm));
+        b.append(Buffers.wrap(mm, "\n\r"));
+        b.append(Buffers.wrap(mm, "\nbody\r\n\r\n"));
+
+        assertEquals(4, b.indexOf((byte) ':'));
+        assertEquals(16, b.indexOf((byte) '\n'));
+        assertEquals(15, b.indexOf("\r\n\r\n".getBytes()));
+
+        b.position(16);
+        assertEquals(17, b.indexOf((byte) '\r'));
+        assertEquals(23, b.indexOf("\r\n\r\n".getBytes()));
+        assertEquals(16, b.position());
+
+        b.limit(26);
+        assertEquals(-1, b.indexOf("\r\n\r\n".getBytes()));
+        assertEquals(-1, b.indexOf((byte) 'x'));
+    }
+
+
     // ------------------------------------------------------- Protected Methods
 
 
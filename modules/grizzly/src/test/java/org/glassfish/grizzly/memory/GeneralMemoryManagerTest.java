@@ -21,11 +21,14 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.InvalidMarkException;
+import java.util.Arrays;
 
 import org.glassfish.grizzly.Buffer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 @RunWith(Parameterized.class)
@@ -120,4 +123,125 @@ public class GeneralMemoryManagerTest extends AbstractMemoryManagerTest {
         assertMarkExceptionThrown(newBuffer);
     }
 
+    @Test
+    public void testBufferIndexOf() {
+        final Buffer b = mm.allocate(64);
+        for (int i = 0; i < 64; i++) {
+            b.put(i, (byte) 'a');
+        }
+
+        // exercise both the word-at-a-time scan and the tail scan
+        for (int from = 0; from < 12; from++) {
+            for (int idx = from; idx < 64; idx++) {
+                b.put(idx, (byte) 0x80);
+                b.position(from);
+                assertEquals(idx, b.indexOf((byte) 0x80));
+                b.limit(idx);
+                assertEquals(-1, b.indexOf((byte) 0x80));
+                b.clear();
+                b.put(idx, (byte) 'a');
+            }
+        }
+
+        assertEquals(-1, b.indexOf((byte) 'b'));
+        assertEquals(0, b.indexOf((byte) 'a'));
+        b.position(64);
+        assertEquals(-1, b.indexOf((byte) 'a'));
+    }
+
+    @Test
+    public void testBufferIndexOfPattern() {
+        final Buffer b = Buffers.wrap(mm,
+                "GET / HTTP/1.1\r\nHost: localhost\r\n\r\nGET /next HTTP/1.1\r\n\r\n");
+        final byte[] crlfcrlf = "\r\n\r\n".getBytes();
+
+        final int end = b.indexOf(crlfcrlf);
+        assertEquals(31, end);
+        assertEquals(0, b.position());
+
+        b.position(end + 4);
+        assertEquals(b.limit() - 4, b.indexOf(crlfcrlf));
+        assertEquals(b.position(), b.indexOf(new byte[0]));
+
+        b.limit(b.limit() - 1);
+        assertEquals(-1, b.indexOf(crlfcrlf));
+    }
+
+    @Test
+    public void testArrayIndexOfEither() {
+        final byte[] array = new byte[64];
+        Arrays.fill(array, (byte) 'a');
+
+        // exercise both the word-at-a-time scan and the tail scan
+        for (int from = 0; from < 12; from++) {
+            for (int idx = from; idx < 64; idx++) {
+                final byte b = (idx & 1) == 0 ? (byte) '\r' : (byte) '\n';
+                array[idx] = b;
+                assertEquals(idx, Buffers.indexOf(array, from, 64, (byte) '\r', (byte) '\n'));
+                assertEquals(-1, Buffers.indexOf(array, from, idx, (byte) '\r', (byte) '\n'));
+                array[idx] = (byte) 'a';
+            }
+        }
+
+        array[40] = (byte) '\n';
+        array[20] = (byte) '\r';
+        assertEquals(20, Buffers.indexOf(array, 0, 64, (byte) '\n', (byte) '\r'));
+        assertEquals(40, Buffers.indexOf(array, 21, 64, (byte) '\n', (byte) '\r'));
+    }
+
+    @Test
+    public void testBufferPrimitivesByteOrder() {
+        final Buffer b = mm.allocate(32);
+        final ByteBuffer expected = ByteBuffer.allocate(32);
+
+        for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            b.clear();
+            b.order(order);
+            expected.clear();
+            expected.order(order);
+
+            b.put((byte) 1).putShort((short) 0x0203).putInt(0x04050607)
+                    .putLong(0x08090A0B0C0D0E0FL).putChar('\u1011')
+                    .putFloat(1.5f).putDouble(-2.25);
+            expected.put((byte) 1).putShort((short) 0x0203).putInt(0x04050607)
+                    .putLong(0x08090A0B0C0D0E0FL).putChar('\u1011')
+                    .putFloat(1.5f).putDouble(-2.25);
+
+            for (int i = 0; i < expected.position(); i++) {
+                assertEquals(expected.get(i), b.get(i));
+            }
+
+            b.flip();
+            assertEquals(1, b.get());
+            assertEquals(0x0203, b.getShort());
+            assertEquals(0x04050607, b.getInt());
+            assertEquals(0x08090A0B0C0D0E0FL, b.getLong());
+            assertEquals('\u1011', b.getChar());
+            assertEquals(1.5f, b.getFloat(), 0);
+            assertEquals(-2.25, b.getDouble(), 0);
+
+            assertEquals(0x04050607, b.getInt(3));
+            assertEquals(0x08090A0B0C0D0E0FL, b.getLong(7));
+        }
+    }
+
+    @Test
+    public void testBufferPutFromCompositeDirectBuffers() {
+        final ByteBufferManager bbm = new ByteBufferManager(true);
+        final BuffersBuffer src = BuffersBuffer.create(bbm);
+        for (String s : new String[] {"Hello ", "direct ", "world!"}) {
+            final byte[] bytes = s.getBytes();
+            src.append(bbm.allocate(bytes.length).put(bytes).flip());
+        }
+        assertTrue(src.isDirect());
+
+        final Buffer dst = mm.allocate(32);
+        Buffers.put(src, 2, src.remaining() - 2, dst);
+        dst.flip();
+
+        assertEquals("llo direct world!", dst.toStringContent());
+        assertEquals(0, src.position());
+        assertEquals(19, src.limit());
+    }
+
 }
@@ -29,9 +29,12 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.threadpool.DefaultWorkerThread;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -239,6 +242,186 @@ public class PooledMemoryManagerTest {
         } catch (Exception e) {
             fail();
         }        
+
+        // invalid number of size classes (not a power of two)
+        try {
+            new PooledMemoryManager(1024, 2, 1, 1, DEFAULT_HEAP_USAGE_PERCENTAGE,
+                    DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE, isDirect, 3, 0);
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // expected
+        } catch (Exception e) {
+            fail();
+        }
+
+        // invalid magazine size
+        try {
+            new PooledMemoryManager(1024, 2, 1, 1, DEFAULT_HEAP_USAGE_PERCENTAGE,
+                    DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE, isDirect, 0, -1);
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // expected
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void testWillAllocateDirect() throws Exception {
+        PooledMemoryManager mm =
+                new PooledMemoryManager(DEFAULT_BASE_BUFFER_SIZE,
+                                        1,
+                                        0,
+                                        1,
+                                        0.01f,
+                                        0,
+                                        isDirect);
+
+        assertEquals(isDirect, mm.isDirect());
+        // the reads are copied from a temporary direct buffer by default,
+        // pooled direct buffers are only read into if the read size is predicted
+        assertFalse(mm.willAllocateDirect(DEFAULT_BASE_BUFFER_SIZE));
+    }
+
+    @Test
+    public void testSizeClasses() throws Exception {
+        // 4 size classes per power-of-two range between 4KiB and 64KiB
+        PooledMemoryManager mm =
+                new PooledMemoryManager(DEFAULT_BASE_BUFFER_SIZE,
+                                        DEFAULT_NUMBER_OF_POOLS,
+                                        DEFAULT_GROWTH_FACTOR,
+                                        1,
+                                        0.01f,
+                                        0,
+                                        isDirect,
+                                        4,
+                                        0);
+
+        PooledMemoryManager.Pool[] pools = mm.getPools();
+        assertEquals(17, pools.length);
+        assertEquals(4096, pools[0].getBufferSize());
+        assertEquals(5120, pools[1].getBufferSize());
+        assertEquals(8192, pools[4].getBufferSize());
+        assertEquals(10240, pools[5].getBufferSize());
+        assertEquals(65536, pools[16].getBufferSize());
+
+        final int[][] sizeToCapacity = {
+            {1, 4096}, {4096, 4096}, {4097, 5120}, {5120, 5120},
+            {8193, 10240}, {9 * 1024, 10240}, {40000, 40960},
+            {65536, 65536}
+        };
+
+        for (int[] sc : sizeToCapacity) {
+            final Buffer b = mm.allocate(sc[0]);
+            assertEquals(sc[0], b.remaining());
+            assertFalse(b.isComposite());
+            assertEquals("size=" + sc[0], sc[1], b.capacity());
+            b.tryDispose();
+        }
+
+        // bigger than the max pooled size
+        final Buffer b = mm.allocate(65537);
+        assertTrue(b.isComposite());
+        assertEquals(65537, b.remaining());
+        b.tryDispose();
+    }
+
+    @Test
+    public void testThreadCache() throws Exception {
+        final int magazineSize = 4;
+        PooledMemoryManager mm =
+                new PooledMemoryManager(DEFAULT_BASE_BUFFER_SIZE,
+                                        1,
+                                        0,
+                                        1,
+                                        DEFAULT_HEAP_USAGE_PERCENTAGE,
+                                        0,
+                                        isDirect,
+                                        0,
+                                        magazineSize);
+
+        final TestProbe probe = new TestProbe();
+        mm.getMonitoringConfig().addProbes(probe);
+
+        // only the Grizzly worker threads cache the buffers
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final Thread workerThread = new DefaultWorkerThread(
+                Grizzly.DEFAULT_ATTRIBUTE_BUILDER, "thread-cache-test",
+                mm.createThreadLocalPool(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    checkThreadCache(mm, probe, magazineSize);
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            }
+        });
+        workerThread.start();
+        workerThread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(workerThread.isAlive());
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+
+        final PooledMemoryManager.Pool pool = mm.getPools()[0];
+        assertEquals(magazineSize / 2, pool.elementsCount());
+        final int cacheHits = probe.threadCacheHits.get();
+        final int cacheMisses = probe.threadCacheMisses.get();
+
+        // the buffers returned to the pool may be reused by other threads,
+        // which don't cache the buffers, but release them back to the pool
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    final Buffer b = mm.allocate(4096);
+                    assertEquals(magazineSize / 2 - 1, pool.elementsCount());
+                    b.tryDispose();
+                }
+            }).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(magazineSize / 2, pool.elementsCount());
+        assertEquals(cacheHits, probe.threadCacheHits.get());
+        assertEquals(cacheMisses, probe.threadCacheMisses.get());
+    }
+
+    private static void checkThreadCache(final PooledMemoryManager mm,
+            final TestProbe probe, final int magazineSize) {
+        // the cache is empty
+        Buffer b = mm.allocate(4096);
+        assertEquals(0, probe.threadCacheHits.get());
+        assertEquals(1, probe.threadCacheMisses.get());
+        assertEquals(1, probe.bufferAllocated.get());
+        b.tryDispose();
+        assertEquals(1, probe.bufferReleasedToPool.get());
+
+        // the buffer is taken from the cache
+        final Buffer b2 = mm.allocate(4096);
+        assertEquals(1, probe.threadCacheHits.get());
+        assertEquals(1, probe.threadCacheMisses.get());
+        assertEquals(1, probe.bufferAllocatedFromPool.get());
+        assertEquals(1, probe.bufferAllocated.get());
+        assertEquals(4096, b2.remaining());
+        b2.tryDispose();
+        
+        // overflow the cache, the older half has to be returned to the pool
+        final PooledMemoryManager.Pool pool = mm.getPools()[0];
+        assertEquals(0, pool.elementsCount());
+
+        final Buffer[] buffers = new Buffer[magazineSize + 1];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = mm.allocate(4096);
+        }
+        for (Buffer buffer : buffers) {
+            buffer.tryDispose();
+        }
+
+        assertEquals(magazineSize / 2, pool.elementsCount());
     }
 
     @Test
@@ -675,6 +858,39 @@ public class PooledMemoryManagerTest {
     }
 
 
+    @Test
+    public void testLeakDetection() throws Exception {
+        final PooledMemoryManager mm = new PooledMemoryManager(
+                DEFAULT_BASE_BUFFER_SIZE, 1, 0, 1,
+                DEFAULT_HEAP_USAGE_PERCENTAGE,
+                DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE,
+                isDirect);
+        final TestProbe probe = new TestProbe();
+        mm.getMonitoringConfig().addProbes(probe);
+        mm.setLeakDetectionParanoid(true);
+
+        // released buffers must not be reported
+        final Buffer released = mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        assertTrue(released.tryDispose());
+
+        // the leaked buffer is dropped without being disposed
+        mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (mm.getDetectedLeaksCount() == 0
+                && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+            mm.detectLeaks();
+        }
+
+        assertEquals(1, mm.getDetectedLeaksCount());
+        assertEquals(1, probe.bufferLeaks.get());
+
+        mm.setLeakDetectionParanoid(false);
+        assertEquals(0, mm.getLeakDetectionSamplingInterval());
+    }
+
     @Test
     public void circularityBoundaryTest() {
         final PooledMemoryManager mm = new PooledMemoryManager(
@@ -815,6 +1031,9 @@ public class PooledMemoryManagerTest {
         final AtomicInteger bufferAllocated = new AtomicInteger();
         final AtomicInteger bufferAllocatedFromPool = new AtomicInteger();
         final AtomicInteger bufferReleasedToPool = new AtomicInteger();
+        final AtomicInteger threadCacheHits = new AtomicInteger();
+        final AtomicInteger threadCacheMisses = new AtomicInteger();
+        final AtomicInteger bufferLeaks = new AtomicInteger();
 
         @Override
         public void onBufferAllocateEvent(int size) {
@@ -830,5 +1049,25 @@ public class PooledMemoryManagerTest {
         public void onBufferReleaseToPoolEvent(int size) {
             bufferReleasedToPool.incrementAndGet();
         }
+
+        @Override
+        public void onThreadCacheHitEvent(int size) {
+            threadCacheHits.incrementAndGet();
+        }
+
+        @Override
+        public void onThreadCacheMissEvent(int size) {
+            threadCacheMisses.incrementAndGet();
+        }
+
+        @Override
+        public void onBufferLeakEvent(int size) {
+            bufferLeaks.incrementAndGet();
+        }
+
+        @Override
+        public void onArenaFragmentationEvent(int freeBytes,
+                int largestFreeBlockSize) {
+        }
     }
 }
@@ -405,5 +405,27 @@ public class ThreadLocalMemoryManagerTest extends AbstractThreadLocalMemoryManag
         public void onBufferReleaseToPoolEvent(int size) {
             LOGGER.log(Level.INFO, "releaseBufferToPoolEvent: {0}", size);
         }
+
+        @Override
+        public void onThreadCacheHitEvent(int size) {
+            LOGGER.log(Level.INFO, "threadCacheHitEvent: {0}", size);
+        }
+
+        @Override
+        public void onThreadCacheMissEvent(int size) {
+            LOGGER.log(Level.INFO, "threadCacheMissEvent: {0}", size);
+        }
+
+        @Override
+        public void onBufferLeakEvent(int size) {
+            LOGGER.log(Level.INFO, "bufferLeakEvent: {0}", size);
+        }
+
+        @Override
+        public void onArenaFragmentationEvent(int freeBytes,
+                int largestFreeBlockSize) {
+            LOGGER.log(Level.INFO, "arenaFragmentationEvent: {0}/{1}",
+                    new Object[] {freeBytes, largestFreeBlockSize});
+        }
     }
 }
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SelectableChannel;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.CompletionHandler;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.impl.FutureImpl;
+import org.glassfish.grizzly.nio.transport.TCPNIOServerConnection;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.utils.EchoFilter;
+import org.glassfish.grizzly.utils.Futures;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link LoadAwareConnectionDistributor} tests.
+ */
+public class LoadAwareConnectionDistributorTest {
+
+    @Test
+    public void testLoadAwareChannelDistribution() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setLoadAwareChannelDistribution(true)
+                .setSelectorRunnersCount(4)
+                .build();
+        assertTrue(transport.getNIOChannelDistributor()
+                instanceof LoadAwareConnectionDistributor);
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new EchoFilter())
+                .build());
+
+        final Socket[] sockets = new Socket[32];
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            final int port = ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+            transport.start();
+
+            for (int i = 0; i < sockets.length; i++) {
+                sockets[i] = new Socket("localhost", port);
+                sockets[i].setSoTimeout(10000);
+            }
+
+            for (Socket socket : sockets) {
+                socket.getOutputStream().write(1);
+                assertEquals(1, socket.getInputStream().read());
+            }
+
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (SelectorRunner runner : transport.getSelectorRunners()) {
+                final int keys = runner.getRegisteredKeysCount();
+                min = Math.min(min, keys);
+                max = Math.max(max, keys);
+            }
+
+            // 32 client connections + 1 server connection, the runners'
+            // busy ratio may skew the distribution a bit
+            assertTrue("Uneven distribution: min=" + min + " max=" + max,
+                    min >= sockets.length / 8 && max <= sockets.length / 2);
+        } finally {
+            for (Socket socket : sockets) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLoadAwareConnectionMigration() throws Exception {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setSelectorRunnersCount(4)
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new EchoFilter())
+                .build());
+
+        // register all the connections with the same SelectorRunner
+        transport.setNIOChannelDistributor(
+                new AbstractNIOConnectionDistributor(transport) {
+                    @Override
+                    public void registerChannel(final SelectableChannel channel,
+                            final int interestOps, final Object attachment)
+                            throws IOException {
+                        transport.getSelectorHandler().registerChannel(
+                                getTransportSelectorRunners()[0],
+                                channel, interestOps, attachment);
+                    }
+
+                    @Override
+                    public void registerChannelAsync(final SelectableChannel channel,
+                            final int interestOps, final Object attachment,
+                            final CompletionHandler<RegisterChannelResult> completionHandler) {
+                        transport.getSelectorHandler().registerChannelAsync(
+                                getTransportSelectorRunners()[0],
+                                channel, interestOps, attachment, completionHandler);
+                    }
+
+                    @Override
+                    public void registerServiceChannelAsync(final SelectableChannel channel,
+                            final int interestOps, final Object attachment,
+                            final CompletionHandler<RegisterChannelResult> completionHandler) {
+                        registerChannelAsync(channel, interestOps, attachment,
+                                completionHandler);
+                    }
+                });
+
+        final Socket[] sockets = new Socket[32];
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            final int port = ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+            transport.start();
+
+            for (int i = 0; i < sockets.length; i++) {
+                sockets[i] = new Socket("localhost", port);
+                sockets[i].setSoTimeout(10000);
+                sockets[i].getOutputStream().write(0);
+                assertEquals(0, sockets[i].getInputStream().read());
+            }
+
+            final SelectorRunner[] runners = transport.getSelectorRunners();
+            assertEquals(sockets.length + 1, runners[0].getRegisteredKeysCount());
+
+            final LoadAwareConnectionDistributor distributor =
+                    new LoadAwareConnectionDistributor(transport);
+            transport.setNIOChannelDistributor(distributor);
+
+            for (int round = 1; round <= 10; round++) {
+                distributor.rebalance();
+                awaitPendingTasks(transport);
+
+                // the connections must keep working while being moved
+                for (Socket socket : sockets) {
+                    socket.getOutputStream().write(round);
+                }
+
+                for (Socket socket : sockets) {
+                    assertEquals(round, socket.getInputStream().read());
+                }
+            }
+
+            assertTrue(distributor.getMigratedConnectionsCount() > 0);
+
+            int total = 0;
+            for (SelectorRunner runner : runners) {
+                final int keys = runner.getRegisteredKeysCount();
+                assertTrue("Not rebalanced: " + keys, keys < sockets.length / 2);
+                total += keys;
+            }
+
+            // the keys cancelled on the source runners must not be counted
+            assertEquals(sockets.length + 1, total);
+        } finally {
+            for (Socket socket : sockets) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+
+            transport.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits until the tasks, submitted to the {@link SelectorRunner}s so far,
+     * are executed. The runners are passed twice, so the registrations
+     * submitted by the migration tasks to the destination runners are
+     * executed as well.
+     */
+    private static void awaitPendingTasks(final TCPNIOTransport transport)
+            throws Exception {
+        for (int i = 0; i < 2; i++) {
+            for (SelectorRunner runner : transport.getSelectorRunners()) {
+                final FutureImpl<SelectorHandler.Task> future =
+                        Futures.createSafeFuture();
+                transport.getSelectorHandler().execute(runner,
+                        new SelectorHandler.Task() {
+                            @Override
+                            public boolean run() {
+                                return true;
+                            }
+                        }, Futures.toCompletionHandler(future));
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.nio.tmpselectors;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link VirtualThreadPoller} tests.
+ */
+public class VirtualThreadPollerTest {
+
+    private Pipe pipe;
+    private VirtualThreadPoller poller;
+    private ExecutorService executor;
+
+    @Before
+    public void before() throws Exception {
+        pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        pipe.sink().configureBlocking(false);
+        poller = new VirtualThreadPoller(SelectorProvider.provider());
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void after() throws Exception {
+        executor.shutdownNow();
+        poller.close();
+        pipe.source().close();
+        pipe.sink().close();
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception {
+        final long start = System.currentTimeMillis();
+        assertFalse(poller.await(pipe.source(), SelectionKey.OP_READ, 200));
+        assertTrue(System.currentTimeMillis() - start >= 150);
+    }
+
+    @Test
+    public void testTimedOutWaitIsDeregistered() throws Exception {
+        assertFalse(poller.await(pipe.source(), SelectionKey.OP_READ, 100));
+
+        // nobody waits for the channel anymore, so the poller drops the key
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (pipe.source().isRegistered()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(pipe.source().isRegistered());
+
+        // the channel can be waited for again
+        pipe.sink().write(ByteBuffer.wrap(new byte[] {1}));
+        assertTrue(poller.await(pipe.source(), SelectionKey.OP_READ, 5000));
+    }
+
+    @Test
+    public void testReadReady() throws Exception {
+        final Future<Boolean> result = executor.submit(awaitRead(0));
+
+        Thread.sleep(100);
+        assertFalse(result.isDone());
+
+        pipe.sink().write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+        assertTrue(result.get(10, TimeUnit.SECONDS));
+
+        // the channel is still readable, the next wait completes immediately
+        assertTrue(poller.await(pipe.source(), SelectionKey.OP_READ, 5000));
+    }
+
+    @Test
+    public void testWriteReady() throws Exception {
+        assertTrue(poller.await(pipe.sink(), SelectionKey.OP_WRITE, 5000));
+    }
+
+    @Test
+    public void testCloseReleasesWaiters() throws Exception {
+        final Future<Boolean> result = executor.submit(awaitRead(0));
+
+        Thread.sleep(100);
+        assertFalse(result.isDone());
+
+        poller.close();
+        result.get(10, TimeUnit.SECONDS);
+
+        // closed poller doesn't park
+        assertFalse(poller.await(pipe.source(), SelectionKey.OP_READ, 0));
+    }
+
+    private Callable<Boolean> awaitRead(final long timeoutMillis) {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return poller.await(pipe.source(), SelectionKey.OP_READ,
+                        timeoutMillis);
+            }
+        };
+    }
+}
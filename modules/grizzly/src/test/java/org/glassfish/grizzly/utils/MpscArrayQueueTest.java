@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link MpscArrayQueue}.
+ */
+public class MpscArrayQueueTest {
+
+    @Test
+    public void testOfferPollAcrossChunks() {
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(4);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(i));
+        }
+
+        assertEquals(10, queue.size());
+        assertEquals(10, queue.approximateSize());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.approximateSize());
+    }
+
+    @Test
+    public void testDrainStopsAtFirstMismatch() {
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(4);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+        }
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        assertEquals(6, queue.drain(i -> i < 6, drained::add, Integer.MAX_VALUE));
+        assertEquals(6, drained.size());
+        assertEquals(Integer.valueOf(6), queue.peek());
+
+        drained.clear();
+        assertEquals(2, queue.drain(i -> true, drained::add, 2));
+        assertEquals(Integer.valueOf(6), drained.get(0));
+        assertEquals(Integer.valueOf(7), drained.get(1));
+        assertEquals(2, queue.approximateSize());
+    }
+
+    @Test
+    public void testRemove() {
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(4);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+        }
+
+        assertTrue(queue.remove(Integer.valueOf(0)));
+        assertTrue(queue.remove(Integer.valueOf(5)));
+        assertTrue(queue.remove(Integer.valueOf(9)));
+        assertFalse(queue.remove(Integer.valueOf(5)));
+        assertEquals(7, queue.size());
+        assertEquals(7, queue.approximateSize());
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        queue.drain(i -> true, drained::add, Integer.MAX_VALUE);
+        assertEquals("[1, 2, 3, 4, 6, 7, 8]", drained.toString());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        final int producers = 4;
+        final int perProducer = 100000;
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(16);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+
+        final Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.offer(producer * perProducer + i);
+                    }
+                }
+            };
+            threads[p].start();
+        }
+
+        startLatch.countDown();
+
+        // per producer order has to be preserved
+        final int[] next = new int[producers];
+        final List<Integer> batch = new ArrayList<Integer>();
+        int received = 0;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer) {
+            assertTrue("Timeout", System.nanoTime() < deadline);
+            batch.clear();
+            received += queue.drain(i -> true, batch::add, 64);
+            for (Integer value : batch) {
+                final int producer = value / perProducer;
+                assertEquals(next[producer]++, value % perProducer);
+            }
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testConcurrentConsumers() throws Exception {
+        final int count = 200000;
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(16);
+        final AtomicIntegerArray taken = new AtomicIntegerArray(count);
+        final AtomicInteger received = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+
+        final Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int i = 0; i < count; i++) {
+                    queue.offer(i);
+                }
+            }
+        };
+
+        // the second consumer polls and removes elements concurrently with
+        // the draining one, like the thread closing a connection does
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                int i = 0;
+                while (received.get() < count) {
+                    final Integer value = queue.poll();
+                    if (value != null) {
+                        taken.incrementAndGet(value);
+                        received.incrementAndGet();
+                    }
+
+                    final Integer candidate = (i++ * 7) % count;
+                    if (queue.remove(candidate)) {
+                        taken.incrementAndGet(candidate);
+                        received.incrementAndGet();
+                    }
+                }
+            }
+        };
+
+        producer.start();
+        consumer.start();
+        startLatch.countDown();
+
+        final List<Integer> batch = new ArrayList<Integer>();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received.get() < count) {
+            assertTrue("Timeout", System.nanoTime() < deadline);
+            batch.clear();
+            queue.drain(i -> true, batch::add, 64);
+            for (Integer value : batch) {
+                taken.incrementAndGet(value);
+            }
+            received.addAndGet(batch.size());
+        }
+
+        producer.join();
+        consumer.join();
+
+        // every element has to be taken exactly once
+        assertEquals(count, received.get());
+        for (int i = 0; i < count; i++) {
+            assertEquals("Element " + i, 1, taken.get(i));
+        }
+
+        assertNull(queue.poll());
+        assertEquals(0, queue.approximateSize());
+    }
+}
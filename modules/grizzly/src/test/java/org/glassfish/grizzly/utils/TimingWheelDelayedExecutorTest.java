@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link TimingWheelDelayedExecutor}. The executor thread is not started,
+ * the wheel is moved by calling {@link TimingWheelDelayedExecutor#processQueues(long)}
+ * with the simulated time.
+ */
+public class TimingWheelDelayedExecutorTest {
+    private static final long TICK = 10;
+
+    private ExecutorService threadPool;
+    private TimingWheelDelayedExecutor executor;
+    private long startTime;
+
+    @Before
+    public void before() {
+        threadPool = Executors.newSingleThreadExecutor();
+        executor = new TimingWheelDelayedExecutor(threadPool, TICK,
+                TimeUnit.MILLISECONDS);
+        startTime = System.currentTimeMillis();
+        executor.processQueues(startTime);
+    }
+
+    @After
+    public void after() {
+        executor.destroy();
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    public void testExpirationOnEachLevel() {
+        final ElementWorker worker = new ElementWorker(true);
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(worker, new ElementResolver());
+
+        // the delays are chosen to hit the different wheel levels
+        final long[] delayTicks = {1, 5, 63, 64, 100, 4095, 5000, 300000};
+        final Element[] elements = new Element[delayTicks.length];
+        for (int i = 0; i < delayTicks.length; i++) {
+            elements[i] = new Element();
+            queue.add(elements[i], delayTicks[i] * TICK, TimeUnit.MILLISECONDS);
+        }
+
+        for (int i = 0; i < elements.length; i++) {
+            final long timeout = elements[i].timeoutMillis;
+            executor.processQueues(timeout - TICK);
+            assertEquals("Element #" + i + " expired too early",
+                    0, elements[i].expirations.get());
+
+            executor.processQueues(timeout + TICK);
+            assertEquals("Element #" + i + " hasn't expired",
+                    1, elements[i].expirations.get());
+        }
+
+        assertEquals(elements.length, worker.counter.get());
+    }
+
+    @Test
+    public void testPostponedTimeout() {
+        final ElementWorker worker = new ElementWorker(true);
+        final ElementResolver resolver = new ElementResolver();
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(worker, resolver);
+
+        final Element element = new Element();
+        queue.add(element, 10 * TICK, TimeUnit.MILLISECONDS);
+        final long timeout = element.timeoutMillis;
+
+        // postpone the timeout without notifying the queue
+        resolver.setTimeoutMillis(element, timeout + 200 * TICK);
+
+        executor.processQueues(timeout + TICK);
+        assertEquals(0, element.expirations.get());
+
+        executor.processQueues(timeout + 199 * TICK);
+        assertEquals(0, element.expirations.get());
+
+        executor.processQueues(timeout + 201 * TICK);
+        assertEquals(1, element.expirations.get());
+    }
+
+    @Test
+    public void testSuspendedTimeout() {
+        final ElementWorker worker = new ElementWorker(true);
+        final ElementResolver resolver = new ElementResolver();
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(worker, resolver);
+
+        final Element element = new Element();
+        queue.add(element, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        assertEquals(Long.MAX_VALUE, element.timeoutMillis);
+
+        executor.processQueues(startTime + 1000 * TICK);
+        assertEquals(0, element.expirations.get());
+
+        // the timeout is set directly using the resolver
+        final long timeout = startTime + 1005 * TICK;
+        resolver.setTimeoutMillis(element, timeout);
+
+        executor.processQueues(timeout - TICK);
+        assertEquals(0, element.expirations.get());
+
+        executor.processQueues(timeout + TICK);
+        assertEquals(1, element.expirations.get());
+    }
+
+    @Test
+    public void testRemoveAndAddAgain() {
+        final ElementWorker worker = new ElementWorker(true);
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(worker, new ElementResolver());
+
+        final Element element = new Element();
+        queue.add(element, 10 * TICK, TimeUnit.MILLISECONDS);
+        queue.remove(element);
+
+        executor.processQueues(startTime + TICK);
+        assertTrue(((TimingWheelDelayedExecutor.WheelDelayQueue) queue).entries.isEmpty());
+
+        executor.processQueues(startTime + 20 * TICK);
+        assertEquals(0, element.expirations.get());
+
+        // add twice, the element has to be expired once, using the last timeout
+        queue.add(element, 100 * TICK, TimeUnit.MILLISECONDS);
+        queue.add(element, 50 * TICK, TimeUnit.MILLISECONDS);
+        final long timeout = element.timeoutMillis;
+
+        executor.processQueues(timeout + TICK);
+        assertEquals(1, element.expirations.get());
+
+        executor.processQueues(timeout + 200 * TICK);
+        assertEquals(1, element.expirations.get());
+        assertEquals(1, worker.counter.get());
+    }
+
+    @Test
+    public void testWorkerRetry() {
+        final ElementWorker worker = new ElementWorker(false);
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(worker, new ElementResolver());
+
+        final Element element = new Element();
+        queue.add(element, 10 * TICK, TimeUnit.MILLISECONDS);
+        final long timeout = element.timeoutMillis;
+
+        executor.processQueues(timeout + TICK);
+        assertEquals(1, element.expirations.get());
+
+        // the worker asked to re-register the element
+        executor.processQueues(timeout + 2 * TICK);
+        assertEquals(2, element.expirations.get());
+
+        queue.destroy();
+        executor.processQueues(timeout + 3 * TICK);
+        assertEquals(2, element.expirations.get());
+    }
+
+    private static final class Element {
+        private volatile long timeoutMillis = DelayedExecutor.UNSET_TIMEOUT;
+        private final AtomicInteger expirations = new AtomicInteger();
+    }
+
+    private static final class ElementWorker
+            implements DelayedExecutor.Worker<Element> {
+        private final boolean isDone;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private ElementWorker(final boolean isDone) {
+            this.isDone = isDone;
+        }
+
+        @Override
+        public boolean doWork(final Element element) {
+            counter.incrementAndGet();
+            element.expirations.incrementAndGet();
+            return isDone;
+        }
+    }
+
+    private static final class ElementResolver
+            implements DelayedExecutor.Resolver<Element> {
+
+        @Override
+        public boolean removeTimeout(final Element element) {
+            element.timeoutMillis = DelayedExecutor.UNSET_TIMEOUT;
+            return true;
+        }
+
+        @Override
+        public long getTimeoutMillis(final Element element) {
+            return element.timeoutMillis;
+        }
+
+        @Override
+        public void setTimeoutMillis(final Element element,
+                final long timeoutMillis) {
+            element.timeoutMillis = timeoutMillis;
+        }
+    }
+}
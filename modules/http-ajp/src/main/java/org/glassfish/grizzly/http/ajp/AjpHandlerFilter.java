@@ -218,7 +218,19 @@ public class AjpHandlerFilter extends BaseFilter {
         final Connection connection = ctx.getConnection();
         final HttpPacket httpPacket = ctx.getMessage();
 
-        final Buffer encodedPacket = encodeHttpPacket(connection, httpPacket);
+        Buffer encodedPacket = encodeHttpPacket(connection, httpPacket);
+
+        if (!httpPacket.isHeader() && ((HttpContent) httpPacket).isLast()
+                && httpRequestInProcessAttr.remove(connection) != null) {
+            // the response is complete. Send the end response message along
+            // with the last chunk, because responses, which are not
+            // written by the HttpServerFilter (like file cache hits), don't
+            // fire the RESPONSE_COMPLETE_EVENT
+            encodedPacket = Buffers.appendBuffers(
+                    connection.getTransport().getMemoryManager(),
+                    encodedPacket, createEndResponse(connection));
+        }
+
         ctx.setMessage(encodedPacket);
 
         return ctx.getInvokeAction();
@@ -485,8 +497,10 @@ public class AjpHandlerFilter extends BaseFilter {
     }
 
     private void sendEndResponse(final FilterChainContext ctx) throws IOException {
-        final Connection connection = ctx.getConnection();
+        ctx.write(createEndResponse(ctx.getConnection()));
+    }
 
+    private static Buffer createEndResponse(final Connection connection) {
         final MemoryManager mm = connection.getTransport().getMemoryManager();
         final Buffer buffer = mm.allocate(6);
 
@@ -499,7 +513,7 @@ public class AjpHandlerFilter extends BaseFilter {
         buffer.flip();
         buffer.allowBufferDispose(true);
 
-        ctx.write(buffer);
+        return buffer;
     }
 
     private int extractType(final FilterChainContext ctx, final Buffer buffer) {
@@ -19,6 +19,7 @@ package org.glassfish.grizzly.http.ajp;
 import org.glassfish.grizzly.memory.Buffers;
 import java.io.IOException;
 import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.HeaderTemplate;
 import org.glassfish.grizzly.http.HttpRequestPacket;
 import org.glassfish.grizzly.http.HttpResponsePacket;
 import org.glassfish.grizzly.http.util.Ascii;
@@ -30,6 +31,7 @@ import org.glassfish.grizzly.memory.CompositeBuffer;
 import org.glassfish.grizzly.memory.MemoryManager;
 import org.glassfish.grizzly.ssl.SSLSupport;
 import static org.glassfish.grizzly.http.util.HttpCodecUtils.*;
+import static org.glassfish.grizzly.http.util.Constants.DEFAULT_HTTP_CHARSET;
 import org.glassfish.grizzly.http.util.HttpUtils;
 
 /**
@@ -430,10 +432,38 @@ final class AjpMessageUtils {
             }
 
             final int numHeaders = headers.size();
+            final HeaderTemplate headerTemplate =
+                    httpResponsePacket.getHeaderTemplate();
 
-            encodedBuffer = putShort(mm, encodedBuffer, numHeaders);
+            if (headerTemplate != null) {
+                // the template headers override the same-named MimeHeaders ones
+                headerTemplate.markSerialized(headers);
+
+                int numSerializedHeaders = 0;
+                for (int i = 0; i < numHeaders; i++) {
+                    if (headers.isSerialized(i)) {
+                        numSerializedHeaders++;
+                    }
+                }
+
+                encodedBuffer = putShort(mm, encodedBuffer,
+                        headerTemplate.size() + numHeaders - numSerializedHeaders);
+
+                for (int i = 0; i < headerTemplate.size(); i++) {
+                    encodedBuffer = putBytes(mm, encodedBuffer,
+                            headerTemplate.getName(i).getBytes(DEFAULT_HTTP_CHARSET));
+                    encodedBuffer = putBytes(mm, encodedBuffer,
+                            headerTemplate.getValue(i).getBytes(DEFAULT_HTTP_CHARSET));
+                }
+            } else {
+                encodedBuffer = putShort(mm, encodedBuffer, numHeaders);
+            }
 
             for (int i = 0; i < numHeaders; i++) {
+                if (headerTemplate != null && headers.isSerialized(i)) {
+                    continue;
+                }
+
                 final DataChunk headerName = headers.getName(i);
                 encodedBuffer = putBytes(mm, encodedBuffer, headerName, tempBuffer);
 
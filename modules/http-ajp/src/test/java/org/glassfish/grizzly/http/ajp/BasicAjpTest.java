@@ -16,6 +16,8 @@
 
 package org.glassfish.grizzly.http.ajp;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -25,6 +27,7 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.Connection;
@@ -35,10 +38,17 @@ import org.glassfish.grizzly.filterchain.FilterChainBuilder;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.http.HeaderTemplate;
 import org.glassfish.grizzly.http.server.HttpHandler;
 import org.glassfish.grizzly.http.server.NetworkListener;
 import org.glassfish.grizzly.http.server.Request;
 import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.server.StaticHttpHandler;
+import org.glassfish.grizzly.http.server.filecache.FileCache;
+import org.glassfish.grizzly.http.server.filecache.FileCacheEntry;
+import org.glassfish.grizzly.http.server.filecache.FileCacheProbe;
+import org.glassfish.grizzly.http.util.Header;
+import org.glassfish.grizzly.http.util.MimeHeaders;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
 import org.glassfish.grizzly.memory.Buffers;
@@ -613,6 +623,105 @@ public class BasicAjpTest extends AjpTestBase {
         }
     }
     
+    @Test
+    public void testFileCacheHeaders() throws Exception {
+        final File file = File.createTempFile("ajpfilecache", ".txt");
+        file.deleteOnExit();
+        final FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write("Hello AJP file cache".getBytes());
+        } finally {
+            fos.close();
+        }
+
+        final AtomicInteger cacheHits = new AtomicInteger();
+        httpServer.getServerConfiguration().getMonitoringConfig()
+                .getFileCacheConfig().addProbes(new FileCacheProbe.Adapter() {
+            @Override
+            public void onEntryHitEvent(FileCache fileCache, FileCacheEntry entry) {
+                cacheHits.incrementAndGet();
+            }
+        });
+
+        startHttpServer(new StaticHttpHandler(file.getParent()), "/");
+
+        final AjpForwardRequestPacket headersPacket =
+                new AjpForwardRequestPacket("GET", "/" + file.getName(), 80, PORT);
+        headersPacket.addHeader("Host", "localhost:80");
+        final byte[] requestBytes = headersPacket.toByteArray();
+
+        // the first response is served by the StaticHttpHandler
+        send(requestBytes);
+        final MimeHeaders expectedHeaders = readResponseHeaders();
+        assertEquals(0, cacheHits.get());
+        assertNotNull(expectedHeaders.getHeader(Header.ETag));
+        assertNotNull(expectedHeaders.getHeader(Header.LastModified));
+
+        // the second one is served from the file cache
+        send(requestBytes);
+        final MimeHeaders headers = readResponseHeaders();
+        assertEquals(1, cacheHits.get());
+        assertEquals(expectedHeaders.getHeader(Header.Server),
+                headers.getHeader(Header.Server));
+        assertEquals(expectedHeaders.getHeader(Header.ETag),
+                headers.getHeader(Header.ETag));
+        assertEquals(expectedHeaders.getHeader(Header.LastModified),
+                headers.getHeader(Header.LastModified));
+    }
+
+    @Test
+    public void testHeaderTemplate() throws Exception {
+        final HeaderTemplate template = HeaderTemplate.builder()
+                .header(Header.Server, "Template")
+                .header("X-Template", "1")
+                .build();
+
+        startHttpServer(new HttpHandler() {
+
+            @Override
+            public void service(Request request, Response response) throws Exception {
+                response.setHeader(Header.Server, "Overridden");
+                response.setHeader("X-Response", "2");
+                response.getResponse().setHeaderTemplate(template);
+            }
+
+        });
+
+        final AjpForwardRequestPacket headersPacket =
+                new AjpForwardRequestPacket("GET", "/myresource", 80, PORT);
+        headersPacket.addHeader("Host", "localhost:80");
+
+        send(headersPacket.toByteArray());
+        final MimeHeaders headers = readResponseHeaders();
+        assertEquals("Template", headers.getHeader(Header.Server));
+        assertEquals("1", headers.getHeader("X-Template"));
+        assertEquals("2", headers.getHeader("X-Response"));
+
+        int serverHeadersCount = 0;
+        for (int i = 0; i < headers.size(); i++) {
+            if (headers.getName(i).equalsIgnoreCase(Header.Server.toString())) {
+                serverHeadersCount++;
+            }
+        }
+        assertEquals(1, serverHeadersCount);
+    }
+
+    /**
+     * Reads the AJP response and returns its headers.
+     */
+    private MimeHeaders readResponseHeaders() throws IOException {
+        AjpResponse ajpResponse = Utils.parseResponse(readAjpMessage());
+        assertEquals(AjpConstants.JK_AJP13_SEND_HEADERS, ajpResponse.getType());
+        assertEquals(200, ajpResponse.getResponseCode());
+        final MimeHeaders headers = ajpResponse.getHeaders();
+
+        do {
+            ajpResponse = Utils.parseResponse(readAjpMessage());
+        } while (ajpResponse.getType() != AjpConstants.JK_AJP13_END_RESPONSE);
+
+        return headers;
+    }
+
     @SuppressWarnings({"unchecked"})
     private Future<Buffer> send(String host, int port, Buffer request) throws Exception {
         final FutureImpl<Buffer> future = SafeFutureImpl.create();
@@ -137,8 +137,11 @@ public class Utils {
                 final int size = AjpMessageUtils.readShort(buffer, pos);
                 pos += 2;
 
+                final int oldPos = buffer.position();
+                buffer.position(pos);
                 body = new byte[size];
-                System.arraycopy(buffer, pos, body, 0, size);
+                buffer.get(body, 0, size);
+                buffer.position(oldPos);
                 pos += size;
                 
                 pos ++;
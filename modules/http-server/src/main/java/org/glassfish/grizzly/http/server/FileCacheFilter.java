@@ -23,6 +23,7 @@ import java.nio.channels.FileChannel;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.CompletionHandler;
 import org.glassfish.grizzly.EmptyCompletionHandler;
 import org.glassfish.grizzly.FileTransfer;
 import org.glassfish.grizzly.Grizzly;
@@ -32,11 +33,13 @@ import org.glassfish.grizzly.WriteResult;
 import org.glassfish.grizzly.filterchain.BaseFilter;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.http.HttpCodecFilter;
 import org.glassfish.grizzly.http.HttpContent;
 import org.glassfish.grizzly.http.HttpContext;
 import org.glassfish.grizzly.http.HttpRequestPacket;
 import org.glassfish.grizzly.http.HttpResponsePacket;
 import org.glassfish.grizzly.http.Method;
+import org.glassfish.grizzly.http.Protocol;
 import org.glassfish.grizzly.http.server.filecache.FileCache;
 import org.glassfish.grizzly.http.server.filecache.FileCache.CacheType;
 import org.glassfish.grizzly.http.server.filecache.FileCacheEntry;
@@ -107,7 +110,9 @@ public class FileCacheFilter extends BaseFilter {
                     return flush(ctx);
                 }
                 
-                return fileCache.isFileSendEnabled() && !request.isSecure()
+                // FileTransfer is supported by the TLS layer, but not by HTTP/2
+                return fileCache.isFileSendEnabled()
+                        && request.getProtocol() != Protocol.HTTP_2_0
                         ? sendFileZeroCopy(ctx, response, cacheEntry,
                             isServeCompressed)
                         : sendFileUsingBuffers(ctx, response, cacheEntry,
@@ -174,22 +179,27 @@ public class FileCacheFilter extends BaseFilter {
             final HttpResponsePacket response, final FileCacheEntry cacheEntry,
             final boolean isServeCompressed) {
         
-        // flush response
-        ctx.write(response);
-
-        // send-file
         final FileTransfer f = new FileTransfer(
                 cacheEntry.getFile(isServeCompressed),
                 0, cacheEntry.getFileSize(isServeCompressed));
-        ctx.write(f, new EmptyCompletionHandler<WriteResult>() {
+        final CompletionHandler<WriteResult> completionHandler =
+                new EmptyCompletionHandler<WriteResult>() {
             @Override
             public void failed(Throwable throwable) {
                 LOGGER.log(Level.FINE, "Error reported during file-send entry: " +
                         cacheEntry, throwable);
             }
-        });
+        };
+
+        // flush response along with the file
+        HttpCodecFilter.attachFileTransfer(response, f, completionHandler);
+        ctx.write(response);
+
+        if (HttpCodecFilter.detachFileTransfer(response) != null) {
+            // send-file
+            ctx.write(f, completionHandler);
+        }
 
-        
         return flush(ctx);
     }
     
@@ -67,6 +67,7 @@ import org.glassfish.grizzly.threadpool.ThreadPoolProbe;
 import org.glassfish.grizzly.utils.DelayedExecutor;
 import org.glassfish.grizzly.utils.Futures;
 import org.glassfish.grizzly.utils.IdleTimeoutFilter;
+import org.glassfish.grizzly.utils.TimingWheelDelayedExecutor;
 
 
 /**
@@ -107,6 +108,12 @@ public class HttpServer {
 
     volatile DelayedExecutor delayedExecutor;
 
+    /**
+     * {@link DelayedExecutor} shared by the listeners, which have the
+     * timing wheel enabled. Created lazily.
+     */
+    private volatile DelayedExecutor timingWheelDelayedExecutor;
+
     protected volatile GrizzlyJmxManager jmxManager;
 
     protected volatile Object managementObject;
@@ -421,6 +428,12 @@ public class HttpServer {
             delayedExecutor.stop();
             delayedExecutor.destroy();
             delayedExecutor = null;
+
+            if (timingWheelDelayedExecutor != null) {
+                timingWheelDelayedExecutor.stop();
+                timingWheelDelayedExecutor.destroy();
+                timingWheelDelayedExecutor = null;
+            }
             
             stopAuxThreadPool();
 
@@ -613,6 +626,8 @@ public class HttpServer {
     private void configureListener(final NetworkListener listener) {
         FilterChain chain = listener.getFilterChain();
         if (chain == null) {
+            final DelayedExecutor listenerDelayedExecutor =
+                    obtainDelayedExecutor(listener);
             final FilterChainBuilder builder = FilterChainBuilder.stateless();
             builder.add(new TransportFilter());
             if (listener.isSecure()) {
@@ -658,13 +673,13 @@ public class HttpServer {
                     serverConfig.getMonitoringConfig().getHttpConfig().getProbes());
             builder.add(httpServerCodecFilter);
             
-            builder.add(new IdleTimeoutFilter(delayedExecutor,
+            builder.add(new IdleTimeoutFilter(listenerDelayedExecutor,
                     listener.getKeepAlive().getIdleTimeoutInSeconds(),
                     TimeUnit.SECONDS));
             
             final Transport transport = listener.getTransport();
             final FileCache fileCache = listener.getFileCache();
-            fileCache.initialize(delayedExecutor);
+            fileCache.initialize(listenerDelayedExecutor);
             final FileCacheFilter fileCacheFilter = new FileCacheFilter(fileCache);
             fileCache.getMonitoringConfig().addProbes(
                     serverConfig.getMonitoringConfig().getFileCacheConfig().getProbes());
@@ -696,7 +711,7 @@ public class HttpServer {
             
             final HttpServerFilter httpServerFilter = new HttpServerFilter(
                     config,
-                    delayedExecutor);
+                    listenerDelayedExecutor);
             httpServerFilter.setHttpHandler(httpHandlerChain);
             
             httpServerFilter.getMonitoringConfig().addProbes(
@@ -720,7 +735,7 @@ public class HttpServer {
 
                 if (threadPoolConfig != null) {
                     threadPoolConfig.setTransactionTimeout(
-                            delayedExecutor,
+                            listenerDelayedExecutor,
                             transactionTimeout,
                             TimeUnit.SECONDS);
                 }
@@ -778,6 +793,21 @@ public class HttpServer {
 
     }
 
+    private DelayedExecutor obtainDelayedExecutor(final NetworkListener listener) {
+        if (!listener.isTimingWheelEnabled()) {
+            return delayedExecutor;
+        }
+
+        if (timingWheelDelayedExecutor == null) {
+            timingWheelDelayedExecutor =
+                    new TimingWheelDelayedExecutor(auxExecutorService);
+            timingWheelDelayedExecutor.start();
+        }
+
+        return timingWheelDelayedExecutor;
+    }
+
+
     private void configureAuxThreadPool() {
         final AtomicInteger threadCounter = new AtomicInteger();
 
@@ -96,6 +96,11 @@ public class NetworkListener {
      * The time, in seconds, for which a request must complete processing.
      */
     private int transactionTimeout = -1;
+    /**
+     * Flag indicating whether the timing wheel {@link org.glassfish.grizzly.utils.DelayedExecutor}
+     * has to be used for this listener's timeouts.
+     */
+    private boolean timingWheelEnabled;
 
     /**
      * The network port range to which the <code>HttpServer<code> will bind to
@@ -671,6 +676,77 @@ public class NetworkListener {
         return fileCache;
     }
 
+    /**
+     * @return the number of server channels (acceptors), which accept
+     *  connections for this listener.
+     *
+     * @see TCPNIOTransport#getServerAcceptorsCount()
+     */
+    public int getServerAcceptorsCount() {
+        return transport.getServerAcceptorsCount();
+    }
+
+    /**
+     * Sets the number of server channels (acceptors), which are bound with
+     * SO_REUSEPORT to this listener's address, each accepting connections on
+     * its own selector thread. Has to be set before the listener is started.
+     *
+     * @param serverAcceptorsCount the number of server channels (acceptors).
+     *
+     * @see TCPNIOTransport#setServerAcceptorsCount(int)
+     */
+    public void setServerAcceptorsCount(final int serverAcceptorsCount) {
+        transport.setServerAcceptorsCount(serverAcceptorsCount);
+    }
+
+    /**
+     * @return <tt>true</tt>, if this listener's connections scatter each read
+     *  into several chunks of a composite buffer.
+     *
+     * @see TCPNIOTransport#isScatteringReads()
+     * @since 2.4.5
+     */
+    public boolean isScatteringReads() {
+        return transport.isScatteringReads();
+    }
+
+    /**
+     * Enables or disables the scattering reads, so large request bodies are
+     * read into several (pooled) chunks of a composite buffer, and never
+     * copied or reallocated. Has to be set before the listener is started.
+     *
+     * @param scatteringReads <tt>true</tt> to enable the scattering reads.
+     *
+     * @see TCPNIOTransport#setScatteringReads(boolean)
+     * @since 2.4.5
+     */
+    public void setScatteringReads(final boolean scatteringReads) {
+        transport.setScatteringReads(scatteringReads);
+    }
+
+    /**
+     * @return the size of the chunks the scattering reads are performed into.
+     *
+     * @see TCPNIOTransport#getScatteringReadChunkSize()
+     * @since 2.4.5
+     */
+    public int getScatteringReadChunkSize() {
+        return transport.getScatteringReadChunkSize();
+    }
+
+    /**
+     * Sets the size of the chunks the scattering reads are performed into.
+     * Has to be set before the listener is started.
+     *
+     * @param scatteringReadChunkSize the chunk size.
+     *
+     * @see TCPNIOTransport#setScatteringReadChunkSize(int)
+     * @since 2.4.5
+     */
+    public void setScatteringReadChunkSize(final int scatteringReadChunkSize) {
+        transport.setScatteringReadChunkSize(scatteringReadChunkSize);
+    }
+
     /**
      * @return the maximum size, in bytes, of all data waiting to be written to the associated {@link Connection}.
      *  If not explicitly set, the value will be -1 which effectively disables
@@ -1147,6 +1223,35 @@ public class NetworkListener {
         this.transactionTimeout = transactionTimeout;
     }
 
+    /**
+     * @return <tt>true</tt> if the idle, suspend, file cache and transaction
+     *  timeouts of this listener are tracked by a
+     *  {@link org.glassfish.grizzly.utils.TimingWheelDelayedExecutor},
+     *  or <tt>false</tt> if the default {@link org.glassfish.grizzly.utils.DelayedExecutor}
+     *  is used.
+     *
+     * @since 2.4.5
+     */
+    public boolean isTimingWheelEnabled() {
+        return timingWheelEnabled;
+    }
+
+    /**
+     * Enables or disables the {@link org.glassfish.grizzly.utils.TimingWheelDelayedExecutor}
+     * to track the idle, suspend, file cache and transaction timeouts of this
+     * listener. The timing wheel costs O(1) per tick regardless of the number
+     * of tracked connections, which is beneficial for listeners with a large
+     * number of (mostly idle) connections.
+     * The option has to be set before the {@link HttpServer} is started.
+     *
+     * @param timingWheelEnabled <tt>true</tt> to use the timing wheel
+     *
+     * @since 2.4.5
+     */
+    public void setTimingWheelEnabled(final boolean timingWheelEnabled) {
+        this.timingWheelEnabled = timingWheelEnabled;
+    }
+
     /**
      * @see org.glassfish.grizzly.http.server.ServerFilterConfiguration#isSendFileEnabled()
      *
@@ -29,6 +29,7 @@ import org.glassfish.grizzly.WriteHandler;
 import org.glassfish.grizzly.filterchain.Filter;
 import org.glassfish.grizzly.filterchain.FilterChain;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.http.Protocol;
 import org.glassfish.grizzly.http.server.filecache.FileCache;
 import org.glassfish.grizzly.http.io.NIOOutputStream;
 import org.glassfish.grizzly.http.io.OutputBuffer;
@@ -99,7 +100,8 @@ public abstract class StaticHttpHandlerBase extends HttpHandler {
         final long length = file.length();
         response.setContentLengthLong(length);
         response.addDateHeader(Header.Date, System.currentTimeMillis());
-        if (!response.isSendFileEnabled() || response.getRequest().isSecure()) {
+        if (!response.isSendFileEnabled()
+                || response.getRequest().getProtocol() == Protocol.HTTP_2_0) {
             sendUsingBuffers(response, file);
         } else {
             sendZeroCopy(response, file);
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.glassfish.grizzly.http.util.Header;
+import org.glassfish.grizzly.http.util.HttpCodecUtils;
+import org.glassfish.grizzly.http.util.MimeHeaders;
+
+/**
+ * Immutable set of HTTP headers, which is encoded once and then shared by
+ * any number of {@link HttpHeader}s.
+ *
+ * Handlers, which send many responses with the same static headers (like
+ * <tt>Server</tt>, <tt>Content-Type</tt> or <tt>Cache-Control</tt>), can
+ * build a template once and pass it to
+ * {@link HttpHeader#setHeaderTemplate(HeaderTemplate)} for every response.
+ * The HTTP/1.x encoder copies the pre-encoded header block as is, and
+ * serializes only the packet's own {@link MimeHeaders} (<tt>Content-Length</tt>,
+ * <tt>Date</tt>, etc.) one by one.
+ *
+ * If the packet's {@link MimeHeaders} contain a header with the same name as
+ * one of the template headers, the template header takes precedence and the
+ * packet header is not serialized.
+ *
+ * Headers, which are computed by the codec for each message
+ * (<tt>Content-Length</tt>, <tt>Transfer-Encoding</tt>, <tt>Content-Encoding</tt>,
+ * <tt>Connection</tt>, <tt>Date</tt> and <tt>Upgrade</tt>), can not be
+ * a part of a template.
+ *
+ * @since 2.4.5
+ */
+public final class HeaderTemplate {
+
+    private static final Header[] RESTRICTED_HEADERS = {
+        Header.ContentLength, Header.TransferEncoding, Header.ContentEncoding,
+        Header.Connection, Header.Date, Header.Upgrade
+    };
+
+    private final String[] names;
+    private final String[] lowerCaseNames;
+    private final String[] values;
+
+    // "name: value\r\n" lines
+    private final byte[] encoded;
+
+    private HeaderTemplate(final List<String> names, final List<String> values) {
+        final int size = names.size();
+
+        this.names = names.toArray(new String[size]);
+        this.values = values.toArray(new String[size]);
+        lowerCaseNames = new String[size];
+
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            lowerCaseNames[i] = this.names[i].toLowerCase(Locale.ENGLISH);
+            length += this.names[i].length() + this.values[i].length() + 4;
+        }
+
+        encoded = new byte[length];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            HttpCodecUtils.toCheckedByteArray(this.names[i], encoded, offset);
+            offset += this.names[i].length();
+            encoded[offset++] = ':';
+            encoded[offset++] = ' ';
+            HttpCodecUtils.toCheckedByteArray(this.values[i], encoded, offset);
+            offset += this.values[i].length();
+            encoded[offset++] = '\r';
+            encoded[offset++] = '\n';
+        }
+    }
+
+    /**
+     * @return a new {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of headers in the template
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param n the header index
+     * @return the name of the n-th header as it was passed to the {@link Builder}
+     */
+    public String getName(final int n) {
+        return names[n];
+    }
+
+    /**
+     * @param n the header index
+     * @return the lower-cased name of the n-th header
+     */
+    public String getLowerCaseName(final int n) {
+        return lowerCaseNames[n];
+    }
+
+    /**
+     * @param n the header index
+     * @return the value of the n-th header
+     */
+    public String getValue(final int n) {
+        return values[n];
+    }
+
+    /**
+     * @param name the header name
+     * @return <tt>true</tt> if the template contains a header with the given
+     *         (case-insensitive) name, or <tt>false</tt> otherwise
+     */
+    public boolean contains(final String name) {
+        for (String lowerCaseName : lowerCaseNames) {
+            if (lowerCaseName.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Marks all the {@link MimeHeaders} headers, which are overridden by this
+     * template, as serialized, so encoders skip them.
+     *
+     * @param mimeHeaders the packet headers
+     */
+    public void markSerialized(final MimeHeaders mimeHeaders) {
+        for (String lowerCaseName : lowerCaseNames) {
+            int idx = 0;
+            while ((idx = mimeHeaders.indexOf(lowerCaseName, idx)) != -1) {
+                mimeHeaders.setSerialized(idx++, true);
+            }
+        }
+    }
+
+    /**
+     * @return the pre-encoded header lines, which must not be modified
+     */
+    byte[] getEncoded() {
+        return encoded;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(encoded.length + 16);
+        sb.append("HeaderTemplate{");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append('=').append(values[i]);
+        }
+
+        return sb.append('}').toString();
+    }
+
+    /**
+     * <tt>HeaderTemplate</tt> builder.
+     */
+    public static final class Builder {
+        private final List<String> names = new ArrayList<String>();
+        private final List<String> values = new ArrayList<String>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the header to the template.
+         *
+         * @param name the header name
+         * @param value the header value
+         * @return this <tt>Builder</tt>
+         *
+         * @throws IllegalArgumentException if the header is computed by the
+         *         codec for each message, so it can't be a part of a template
+         */
+        public Builder header(final String name, final String value) {
+            if (name == null || value == null) {
+                throw new NullPointerException("Header name and value can't be null");
+            }
+
+            for (Header restricted : RESTRICTED_HEADERS) {
+                if (restricted.toString().equalsIgnoreCase(name)) {
+                    throw new IllegalArgumentException("Header " + name
+                            + " can't be a part of a HeaderTemplate");
+                }
+            }
+
+            names.add(name);
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Adds the header to the template.
+         *
+         * @param header the header
+         * @param value the header value
+         * @return this <tt>Builder</tt>
+         *
+         * @throws IllegalArgumentException if the header is computed by the
+         *         codec for each message, so it can't be a part of a template
+         */
+        public Builder header(final Header header, final String value) {
+            return header(header.toString(), value);
+        }
+
+        /**
+         * @return a new {@link HeaderTemplate}
+         */
+        public HeaderTemplate build() {
+            return new HeaderTemplate(names, values);
+        }
+    }
+}
@@ -22,8 +22,12 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.CompletionHandler;
 import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.FileTransfer;
 import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.WriteResult;
+import org.glassfish.grizzly.attributes.Attribute;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.http.util.Ascii;
@@ -72,6 +76,14 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
 
     private final static Logger LOGGER = Grizzly.logger(HttpCodecFilter.class);
     
+    /**
+     * The {@link FileTransfer}, which has to be written right after the
+     * {@link HttpHeader} it is attached to.
+     */
+    private static final Attribute<FileTransferAttachment> FILE_TRANSFER_ATTR =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(
+            HttpCodecFilter.class.getName() + ".file-transfer");
+
     private final static byte[] CHUNKED_ENCODING_BYTES =
             Constants.CHUNKED_ENCODING.getBytes(ASCII_CHARSET);
     /**
@@ -205,6 +217,18 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
      */
     protected abstract boolean onHttpPacketParsed(HttpHeader httpHeader, FilterChainContext ctx);
 
+    /**
+     * Callback method, called when {@link HttpPacket} parsing has been
+     * completed and the input already contains (a part of) the next,
+     * pipelined, HTTP message.
+     *
+     * @param httpHeader {@link HttpHeader}, which represents parsed HTTP packet header
+     * @param ctx processing context.
+     */
+    void onPipelinedHttpPacket(final HttpHeader httpHeader,
+            final FilterChainContext ctx) {
+    }
+
 
     /**
      * Callback invoked when the HTTP message header parsing is complete.
@@ -703,6 +727,7 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
 
             ctx.setMessage(emptyContent);
             if (input.remaining() > 0) {
+                onPipelinedHttpPacket(httpHeader, ctx);
                 return ctx.getInvokeAction(input);
             }
             return ctx.getInvokeAction();
@@ -781,6 +806,11 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
                 } else if (eol == -2) { // not enough data
                     return false;
                 }
+
+                if (parseHeaderLineFromBytes(httpHeader, mimeHeaders,
+                        parsingState, input, end)) {
+                    continue;
+                }
             }
 
             if (!parseHeaderFromBytes(httpHeader, mimeHeaders, parsingState, input, end)) {
@@ -790,6 +820,89 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         } while (true);
     }
 
+    /**
+     * Parses a single line header in one pass, if the entire line and the
+     * first byte of the next line are available. The line end is located
+     * using a word-at-a-time CR/LF search, so the header value is not
+     * examined byte by byte.
+     *
+     * If the line is incomplete or has to be handled by the state machine
+     * (multi-line header, CR not followed by LF, no colon), the method returns
+     * <tt>false</tt> leaving the parsing offset untouched, and the header gets
+     * parsed by {@link #parseHeaderFromBytes}.
+     * Like the state machine, the method rejects a header name, which has a
+     * non-token character, by throwing {@link IllegalStateException}.
+     */
+    private boolean parseHeaderLineFromBytes(final HttpHeader httpHeader,
+            final MimeHeaders mimeHeaders, final HeaderParsingState parsingState,
+            final byte[] input, final int end) {
+        final int arrayOffs = parsingState.arrayOffset;
+
+        final int limit = Math.min(end, arrayOffs + parsingState.packetLimit);
+        final int start = arrayOffs + parsingState.offset;
+
+        final int eol = Buffers.indexOf(input, start, limit,
+                Constants.CR, Constants.LF);
+        if (eol == -1) {
+            return false;
+        }
+
+        int lf = eol;
+        if (input[eol] == Constants.CR) {
+            lf++;
+            if (lf >= limit || input[lf] != Constants.LF) {
+                return false;
+            }
+        }
+
+        // the first byte of the next line tells if the header is multi-line
+        if (lf + 1 >= limit || isSpaceOrTab(input[lf + 1])) {
+            return false;
+        }
+
+        int colon = start;
+        while (colon < eol) {
+            final byte b = input[colon];
+            if (b == Constants.COLON) {
+                break;
+            } else if ((b >= Constants.A) && (b <= Constants.Z)) {
+                if (!preserveHeaderCase) {
+                    input[colon] = (byte) (b - Constants.LC_OFFSET);
+                }
+            } else if (!isTokenChar(b)) {
+                throw new IllegalStateException(
+                        "Invalid character in HTTP header name");
+            }
+
+            colon++;
+        }
+
+        if (colon == eol) {
+            return false;
+        }
+
+        int valueStart = colon + 1;
+        while (valueStart < eol && isSpaceOrTab(input[valueStart])) {
+            valueStart++;
+        }
+
+        int valueEnd = eol;
+        while (valueEnd > valueStart && input[valueEnd - 1] == Constants.SP) {
+            valueEnd--;
+        }
+
+        parsingState.headerValueStorage =
+                mimeHeaders.addValue(input, start, colon - start);
+        finalizeKnownHeaderNames(httpHeader, parsingState, input,
+                start, colon);
+        finalizeKnownHeaderValues(httpHeader, parsingState, input,
+                valueStart, valueEnd);
+        parsingState.headerValueStorage.setBytes(input, valueStart, valueEnd);
+        parsingState.offset = lf + 1 - arrayOffs;
+
+        return true;
+    }
+
     protected boolean parseHeaderFromBytes(final HttpHeader httpHeader,
             final MimeHeaders mimeHeaders, final HeaderParsingState parsingState,
             final byte[] input, final int end) {
@@ -880,6 +993,9 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
                     b -= Constants.LC_OFFSET;
                 }
                 input[offset] =  b;
+            } else if (!isTokenChar(b)) {
+                throw new IllegalStateException(
+                        "Invalid character in HTTP header name");
             }
 
             offset++;
@@ -1159,6 +1275,9 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
                     b -= Constants.LC_OFFSET;
                 }
                 input.put(offset, b);
+            } else if (!isTokenChar(b)) {
+                throw new IllegalStateException(
+                        "Invalid character in HTTP header name");
             }
 
             offset++;
@@ -1342,6 +1461,9 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
             final HttpContent decodedContent = decodeContent(ctx, httpContent);
             if (isLast) {
                 onHttpPacketParsed(httpHeader, ctx);
+                if (hasRemainder) {
+                    onPipelinedHttpPacket(httpHeader, ctx);
+                }
             }
             if (decodedContent != null) {
                 HttpProbeNotifier.notifyContentChunkParse(this, connection, decodedContent);
@@ -1472,6 +1594,24 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
                 // transform HttpPacket into Buffer
                 final Buffer output = encodeHttpPacket(ctx, input);
 
+                final FileTransferAttachment attachment = input.isHeader()
+                        ? FILE_TRANSFER_ATTR.remove((HttpHeader) input)
+                        : null;
+                if (attachment != null) {
+                    // gather the serialized header with the file content, so
+                    // they could be written by a single write operation
+                    final FileTransfer fileTransfer = attachment.fileTransfer;
+                    if (output != null) {
+                        HttpProbeNotifier.notifyDataSent(this, connection, output);
+                        fileTransfer.setHeader(output);
+                    }
+
+                    ctx.setMessage(fileTransfer);
+                    ctx.getTransportContext().setCompletionHandler(
+                            attachment.completionHandler);
+                    return ctx.getInvokeAction();
+                }
+
                 if (output != null) {
                     HttpProbeNotifier.notifyDataSent(this, connection, output);
 
@@ -1490,6 +1630,50 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         return ctx.getInvokeAction();
     }
     
+    /**
+     * Attaches the {@link FileTransfer} to the {@link HttpHeader}, so once the
+     * header is serialized by a <tt>HttpCodecFilter</tt> - the file content
+     * will be written right after the header, using a single
+     * {@link FileTransfer} write operation.
+     * The passed {@link CompletionHandler} will be notified once the
+     * {@link FileTransfer} is written.
+     *
+     * If the header is not serialized by a <tt>HttpCodecFilter</tt> (for
+     * example HTTP/2 or AJP is used) the attachment remains untouched and has
+     * to be {@link #detachFileTransfer(HttpHeader) detached} by the caller.
+     *
+     * @param httpHeader the {@link HttpHeader}
+     * @param fileTransfer the {@link FileTransfer} to be written after the header
+     * @param completionHandler {@link CompletionHandler} to be notified,
+     *          once the {@link FileTransfer} is written
+     * 
+     * @since 2.4.5
+     */
+    public static void attachFileTransfer(final HttpHeader httpHeader,
+            final FileTransfer fileTransfer,
+            final CompletionHandler<WriteResult> completionHandler) {
+        FILE_TRANSFER_ATTR.set(httpHeader,
+                new FileTransferAttachment(fileTransfer, completionHandler));
+    }
+
+    /**
+     * Detaches the {@link FileTransfer}, which was previously attached using
+     * {@link #attachFileTransfer(HttpHeader, FileTransfer, CompletionHandler)},
+     * but hasn't been written yet.
+     *
+     * @param httpHeader the {@link HttpHeader}
+     * @return the detached {@link FileTransfer}, or <tt>null</tt> if there's
+     *          no attached {@link FileTransfer}, or it has been already
+     *          written together with the header
+     * 
+     * @since 2.4.5
+     */
+    public static FileTransfer detachFileTransfer(final HttpHeader httpHeader) {
+        final FileTransferAttachment attachment =
+                FILE_TRANSFER_ATTR.remove(httpHeader);
+        return attachment != null ? attachment.fileTransfer : null;
+    }
+
     /**
      * The method is called, when a peer sends an upgrade HTTP packet
      * (either request or response).
@@ -1580,10 +1764,16 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
             encodedBuffer = put(memoryManager, encodedBuffer, CRLF_BYTES);
             onInitialLineEncoded(httpHeader, ctx);
 
+            final MimeHeaders mimeHeaders = httpHeader.getHeaders();
+            final HeaderTemplate headerTemplate = httpHeader.getHeaderTemplate();
+            if (headerTemplate != null) {
+                encodedBuffer = encodeHeaderTemplate(memoryManager,
+                        encodedBuffer, headerTemplate, mimeHeaders);
+            }
+
             encodedBuffer = encodeKnownHeaders(memoryManager, encodedBuffer,
                     httpHeader);
 
-            final MimeHeaders mimeHeaders = httpHeader.getHeaders();
             final byte[] tempEncodingBuffer = httpHeader.getTempHeaderEncodingBuffer();
             encodedBuffer = encodeMimeHeaders(memoryManager, encodedBuffer, mimeHeaders, tempEncodingBuffer);
             onHttpHeadersEncoded(httpHeader, ctx);
@@ -1685,6 +1875,19 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         return buffer;
     }
     
+    /**
+     * Copies the pre-encoded {@link HeaderTemplate} lines to the buffer and
+     * marks the {@link MimeHeaders} headers, overridden by the template,
+     * as serialized.
+     */
+    protected static Buffer encodeHeaderTemplate(final MemoryManager memoryManager,
+                                                 final Buffer buffer,
+                                                 final HeaderTemplate headerTemplate,
+                                                 final MimeHeaders mimeHeaders) {
+        headerTemplate.markSerialized(mimeHeaders);
+        return put(memoryManager, buffer, headerTemplate.getEncoded());
+    }
+
     protected static Buffer encodeMimeHeaders(final MemoryManager memoryManager,
                                               Buffer buffer,
                                               final MimeHeaders mimeHeaders,
@@ -1997,6 +2200,17 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
     }
 
     // ---------------------------------------------------------- Nested Classes
+
+    private static final class FileTransferAttachment {
+        private final FileTransfer fileTransfer;
+        private final CompletionHandler<WriteResult> completionHandler;
+
+        private FileTransferAttachment(final FileTransfer fileTransfer,
+                final CompletionHandler<WriteResult> completionHandler) {
+            this.fileTransfer = fileTransfer;
+            this.completionHandler = completionHandler;
+        }
+    }
     
     public static final class HeaderParsingState {
         public int packetLimit;
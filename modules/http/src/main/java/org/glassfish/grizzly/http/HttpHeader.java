@@ -100,6 +100,11 @@ public abstract class HttpHeader extends HttpPacket
      */
     private boolean chunkingAllowed;
 
+    /**
+     * Pre-encoded headers to be serialized along with the {@link MimeHeaders}.
+     */
+    private HeaderTemplate headerTemplate;
+
     public HttpHeader() {
         this(new MimeHeaders());
     }
@@ -372,6 +377,33 @@ public abstract class HttpHeader extends HttpPacket
         this.isIgnoreContentModifiers = isIgnoreContentModifiers;
     }
 
+    /**
+     * @return the {@link HeaderTemplate}, which will be serialized along with
+     *         this header's {@link MimeHeaders}, or <tt>null</tt> if none
+     *
+     * @since 2.4.5
+     */
+    public HeaderTemplate getHeaderTemplate() {
+        return headerTemplate;
+    }
+
+    /**
+     * Sets the {@link HeaderTemplate}, whose pre-encoded headers will be
+     * serialized along with this header's {@link MimeHeaders}.
+     * The template headers override the {@link MimeHeaders} headers with the
+     * same names. They are not added to the {@link MimeHeaders}, so
+     * {@link #getHeader(String)} and {@link #containsHeader(String)} don't see
+     * them.
+     *
+     * @param headerTemplate the {@link HeaderTemplate}, or <tt>null</tt> to
+     *        serialize the {@link MimeHeaders} only
+     *
+     * @since 2.4.5
+     */
+    public void setHeaderTemplate(final HeaderTemplate headerTemplate) {
+        this.headerTemplate = headerTemplate;
+    }
+
     /**
      * Makes sure content-length header is present.
      *
@@ -868,6 +900,7 @@ public abstract class HttpHeader extends HttpPacket
         isExpectContent = true;
         upgrade.recycle();
         isIgnoreContentModifiers = false;
+        headerTemplate = null;
         if (headerBuffer != null) {
             headerBuffer.dispose();
             headerBuffer = null;
@@ -883,7 +916,7 @@ public abstract class HttpHeader extends HttpPacket
     }
 
     private final String handleGetSpecialHeader(final String name) {
-        return ((isSpecialHeader(name)) ? getValueBasedOnHeader(name) : null);
+        return ((isSpecialHeader(name)) ? getValueBasedOnHeader(Header.find(name)) : null);
     }
 
     private final String handleGetSpecialHeader(final Header header) {
@@ -891,11 +924,11 @@ public abstract class HttpHeader extends HttpPacket
     }
 
     private final boolean handleSetSpecialHeaders(final String name, final String value) {
-        return isSpecialHeaderSet(name) && setValueBasedOnHeader(name, value);
+        return isSpecialHeaderSet(name) && setValueBasedOnHeader(Header.find(name), value);
     }
 
     private final boolean handleSetSpecialHeaders(final String name, final HeaderValue value) {
-        return isSpecialHeaderSet(name) && setValueBasedOnHeader(name, value.get());
+        return isSpecialHeaderSet(name) && setValueBasedOnHeader(Header.find(name), value.get());
     }
 
     private final boolean handleSetSpecialHeaders(final Header header, final String value) {
@@ -944,53 +977,6 @@ public abstract class HttpHeader extends HttpPacket
         return null;
     }
 
-    private String getValueBasedOnHeader(final String name) {
-        if (Header.ContentType.toString().equalsIgnoreCase(name)) {
-            final String value = getContentType();
-            if (value != null) {
-                return value;
-            }
-        } else if (Header.ContentLength.toString().equalsIgnoreCase(name)) {
-            final long value = getContentLength();
-            if (value >= 0) {
-                return Long.toString(value);
-            }
-        } else if (Header.Upgrade.toString().equalsIgnoreCase(name)) {
-            return getUpgrade();
-        }
-        return null;
-    }
-
-
-    /**
-     * Set internal fields for special header names.
-     * Called from set/addHeader.
-     * Return true if the header is special, no need to set the header.
-     */
-    private boolean setValueBasedOnHeader(final String name, final String value) {
-        if (Header.ContentType.toString().equalsIgnoreCase(name)) {
-            setContentType(value);
-            return true;
-        } else if (Header.ContentLength.toString().equalsIgnoreCase(name)) {
-            headers.removeHeader(Header.TransferEncoding);
-            setChunked(false);
-            return setContentLenth(value);
-        } else if (Header.Upgrade.toString().equalsIgnoreCase(name)) {
-            setUpgrade(value);
-        } else if (Header.TransferEncoding.toString().equalsIgnoreCase(name)) {
-            if ("chunked".equalsIgnoreCase(value)) {
-                setContentLengthLong(-1);
-                setChunked(true);
-            }
-            return true;
-        }
-        //if (name.equalsIgnoreCase("Content-Language")) {
-        //    // TODO XXX XXX Need to construct Locale or something else
-        //}
-        return false;
-    }
-
-
     /**
      * Set internal fields for special header names.
      * Called from set/addHeader.
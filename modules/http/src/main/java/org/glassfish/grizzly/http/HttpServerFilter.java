@@ -31,6 +31,7 @@ import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.http.util.MimeHeaders;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.NIOConnection;
 import org.glassfish.grizzly.utils.DelayedExecutor;
 
 import java.io.IOException;
@@ -60,9 +61,26 @@ public class HttpServerFilter extends HttpCodecFilter {
     public static final FilterChainEvent RESPONSE_COMPLETE_EVENT =
             new HttpEvents.ResponseCompleteEvent();
 
+    /**
+     * The default max time (in microseconds) a pipelined response may be held
+     * before being written, if pipelined responses corking is enabled.
+     *
+     * @since 2.4.5
+     */
+    public static final long DEFAULT_PIPELINE_CORK_MAX_DELAY_MICROS = 200;
+
+    /**
+     * The default amount of held pipelined responses bytes, which triggers
+     * the write, if pipelined responses corking is enabled.
+     *
+     * @since 2.4.5
+     */
+    public static final int DEFAULT_PIPELINE_CORK_MAX_BYTES = 64 * 1024;
+
     
     private final Attribute<ServerHttpRequestImpl> httpRequestInProcessAttr;
     private final Attribute<KeepAliveContext> keepAliveContextAttr;
+    private final Attribute<Boolean> pipelineCorkedAttr;
 
     private final DelayedExecutor.DelayQueue<KeepAliveContext> keepAliveQueue;
 
@@ -80,6 +98,12 @@ public class HttpServerFilter extends HttpCodecFilter {
     // for which HTTP spec doesn't clearly state whether they support payload.
     // Known "undefined" methods are: GET, HEAD, DELETE
     private boolean allowPayloadForUndefinedHttpMethods;
+
+    // pipelined responses corking settings
+    private boolean pipelinedResponseCorking;
+    private long pipelineCorkMaxDelayNanos =
+            TimeUnit.MICROSECONDS.toNanos(DEFAULT_PIPELINE_CORK_MAX_DELAY_MICROS);
+    private int pipelineCorkMaxBytes = DEFAULT_PIPELINE_CORK_MAX_BYTES;
     
     /**
      * Constructor, which creates <tt>HttpServerFilter</tt> instance
@@ -180,6 +204,8 @@ public class HttpServerFilter extends HttpCodecFilter {
                         createAttribute(HTTP_SERVER_REQUEST_ATTR_NAME);
         this.keepAliveContextAttr = Grizzly.DEFAULT_ATTRIBUTE_BUILDER.
                 createAttribute("HttpServerFilter.KeepAliveContext");
+        this.pipelineCorkedAttr = Grizzly.DEFAULT_ATTRIBUTE_BUILDER.
+                createAttribute("HttpServerFilter.PipelineCorked");
 
         keepAliveQueue = executor != null ?
                 executor.createDelayQueue(
@@ -239,6 +265,58 @@ public class HttpServerFilter extends HttpCodecFilter {
         this.allowPayloadForUndefinedHttpMethods = allowPayloadForUndefinedHttpMethods;
     }
 
+    /**
+     * @return <tt>true</tt> if responses to pipelined HTTP requests are
+     *         corked, or <tt>false</tt> otherwise
+     * @see #setPipelinedResponseCorking(boolean)
+     * @since 2.4.5
+     */
+    public boolean isPipelinedResponseCorking() {
+        return pipelinedResponseCorking;
+    }
+
+    /**
+     * Enables/disables corking of responses to pipelined HTTP requests.
+     * If enabled, once the filter detects pipelined requests on a
+     * {@link NIOConnection}, the connection is corked (see
+     * {@link NIOConnection#cork(long, TimeUnit, int)}) until the response to
+     * the last request in the pipeline is complete, so the responses are
+     * written using a single gathering write rather than one write per
+     * response.
+     *
+     * @param pipelinedResponseCorking <tt>true</tt> to cork responses to
+     *        pipelined requests, or <tt>false</tt> otherwise
+     * @since 2.4.5
+     */
+    public void setPipelinedResponseCorking(final boolean pipelinedResponseCorking) {
+        this.pipelinedResponseCorking = pipelinedResponseCorking;
+    }
+
+    /**
+     * Sets the limits the pipelined responses are held within, if pipelined
+     * responses corking is enabled.
+     *
+     * @param maxDelay the max time the first held response may wait before
+     *        being written
+     * @param timeUnit the {@link TimeUnit} of <tt>maxDelay</tt>
+     * @param maxBytes the amount of held bytes, which triggers the write
+     *
+     * @see #setPipelinedResponseCorking(boolean)
+     * @since 2.4.5
+     */
+    public void setPipelinedResponseCorkLimits(final long maxDelay,
+            final TimeUnit timeUnit, final int maxBytes) {
+        if (maxDelay <= 0) {
+            throw new IllegalArgumentException("maxDelay must be positive");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+
+        this.pipelineCorkMaxDelayNanos = timeUnit.toNanos(maxDelay);
+        this.pipelineCorkMaxBytes = maxBytes;
+    }
+
     
     // ----------------------------------------------------------- Parsing
     
@@ -738,6 +816,39 @@ public class HttpServerFilter extends HttpCodecFilter {
         return error;
     }
 
+    @Override
+    final void onPipelinedHttpPacket(final HttpHeader httpHeader,
+            final FilterChainContext ctx) {
+        if (!pipelinedResponseCorking) {
+            return;
+        }
+
+        ((ServerHttpRequestImpl) httpHeader).isPipelined = true;
+
+        final Connection connection = ctx.getConnection();
+        if (connection instanceof NIOConnection) {
+            final NIOConnection nioConnection = (NIOConnection) connection;
+            if (!nioConnection.isCorked()) {
+                nioConnection.cork(pipelineCorkMaxDelayNanos,
+                        TimeUnit.NANOSECONDS, pipelineCorkMaxBytes);
+                pipelineCorkedAttr.set(nioConnection, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Uncorks the {@link Connection} corked by {@link #onPipelinedHttpPacket},
+     * once the response to the last request in the pipeline is being completed.
+     */
+    private void uncorkPipelinedResponses(final Connection connection,
+            final HttpRequestPacket httpRequest) {
+        if (httpRequest instanceof ServerHttpRequestImpl
+                && !((ServerHttpRequestImpl) httpRequest).isPipelined
+                && pipelineCorkedAttr.remove(connection) != null) {
+            ((NIOConnection) connection).uncork();
+        }
+    }
+
     @Override
     protected void onInitialLineParsed(final HttpHeader httpHeader,
                                        final FilterChainContext ctx) {
@@ -815,6 +926,12 @@ public class HttpServerFilter extends HttpCodecFilter {
             }
         }
 
+        if (pipelinedResponseCorking && content != null && content.isLast()) {
+            // release the held responses, so they are written along with
+            // the last one
+            uncorkPipelinedResponses(ctx.getConnection(), response.getRequest());
+        }
+
         final Buffer encoded = super.encodeHttpPacket(ctx, header, content,
                 wasContentAlreadyEncoded);
         if (!isHeaderPacket) {
@@ -985,6 +1102,16 @@ public class HttpServerFilter extends HttpCodecFilter {
     @Override
     Buffer encodeInitialLine(HttpPacket httpPacket, Buffer output, MemoryManager memoryManager) {
         final HttpResponsePacket httpResponse = (HttpResponsePacket) httpPacket;
+        if (!httpResponse.isCustomReasonPhraseSet()) {
+            final byte[] statusLine = httpResponse.getHttpStatus()
+                    .getStatusLineBytes(httpResponse.getProtocol());
+            if (statusLine != null) {
+                // the CRLF is added by the caller
+                return put(memoryManager, output, statusLine, 0,
+                        statusLine.length - 2);
+            }
+        }
+
         output = put(memoryManager, output, httpResponse.getProtocol().getProtocolBytes());
         output = put(memoryManager, output, Constants.SP);
         output = put(memoryManager, output, httpResponse.getHttpStatus().getStatusBytes());
@@ -1038,6 +1165,10 @@ public class HttpServerFilter extends HttpCodecFilter {
                 final HttpContext context = HttpContext.get(ctx);
                 final HttpRequestPacket httpRequest = context.getRequest();
 
+                if (pipelinedResponseCorking) {
+                    uncorkPipelinedResponses(ctx.getConnection(), httpRequest);
+                }
+
                 if (allowKeepAlive) {
                     if (keepAliveQueue != null) {
                         final KeepAliveContext keepAliveContext =
@@ -1264,6 +1395,8 @@ public class HttpServerFilter extends HttpCodecFilter {
         private boolean contentTypeParsed;
         
         private boolean isHeaderParsed;
+        // true, if the request is followed by a pipelined request
+        private boolean isPipelined;
         private final HttpCodecFilter.HeaderParsingState headerParsingState;
         private final HttpCodecFilter.ContentParsingState contentParsingState;
         private final ProcessingState processingState;
@@ -1371,6 +1504,7 @@ public class HttpServerFilter extends HttpCodecFilter {
         protected void reset() {
             contentTypeParsed = false;
             isHeaderParsed = false;
+            isPipelined = false;
             headerParsingState.recycle();
             contentParsingState.recycle();
             processingState.recycle();
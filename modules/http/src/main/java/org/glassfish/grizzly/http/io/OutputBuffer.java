@@ -49,6 +49,7 @@ import org.glassfish.grizzly.WriteResult;
 import org.glassfish.grizzly.asyncqueue.AsyncQueueWriter;
 import org.glassfish.grizzly.asyncqueue.MessageCloner;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.http.HttpCodecFilter;
 import org.glassfish.grizzly.http.HttpContent;
 import org.glassfish.grizzly.http.HttpContent.Builder;
 import org.glassfish.grizzly.http.HttpContext;
@@ -635,11 +636,29 @@ public class OutputBuffer {
         // set Content-Encoding to identity to prevent compression
         outputHeader.setHeader(Header.ContentEncoding, HeaderValue.IDENTITY);
 
+        boolean isFileWritten = false;
         try {
-            flush(); // commit the headers, then send the file
+            doCommit();
+
+            if (!headersWritten) {
+                // let the codec write the headers and the file content together
+                HttpCodecFilter.attachFileTransfer(outputHeader, f, handler);
+                ctx.write(outputHeader, IS_BLOCKING);
+                headersWritten = true;
+
+                // null means the file has been written along with the headers
+                isFileWritten =
+                        HttpCodecFilter.detachFileTransfer(outputHeader) == null;
+
+                blockAfterWriteIfNeeded();
+            }
         } catch (IOException e) {
             if (handler != null) {
-                handler.failed(e);
+                // if the file has been written along with the headers -
+                // the handler is notified by that write
+                if (!isFileWritten) {
+                    handler.failed(e);
+                }
             } else {
                 if (LOGGER.isLoggable(Level.SEVERE)) {
                     LOGGER.log(Level.SEVERE,
@@ -653,9 +672,9 @@ public class OutputBuffer {
             return;
         }
 
-
-        
-        ctx.write(f, handler);
+        if (!isFileWritten) {
+            ctx.write(f, handler);
+        }
     }
 
     public void write(final byte[] b, final int off, final int len) throws IOException {
@@ -475,7 +475,13 @@ public class BufferChunk implements Chunk {
             return cachedString;
         }
 
-        cachedString = buffer.toStringContent(charset, start, end);
+        if (buffer.hasArray()) {
+            final int offset = buffer.arrayOffset();
+            cachedString = StringCache.toString(buffer.array(),
+                    offset + start, offset + end, charset);
+        } else {
+            cachedString = buffer.toStringContent(charset, start, end);
+        }
 
         cachedStringCharset = charset;
 
@@ -20,7 +20,6 @@ package org.glassfish.grizzly.http.util;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
-import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
@@ -581,7 +580,6 @@ public final class ByteChunk implements Chunk, Cloneable, Serializable {
         } else if (cachedString != null) {
             return cachedString;
         }
-//        return StringCache.toString(this);
         cachedString = toStringInternal();
         return cachedString;
     }
@@ -616,7 +614,7 @@ public final class ByteChunk implements Chunk, Cloneable, Serializable {
             return cachedString;
         }
 
-        cachedString = charset.decode(ByteBuffer.wrap(buff, start, end - start)).toString();
+        cachedString = StringCache.toString(buff, start, end, charset);
         cachedStringCharset = charset;
         
         return cachedString;
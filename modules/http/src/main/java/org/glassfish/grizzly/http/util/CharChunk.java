@@ -542,8 +542,7 @@ public final class CharChunk implements Chunk, Cloneable, Serializable {
         } else if (cachedString != null) {
             return cachedString;
         }
-//        return StringCache.toString(this);
-        cachedString = toStringInternal();
+        cachedString = StringCache.toString(this);
         return cachedString;
     }
 
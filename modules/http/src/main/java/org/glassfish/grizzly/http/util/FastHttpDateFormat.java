@@ -17,7 +17,6 @@
 
 package org.glassfish.grizzly.http.util;
 
-import java.io.UnsupportedEncodingException;
 import java.text.DateFormat;
 import java.text.FieldPosition;
 import java.text.ParseException;
@@ -29,9 +28,12 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import static org.glassfish.grizzly.http.util.HttpCodecUtils.*;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.utils.Charsets;
 
+import static org.glassfish.grizzly.http.util.HttpCodecUtils.*;
+
 /**
  * Utility class to generate HTTP dates.
  *
@@ -40,8 +42,6 @@ import org.glassfish.grizzly.utils.Charsets;
  */
 public final class FastHttpDateFormat {
 
-    private static final String ASCII_CHARSET_NAME = Charsets.ASCII_CHARSET.name();
-    
     private static final int CACHE_SIZE = 1000;
 
     private static final TimeZone GMT_TIME_ZONE = TimeZone.getTimeZone("GMT");
@@ -105,25 +105,15 @@ public final class FastHttpDateFormat {
         };
 
 
-    /**
-     * Instant on which the currentDate object was generated.
-     */
-    private static volatile long nextGeneration;
-
     private static final AtomicBoolean isGeneratingNow = new AtomicBoolean();
     
     private static final StringBuffer currentDateBuffer = new StringBuffer();
     
     /**
-     * Current formatted date as byte[].
+     * Current formatted date, replaced at most once a second.
      */
-    private static byte[] currentDateBytes;
-
-    /**
-     * Current formatted date.
-     */
-    private static String cachedStringDate;
-    private static volatile byte[] dateBytesForCachedStringDate;
+    private static volatile CurrentDate currentDate =
+            new CurrentDate(new byte[0], 0);
 
     
     /**
@@ -147,42 +137,56 @@ public final class FastHttpDateFormat {
      * Get the current date in HTTP format.
      */
     public static String getCurrentDate() {
-        final byte[] currentDateBytesNow = getCurrentDateBytes();
-        if (currentDateBytesNow != dateBytesForCachedStringDate) {
-            try {
-                cachedStringDate = new String(currentDateBytesNow, ASCII_CHARSET_NAME);
-                dateBytesForCachedStringDate = currentDateBytesNow;
-            } catch (UnsupportedEncodingException ignored) {
-                // should never reach this line
-            }
-        }
-        
-        return cachedStringDate;
+        return currentDate().string;
     }
 
     /**
      * Get the current date in HTTP format.
      */
     public static byte[] getCurrentDateBytes() {
+        return currentDate().bytes;
+    }
+
+    /**
+     * Get the current date in HTTP format as a read-only {@link Buffer}.
+     * The {@link Buffer} is shared by all the callers until the date changes,
+     * so its position and limit must not be modified; use the absolute
+     * <tt>get</tt> methods or {@link Buffer#duplicate()} to read it.
+     *
+     * @since 2.4.5
+     */
+    public static Buffer getCurrentDateBuffer() {
+        return currentDate().buffer;
+    }
+
+    /**
+     * Returns the current date, regenerating it if it is older than a second.
+     * Only one thread regenerates the date, the others keep using the previous
+     * one meanwhile, unless it is more than 5 seconds old.
+     */
+    private static CurrentDate currentDate() {
         final long now = System.currentTimeMillis();
-        final long diff = now - nextGeneration;
+        CurrentDate date = currentDate;
+        final long diff = now - date.nextGeneration;
         
         if (diff > 0 &&
                 (diff > 5000 ||
                     (!isGeneratingNow.get() &&
                      isGeneratingNow.compareAndSet(false, true)))) {
             synchronized (FORMAT) {
-                if (now > nextGeneration) {
+                date = currentDate;
+                if (now > date.nextGeneration) {
                     currentDateBuffer.setLength(0);
                     FORMATTER.formatTo(now, currentDateBuffer);
-                    currentDateBytes = toCheckedByteArray(currentDateBuffer);
-                    nextGeneration = now + 1000;
+                    date = new CurrentDate(
+                            toCheckedByteArray(currentDateBuffer), now + 1000);
+                    currentDate = date;
                 }
                 
                 isGeneratingNow.set(false);
             }
         }
-        return currentDateBytes;
+        return date;
     }
     
     /**
@@ -278,5 +282,21 @@ public final class FastHttpDateFormat {
         parseCache.put(key, value);
     }
 
-
+    /**
+     * Immutable snapshot of the formatted current date.
+     */
+    private static final class CurrentDate {
+        private final byte[] bytes;
+        private final String string;
+        private final Buffer buffer;
+        // instant, after which the date has to be regenerated
+        private final long nextGeneration;
+
+        private CurrentDate(final byte[] bytes, final long nextGeneration) {
+            this.bytes = bytes;
+            this.nextGeneration = nextGeneration;
+            string = new String(bytes, Charsets.ASCII_CHARSET);
+            buffer = Buffers.wrap(null, bytes).asReadOnlyBuffer();
+        }
+    }
 }
@@ -17,8 +17,7 @@
 package org.glassfish.grizzly.http.util;
 
 import java.util.Locale;
-import java.util.Map;
-import java.util.TreeMap;
+import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.utils.Charsets;
 
 /**
@@ -86,11 +85,31 @@ public enum Header {
 
     // ----------------------------------------------------------------- Statics
 
-    private static final Map<String,Header> VALUES = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    /*
+     * The headers are looked up using a perfect hash of the (lower case)
+     * first character, the (lower case) last character and the length of
+     * the name. The multiplier has been chosen so that none of the names
+     * collide, if a new header makes the static initializer fail - a new
+     * multiplier has to be found.
+     */
+    private static final int HASH_MULTIPLIER = 0xad91aa61;
+    private static final int HASH_BITS = 7;
+    private static final Header[] VALUES = new Header[1 << HASH_BITS];
+    private static final int MAX_LENGTH;
     static {
+        int maxLength = 0;
         for (final Header h : Header.values()) {
-            VALUES.put(h.toString(), h);
+            final byte[] name = h.headerNameLowerCaseBytes;
+            final int idx = hash(name[0], name[name.length - 1], name.length);
+            if (VALUES[idx] != null) {
+                throw new IllegalStateException("Header names " + VALUES[idx]
+                        + " and " + h + " have the same hash");
+            }
+            VALUES[idx] = h;
+            maxLength = Math.max(maxLength, name.length);
         }
+
+        MAX_LENGTH = maxLength;
     }
 
     // --------------------------------------------------------- Per Enum Fields
@@ -98,6 +117,10 @@ public enum Header {
 
     private final byte[] headerNameBytes;
     private final byte[] headerNameLowerCaseBytes;
+    // 0x20 for the letters of the name, 0 for the other characters, so
+    // (b | caseMask[i]) == headerNameLowerCaseBytes[i] is a case insensitive
+    // match of the byte b
+    private final byte[] caseMask;
     private final String headerName;
     private final String headerNameLowerCase;
     private final int length;
@@ -111,6 +134,12 @@ public enum Header {
         
         this.headerNameLowerCase = headerName.toLowerCase(Locale.ENGLISH);
         headerNameLowerCaseBytes = headerNameLowerCase.getBytes(Charsets.ASCII_CHARSET);
+        caseMask = new byte[headerNameLowerCaseBytes.length];
+        for (int i = 0; i < caseMask.length; i++) {
+            if (Ascii.isLower(headerNameLowerCaseBytes[i])) {
+                caseMask[i] = 0x20;
+            }
+        }
         
         length = headerNameBytes.length;
     }
@@ -204,11 +233,154 @@ public enum Header {
      */
     public static Header find(final String name) {
 
-        if (name == null || name.isEmpty()) {
+        if (name == null) {
+            return null;
+        }
+
+        final int length = name.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            return null;
+        }
+
+        final Header h = VALUES[hash(name.charAt(0), name.charAt(length - 1), length)];
+        return h != null && h.headerName.equalsIgnoreCase(name) ? h : null;
+
+    }
+
+    /**
+     * Returns the {@link Header} matching the name stored in the
+     * specified range of the byte array ignoring case considerations.
+     *
+     * @param bytes the byte array, which contains the header name.
+     * @param start the name start offset (inclusive).
+     * @param end the name end offset (exclusive).
+     *
+     * @return the <code>Header</code> for the specified name, or
+     *  <code>null</code> if no <code>Header</code> matches.
+     *
+     * @since 2.4.5
+     */
+    public static Header find(final byte[] bytes, final int start, final int end) {
+        final Header h = hashed(bytes, start, end);
+        return h != null && h.matches(bytes, start, end) ? h : null;
+    }
+
+    /**
+     * Returns the {@link Header} matching the name stored in the
+     * specified range of the {@link Buffer} ignoring case considerations.
+     *
+     * @param buffer the {@link Buffer}, which contains the header name.
+     * @param start the name start offset (inclusive).
+     * @param end the name end offset (exclusive).
+     *
+     * @return the <code>Header</code> for the specified name, or
+     *  <code>null</code> if no <code>Header</code> matches.
+     *
+     * @since 2.4.5
+     */
+    public static Header find(final Buffer buffer, final int start, final int end) {
+        final Header h = hashed(buffer, start, end);
+        return h != null && h.matches(buffer, start, end) ? h : null;
+    }
+
+    /**
+     * Returns the {@link Header} matching the name stored in the
+     * {@link DataChunk} ignoring case considerations.
+     *
+     * @param name the header name.
+     *
+     * @return the <code>Header</code> for the specified name, or
+     *  <code>null</code> if no <code>Header</code> matches.
+     *
+     * @since 2.4.5
+     */
+    public static Header find(final DataChunk name) {
+        switch (name.getType()) {
+            case Bytes: {
+                final ByteChunk bc = name.getByteChunk();
+                return find(bc.getBuffer(), bc.getStart(), bc.getEnd());
+            }
+            case Buffer: {
+                final BufferChunk bc = name.getBufferChunk();
+                return find(bc.getBuffer(), bc.getStart(), bc.getEnd());
+            }
+            case None:
+                return null;
+            default:
+                return find(name.toString());
+        }
+    }
+
+    /**
+     * Returns the only {@link Header}, which might match the name stored in
+     * the specified range of the byte array, the caller has to verify the
+     * name using {@link #matches(byte[], int, int)}.
+     */
+    static Header hashed(final byte[] bytes, final int start, final int end) {
+        final int length = end - start;
+        if (length <= 0 || length > MAX_LENGTH) {
+            return null;
+        }
+
+        return VALUES[hash(bytes[start], bytes[end - 1], length)];
+    }
+
+    /**
+     * Returns the only {@link Header}, which might match the name stored in
+     * the specified range of the {@link Buffer}, the caller has to verify
+     * the name using {@link #matches(Buffer, int, int)}.
+     */
+    static Header hashed(final Buffer buffer, final int start, final int end) {
+        final int length = end - start;
+        if (length <= 0 || length > MAX_LENGTH) {
             return null;
         }
-        return VALUES.get(name);
 
+        return VALUES[hash(buffer.get(start), buffer.get(end - 1), length)];
+    }
+
+    boolean matches(final byte[] bytes, final int start, final int end) {
+        final byte[] name = headerNameLowerCaseBytes;
+        if (name.length != end - start) {
+            return false;
+        }
+
+        final byte[] mask = caseMask;
+        for (int i = 0; i < name.length; i++) {
+            if ((bytes[start + i] | mask[i]) != name[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    boolean matches(final Buffer buffer, final int start, final int end) {
+        return BufferChunk.equalsIgnoreCaseLowerCase(buffer, start, end,
+                headerNameLowerCaseBytes);
+    }
+
+    boolean matches(final DataChunk name) {
+        switch (name.getType()) {
+            case Bytes: {
+                final ByteChunk bc = name.getByteChunk();
+                return matches(bc.getBuffer(), bc.getStart(), bc.getEnd());
+            }
+            case Buffer: {
+                final BufferChunk bc = name.getBufferChunk();
+                return matches(bc.getBuffer(), bc.getStart(), bc.getEnd());
+            }
+            case None:
+                return false;
+            default:
+                return headerName.equalsIgnoreCase(name.toString());
+        }
+    }
+
+    private static int hash(final int first, final int last, final int length) {
+        final int key = (Ascii.toLower(first) << 16)
+                | (Ascii.toLower(last) << 8) | (length & 0xff);
+        return (key * HASH_MULTIPLIER) >>> (32 - HASH_BITS);
     }
 
 }
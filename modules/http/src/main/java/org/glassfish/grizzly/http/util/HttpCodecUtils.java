@@ -32,6 +32,24 @@ import org.glassfish.grizzly.memory.MemoryManager;
 public class HttpCodecUtils {
     static final byte[] EMPTY_ARRAY = new byte[0];
     private static final int[] DEC = HexUtils.getDecBytes();
+
+    // the RFC 7230 token characters (tchar), which may be used in header names
+    private static final boolean[] TOKEN_CHARS = new boolean[256];
+
+    static {
+        for (int c = '0'; c <= '9'; c++) {
+            TOKEN_CHARS[c] = true;
+        }
+
+        for (int c = 'a'; c <= 'z'; c++) {
+            TOKEN_CHARS[c] = true;
+            TOKEN_CHARS[c - 'a' + 'A'] = true;
+        }
+
+        for (char c : "!#$%&'*+-.^_`|~".toCharArray()) {
+            TOKEN_CHARS[c] = true;
+        }
+    }
     
     public static void parseHost(final DataChunk hostDC,
                                  final DataChunk serverNameDC,
@@ -441,6 +459,20 @@ public class HttpCodecUtils {
     public static boolean isSpaceOrTab(final byte b) {
         return (b == Constants.SP || b == Constants.HT);
     }
+
+    /**
+     * Returns <tt>true</tt> if the byte is a token character (RFC 7230
+     * <tt>tchar</tt>), which may be used in a header name, or <tt>false</tt>
+     * otherwise.
+     *
+     * @param b the byte to check
+     * @return <tt>true</tt> if the byte is a token character
+     *
+     * @since 2.4.5
+     */
+    public static boolean isTokenChar(final byte b) {
+        return TOKEN_CHARS[b & 0xFF];
+    }
     
     /**
      * Converts the a {@link CharSequence} to a byte array, eliminating all the
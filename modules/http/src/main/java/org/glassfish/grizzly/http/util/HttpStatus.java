@@ -21,7 +21,7 @@ import org.glassfish.grizzly.utils.Charsets;
 import java.util.HashMap;
 import java.util.Map;
 import org.glassfish.grizzly.http.HttpResponsePacket;
-import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.http.Protocol;
 
 /**
  * This <code>enum</code> encapsulates the HTTP response status and
@@ -109,13 +109,40 @@ public class HttpStatus {
     private final int status;
     private final String reasonPhrase;
     private final byte[] reasonPhraseBytes;
+    private final String statusString;
     private final byte[] statusBytes;
+    // pre-encoded "HTTP/1.x <status> <reason phrase>\r\n" lines
+    private final byte[] http10StatusLineBytes;
+    private final byte[] http11StatusLineBytes;
 
     private HttpStatus(final int status, final String reasonPhrase) {
         this.status = status;
         this.reasonPhrase = reasonPhrase;
         reasonPhraseBytes = reasonPhrase.getBytes(Charsets.ASCII_CHARSET);
-        statusBytes = Integer.toString(status).getBytes(Charsets.ASCII_CHARSET);
+        statusString = Integer.toString(status);
+        statusBytes = statusString.getBytes(Charsets.ASCII_CHARSET);
+        http10StatusLineBytes = encodeStatusLine(Protocol.HTTP_1_0);
+        http11StatusLineBytes = encodeStatusLine(Protocol.HTTP_1_1);
+    }
+
+    private byte[] encodeStatusLine(final Protocol protocol) {
+        final byte[] protocolBytes = protocol.getProtocolBytes();
+        final byte[] line = new byte[protocolBytes.length
+                + statusBytes.length + reasonPhraseBytes.length + 4];
+
+        int offset = 0;
+        System.arraycopy(protocolBytes, 0, line, offset, protocolBytes.length);
+        offset += protocolBytes.length;
+        line[offset++] = Constants.SP;
+        System.arraycopy(statusBytes, 0, line, offset, statusBytes.length);
+        offset += statusBytes.length;
+        line[offset++] = Constants.SP;
+        System.arraycopy(reasonPhraseBytes, 0, line, offset, reasonPhraseBytes.length);
+        offset += reasonPhraseBytes.length;
+        line[offset++] = Constants.CR;
+        line[offset] = Constants.LF;
+
+        return line;
     }
 
     // ---------------------------------------------------------- Public Methods
@@ -139,6 +166,36 @@ public class HttpStatus {
         return statusBytes;
     }
 
+    /**
+     * @return the <code>String</code> status code, like "200".
+     *
+     * @since 2.4.5
+     */
+    public String getStatusString() {
+        return statusString;
+    }
+
+    /**
+     * Returns the pre-encoded status line including the trailing CRLF,
+     * like "HTTP/1.1 200 OK\r\n", for the given protocol. The returned array
+     * is shared and must not be modified.
+     *
+     * @param protocol the response protocol
+     * @return the status line bytes, or <code>null</code> if the protocol
+     *  is neither HTTP/1.0 nor HTTP/1.1
+     *
+     * @since 2.4.5
+     */
+    public byte[] getStatusLineBytes(final Protocol protocol) {
+        if (protocol == Protocol.HTTP_1_1) {
+            return http11StatusLineBytes;
+        } else if (protocol == Protocol.HTTP_1_0) {
+            return http10StatusLineBytes;
+        }
+
+        return null;
+    }
+
     /**
      * @return the {@link String} representation of the reason phrase.
      */
@@ -159,7 +216,8 @@ public class HttpStatus {
      * @param response the response to set the status and reason phrase on.
      */
     public void setValues(final HttpResponsePacket response) {
+        // the reason phrase comes from this HttpStatus, so the pre-encoded
+        // status line could be used
         response.setStatus(this);
-        response.setReasonPhrase(Buffers.wrap(null, reasonPhraseBytes));
     }
 }
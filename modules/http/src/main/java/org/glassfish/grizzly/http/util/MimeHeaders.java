@@ -126,6 +126,8 @@ servlet needs direct access to headers).
 
     public static DataChunk NOOP_CHUNK = new DataChunk.Immutable(null);
 
+    private static final int KNOWN_HEADERS_COUNT = Header.values().length;
+
     /**
      * The header fields.
      */
@@ -139,6 +141,18 @@ servlet needs direct access to headers).
 
     private int maxNumHeaders = MAX_NUM_HEADERS_DEFAULT;
 
+    /**
+     * The index (plus one) of the first field, whose name hashes to the
+     * known {@link Header}, indexed by the {@link Header} ordinal, or
+     * <tt>0</tt> if there is no such field.
+     */
+    private final int[] knownHeaderIndexes = new int[KNOWN_HEADERS_COUNT];
+    /**
+     * <tt>false</tt>, if the fields have been reordered and
+     * {@link #knownHeaderIndexes} have to be rebuilt.
+     */
+    private boolean knownHeaderIndexesValid = true;
+
     /**
      * The header names {@link Iterable}.
      */
@@ -175,8 +189,21 @@ servlet needs direct access to headers).
      * Clears all header fields.
      */
     public void clear() {
-        for (int i = 0; i < count; i++) {
-            headers[i].recycle();
+        if (knownHeaderIndexesValid) {
+            // only the headers of the current fields are registered
+            for (int i = 0; i < count; i++) {
+                final MimeHeaderField field = headers[i];
+                if (field.header != null) {
+                    knownHeaderIndexes[field.header.ordinal()] = 0;
+                }
+                field.recycle();
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                headers[i].recycle();
+            }
+            Arrays.fill(knownHeaderIndexes, 0);
+            knownHeaderIndexesValid = true;
         }
         count = 0;
         mark = 0;
@@ -226,6 +253,7 @@ servlet needs direct access to headers).
                 f = new MimeHeaderField();
                 headers[i] = f;
             }
+            f.setHeader(sourceField.header, false);
             if (sourceField.nameB.type == DataChunk.Type.Buffer) {
                 copyBufferChunk(sourceField.nameB, f.nameB);
             } else {
@@ -237,6 +265,7 @@ servlet needs direct access to headers).
                 f.valueB.set(sourceField.valueB);
             }
         }
+        knownHeaderIndexesValid = false;
 
     }
 
@@ -283,6 +312,20 @@ servlet needs direct access to headers).
         return n >= 0 && n < count ? headers[n].getValue() : null;
     }
 
+    /**
+     * Returns the {@link Header} the Nth header name matches, or null if the
+     * header name is not one of the known {@link Header}s or there is no
+     * such header.
+     *
+     * @param n the header index
+     * @return the {@link Header} the Nth header name matches.
+     *
+     * @since 2.4.5
+     */
+    public Header getKnownHeader(int n) {
+        return n >= 0 && n < count ? headers[n].getHeader() : null;
+    }
+
     /**
      * Get the header's "serialized" flag.
      *
@@ -322,13 +365,11 @@ servlet needs direct access to headers).
      * Find the index of a header with the given name.
      */
     public int indexOf(String name, int fromIndex) {
-        // We can use a hash - but it's not clear how much
-        // benefit you can get - there is an  overhead
-        // and the number of headers is small (4-5 ?)
-        // Another problem is that we'll pay the overhead
-        // of constructing the hashtable
+        final Header header = Header.find(name);
+        if (header != null) {
+            return indexOf(header, fromIndex);
+        }
 
-        // A custom search tree may be better
         for (int i = fromIndex; i < count; i++) {
             if (headers[i].getName().equalsIgnoreCase(name)) {
                 return i;
@@ -341,16 +382,23 @@ servlet needs direct access to headers).
      * Find the index of a header with the given name.
      */
     public int indexOf(final Header header, final int fromIndex) {
-        // We can use a hash - but it's not clear how much
-        // benefit you can get - there is an  overhead
-        // and the number of headers is small (4-5 ?)
-        // Another problem is that we'll pay the overhead
-        // of constructing the hashtable
-
-        // A custom search tree may be better
-        final byte[] bytes = header.getLowerCaseBytes();
-        for (int i = fromIndex; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
+        int i = fromIndex;
+
+        // The names are hashed at the time they're added, so the first field
+        // which might be the header is available in O(1)
+        if (i == 0) {
+            if (!knownHeaderIndexesValid) {
+                rebuildKnownHeaderIndexes();
+            }
+
+            i = knownHeaderIndexes[header.ordinal()] - 1;
+            if (i < 0) {
+                return -1;
+            }
+        }
+
+        for (; i < count; i++) {
+            if (headers[i].is(header)) {
                 return i;
             }
         }
@@ -420,7 +468,8 @@ servlet needs direct access to headers).
      * Adds a partially constructed field to the header.  This
      * field has not had its name or value initialized.
      */
-    private MimeHeaderField createHeader() {
+    private MimeHeaderField createHeader(final Header header,
+            final boolean isHeaderVerified) {
         if (maxNumHeaders >= 0 && count == maxNumHeaders) {
             throw new MaxHeaderCountExceededException();
         }
@@ -440,10 +489,29 @@ servlet needs direct access to headers).
         if ((mh = headers[count]) == null) {
             headers[count] = mh = new MimeHeaderField();
         }
+        mh.setHeader(header, isHeaderVerified);
         count++;
+
+        if (header != null && knownHeaderIndexesValid
+                && knownHeaderIndexes[header.ordinal()] == 0) {
+            knownHeaderIndexes[header.ordinal()] = count;
+        }
+
         return mh;
     }
 
+    private void rebuildKnownHeaderIndexes() {
+        Arrays.fill(knownHeaderIndexes, 0);
+        for (int i = 0; i < count; i++) {
+            final Header header = headers[i].header;
+            if (header != null && knownHeaderIndexes[header.ordinal()] == 0) {
+                knownHeaderIndexes[header.ordinal()] = i + 1;
+            }
+        }
+
+        knownHeaderIndexesValid = true;
+    }
+
     /** Create a new named header , return the MessageBytes
     container for the new value
      */
@@ -451,7 +519,7 @@ servlet needs direct access to headers).
         if (!isValidName(name)) {
             return NOOP_CHUNK;
         }
-        MimeHeaderField mh = createHeader();
+        MimeHeaderField mh = createHeader(Header.find(name), true);
         mh.getName().setString(name);
         return mh.getValue();
     }
@@ -463,7 +531,7 @@ servlet needs direct access to headers).
         if (!isValidName(header)) {
             return NOOP_CHUNK;
         }
-        MimeHeaderField mh = createHeader();
+        MimeHeaderField mh = createHeader(header, true);
         mh.getName().setBytes(header.toByteArray());
         return mh.getValue();
     }
@@ -474,10 +542,15 @@ servlet needs direct access to headers).
      */
     public DataChunk addValue(final byte[] buffer, final int startN,
             final int len) {
-        if (!isValidName(buffer)) {
+        // the name is only hashed here, it's compared with the Header's
+        // name when (and if) the header is looked up
+        final Header header = Header.hashed(buffer, startN, startN + len);
+        if (marked && header != null
+                && header.matches(buffer, startN, startN + len)
+                && !isValidName(header)) {
             return NOOP_CHUNK;
         }
-        MimeHeaderField mhf = createHeader();
+        MimeHeaderField mhf = createHeader(header, false);
         mhf.getName().setBytes(buffer, startN, startN + len);
         return mhf.getValue();
     }
@@ -488,10 +561,13 @@ servlet needs direct access to headers).
      */
     public DataChunk addValue(final Buffer buffer, final int startN,
             final int len) {
-        if (!isValidName(buffer)) {
+        final Header header = Header.hashed(buffer, startN, startN + len);
+        if (marked && header != null
+                && header.matches(buffer, startN, startN + len)
+                && !isValidName(header)) {
             return NOOP_CHUNK;
         }
-        MimeHeaderField mhf = createHeader();
+        MimeHeaderField mhf = createHeader(header, false);
         mhf.getName().setBuffer(buffer, startN, startN + len);
         return mhf.getValue();
     }
@@ -506,17 +582,25 @@ servlet needs direct access to headers).
         if (!isValidName(name)) {
             return NOOP_CHUNK;
         }
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCase(name)) {
-                for (int j = i + 1; j < count; j++) {
-                    if (headers[j].getName().equalsIgnoreCase(name)) {
-                        removeHeader(j--);
+        final Header header = Header.find(name);
+        if (header != null) {
+            final DataChunk value = setExistingValue(header);
+            if (value != null) {
+                return value;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (headers[i].getName().equalsIgnoreCase(name)) {
+                    for (int j = i + 1; j < count; j++) {
+                        if (headers[j].getName().equalsIgnoreCase(name)) {
+                            removeHeader(j--);
+                        }
                     }
+                    return headers[i].getValue();
                 }
-                return headers[i].getValue();
             }
         }
-        MimeHeaderField mh = createHeader();
+        MimeHeaderField mh = createHeader(header, true);
         mh.getName().setString(name);
         return mh.getValue();
     }
@@ -531,23 +615,35 @@ servlet needs direct access to headers).
         if (!isValidName(header)) {
             return NOOP_CHUNK;
         }
-        final byte[] bytes = header.getLowerCaseBytes();
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                for (int j = i + 1; j < count; j++) {
-                    if (headers[j].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                        removeHeader(j--);
-                    }
-                }
-                return headers[i].getValue();
-            }
+        final DataChunk value = setExistingValue(header);
+        if (value != null) {
+            return value;
         }
-        MimeHeaderField mh = createHeader();
+        MimeHeaderField mh = createHeader(header, true);
         mh.getName().setBytes(header.toByteArray());
 
         return mh.getValue();
     }
 
+    /**
+     * Removes all the fields of the given {@link Header}, except the first
+     * one, and returns the first field's value or <tt>null</tt> if
+     * there is no such field.
+     */
+    private DataChunk setExistingValue(final Header header) {
+        final int i = indexOf(header, 0);
+        if (i < 0) {
+            return null;
+        }
+
+        for (int j = i + 1; j < count; j++) {
+            if (headers[j].is(header)) {
+                removeHeader(j--);
+            }
+        }
+        return headers[i].getValue();
+    }
+
     //-------------------- Getting headers --------------------
     /**
      * Finds and returns a header field with the given name.  If no such
@@ -555,6 +651,11 @@ servlet needs direct access to headers).
      * in the header, an arbitrary one is returned.
      */
     public DataChunk getValue(String name) {
+        final Header header = Header.find(name);
+        if (header != null) {
+            return getValue(header);
+        }
+
         for (int i = 0; i < count; i++) {
             if (headers[i].getName().equalsIgnoreCase(name)) {
                 return headers[i].getValue();
@@ -569,13 +670,8 @@ servlet needs direct access to headers).
      * in the header, an arbitrary one is returned.
      */
     public DataChunk getValue(final Header header) {
-        final byte[] bytes = header.getLowerCaseBytes();
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                return headers[i].getValue();
-            }
-        }
-        return null;
+        final int i = indexOf(header, 0);
+        return i >= 0 ? headers[i].getValue() : null;
     }
 
     // bad shortcut - it'll convert to string ( too early probably,
@@ -600,6 +696,12 @@ servlet needs direct access to headers).
         // XXX
         // warning: rather sticky code; heavily tuned
 
+        final Header header = Header.find(name);
+        if (header != null) {
+            removeHeader(header);
+            return;
+        }
+
         for (int i = 0; i < count; i++) {
             if (headers[i].getName().equalsIgnoreCase(name)) {
                 removeHeader(i--);
@@ -609,8 +711,13 @@ servlet needs direct access to headers).
 
     public void removeHeader(final Header header) {
 
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCase(header.getBytes())) {
+        final int first = indexOf(header, 0);
+        if (first < 0) {
+            return;
+        }
+
+        for (int i = first; i < count; i++) {
+            if (headers[i].is(header)) {
                 removeHeader(i--);
             }
         }
@@ -665,8 +772,7 @@ servlet needs direct access to headers).
      */
     public void removeHeaderMatches(final Header header, final String regex) {
         for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(
-                    header.getLowerCaseBytes())
+            if (headers[i].is(header)
                     && getValue(i) != null
                     && getValue(i).toString() != null
                     && getValue(i).toString().matches(regex)) {
@@ -686,6 +792,7 @@ servlet needs direct access to headers).
         headers[idx] = headers[count - 1];
         headers[count - 1] = mh;
         count--;
+        knownHeaderIndexesValid = false;
     }
 
 
@@ -718,13 +825,6 @@ servlet needs direct access to headers).
         return (!marked || Arrays.binarySearch(INVALID_TRAILER_NAMES, name.getLowerCase()) < 0);
     }
 
-    private boolean isValidName(final byte[] name) {
-        return (!marked || Arrays.binarySearch(INVALID_TRAILER_NAMES, new String(name).toLowerCase()) < 0);
-    }
-
-    private boolean isValidName(final Buffer name) {
-        return (!marked || Arrays.binarySearch(INVALID_TRAILER_NAMES, name.toStringContent().toLowerCase()) < 0);
-    }
 
 }
 
@@ -856,6 +956,17 @@ final class MimeHeaderField {
     protected final DataChunk valueB = DataChunk.newInstance();
 
     private boolean isSerialized;
+
+    /**
+     * The {@link Header} the name hashes to, or <tt>null</tt>.
+     */
+    Header header;
+    /**
+     * The {@link Header} the name matches, valid if {@link #isHeaderVerified}.
+     */
+    private Header knownHeader;
+    private boolean isHeaderVerified;
+
     /**
      * Creates a new, uninitialized header field.
      */
@@ -864,6 +975,8 @@ final class MimeHeaderField {
 
     public void recycle() {
         isSerialized = false;
+        header = null;
+        knownHeader = null;
         nameB.recycle();
         valueB.recycle();
     }
@@ -876,6 +989,37 @@ final class MimeHeaderField {
         return valueB;
     }
 
+    /**
+     * @return the {@link Header} the name matches, or <tt>null</tt> if the
+     *  name is not one of the known {@link Header}s.
+     */
+    Header getHeader() {
+        if (!isHeaderVerified) {
+            knownHeader = header != null && header.matches(nameB) ? header : null;
+            isHeaderVerified = true;
+        }
+
+        return knownHeader;
+    }
+
+    /**
+     * @param header the {@link Header} the name hashes to.
+     * @param isHeaderVerified <tt>true</tt> if the name is known to match
+     *  the header.
+     */
+    void setHeader(final Header header, final boolean isHeaderVerified) {
+        this.header = header;
+        this.knownHeader = header;
+        this.isHeaderVerified = isHeaderVerified;
+    }
+
+    /**
+     * @return <tt>true</tt> if the name matches the given {@link Header}.
+     */
+    boolean is(final Header header) {
+        return this.header == header && getHeader() == header;
+    }
+
     public boolean isSerialized() {
         return isSerialized;
     }
@@ -17,29 +17,33 @@
 
 package org.glassfish.grizzly.http.util;
 
-import org.glassfish.grizzly.Grizzly;
-
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.TreeMap;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * This class implements a String cache for ByteChunk and CharChunk.
+ * This class implements a String cache for ByteChunk, BufferChunk and
+ * CharChunk.
+ *
+ * The cache is a bounded, two-way set associative hash table, which is read
+ * and updated without locks. Entries are admitted based on their recent
+ * access frequency, which is tracked by a small counting sketch whose
+ * counters are periodically halved, so the cache keeps adapting to the
+ * traffic instead of being trained once at startup. Only short values
+ * (see {@link #getMaxStringSize()}) are cached, which in practice means
+ * header names, common header values, methods and popular URIs.
+ *
+ * Cache hits, the common case, write no shared state except the striped
+ * statistics counters and, once in sixteen hits, the frequency sketch, so
+ * the cores don't contend for the same cache lines. The byte cache is
+ * disabled by default.
  *
  * @author Remy Maucherat
  */
 public final class StringCache {
 
-    /**
-     * Default Logger.
-     */
-    private final static Logger logger = Grizzly.logger(StringCache.class);
-    
-    
     // ------------------------------------------------------- Static Variables
 
     
@@ -54,62 +58,52 @@ public final class StringCache {
         ("true".equals(System.getProperty("tomcat.util.buf.StringCache.char.enabled", "false")));
 
     
-    static int trainThreshold =
-        Integer.parseInt(System.getProperty("tomcat.util.buf.StringCache.trainThreshold", "20000"));
-    
-
-    static int cacheSize =
-        Integer.parseInt(System.getProperty("tomcat.util.buf.StringCache.cacheSize", "200"));
-    
-
     /**
-     * Statistics hash map for byte chunk.
+     * The minimum number of recent occurrences of a value, before it's
+     * considered for caching, which keeps one-off values (session ids,
+     * unique URIs etc.) out of the cache.
      */
-    static final HashMap<ByteEntry, int[]> bcStats =
-        new HashMap<ByteEntry, int[]>(cacheSize);
+    static final int ADMISSION_FREQUENCY = 2;
+
 
-    
     /**
-     * toString count for byte chunk.
+     * Only one in <tt>HIT_SAMPLE_RATE</tt> cache hits is registered in the
+     * frequency sketch (with the weight of <tt>HIT_SAMPLE_RATE</tt>
+     * occurrences), so the hot values don't keep writing the shared counters.
      */
-    static int bcCount = 0;
-    
-    
-    /**
-     * Cache for byte chunk.
-     */
-    static ByteEntry[] bcCache = null;
+    static final int HIT_SAMPLE_RATE = 16;
+
+
+    static int cacheSize =
+        Integer.parseInt(System.getProperty("tomcat.util.buf.StringCache.cacheSize", "512"));
     
 
-    /**
-     * Statistics hash map for char chunk.
-     */
-    static final HashMap<CharEntry, int[]> ccStats =
-        new HashMap<CharEntry, int[]>(cacheSize);
+    static int maxStringSize =
+        Integer.parseInt(System.getProperty("tomcat.util.buf.StringCache.maxStringSize", "128"));
 
 
     /**
-     * toString count for char chunk.
+     * Cache for byte chunk.
      */
-    static int ccCount = 0;
+    static volatile Table<ByteEntry> bcCache = new Table<ByteEntry>(cacheSize);
     
 
     /**
      * Cache for char chunk.
      */
-    static CharEntry[] ccCache = null;
+    static volatile Table<CharEntry> ccCache = new Table<CharEntry>(cacheSize);
 
     
     /**
      * Access count.
      */
-    static int accessCount = 0;
+    static final LongAdder accessCount = new LongAdder();
     
 
     /**
      * Hit count.
      */
-    static int hitCount = 0;
+    static final LongAdder hitCount = new LongAdder();
     
 
     // ------------------------------------------------------------ Properties
@@ -124,13 +118,37 @@ public final class StringCache {
     
     
     /**
+     * Sets the maximum number of cached Strings (per chunk type), the value
+     * is rounded up to a power of two. The cache is reset.
+     *
      * @param cacheSize The cacheSize to set.
      */
     public static void setCacheSize(int cacheSize) {
         StringCache.cacheSize = cacheSize;
+        reset();
     }
 
     
+    /**
+     * @return the maximum length of the chunk, which could be cached.
+     *
+     * @since 2.4.5
+     */
+    public static int getMaxStringSize() {
+        return maxStringSize;
+    }
+
+
+    /**
+     * @param maxStringSize the maximum length of the chunk, which could be cached.
+     *
+     * @since 2.4.5
+     */
+    public static void setMaxStringSize(int maxStringSize) {
+        StringCache.maxStringSize = maxStringSize;
+    }
+
+
     /**
      * @return Returns the enabled.
      */
@@ -164,18 +182,23 @@ public final class StringCache {
     
     
     /**
-     * @return Returns the trainThreshold.
+     * @return always <tt>0</tt>, the cache doesn't have a training phase anymore.
+     *
+     * @deprecated the cache adapts to the traffic continuously.
      */
+    @Deprecated
     public static int getTrainThreshold() {
-        return trainThreshold;
+        return 0;
     }
     
     
     /**
-     * @param trainThreshold The trainThreshold to set.
+     * Does nothing, the cache doesn't have a training phase anymore.
+     *
+     * @deprecated the cache adapts to the traffic continuously.
      */
+    @Deprecated
     public static void setTrainThreshold(int trainThreshold) {
-        StringCache.trainThreshold = trainThreshold;
     }
 
     
@@ -183,7 +206,7 @@ public final class StringCache {
      * @return Returns the accessCount.
      */
     public static int getAccessCount() {
-        return accessCount;
+        return accessCount.intValue();
     }
     
     
@@ -191,481 +214,323 @@ public final class StringCache {
      * @return Returns the hitCount.
      */
     public static int getHitCount() {
-        return hitCount;
+        return hitCount.intValue();
     }
 
     
+    /**
+     * @return the ratio of cache hits to cache accesses since the last
+     *         {@link #reset()}, or <tt>0</tt> if the cache hasn't been accessed.
+     *
+     * @since 2.4.5
+     */
+    public static double getHitRatio() {
+        final long accesses = accessCount.sum();
+        return accesses == 0 ? 0 : (double) hitCount.sum() / accesses;
+    }
+
+
     // -------------------------------------------------- Public Static Methods
 
     
     public static void reset() {
-        hitCount = 0;
-        accessCount = 0;
-        synchronized (bcStats) {
-            bcCache = null;
-            bcCount = 0;
-        }
-        synchronized (ccStats) {
-            ccCache = null;
-            ccCount = 0;
-        }
+        hitCount.reset();
+        accessCount.reset();
+        bcCache = new Table<ByteEntry>(cacheSize);
+        ccCache = new Table<CharEntry>(cacheSize);
     }
     
     
     public static String toString(ByteChunk bc) {
-
-        // If the cache is null, then either caching is disabled, or we're
-        // still training
-        if (bcCache == null) {
-            String value = bc.toStringInternal();
-            if (byteEnabled) {
-                // If training, everything is synced
-                synchronized (bcStats) {
-                    // If the cache has been generated on a previous invocation
-                    // while waiting fot the lock, just return the toString value
-                    // we just calculated
-                    if (bcCache != null) {
-                        return value;
-                    }
-                    // Two cases: either we just exceeded the train count, in which
-                    // case the cache must be created, or we just update the count for
-                    // the string
-                    if (bcCount > trainThreshold) {
-                        long t1 = System.currentTimeMillis();
-                        // Sort the entries according to occurrence
-                        TreeMap<Integer, ArrayList<ByteEntry>> tempMap =
-                            new TreeMap<Integer, ArrayList<ByteEntry>>();
-                        Iterator<ByteEntry> entries =
-                            bcStats.keySet().iterator();
-                        while (entries.hasNext()) {
-                            ByteEntry entry = entries.next();
-                            int[] countA = bcStats.get(entry);
-                            Integer count = countA[0];
-                            // Add to the list for that count
-                            ArrayList<ByteEntry> list = tempMap.get(count);
-                            if (list == null) {
-                                // Create list
-                                list = new ArrayList<ByteEntry>();
-                                tempMap.put(count, list);
-                            }
-                            list.add(entry);
-                        }
-                        // Allocate array of the right size
-                        int size = bcStats.size();
-                        if (size > cacheSize) {
-                            size = cacheSize;
-                        }
-                        ByteEntry[] tempbcCache = new ByteEntry[size];
-                        // Fill it up using an alphabetical order
-                        // and a dumb insert sort
-                        ByteChunk tempChunk = new ByteChunk();
-                        int n = 0;
-                        while (n < size) {
-                            Object key = tempMap.lastKey();
-                            ArrayList<ByteEntry> list = tempMap.get(key);
-                            for (int i = 0; i < list.size() && n < size; i++) {
-                                ByteEntry entry = list.get(i);
-                                tempChunk.setBytes(entry.name, 0, entry.name.length);
-                                int insertPos = findClosest(tempChunk, tempbcCache, n);
-                                if (insertPos == n) {
-                                    tempbcCache[n + 1] = entry;
-                                } else {
-                                    System.arraycopy(tempbcCache, insertPos + 1, tempbcCache, 
-                                            insertPos + 2, n - insertPos - 1);
-                                    tempbcCache[insertPos + 1] = entry;
-                                }
-                                n++;
-                            }
-                            tempMap.remove(key);
-                        }
-                        bcCount = 0;
-                        bcStats.clear();
-                        bcCache = tempbcCache;
-                        if (logger.isLoggable(Level.FINEST)) {
-                            long t2 = System.currentTimeMillis();
-                            logger.log(Level.FINEST,"ByteCache generation time: " + (t2 - t1) + "ms");
-                        }
-                    } else {
-                        bcCount++;
-                        // Allocate new ByteEntry for the lookup
-                        ByteEntry entry = new ByteEntry();
-                        entry.value = value;
-                        int[] count = bcStats.get(entry);
-                        if (count == null) {
-                            int end = bc.getEnd();
-                            int start = bc.getStart();
-                            // Create byte array and copy bytes
-                            entry.name = new byte[bc.getLength()];
-                            System.arraycopy(bc.getBuffer(), start, entry.name, 0, end - start);
-                            // Set encoding
-                            entry.charset = bc.getCharset();
-                            // Initialize occurrence count to one 
-                            count = new int[1];
-                            count[0] = 1;
-                            // Set in the stats hash map
-                            bcStats.put(entry, count);
-                        } else {
-                            count[0] = count[0] + 1;
-                        }
-                    }
-                }
-            }
-            return value;
-        } else {
-            accessCount++;
-            // Find the corresponding String
-            String result = find(bc);
-            if (result == null) {
-                return bc.toStringInternal();
-            }
-            // Note: We don't care about safety for the stats
-            hitCount++;
-            return result;
-        }
-        
+        final Charset charset = bc.getCharset() != null
+                ? bc.getCharset()
+                : Constants.DEFAULT_HTTP_CHARSET;
+        return toString(bc.getBuffer(), bc.getStart(), bc.getEnd(), charset);
     }
 
 
     public static String toString(CharChunk cc) {
-        
-        // If the cache is null, then either caching is disabled, or we're
-        // still training
-        if (ccCache == null) {
-            String value = cc.toStringInternal();
-            if (charEnabled) {
-                // If training, everything is synced
-                synchronized (ccStats) {
-                    // If the cache has been generated on a previous invocation
-                    // while waiting fot the lock, just return the toString value
-                    // we just calculated
-                    if (ccCache != null) {
-                        return value;
-                    }
-                    // Two cases: either we just exceeded the train count, in which
-                    // case the cache must be created, or we just update the count for
-                    // the string
-                    if (ccCount > trainThreshold) {
-                        long t1 = System.currentTimeMillis();
-                        // Sort the entries according to occurrence
-                        TreeMap<Integer, ArrayList<CharEntry>> tempMap =
-                            new TreeMap<Integer, ArrayList<CharEntry>>();
-                        Iterator<CharEntry> entries = ccStats.keySet().iterator();
-                        while (entries.hasNext()) {
-                            CharEntry entry = entries.next();
-                            int[] countA = ccStats.get(entry);
-                            Integer count = countA[0];
-                            // Add to the list for that count
-                            ArrayList<CharEntry> list = tempMap.get(count);
-                            if (list == null) {
-                                // Create list
-                                list = new ArrayList<CharEntry>();
-                                tempMap.put(count, list);
-                            }
-                            list.add(entry);
-                        }
-                        // Allocate array of the right size
-                        int size = ccStats.size();
-                        if (size > cacheSize) {
-                            size = cacheSize;
-                        }
-                        CharEntry[] tempccCache = new CharEntry[size];
-                        // Fill it up using an alphabetical order
-                        // and a dumb insert sort
-                        CharChunk tempChunk = new CharChunk();
-                        int n = 0;
-                        while (n < size) {
-                            Object key = tempMap.lastKey();
-                            ArrayList<CharEntry> list = tempMap.get(key);
-                            for (int i = 0; i < list.size() && n < size; i++) {
-                                CharEntry entry = list.get(i);
-                                tempChunk.setChars(entry.name, 0, entry.name.length);
-                                int insertPos = findClosest(tempChunk, tempccCache, n);
-                                if (insertPos == n) {
-                                    tempccCache[n + 1] = entry;
-                                } else {
-                                    System.arraycopy(tempccCache, insertPos + 1, tempccCache, 
-                                            insertPos + 2, n - insertPos - 1);
-                                    tempccCache[insertPos + 1] = entry;
-                                }
-                                n++;
-                            }
-                            tempMap.remove(key);
-                        }
-                        ccCount = 0;
-                        ccStats.clear();
-                        ccCache = tempccCache;
-                        if (logger.isLoggable(Level.FINEST)) {
-                            long t2 = System.currentTimeMillis();
-                            logger.log(Level.FINEST,"CharCache generation time: " + (t2 - t1) + "ms");
-                        }
-                    } else {
-                        ccCount++;
-                        // Allocate new CharEntry for the lookup
-                        CharEntry entry = new CharEntry();
-                        entry.value = value;
-                        int[] count = ccStats.get(entry);
-                        if (count == null) {
-                            int end = cc.getEnd();
-                            int start = cc.getStart();
-                            // Create char array and copy chars
-                            entry.name = new char[cc.getLength()];
-                            System.arraycopy(cc.getBuffer(), start, entry.name, 0, end - start);
-                            // Initialize occurrence count to one 
-                            count = new int[1];
-                            count[0] = 1;
-                            // Set in the stats hash map
-                            ccStats.put(entry, count);
-                        } else {
-                            count[0] = count[0] + 1;
-                        }
-                    }
-                }
-            }
-            return value;
-        } else {
-            accessCount++;
-            // Find the corresponding String
-            String result = find(cc);
-            if (result == null) {
-                return cc.toStringInternal();
-            }
-            // Note: We don't care about safety for the stats
-            hitCount++;
-            return result;
-        }
-        
-    }
-    
-    
-    // ----------------------------------------------------- Protected Methods
-
+        final char[] chars = cc.getBuffer();
+        final int start = cc.getStart();
+        final int end = cc.getEnd();
+        final int length = end - start;
 
-    /**
-     * Compare given byte chunk with byte array.
-     * Return -1, 0 or +1 if inferior, equal, or superior to the String.
-     */
-    protected static int compare(ByteChunk name, byte[] compareTo) {
-        int result = 0;
+        if (!charEnabled || length == 0 || length > maxStringSize) {
+            return cc.toStringInternal();
+        }
 
-        byte[] b = name.getBuffer();
-        int start = name.getStart();
-        int end = name.getEnd();
-        int len = compareTo.length;
+        accessCount.increment();
 
-        if ((end - start) < len) {
-            len = end - start;
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
         }
-        for (int i = 0; (i < len) && (result == 0); i++) {
-            if (b[i + start] > compareTo[i]) {
-                result = 1;
-            } else if (b[i + start] < compareTo[i]) {
-                result = -1;
-            }
-        }
-        if (result == 0) {
-            if (compareTo.length > (end - start)) {
-                result = -1;
-            } else if (compareTo.length < (end - start)) {
-                result = 1;
+
+        final Table<CharEntry> cache = ccCache;
+        final int index = cache.index(hash);
+        for (int i = index; i <= index + 1; i++) {
+            final CharEntry entry = cache.get(i);
+            if (entry != null && entry.matches(hash, chars, start, end)) {
+                cache.touchSampled(hash);
+                hitCount.increment();
+                return entry.value;
             }
         }
-        return result;
-    }
 
-    
-    /**
-     * Find an entry given its name in the cache and return the associated String.
-     */
-    protected static String find(ByteChunk name) {
-        int pos = findClosest(name, bcCache, bcCache.length);
-        if ((pos < 0) || (compare(name, bcCache[pos].name) != 0)
-                || !(name.getCharset().equals(bcCache[pos].charset))) {
-            return null;
-        } else {
-            return bcCache[pos].value;
+        final String value = cc.toStringInternal();
+        final int frequency = cache.touch(hash);
+        if (frequency >= ADMISSION_FREQUENCY) {
+            final char[] name = new char[length];
+            System.arraycopy(chars, start, name, 0, length);
+            cache.admit(index, new CharEntry(hash, name, value), frequency);
         }
+
+        return value;
     }
 
-    
+
+    // --------------------------------------------------------- Package Methods
+
+
     /**
-     * Find an entry given its name in a sorted array of map elements.
-     * This will return the index for the closest inferior or equal item in the
-     * given array.
+     * Returns the String representation of the given byte range decoded
+     * using the given {@link Charset}, reusing the cached String instance
+     * if there is one.
      */
-    protected static int findClosest(ByteChunk name, ByteEntry[] array, int len) {
+    static String toString(final byte[] bytes, final int start,
+            final int end, final Charset charset) {
+        final int length = end - start;
 
-        int a = 0;
-        int b = len - 1;
-
-        // Special cases: -1 and 0
-        if (b == -1) {
-            return -1;
+        if (!byteEnabled || length == 0 || length > maxStringSize) {
+            return decode(bytes, start, length, charset);
         }
-        
-        if (compare(name, array[0].name) < 0) {
-            return -1;
-        }         
-        if (b == 0) {
-            return 0;
+
+        accessCount.increment();
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes[i];
         }
 
-        int i;
-        while (true) {
-            i = (b + a) >>> 1;
-            int result = compare(name, array[i].name);
-            if (result == 1) {
-                a = i;
-            } else if (result == 0) {
-                return i;
-            } else {
-                b = i;
-            }
-            if ((b - a) == 1) {
-                int result2 = compare(name, array[b].name);
-                if (result2 < 0) {
-                    return a;
-                } else {
-                    return b;
-                }
+        final Table<ByteEntry> cache = bcCache;
+        final int index = cache.index(hash);
+        for (int i = index; i <= index + 1; i++) {
+            final ByteEntry entry = cache.get(i);
+            if (entry != null && entry.matches(hash, bytes, start, end, charset)) {
+                cache.touchSampled(hash);
+                hitCount.increment();
+                return entry.value;
             }
         }
 
+        final String value = decode(bytes, start, length, charset);
+        final int frequency = cache.touch(hash);
+        if (frequency >= ADMISSION_FREQUENCY) {
+            final byte[] name = new byte[length];
+            System.arraycopy(bytes, start, name, 0, length);
+            cache.admit(index, new ByteEntry(hash, name, charset, value), frequency);
+        }
+
+        return value;
     }
 
 
-    /**
-     * Compare given char chunk with char array.
-     * Return -1, 0 or +1 if inferior, equal, or superior to the String.
-     */
-    protected static int compare(CharChunk name, char[] compareTo) {
-        int result = 0;
+    // --------------------------------------------------------- Private Methods
 
-        char[] c = name.getBuffer();
-        int start = name.getStart();
-        int end = name.getEnd();
-        int len = compareTo.length;
 
-        if ((end - start) < len) {
-            len = end - start;
-        }
-        for (int i = 0; (i < len) && (result == 0); i++) {
-            if (c[i + start] > compareTo[i]) {
-                result = 1;
-            } else if (c[i + start] < compareTo[i]) {
-                result = -1;
-            }
-        }
-        if (result == 0) {
-            if (compareTo.length > (end - start)) {
-                result = -1;
-            } else if (compareTo.length < (end - start)) {
-                result = 1;
-            }
-        }
-        return result;
+    private static String decode(final byte[] bytes, final int start,
+            final int length, final Charset charset) {
+        return charset.decode(ByteBuffer.wrap(bytes, start, length)).toString();
     }
 
-    
+
+    // ------------------------------------------------------ Table Inner Class
+
+
     /**
-     * Find an entry given its name in the cache and return the associated String.
+     * Two-way set associative table, paired with a frequency sketch.
+     *
+     * The frequency counters are updated without synchronization, lost
+     * updates only make the admission decisions slightly less accurate.
      */
-    protected static String find(CharChunk name) {
-        int pos = findClosest(name, ccCache, ccCache.length);
-        if ((pos < 0) || (compare(name, ccCache[pos].name) != 0)) {
-            return null;
-        } else {
-            return ccCache[pos].value;
+    static final class Table<E extends Entry> {
+
+        private static final int MAX_FREQUENCY = 15;
+
+        private final AtomicReferenceArray<E> entries;
+        private final int mask;
+
+        private final int[] frequencies;
+        private final int frequencyMask;
+        private final int sampleSize;
+        private int additions;
+
+        Table(final int size) {
+            final int capacity = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+            entries = new AtomicReferenceArray<E>(capacity);
+            mask = capacity - 1;
+
+            frequencies = new int[capacity * 4];
+            frequencyMask = frequencies.length - 1;
+            sampleSize = capacity * 10;
         }
-    }
 
-    
-    /**
-     * Find an entry given its name in a sorted array of map elements.
-     * This will return the index for the closest inferior or equal item in the
-     * given array.
-     */
-    protected static int findClosest(CharChunk name, CharEntry[] array, int len) {
+        int index(final int hash) {
+            return (hash ^ (hash >>> 16)) & mask & ~1;
+        }
 
-        int a = 0;
-        int b = len - 1;
+        E get(final int index) {
+            return entries.get(index);
+        }
 
-        // Special cases: -1 and 0
-        if (b == -1) {
-            return -1;
+        /**
+         * Registers an occurrence of the value with the given hash.
+         *
+         * @return the value's recent frequency.
+         */
+        int touch(final int hash) {
+            return touch(hash, 1);
         }
-        
-        if (compare(name, array[0].name) < 0 ) {
-            return -1;
-        }         
-        if (b == 0) {
-            return 0;
+
+        /**
+         * Registers an occurrence of the cached value with the given hash
+         * once in {@link #HIT_SAMPLE_RATE} calls.
+         */
+        void touchSampled(final int hash) {
+            if (ThreadLocalRandom.current().nextInt(HIT_SAMPLE_RATE) == 0) {
+                touch(hash, HIT_SAMPLE_RATE);
+            }
         }
 
-        int i;
-        while (true) {
-            i = (b + a) >>> 1;
-            int result = compare(name, array[i].name);
-            if (result == 1) {
-                a = i;
-            } else if (result == 0) {
-                return i;
-            } else {
-                b = i;
+        private int touch(final int hash, final int weight) {
+            final int index = frequencyIndex(hash);
+            final int frequency = frequencies[index];
+            if (frequency >= MAX_FREQUENCY) {
+                return frequency;
             }
-            if ((b - a) == 1) {
-                int result2 = compare(name, array[b].name);
-                if (result2 < 0) {
-                    return a;
-                } else {
-                    return b;
+
+            final int newFrequency = Math.min(frequency + weight, MAX_FREQUENCY);
+            frequencies[index] = newFrequency;
+            if ((additions += weight) >= sampleSize) {
+                age();
+            }
+
+            return newFrequency;
+        }
+
+        /**
+         * Stores the candidate in the set starting at the given index, if
+         * there is a free slot or the candidate is more popular than the
+         * least popular entry of the set.
+         */
+        void admit(final int index, final E candidate, final int frequency) {
+            int victimIndex = index;
+            E victim = entries.get(index);
+            if (victim != null) {
+                final E other = entries.get(index + 1);
+                if (other == null
+                        || frequencies[frequencyIndex(other.hash)]
+                        < frequencies[frequencyIndex(victim.hash)]) {
+                    victimIndex = index + 1;
+                    victim = other;
                 }
             }
+
+            if (victim == null
+                    || frequency > frequencies[frequencyIndex(victim.hash)]) {
+                entries.lazySet(victimIndex, candidate);
+            }
+        }
+
+        private int frequencyIndex(final int hash) {
+            final int h = hash * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & frequencyMask;
         }
 
+        /**
+         * Halves all the counters, so the old popularity fades away.
+         */
+        private void age() {
+            additions = 0;
+            for (int i = 0; i < frequencies.length; i++) {
+                frequencies[i] >>>= 1;
+            }
+        }
     }
 
 
-    // -------------------------------------------------- ByteEntry Inner Class
+    // ------------------------------------------------------ Entry Inner Classes
+
 
+    abstract static class Entry {
 
-    protected static class ByteEntry {
+        final int hash;
+        final String value;
 
-        public byte[] name = null;
-        public Charset charset = null;
-        public String value = null;
+        Entry(final int hash, final String value) {
+            this.hash = hash;
+            this.value = value;
+        }
 
+        @Override
         public String toString() {
             return value;
         }
-        public int hashCode() {
-            return value.hashCode();
-        }
-        public boolean equals(Object obj) {
-            return obj instanceof ByteEntry && value.equals(((ByteEntry) obj).value);
-        }
-        
     }
 
 
-    // -------------------------------------------------- CharEntry Inner Class
+    static final class ByteEntry extends Entry {
 
+        private final byte[] name;
+        private final Charset charset;
 
-    protected static class CharEntry {
+        ByteEntry(final int hash, final byte[] name, final Charset charset,
+                final String value) {
+            super(hash, value);
+            this.name = name;
+            this.charset = charset;
+        }
 
-        public char[] name = null;
-        public String value = null;
+        boolean matches(final int hash, final byte[] bytes, final int start,
+                final int end, final Charset charset) {
+            if (this.hash != hash || name.length != end - start
+                    || !this.charset.equals(charset)) {
+                return false;
+            }
 
-        public String toString() {
-            return value;
-        }
-        public int hashCode() {
-            return value.hashCode();
-        }
-        public boolean equals(Object obj) {
-            return obj instanceof CharEntry && value.equals(((CharEntry) obj).value);
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != bytes[start + i]) {
+                    return false;
+                }
+            }
+
+            return true;
         }
-        
     }
 
 
+    static final class CharEntry extends Entry {
+
+        private final char[] name;
+
+        CharEntry(final int hash, final char[] name, final String value) {
+            super(hash, value);
+            this.name = name;
+        }
+
+        boolean matches(final int hash, final char[] chars, final int start,
+                final int end) {
+            if (this.hash != hash || name.length != end - start) {
+                return false;
+            }
+
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != chars[start + i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
 }
@@ -29,6 +29,7 @@ import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.NIOConnection;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
 
@@ -94,6 +95,64 @@ public class ClientRequestPipeliningTest extends TestCase {
     }
 
 
+    /*
+     * Sends the requests using a single write, so the server sees them as
+     * pipelined, and checks the responses are still delivered in order when
+     * the server corks the pipelined responses.
+     */
+    @SuppressWarnings({"unchecked"})
+    public void testPipelinedResponseCorking() throws Exception {
+
+        final int requestCount = 5;
+        final CountDownLatch latch = new CountDownLatch(requestCount);
+        final ResponseCollectingFilter responseFilter = new ResponseCollectingFilter(latch);
+        final TCPNIOTransport clientTransport = createClientTransport(responseFilter);
+        final HttpServerFilter httpServerFilter = new HttpServerFilter();
+        httpServerFilter.setPipelinedResponseCorking(true);
+        httpServerFilter.setPipelinedResponseCorkLimits(1, TimeUnit.MINUTES, 64 * 1024);
+        final SimpleResponseFilter simpleResponseFilter = new SimpleResponseFilter();
+        final TCPNIOTransport serverTransport =
+                createServerTransport(httpServerFilter, simpleResponseFilter);
+        try {
+            serverTransport.bind(PORT);
+            serverTransport.start();
+            clientTransport.start();
+
+            final GrizzlyFuture<Connection> connFuture =
+                    clientTransport.connect("localhost", PORT);
+
+            final NIOConnection c = (NIOConnection) connFuture.get(15, TimeUnit.SECONDS);
+
+            // cork the client connection, so the requests are sent at once
+            // and the server sees them as pipelined
+            c.cork(1, TimeUnit.MINUTES, 64 * 1024);
+            for (int i = 0; i < requestCount; i++) {
+                final HttpRequestPacket.Builder reqBuilder =
+                        HttpRequestPacket.builder();
+                reqBuilder.method(Method.GET);
+                reqBuilder.uri("/");
+                reqBuilder.protocol(Protocol.HTTP_1_1);
+                reqBuilder.header(Header.Host, "localhost:" + PORT);
+                reqBuilder.contentLength(0);
+                c.write(reqBuilder.build());
+            }
+            c.uncork();
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+            assertEquals(requestCount, responseFilter.responses.size());
+            for (int i = 0; i < requestCount; i++) {
+                assertEquals(i + 1, responseFilter.responses.get(i).intValue());
+            }
+
+            assertFalse(((NIOConnection) simpleResponseFilter.connection).isCorked());
+        } finally {
+            clientTransport.shutdownNow();
+            serverTransport.shutdownNow();
+        }
+    }
+
+
     // --------------------------------------------------------- Private Methods
 
 
@@ -111,13 +170,20 @@ public class ClientRequestPipeliningTest extends TestCase {
     }
 
     private TCPNIOTransport createServerTransport() {
+        return createServerTransport(new HttpServerFilter(),
+                new SimpleResponseFilter());
+    }
+
+    private TCPNIOTransport createServerTransport(
+            final HttpServerFilter httpServerFilter,
+            final SimpleResponseFilter responseFilter) {
 
         final TCPNIOTransport transport =
                 TCPNIOTransportBuilder.newInstance().build();
         final FilterChainBuilder b = FilterChainBuilder.stateless();
         b.add(new TransportFilter());
-        b.add(new HttpServerFilter());
-        b.add(new SimpleResponseFilter());
+        b.add(httpServerFilter);
+        b.add(responseFilter);
         transport.setProcessor(b.build());
         return transport;
     }
@@ -156,12 +222,14 @@ public class ClientRequestPipeliningTest extends TestCase {
     private static final class SimpleResponseFilter extends BaseFilter {
 
         private final AtomicInteger counter = new AtomicInteger();
+        volatile Connection connection;
 
 
         @Override
         public NextAction handleRead(FilterChainContext ctx) throws IOException {
 
             final int count = counter.incrementAndGet();
+            connection = ctx.getConnection();
             HttpRequestPacket request = (HttpRequestPacket) ((HttpContent) ctx.getMessage()).getHttpHeader();
             HttpResponsePacket response = request.getResponse();
             response.setStatus(HttpStatus.OK_200);
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.http;
+
+import junit.framework.TestCase;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.http.util.Header;
+import org.glassfish.grizzly.http.util.HttpStatus;
+import org.glassfish.grizzly.utils.Charsets;
+
+/**
+ * Tests {@link HeaderTemplate} serialization.
+ */
+public class HeaderTemplateTest extends TestCase {
+
+    private final HeaderTemplate template = HeaderTemplate.builder()
+            .header(Header.Server, "Grizzly")
+            .header("Cache-Control", "no-cache")
+            .build();
+
+    public void testTemplateEncoded() {
+        final HttpResponsePacket response = createResponse();
+        response.addHeader("X-Request-Id", "42");
+        response.setHeaderTemplate(template);
+
+        assertEquals("HTTP/1.1 200 OK\r\n"
+                + "Server: Grizzly\r\n"
+                + "Cache-Control: no-cache\r\n"
+                + "X-Request-Id: 42\r\n"
+                + "\r\n",
+                encode(response));
+    }
+
+    public void testTemplateOverridesHeaders() {
+        final HttpResponsePacket response = createResponse();
+        response.addHeader("server", "Other");
+        response.addHeader("X-Request-Id", "42");
+        response.addHeader("Server", "Another");
+        response.setHeaderTemplate(template);
+
+        assertEquals("HTTP/1.1 200 OK\r\n"
+                + "Server: Grizzly\r\n"
+                + "Cache-Control: no-cache\r\n"
+                + "X-Request-Id: 42\r\n"
+                + "\r\n",
+                encode(response));
+
+        // the template doesn't modify the packet headers
+        assertEquals("Other", response.getHeader(Header.Server));
+    }
+
+    public void testNonPrintableCharactersReplaced() {
+        final HttpResponsePacket response = createResponse();
+        response.setHeaderTemplate(HeaderTemplate.builder()
+                .header("X-Injected", "a\r\nSet-Cookie: b")
+                .build());
+
+        assertEquals("HTTP/1.1 200 OK\r\n"
+                + "X-Injected: a  Set-Cookie: b\r\n"
+                + "\r\n",
+                encode(response));
+    }
+
+    public void testRestrictedHeaders() {
+        for (Header header : new Header[] {Header.ContentLength,
+                Header.TransferEncoding, Header.ContentEncoding,
+                Header.Connection, Header.Date, Header.Upgrade}) {
+            try {
+                HeaderTemplate.builder().header(header.getLowerCase(), "1");
+                fail(header + " must be rejected");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    public void testTemplateAccessors() {
+        assertEquals(2, template.size());
+        assertEquals("Server", template.getName(0));
+        assertEquals("server", template.getLowerCaseName(0));
+        assertEquals("no-cache", template.getValue(1));
+        assertTrue(template.contains("CACHE-CONTROL"));
+        assertFalse(template.contains("Date"));
+    }
+
+    private static HttpResponsePacket createResponse() {
+        final HttpRequestPacket request = HttpRequestPacket.builder()
+                .method(Method.GET).uri("/")
+                .protocol(Protocol.HTTP_1_1).build();
+
+        return HttpResponsePacket.builder(request)
+                .status(HttpStatus.OK_200.getStatusCode())
+                .protocol(Protocol.HTTP_1_1)
+                .build();
+    }
+
+    private static String encode(final HttpResponsePacket response) {
+        final HttpServerFilter filter = new HttpServerFilter();
+        final FilterChainContext ctx = FilterChainContext.create(
+                new HttpRequestParseTest.StandaloneConnection());
+        try {
+            final Buffer encoded = filter.encodeHttpPacket(ctx, response, null, true);
+            return encoded.toStringContent(Charsets.ASCII_CHARSET);
+        } finally {
+            ctx.completeAndRecycle();
+        }
+    }
+}
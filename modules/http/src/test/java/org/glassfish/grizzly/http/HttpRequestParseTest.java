@@ -36,6 +36,7 @@ import org.glassfish.grizzly.filterchain.FilterChainBuilder;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.http.util.HttpCodecUtils;
 import org.glassfish.grizzly.http.util.MimeHeaders;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
@@ -182,8 +183,75 @@ public class HttpRequestParseTest extends TestCase {
         assertTrue(packet.getHttpHeader().isChunked());
     }
     
-    @SuppressWarnings({"unchecked"})
+    public void testHeaderValueSpaces() {
+        HttpPacket packet = doTestDecoder(
+                "GET /index.html HTTP/1.1\r\nHost: \t localhost  \r\nX-Tab: a b\t\r\nX-Empty:   \r\n\r\n", 4096);
+        final HttpHeader header = packet.getHttpHeader();
+        assertEquals("localhost", header.getHeader("host"));
+        assertEquals("a b\t", header.getHeader("x-tab"));
+        assertEquals("", header.getHeader("x-empty"));
+    }
+
+    public void testHeaderLineParserMatchesStateMachine() {
+        final String[] requests = {
+            "GET / HTTP/1.1\r\nHost: localhost\r\nAccept: */*\r\n\r\n",
+            "GET / HTTP/1.1\nHost: localhost\nAccept: text/html\n\n",
+            "GET / HTTP/1.1\r\nMulti-Line: first\r\n second\r\n\tthird\r\nHost: localhost\r\n\r\n",
+            "GET / HTTP/1.1\r\nX-CR: a\rb\r\nHost: localhost\r\n\r\n",
+            "GET / HTTP/1.1\r\nHost: localhost\r\nUser-Agent: Mozilla/5.0 (X11; Linux x86_64) Gecko/20100101 Firefox/60.0\r\n"
+                    + "Accept-Encoding: gzip, deflate\r\nCookie: a=1; b=2\r\n\r\n"
+        };
+
+        for (String request : requests) {
+            for (boolean preserveCase : new boolean[] {false, true}) {
+                final MimeHeaders expected = doTestDecoder(
+                        request, 4096, preserveCase, true).getHttpHeader().getHeaders();
+                final HttpHeader header = doTestDecoder(
+                        request, 4096, preserveCase, false).getHttpHeader();
+                final MimeHeaders actual = header.getHeaders();
+
+                assertEquals(request, expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(request, expected.getName(i).toString(),
+                            actual.getName(i).toString());
+                    assertEquals(request, expected.getValue(i).toString(),
+                            actual.getValue(i).toString());
+                }
+            }
+        }
+    }
+
+    public void testInvalidHeaderNameCharacter() {
+        final String[] names = {"X Space", "X-Paren(", "X-Quote\"", "X-Ctl\u0001",
+            "X-Slash/", "X-Latin\u00e9"};
+
+        for (String name : names) {
+            for (boolean stateMachineOnly : new boolean[] {false, true}) {
+                try {
+                    doTestDecoder("GET / HTTP/1.1\r\nHost: localhost\r\n"
+                            + name + ": value\r\n\r\n", 4096, false, stateMachineOnly);
+                    fail("Invalid header name had to be rejected: " + name);
+                } catch (IllegalStateException e) {
+                    // expected
+                }
+            }
+        }
+
+        for (boolean stateMachineOnly : new boolean[] {false, true}) {
+            final HttpHeader header = doTestDecoder(
+                    "GET / HTTP/1.1\r\nHost: localhost\r\nX-Token!#$%&'*+-.^_`|~09: value\r\n\r\n",
+                    4096, false, stateMachineOnly).getHttpHeader();
+            assertEquals("value", header.getHeader("x-token!#$%&'*+-.^_`|~09"));
+        }
+    }
+
     private HttpPacket doTestDecoder(String request, int limit) {
+        return doTestDecoder(request, limit, false, false);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private HttpPacket doTestDecoder(String request, int limit,
+            boolean preserveCase, final boolean stateMachineOnly) {
 
         MemoryManager mm = MemoryManager.DEFAULT_MEMORY_MANAGER;
         Buffer input = Buffers.wrap(mm, request);
@@ -196,7 +264,35 @@ public class HttpRequestParseTest extends TestCase {
                     final Throwable t) throws IOException {
                 throw new IllegalStateException(t);
             }
+
+            @Override
+            protected boolean parseHeadersFromBytes(final HttpHeader httpHeader,
+                    final MimeHeaders mimeHeaders,
+                    final HeaderParsingState parsingState,
+                    final byte[] input, final int end) {
+                if (!stateMachineOnly) {
+                    return super.parseHeadersFromBytes(httpHeader, mimeHeaders,
+                            parsingState, input, end);
+                }
+
+                do {
+                    if (parsingState.subState == 0) {
+                        final int eol = HttpCodecUtils.checkEOL(parsingState, input, end);
+                        if (eol == 0) {
+                            return true;
+                        } else if (eol == -2) {
+                            return false;
+                        }
+                    }
+
+                    if (!parseHeaderFromBytes(httpHeader, mimeHeaders,
+                            parsingState, input, end)) {
+                        return false;
+                    }
+                } while (true);
+            }
         };
+        filter.setPreserveHeaderCase(preserveCase);
         FilterChainContext ctx = FilterChainContext.create(new StandaloneConnection());
         ctx.setMessage(input);
 
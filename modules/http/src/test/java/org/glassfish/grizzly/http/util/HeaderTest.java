@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.http.util;
+
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.Buffers;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HeaderTest {
+
+    private static final Charset ASCII = Charset.forName("ASCII");
+
+    @Test
+    public void testFindAll() {
+        for (final Header header : Header.values()) {
+            final String name = header.toString();
+            Assert.assertSame(header, Header.find(name));
+            Assert.assertSame(header, Header.find(name.toLowerCase(Locale.ENGLISH)));
+            Assert.assertSame(header, Header.find(name.toUpperCase(Locale.ENGLISH)));
+
+            final byte[] bytes = ("x" + name + "x").getBytes(ASCII);
+            Assert.assertSame(header, Header.find(bytes, 1, bytes.length - 1));
+
+            final Buffer buffer = Buffers.wrap(null, bytes);
+            Assert.assertSame(header, Header.find(buffer, 1, bytes.length - 1));
+        }
+    }
+
+    @Test
+    public void testFindUnknown() {
+        Assert.assertNull(Header.find((String) null));
+        Assert.assertNull(Header.find(""));
+        Assert.assertNull(Header.find("X-Custom"));
+        Assert.assertNull(Header.find("Content-Lengths"));
+        Assert.assertNull(Header.find("Content-Lengtx"));
+        Assert.assertNull(Header.find("Upgrade-Insecure-Requests"));
+
+        final byte[] bytes = "Cache-Controls".getBytes(ASCII);
+        Assert.assertNull(Header.find(bytes, 0, bytes.length));
+        Assert.assertNull(Header.find(bytes, 0, 0));
+        Assert.assertSame(Header.CacheControl, Header.find(bytes, 0, bytes.length - 1));
+    }
+
+    @Test
+    public void testFindDataChunk() {
+        final DataChunk dc = DataChunk.newInstance();
+        Assert.assertNull(Header.find(dc));
+
+        dc.setString("transfer-encoding");
+        Assert.assertSame(Header.TransferEncoding, Header.find(dc));
+
+        final byte[] bytes = "Transfer-Encoding".getBytes(ASCII);
+        dc.setBytes(bytes);
+        Assert.assertSame(Header.TransferEncoding, Header.find(dc));
+
+        dc.setBuffer(Buffers.wrap(null, bytes), 0, bytes.length);
+        Assert.assertSame(Header.TransferEncoding, Header.find(dc));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.http.util;
+
+import java.nio.charset.StandardCharsets;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.HttpRequestPacket;
+import org.glassfish.grizzly.http.HttpResponsePacket;
+import org.glassfish.grizzly.http.Protocol;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HttpStatusTest {
+
+    @Test
+    public void testStatusLineBytes() {
+        Assert.assertEquals("HTTP/1.1 200 OK\r\n",
+                new String(HttpStatus.OK_200.getStatusLineBytes(Protocol.HTTP_1_1), StandardCharsets.US_ASCII));
+        Assert.assertEquals("HTTP/1.0 404 Not Found\r\n",
+                new String(HttpStatus.NOT_FOUND_404.getStatusLineBytes(Protocol.HTTP_1_0), StandardCharsets.US_ASCII));
+        Assert.assertNull(HttpStatus.OK_200.getStatusLineBytes(Protocol.HTTP_0_9));
+        Assert.assertNull(HttpStatus.OK_200.getStatusLineBytes(Protocol.HTTP_2_0));
+        Assert.assertEquals("503", HttpStatus.SERVICE_UNAVAILABLE_503.getStatusString());
+    }
+
+    @Test
+    public void testSetValuesKeepsDefaultReasonPhrase() {
+        final HttpResponsePacket response = HttpResponsePacket.builder(
+                HttpRequestPacket.builder().method("GET").uri("/").protocol(Protocol.HTTP_1_1).build()).build();
+        HttpStatus.NOT_FOUND_404.setValues(response);
+
+        Assert.assertEquals(404, response.getStatus());
+        Assert.assertFalse(response.isCustomReasonPhraseSet());
+        Assert.assertEquals("Not Found", response.getReasonPhrase());
+    }
+
+    @Test
+    public void testCurrentDateBuffer() {
+        final Buffer buffer = FastHttpDateFormat.getCurrentDateBuffer();
+        Assert.assertTrue(buffer.isReadOnly());
+
+        final String date = buffer.toStringContent(StandardCharsets.US_ASCII);
+        Assert.assertEquals(29, date.length());
+        Assert.assertTrue(FastHttpDateFormat.parseDate(date, null) > 0);
+    }
+}
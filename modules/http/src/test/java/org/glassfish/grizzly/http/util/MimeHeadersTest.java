@@ -143,4 +143,51 @@ public class MimeHeadersTest {
         Assert.assertArrayEquals(expectedValuesSet2, list.toArray(new String[list.size()]));
     }
 
+    @Test
+    public void testKnownHeaderLookup() throws Exception {
+        final MimeHeaders headers = new MimeHeaders();
+        final byte[] bytes = "Content-Type".getBytes("ASCII");
+        headers.addValue(bytes, 0, bytes.length).setString("text/plain");
+        headers.addValue("HOST").setString("localhost");
+        headers.addValue(Header.Accept).setString("*/*");
+        headers.addValue("x-custom").setString("custom");
+        headers.addValue("accept").setString("text/html");
+
+        Assert.assertEquals(Header.ContentType, headers.getKnownHeader(0));
+        Assert.assertEquals(Header.Host, headers.getKnownHeader(1));
+        Assert.assertNull(headers.getKnownHeader(3));
+        Assert.assertNull(headers.getKnownHeader(5));
+
+        Assert.assertEquals("text/plain", headers.getHeader("content-type"));
+        Assert.assertEquals("localhost", headers.getHeader(Header.Host));
+        Assert.assertEquals(2, headers.indexOf(Header.Accept, 0));
+        Assert.assertEquals(4, headers.indexOf("Accept", 3));
+        Assert.assertEquals(3, headers.indexOf("X-Custom", 0));
+        Assert.assertFalse(headers.contains(Header.Cookie));
+
+        // removal reorders the fields
+        headers.removeHeader(Header.ContentType);
+        Assert.assertNull(headers.getValue(Header.ContentType));
+        Assert.assertEquals(0, headers.indexOf(Header.Accept, 0));
+        Assert.assertEquals("text/html", headers.getHeader(Header.Accept));
+        Assert.assertEquals(1, headers.indexOf(Header.Host, 0));
+
+        headers.setValue("Accept").setString("text/xml");
+        Assert.assertEquals(3, headers.size());
+        Assert.assertEquals("text/xml", headers.getHeader(Header.Accept));
+
+        headers.recycle();
+        Assert.assertFalse(headers.contains(Header.Accept));
+        headers.addValue(Header.Accept).setString("*/*");
+        Assert.assertEquals(0, headers.indexOf(Header.Accept, 0));
+    }
+
+    @Test
+    public void testInvalidTrailerHeader() throws Exception {
+        final byte[] bytes = "Cache-Control".getBytes("ASCII");
+        Assert.assertSame(MimeHeaders.NOOP_CHUNK,
+                mimeHeaders.addValue(bytes, 0, bytes.length));
+        Assert.assertFalse(mimeHeaders.contains(Header.CacheControl));
+    }
+
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.http.util;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.Buffers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StringCacheTest {
+
+    private static final Charset ASCII = Charset.forName("ASCII");
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private boolean byteEnabled;
+    private boolean charEnabled;
+
+    @Before
+    public void setUp() {
+        byteEnabled = StringCache.getByteEnabled();
+        charEnabled = StringCache.getCharEnabled();
+        StringCache.setByteEnabled(true);
+        StringCache.setCharEnabled(true);
+        StringCache.reset();
+    }
+
+    @After
+    public void tearDown() {
+        StringCache.setByteEnabled(byteEnabled);
+        StringCache.setCharEnabled(charEnabled);
+        StringCache.reset();
+    }
+
+    @Test
+    public void testFrequentValueIsCached() {
+        final String first = byteChunk("accept-encoding").toString();
+        final String second = byteChunk("accept-encoding").toString();
+        final String third = byteChunk("accept-encoding").toString();
+
+        Assert.assertEquals("accept-encoding", first);
+        Assert.assertEquals("accept-encoding", second);
+        // the value is admitted on its second occurrence
+        Assert.assertSame(second, third);
+        Assert.assertEquals(3, StringCache.getAccessCount());
+        Assert.assertEquals(1, StringCache.getHitCount());
+        Assert.assertEquals(1.0 / 3, StringCache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testCharsetIsPartOfTheKey() {
+        final byte[] bytes = "café".getBytes(UTF8);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("café", byteChunk(bytes, UTF8).toString());
+        }
+
+        Assert.assertEquals(new String(bytes, Constants.DEFAULT_HTTP_CHARSET),
+                byteChunk(bytes, null).toString());
+    }
+
+    @Test
+    public void testBufferChunk() {
+        final byte[] bytes = "xxkeep-alivexx".getBytes(ASCII);
+        final Buffer buffer = Buffers.wrap(null, bytes);
+
+        String last = null;
+        for (int i = 0; i < 3; i++) {
+            final DataChunk dc = DataChunk.newInstance();
+            dc.setBuffer(buffer, 2, bytes.length - 2);
+            final String value = dc.toString();
+            Assert.assertEquals("keep-alive", value);
+            if (i == 2) {
+                Assert.assertSame(last, value);
+            }
+            last = value;
+        }
+
+        // the same bytes in a ByteChunk share the cached value
+        Assert.assertSame(last, byteChunk("keep-alive").toString());
+    }
+
+    @Test
+    public void testCharChunk() {
+        String last = null;
+        for (int i = 0; i < 3; i++) {
+            final CharChunk cc = new CharChunk();
+            cc.setChars("gzip, deflate".toCharArray(), 0, 13);
+            last = cc.toString();
+            Assert.assertEquals("gzip, deflate", last);
+        }
+
+        final CharChunk cc = new CharChunk();
+        cc.setChars("gzip, deflate".toCharArray(), 0, 13);
+        Assert.assertSame(last, cc.toString());
+    }
+
+    @Test
+    public void testLongValuesAreNotCached() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= StringCache.getMaxStringSize(); i++) {
+            sb.append('a');
+        }
+
+        final String value = sb.toString();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(value, byteChunk(value).toString());
+        }
+        Assert.assertEquals(0, StringCache.getAccessCount());
+    }
+
+    @Test
+    public void testCacheAdaptsToNewTraffic() {
+        final int cacheSize = StringCache.getCacheSize();
+        StringCache.setCacheSize(2);
+        try {
+            for (int i = 0; i < 100; i++) {
+                byteChunk("old-header").toString();
+            }
+
+            // enough new traffic to age the old value out
+            for (int i = 0; i < 1000; i++) {
+                byteChunk(i % 2 == 0 ? "new-header-a" : "new-header-b").toString();
+            }
+
+            final int hits = StringCache.getHitCount();
+            final String a = byteChunk("new-header-a").toString();
+            final String b = byteChunk("new-header-b").toString();
+            Assert.assertSame(a, byteChunk("new-header-a").toString());
+            Assert.assertSame(b, byteChunk("new-header-b").toString());
+            Assert.assertEquals(hits + 4, StringCache.getHitCount());
+        } finally {
+            StringCache.setCacheSize(cacheSize);
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final String[] vocabulary = {"host", "accept", "cookie",
+            "content-type", "content-length", "user-agent", "connection"};
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < 100000; i++) {
+                            final String expected = vocabulary[i % vocabulary.length];
+                            Assert.assertEquals(expected,
+                                    byteChunk(expected).toString());
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertTrue(StringCache.getHitRatio() > 0.5);
+    }
+
+    private static ByteChunk byteChunk(final String value) {
+        return byteChunk(value.getBytes(ASCII), null);
+    }
+
+    private static ByteChunk byteChunk(final byte[] bytes, final Charset charset) {
+        final ByteChunk bc = new ByteChunk();
+        bc.setBytes(bytes, 0, bytes.length);
+        bc.setCharset(charset);
+        return bc;
+    }
+}
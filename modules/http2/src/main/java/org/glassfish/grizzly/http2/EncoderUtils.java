@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.Map;
 
 import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.HeaderTemplate;
 import org.glassfish.grizzly.http.HttpRequestPacket;
 import org.glassfish.grizzly.http.HttpResponsePacket;
 import org.glassfish.grizzly.http.util.Ascii;
@@ -67,8 +68,10 @@ class EncoderUtils extends EncoderDecoderUtilsBase {
 //                response.getHttpStatus().getStatusBytes(), false);
         
         encoder.encodeHeader(STATUS_HEADER,
-                String.valueOf(response.getHttpStatus().getStatusCode()), capture);
+                response.getHttpStatus().getStatusString(), capture);
 
+        encodeTemplateHeaders(response.getHeaderTemplate(), headers, encoder,
+                capture);
         encodeUserHeaders(headers, encoder, capture);
 
         return encoder.flushHeaders();
@@ -183,6 +186,8 @@ class EncoderUtils extends EncoderDecoderUtilsBase {
         }
         encoder.encodeHeader(PATH_HEADER, path, capture);
         
+        encodeTemplateHeaders(request.getHeaderTemplate(), headers, encoder,
+                capture);
         encodeUserHeaders(headers, encoder, capture);
 
         return encoder.flushHeaders();
@@ -205,6 +210,21 @@ class EncoderUtils extends EncoderDecoderUtilsBase {
         return encoder.flushHeaders();
     }
 
+    private static void encodeTemplateHeaders(final HeaderTemplate template,
+                                              final MimeHeaders headers,
+                                              final HeadersEncoder encoder,
+                                              final Map<String,String> capture) {
+        if (template == null) {
+            return;
+        }
+
+        template.markSerialized(headers);
+        for (int i = 0; i < template.size(); i++) {
+            encoder.encodeHeader(template.getLowerCaseName(i),
+                    template.getValue(i), capture);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private static void encodeUserHeaders(final MimeHeaders headers,
                                           final HeadersEncoder encoder,
@@ -216,7 +236,12 @@ class EncoderUtils extends EncoderDecoderUtilsBase {
         for (int i = 0; i < mimeHeadersCount; i++) {
 
             if (!headers.setSerialized(i, true)) {
-                final String nameStr = nameToLowerCase(headers.getName(i));
+                // the known headers provide the lower case name, which is
+                // also the key of the HPACK static table, for free
+                final Header header = headers.getKnownHeader(i);
+                final String nameStr = header != null
+                        ? header.getLowerCase()
+                        : nameToLowerCase(headers.getName(i));
                 final DataChunk value = headers.getValue(i);
                 if (!value.isNull()) {
                     encoder.encodeHeader(nameStr, value.toString(), capture);
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.grizzly.memory.jmx;
+
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedObject;
+
+/**
+ * {@link org.glassfish.grizzly.memory.ArenaMemoryManager} JMX object.
+ *
+ * @since 2.4.5
+ */
+@ManagedObject
+@Description("Grizzly Arena Memory Manager")
+public class ArenaMemoryManager extends MemoryManager {
+
+    public ArenaMemoryManager(org.glassfish.grizzly.memory.ArenaMemoryManager memoryManager) {
+        super(memoryManager);
+    }
+
+    @ManagedAttribute(id="arena-capacity")
+    @Description("The total number of bytes managed by the arena")
+    public long getCapacity() {
+        return arena().getCapacity();
+    }
+
+    @ManagedAttribute(id="arena-free-bytes")
+    @Description("The number of arena bytes, which are not allocated at the moment")
+    public long getFreeBytes() {
+        return arena().getFreeBytes();
+    }
+
+    @ManagedAttribute(id="arena-largest-free-block")
+    @Description("The size of the largest block, which could be allocated from the arena at the moment")
+    public int getLargestFreeBlockSize() {
+        return arena().getLargestFreeBlockSize();
+    }
+
+    @ManagedAttribute(id="arena-fragmentation")
+    @Description("The average fragmentation of the arena regions: 0 - the free memory of every region is one block, 1 - the free memory is split into min size blocks")
+    public float getFragmentation() {
+        return arena().getFragmentation();
+    }
+
+    private org.glassfish.grizzly.memory.ArenaMemoryManager arena() {
+        return (org.glassfish.grizzly.memory.ArenaMemoryManager) memoryManager;
+    }
+}
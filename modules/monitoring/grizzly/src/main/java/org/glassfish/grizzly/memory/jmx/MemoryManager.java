@@ -42,6 +42,10 @@ public class MemoryManager extends JmxObject {
     private final AtomicLong realAllocatedBytes = new AtomicLong();
     private final AtomicLong poolAllocatedBytes = new AtomicLong();
     private final AtomicLong poolReleasedBytes = new AtomicLong();
+    private final AtomicLong threadCacheHits = new AtomicLong();
+    private final AtomicLong threadCacheMisses = new AtomicLong();
+    private final AtomicLong leakedBuffers = new AtomicLong();
+    private final AtomicLong leakedBytes = new AtomicLong();
     
     public MemoryManager(org.glassfish.grizzly.memory.MemoryManager memoryManager) {
         this.memoryManager = memoryManager;
@@ -94,6 +98,30 @@ public class MemoryManager extends JmxObject {
         return poolReleasedBytes.get();
     }
 
+    @ManagedAttribute(id="thread-cache-hits")
+    @Description("Total number of buffers allocated from the per-thread buffer caches")
+    public long getThreadCacheHits() {
+        return threadCacheHits.get();
+    }
+
+    @ManagedAttribute(id="thread-cache-misses")
+    @Description("Total number of buffer allocations, which were not served by the per-thread buffer caches")
+    public long getThreadCacheMisses() {
+        return threadCacheMisses.get();
+    }
+
+    @ManagedAttribute(id="leaked-buffers")
+    @Description("Total number of pooled buffers, which were garbage collected without being released (only sampled buffers are tracked)")
+    public long getLeakedBuffers() {
+        return leakedBuffers.get();
+    }
+
+    @ManagedAttribute(id="leaked-bytes")
+    @Description("Total number of bytes in pooled buffers, which were garbage collected without being released (only sampled buffers are tracked)")
+    public long getLeakedBytes() {
+        return leakedBytes.get();
+    }
+
     private class JmxMemoryProbe implements MemoryProbe {
 
         @Override
@@ -113,5 +141,27 @@ public class MemoryManager extends JmxObject {
             poolReleasedBytes.addAndGet(size);
         }
 
+        @Override
+        public void onThreadCacheHitEvent(int size) {
+            threadCacheHits.incrementAndGet();
+        }
+
+        @Override
+        public void onThreadCacheMissEvent(int size) {
+            threadCacheMisses.incrementAndGet();
+        }
+
+        @Override
+        public void onBufferLeakEvent(int size) {
+            leakedBuffers.incrementAndGet();
+            leakedBytes.addAndGet(size);
+        }
+
+        @Override
+        public void onArenaFragmentationEvent(int freeBytes,
+                int largestFreeBlockSize) {
+            // the arena state is exposed by the ArenaMemoryManager JMX object
+        }
+
     }
 }
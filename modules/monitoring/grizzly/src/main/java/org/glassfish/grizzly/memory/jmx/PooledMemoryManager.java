@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memory.jmx;
+
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedObject;
+
+/**
+ * {@link org.glassfish.grizzly.memory.PooledMemoryManager} JMX object.
+ *
+ * @since 2.4.5
+ */
+@ManagedObject
+@Description("Grizzly Pooled Memory Manager")
+public class PooledMemoryManager extends MemoryManager {
+
+    public PooledMemoryManager(org.glassfish.grizzly.memory.PooledMemoryManager memoryManager) {
+        super(memoryManager);
+    }
+
+    @ManagedAttribute(id="leak-detection-sampling-interval")
+    @Description("The leak detection sampling interval: every N-th buffer allocation is tracked, 0 means the leak detection is disabled")
+    public int getLeakDetectionSamplingInterval() {
+        return ((org.glassfish.grizzly.memory.PooledMemoryManager) memoryManager).getLeakDetectionSamplingInterval();
+    }
+
+    @ManagedAttribute(id="leak-detection-paranoid")
+    @Description("Is every buffer allocation tracked by the leak detector")
+    public boolean isLeakDetectionParanoid() {
+        return ((org.glassfish.grizzly.memory.PooledMemoryManager) memoryManager).isLeakDetectionParanoid();
+    }
+
+    @ManagedAttribute(id="detected-leaks")
+    @Description("Total number of detected pooled buffer leaks")
+    public long getDetectedLeaksCount() {
+        return ((org.glassfish.grizzly.memory.PooledMemoryManager) memoryManager).getDetectedLeaksCount();
+    }
+}
@@ -54,6 +54,7 @@ public class NIOTransport extends JmxObject {
 
     private final AtomicLong bytesRead = new AtomicLong();
     private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong writeStallsNum = new AtomicLong();
     
     private volatile EventDate stateEvent;
     private volatile EventDate lastErrorEvent;
@@ -190,6 +191,11 @@ public class NIOTransport extends JmxObject {
         return bytesWritten.get();
     }
 
+    @ManagedAttribute(id="write-stalls-count")
+    public long getWriteStallsCount() {
+        return writeStallsNum.get();
+    }
+
     @ManagedAttribute(id="bound-addresses")
     public String getBoundAddresses() {
         return boundAddresses.toString();
@@ -389,5 +395,15 @@ public class NIOTransport extends JmxObject {
         @Override
         public void onIOEventDisableEvent(Connection connection, IOEvent ioEvent) {
         }
+
+        @Override
+        public void onReadSizePredictionEvent(Connection connection,
+                int predictedSize, int readSize) {
+        }
+
+        @Override
+        public void onWriteStallEvent(Connection connection, int queueSize) {
+            writeStallsNum.incrementAndGet();
+        }
     }
 }
@@ -44,6 +44,7 @@ public class ThreadPool extends JmxObject {
     private final AtomicInteger busyThreadsCount = new AtomicInteger();
     private final AtomicLong totalCompletedTasksCount = new AtomicLong();
     private final AtomicInteger totalTaskQueueOverflowCount = new AtomicInteger();
+    private final AtomicLong totalStolenTasksCount = new AtomicLong();
 
 
     // ------------------------------------------------------------ Constructors
@@ -184,6 +185,17 @@ public class ThreadPool extends JmxObject {
         return totalTaskQueueOverflowCount.get();
     }
 
+    /**
+     * @return the total number of tasks, which have been stolen by idle
+     *  worker threads from the task queues of busy worker threads.
+     * @since 2.4.5
+     */
+    @ManagedAttribute(id="thread-pool-total-stolen-tasks-count")
+    @Description("The total number of tasks stolen by idle worker threads from the task queues of busy worker threads (work-stealing thread pools only).")
+    public long getTotalStolenTasksCount() {
+        return totalStolenTasksCount.get();
+    }
+
     // ---------------------------------------------------------- Nested Classes
 
 
@@ -218,6 +230,12 @@ public class ThreadPool extends JmxObject {
         public void onTaskQueueOverflowEvent(AbstractThreadPool threadPool) {
             totalTaskQueueOverflowCount.incrementAndGet();
         }
+
+        @Override
+        public void onTaskStealEvent(AbstractThreadPool threadPool,
+                Runnable task, int queueSize) {
+            totalStolenTasksCount.incrementAndGet();
+        }
         
         private void decBusyThreadCount() {
             final int val = busyThreadsCount.decrementAndGet();